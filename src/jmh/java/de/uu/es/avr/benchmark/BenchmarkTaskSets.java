@@ -0,0 +1,127 @@
+package de.uu.es.avr.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+import de.uu.es.avr.AvrWCRTProblem;
+
+/**
+ * Generates synthetic task-set specifications of configurable size for the
+ * benchmarks. The tasks are released at equidistant angles; each task has the
+ * same number of execution modes, evenly splitting the rotation-speed range of
+ * the example specifications with decreasing WCETs.
+ *
+ * @author vrichthammer
+ *
+ */
+public final class BenchmarkTaskSets {
+
+	// rotation-speed range of the generated tasks
+	static final double MIN_OMEGA = 104.0;
+	static final double MAX_OMEGA = 523.0;
+
+	// physical constraints of the generated problems
+	static final double ACC_MAX = 100.0 * Math.PI;
+	static final double ACC_MIN = -100.0 * Math.PI;
+
+	private BenchmarkTaskSets() {
+	}
+
+	/**
+	 * Creates an {@link AvrWCRTProblem} with a generated task set.
+	 *
+	 * @param tasks
+	 *            the number of tasks
+	 * @param modes
+	 *            the number of execution modes per task
+	 * @return the AVR problem
+	 * @throws IOException
+	 *             if the specification cannot be written
+	 */
+	public static AvrWCRTProblem createProblem(int tasks, int modes) throws IOException {
+		File spec = write(tasks, modes);
+
+		try {
+			return new AvrWCRTProblem(spec.getAbsolutePath(), ACC_MIN, ACC_MAX);
+		} finally {
+			spec.delete();
+		}
+	}
+
+	/**
+	 * Writes a generated task-set specification to a temporary file.
+	 *
+	 * @param tasks
+	 *            the number of tasks
+	 * @param modes
+	 *            the number of execution modes per task
+	 * @return the specification file
+	 * @throws IOException
+	 *             if the specification cannot be written
+	 */
+	public static File write(int tasks, int modes) throws IOException {
+		assert tasks > 0 && modes > 0 : "task set must contain tasks with execution modes";
+
+		File file = File.createTempFile("avrTaskSet", ".xml");
+
+		try (PrintWriter out = new PrintWriter(file, "UTF-8")) {
+			out.println("<?xml version=\"1.0\"?>");
+			out.println("<taskset name=\"benchmark" + tasks + "x" + modes + "\">");
+
+			for (int i = 0; i < tasks; i++) {
+				// release angles in units of PI, strictly ordered
+				double phi = 2.0 * i / tasks;
+
+				out.println("\t<task id=\"task" + i + "\">");
+				out.println("\t\t<phi name=\"phi" + i + "\" type=\"DOUBLE\" value=\"" + phi + "\"/>");
+				out.println("\t\t<c id=\"c" + i + "\" type=\"STRING\" value=\"" + wcets(i, modes) + "\"/>");
+				out.println("\t\t<boundaries id=\"omegas" + i + "\" type=\"STRING\" value=\"" + boundaries(modes)
+						+ "\"/>");
+				out.println("\t</task>");
+			}
+			out.println("</taskset>");
+		}
+		return file;
+	}
+
+	/**
+	 * Returns the WCETs of a generated task, decreasing with rotation speed.
+	 *
+	 * @param task
+	 *            the index of the task
+	 * @param modes
+	 *            the number of execution modes
+	 * @return the WCETs separated by '|'
+	 */
+	private static String wcets(int task, int modes) {
+		StringBuilder result = new StringBuilder();
+
+		for (int k = 0; k < modes; k++) {
+			if (k > 0) {
+				result.append('|');
+			}
+			result.append(10 + (task % 5) + 2 * (modes - k));
+		}
+		return result.toString();
+	}
+
+	/**
+	 * Returns the rotation-speed boundaries of a generated task.
+	 *
+	 * @param modes
+	 *            the number of execution modes
+	 * @return the boundaries separated by '|'
+	 */
+	private static String boundaries(int modes) {
+		StringBuilder result = new StringBuilder();
+
+		for (int k = 0; k <= modes; k++) {
+			if (k > 0) {
+				result.append('|');
+			}
+			result.append(MIN_OMEGA + (MAX_OMEGA - MIN_OMEGA) * k / modes);
+		}
+		return result.toString();
+	}
+}
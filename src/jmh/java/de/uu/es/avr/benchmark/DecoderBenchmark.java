@@ -0,0 +1,129 @@
+package de.uu.es.avr.benchmark;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.opt4j.core.Genotype;
+import org.opt4j.core.Objectives;
+import org.opt4j.core.genotype.CompositeGenotype;
+import org.opt4j.core.problem.Creator;
+import org.opt4j.core.problem.Decoder;
+
+import de.uu.es.avr.AvrEvaluator;
+import de.uu.es.avr.AvrModule.AvrDec;
+import de.uu.es.avr.AvrWCRTProblem;
+import de.uu.es.avr.creatorDecoder.AvrCorrBoundDecoder;
+import de.uu.es.avr.creatorDecoder.AvrCorrMeanDecoder;
+import de.uu.es.avr.creatorDecoder.AvrCorrRandDecoder;
+import de.uu.es.avr.creatorDecoder.AvrDoubleCreator;
+import de.uu.es.avr.creatorDecoder.AvrFusedCreatorDecoder;
+import de.uu.es.avr.creatorDecoder.AvrInfDecoder;
+import de.uu.es.avr.creatorDecoder.AvrRelativeCreatorDecoder;
+import de.uu.es.avr.model.EventSequence;
+
+/**
+ * Benchmarks creating and decoding (and evaluating) a genotype with each
+ * {@link AvrDec} strategy, depending on the length of the event sequence and
+ * the size of the task set.
+ *
+ * @author vrichthammer
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DecoderBenchmark {
+
+	@Param({ "RELATIVE", "RELATIVE_FUSED", "CORR_RANDOM", "CORR_MEAN", "CORR_BOUNDARY", "INFEASIBLE" })
+	public AvrDec decoder;
+
+	@Param({ "8", "64", "512" })
+	public int n;
+
+	@Param({ "2", "8", "32" })
+	public int tasks;
+
+	@Param({ "16" })
+	public int modes;
+
+	protected Creator<CompositeGenotype<String, Genotype>> creator;
+	protected Decoder<CompositeGenotype<String, Genotype>, EventSequence> avrDecoder;
+	protected AvrEvaluator evaluator;
+
+	/**
+	 * Creates the problem as well as the creator and decoder of the selected
+	 * strategy (see {@link de.uu.es.avr.AvrModule#config()}).
+	 *
+	 * @throws IOException
+	 *             if the task set cannot be generated
+	 */
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		AvrWCRTProblem problem = BenchmarkTaskSets.createProblem(tasks, modes);
+		Random random = new Random(42);
+
+		evaluator = new AvrEvaluator(problem);
+
+		if (decoder == AvrDec.RELATIVE || decoder == AvrDec.RELATIVE_FUSED) {
+			AvrRelativeCreatorDecoder creatorDecoder = decoder == AvrDec.RELATIVE
+					? new AvrRelativeCreatorDecoder(problem, random, n)
+					: new AvrFusedCreatorDecoder(problem, random, n);
+			creator = creatorDecoder;
+			avrDecoder = creatorDecoder;
+			return;
+		}
+
+		creator = new AvrDoubleCreator(problem, random, n);
+
+		switch (decoder) {
+		case CORR_RANDOM:
+			avrDecoder = new AvrCorrRandDecoder(problem, random);
+			break;
+		case CORR_MEAN:
+			avrDecoder = new AvrCorrMeanDecoder(problem);
+			break;
+		case CORR_BOUNDARY:
+			avrDecoder = new AvrCorrBoundDecoder(problem);
+			break;
+		default:
+			avrDecoder = new AvrInfDecoder(problem);
+			break;
+		}
+	}
+
+	/**
+	 * Creates a random genotype and decodes it into an event sequence.
+	 *
+	 * @return the event sequence
+	 */
+	@Benchmark
+	public EventSequence createAndDecode() {
+		return avrDecoder.decode(creator.create());
+	}
+
+	/**
+	 * Creates a random genotype, decodes and evaluates it.
+	 *
+	 * @return the objectives
+	 */
+	@Benchmark
+	public Objectives createDecodeAndEvaluate() {
+		return evaluator.evaluate(avrDecoder.decode(creator.create()));
+	}
+}
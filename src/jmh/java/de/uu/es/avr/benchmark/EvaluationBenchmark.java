@@ -0,0 +1,129 @@
+package de.uu.es.avr.benchmark;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.opt4j.core.Objectives;
+
+import de.uu.es.avr.AvrEvaluator;
+import de.uu.es.avr.AvrEvaluator.Delta;
+import de.uu.es.avr.AvrUtils;
+import de.uu.es.avr.AvrWCRTProblem;
+import de.uu.es.avr.creatorDecoder.AvrRelativeCreatorDecoder;
+import de.uu.es.avr.model.EventSequence;
+
+/**
+ * Benchmarks the feasibility check {@link AvrUtils#isValid}, the
+ * {@link AvrEvaluator} and its delta evaluation of single-event changes on
+ * (feasible) decoded event sequences, depending on the
+ * length of the event sequence, the size of the task set, and the number of
+ * execution modes per task.
+ *
+ * @author vrichthammer
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EvaluationBenchmark {
+
+	// number of pre-decoded event sequences that are cycled through
+	private static final int POOL_SIZE = 64;
+
+	@Param({ "8", "64", "512" })
+	public int n;
+
+	@Param({ "2", "8", "32" })
+	public int tasks;
+
+	@Param({ "4", "16", "30" })
+	public int modes;
+
+	protected AvrWCRTProblem problem;
+	protected AvrEvaluator evaluator;
+
+	protected EventSequence[] sequences;
+	protected int next;
+
+	/**
+	 * Creates the problem and decodes (and evaluates) a pool of random event
+	 * sequences with the {@link AvrRelativeCreatorDecoder}.
+	 *
+	 * @throws IOException
+	 *             if the task set cannot be generated
+	 */
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		problem = BenchmarkTaskSets.createProblem(tasks, modes);
+		evaluator = new AvrEvaluator(problem);
+
+		AvrRelativeCreatorDecoder creatorDecoder = new AvrRelativeCreatorDecoder(problem, new Random(42), n);
+
+		sequences = new EventSequence[POOL_SIZE];
+		for (int i = 0; i < POOL_SIZE; i++) {
+			sequences[i] = creatorDecoder.decode(creatorDecoder.create());
+			evaluator.evaluate(sequences[i]);
+		}
+	}
+
+	/**
+	 * Returns the next event sequence of the pool.
+	 *
+	 * @return the event sequence
+	 */
+	private EventSequence nextSequence() {
+		EventSequence sequence = sequences[next];
+		next = (next + 1) % POOL_SIZE;
+		return sequence;
+	}
+
+	/**
+	 * Checks the feasibility of an event sequence.
+	 *
+	 * @return the feasibility
+	 */
+	@Benchmark
+	public boolean isValid() {
+		return AvrUtils.isValid(nextSequence(), problem);
+	}
+
+	/**
+	 * Evaluates an event sequence.
+	 *
+	 * @return the objectives
+	 */
+	@Benchmark
+	public Objectives evaluate() {
+		return evaluator.evaluate(nextSequence());
+	}
+
+	/**
+	 * Evaluates changing the rotation speed of the middle event of an event
+	 * sequence to the one of its predecessor (without changing the sequence).
+	 *
+	 * @return the objectives and feasibility after the change
+	 */
+	@Benchmark
+	public Delta delta() {
+		EventSequence sequence = nextSequence();
+		int index = n / 2;
+
+		return evaluator.delta(sequence, index, sequence.getOmega(index - 1));
+	}
+}
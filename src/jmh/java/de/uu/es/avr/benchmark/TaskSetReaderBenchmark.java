@@ -0,0 +1,96 @@
+package de.uu.es.avr.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.uu.es.avr.io.BinaryTaskSetReader;
+import de.uu.es.avr.io.TaskSetConverter;
+import de.uu.es.avr.io.TaskSetReader;
+import de.uu.es.avr.model.AvrTask;
+
+/**
+ * Benchmarks reading a task-set specification (xml and binary), depending on
+ * the size of the task set.
+ *
+ * @author vrichthammer
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskSetReaderBenchmark {
+
+	@Param({ "1000", "100000" })
+	public int tasks;
+
+	@Param({ "16" })
+	public int modes;
+
+	protected File spec;
+	protected File binary;
+	protected TaskSetReader reader;
+	protected BinaryTaskSetReader binaryReader;
+
+	/**
+	 * Generates the task-set specification and its binary task set.
+	 *
+	 * @throws IOException
+	 *             if the task set cannot be generated
+	 */
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		spec = BenchmarkTaskSets.write(tasks, modes);
+		binary = File.createTempFile("avrTaskSet", BinaryTaskSetReader.EXTENSION);
+		new TaskSetConverter().convert(spec, binary);
+
+		reader = new TaskSetReader();
+		binaryReader = new BinaryTaskSetReader();
+	}
+
+	/**
+	 * Deletes the task-set specification and its binary task set.
+	 */
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		spec.delete();
+		binary.delete();
+	}
+
+	/**
+	 * Reads the task set from the xml specification.
+	 *
+	 * @return the tasks
+	 */
+	@Benchmark
+	public AvrTask[] read() {
+		return reader.readTasks(spec);
+	}
+
+	/**
+	 * Reads the task set from the binary task set.
+	 *
+	 * @return the tasks
+	 */
+	@Benchmark
+	public AvrTask[] readBinary() {
+		return binaryReader.readTasks(binary);
+	}
+}
@@ -0,0 +1,391 @@
+package de.uu.es.avr;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.opt4j.core.Genotype;
+import org.opt4j.core.genotype.CompositeGenotype;
+import org.opt4j.core.genotype.DoubleGenotype;
+import org.opt4j.core.genotype.IntegerGenotype;
+import org.opt4j.core.optimizer.Optimizer;
+import org.opt4j.core.optimizer.OptimizerStateListener;
+import org.opt4j.core.start.Constant;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+import de.uu.es.avr.metrics.AvrMetrics;
+import de.uu.es.avr.model.EventSequence;
+import de.uu.es.avr.model.TaskTable;
+
+/**
+ * The {@link AvrEvaluationCache} is a bounded cache of decoded (and evaluated)
+ * {@link EventSequence}s, keyed on the canonical form of the genotype (
+ * {@link Key}). The least recently used entries are evicted first. The cache
+ * is split into independently locked segments, so that concurrent decoding
+ * threads rarely contend. The hits and misses of the look-ups are counted per
+ * cache and recorded in the {@link AvrMetrics}.
+ *
+ * @author vrichthammer
+ *
+ */
+@Singleton
+public class AvrEvaluationCache implements OptimizerStateListener {
+
+	// the segments of the cache, selected by the hash of the key
+	protected final Segment[] segments;
+
+	// the maximal number of entries
+	protected final int size;
+
+	// whether hit/miss statistics are reported at the end of the optimization
+	protected final boolean statistics;
+
+	protected final AtomicLong hits = new AtomicLong();
+	protected final AtomicLong misses = new AtomicLong();
+
+	/**
+	 * Creates the {@link AvrEvaluationCache}.
+	 *
+	 * @param size
+	 *            the maximal number of cached entries
+	 * @param statistics
+	 *            whether hit/miss statistics are reported (on the error
+	 *            stream) at the end of the optimization
+	 */
+	@Inject
+	public AvrEvaluationCache(@Constant(namespace = AvrWCRTProblem.class, value = "cacheSize") int size,
+			@Constant(namespace = AvrWCRTProblem.class, value = "cacheStatistics") boolean statistics) {
+
+		assert size > 0 : "AvrEvaluationCache: size must be positive";
+
+		this.size = size;
+		this.statistics = statistics;
+
+		// one segment per processor, each holding at least 64 entries
+		int count = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), size / 64));
+
+		this.segments = new Segment[count];
+		for (int i = 0; i < count; i++) {
+			segments[i] = new Segment((size + count - 1) / count);
+		}
+	}
+
+	/**
+	 * Returns the cached entry for the given key, or {@code null}.
+	 *
+	 * @param key
+	 *            the canonical form of the genotype
+	 * @return the cached entry or {@code null}
+	 */
+	public Entry get(Key key) {
+		Entry entry = segment(key).get(key);
+
+		if (entry == null) {
+			misses.incrementAndGet();
+		} else {
+			hits.incrementAndGet();
+		}
+
+		if (AvrMetrics.ENABLED) {
+			AvrMetrics.get().cached(entry != null);
+		}
+		return entry;
+	}
+
+	/**
+	 * Caches an entry.
+	 *
+	 * @param key
+	 *            the canonical form of the genotype
+	 * @param entry
+	 *            the entry
+	 */
+	public void put(Key key, Entry entry) {
+		segment(key).put(key, entry);
+	}
+
+	/**
+	 * Returns the segment of a key.
+	 *
+	 * @param key
+	 *            the key
+	 * @return the segment
+	 */
+	protected Segment segment(Key key) {
+		int hash = key.hashCode();
+		hash ^= (hash >>> 16);
+
+		return segments[(hash & Integer.MAX_VALUE) % segments.length];
+	}
+
+	/**
+	 * Returns the number of cached entries.
+	 *
+	 * @return the number of entries
+	 */
+	public int size() {
+		int result = 0;
+
+		for (Segment segment : segments) {
+			result += segment.size();
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the number of cache hits.
+	 *
+	 * @return the number of hits
+	 */
+	public long getHits() {
+		return hits.get();
+	}
+
+	/**
+	 * Returns the number of cache misses.
+	 *
+	 * @return the number of misses
+	 */
+	public long getMisses() {
+		return misses.get();
+	}
+
+	/**
+	 * Returns the ratio of cache hits to look-ups.
+	 *
+	 * @return the hit rate
+	 */
+	public double getHitRate() {
+		long hits = getHits();
+		long lookups = hits + getMisses();
+
+		return lookups == 0 ? 0 : (double) hits / lookups;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.opt4j.core.optimizer.OptimizerStateListener#optimizationStarted(
+	 * org.opt4j.core.optimizer.Optimizer)
+	 */
+	@Override
+	public void optimizationStarted(Optimizer optimizer) {
+		// nothing to do
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.opt4j.core.optimizer.OptimizerStateListener#optimizationStopped(
+	 * org.opt4j.core.optimizer.Optimizer)
+	 */
+	@Override
+	public void optimizationStopped(Optimizer optimizer) {
+		if (statistics) {
+			System.err.println("AvrEvaluationCache: " + size() + "/" + size + " entries, " + getHits() + " hits, "
+					+ getMisses() + " misses, hit rate " + getHitRate());
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return "AvrEvaluationCache [size=" + size() + "/" + size + ", hits=" + getHits() + ", misses="
+				+ getMisses() + ", hitRate=" + getHitRate() + "]";
+	}
+
+	/**
+	 * A segment of the cache: a bounded map in access order, evicting the
+	 * least recently used entry.
+	 *
+	 * @author vrichthammer
+	 *
+	 */
+	protected static class Segment {
+
+		protected final Map<Key, Entry> map;
+
+		/**
+		 * Creates a segment.
+		 *
+		 * @param capacity
+		 *            the maximal number of entries
+		 */
+		protected Segment(final int capacity) {
+			this.map = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+					return size() > capacity;
+				}
+			};
+		}
+
+		protected synchronized Entry get(Key key) {
+			return map.get(key);
+		}
+
+		protected synchronized void put(Key key, Entry entry) {
+			map.put(key, entry);
+		}
+
+		protected synchronized int size() {
+			return map.size();
+		}
+	}
+
+	/**
+	 * A cached decoding result: the {@link EventSequence}, the encoded
+	 * rotation speed of the first event, and the genes of the (possibly
+	 * repaired) genotype.
+	 *
+	 * @author vrichthammer
+	 *
+	 */
+	public static class Entry {
+
+		protected final EventSequence eventSequence;
+		protected final double omega0;
+		protected final double[] genes;
+
+		/**
+		 * Creates a cache entry.
+		 *
+		 * @param eventSequence
+		 *            the decoded event sequence
+		 * @param omega0
+		 *            the encoded rotation speed of the first event after
+		 *            decoding
+		 * @param genes
+		 *            the genes of the genotype after decoding
+		 */
+		public Entry(EventSequence eventSequence, double omega0, double[] genes) {
+			this.eventSequence = eventSequence;
+			this.omega0 = omega0;
+			this.genes = genes;
+		}
+
+		/**
+		 * Returns the decoded event sequence.
+		 *
+		 * @return the event sequence
+		 */
+		public EventSequence getEventSequence() {
+			return eventSequence;
+		}
+
+		/**
+		 * Returns the encoded rotation speed of the first event after
+		 * decoding.
+		 *
+		 * @return the encoded rotation speed
+		 */
+		public double getOmega0() {
+			return omega0;
+		}
+
+		/**
+		 * Returns the genes of the genotype after decoding.
+		 *
+		 * @return the genes
+		 */
+		public double[] getGenes() {
+			return genes;
+		}
+	}
+
+	/**
+	 * The canonical form of a genotype of the {@link AvrWCRTProblem}: the
+	 * first task, the index of the rotation speed of the first event (as
+	 * computed by the decoders, see {@link TaskTable#getOmega0Index}), and the
+	 * encoded rotation speeds of the following events (absolute or relative).
+	 * Genotypes that differ only in the encoding of the same first rotation
+	 * speed have the same key.
+	 *
+	 * @author vrichthammer
+	 *
+	 */
+	public static final class Key {
+
+		protected final int task0;
+		protected final int omega0;
+		protected final double[] genes;
+		protected final int hash;
+
+		/**
+		 * Creates the key of a genotype.
+		 *
+		 * @param genotype
+		 *            the genotype
+		 * @param table
+		 *            the task table of the problem
+		 */
+		public Key(CompositeGenotype<String, Genotype> genotype, TaskTable table) {
+			this.task0 = ((IntegerGenotype) genotype.get(AvrUtils.TASK_0)).get(0);
+			this.omega0 = table.getOmega0Index(task0, ((DoubleGenotype) genotype.get(AvrUtils.OMEGA_0)).get(0));
+			this.genes = getGenes(genotype);
+
+			int result = 31 * task0 + omega0;
+			this.hash = 31 * result + Arrays.hashCode(genes);
+		}
+
+		/**
+		 * Returns the encoded rotation speeds of the events following the first
+		 * one (absolute or relative encoding).
+		 *
+		 * @param genotype
+		 *            the genotype
+		 * @return the genes
+		 */
+		public static double[] getGenes(CompositeGenotype<String, Genotype> genotype) {
+			DoubleGenotype omegas = genotype.get(AvrUtils.OMEGAS);
+
+			if (omegas == null) {
+				omegas = genotype.get(AvrUtils.RELATIVE);
+			}
+
+			double[] genes = new double[omegas.size()];
+			for (int i = 0; i < genes.length; i++) {
+				genes[i] = omegas.get(i);
+			}
+			return genes;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see java.lang.Object#hashCode()
+		 */
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see java.lang.Object#equals(java.lang.Object)
+		 */
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+
+			return hash == other.hash && task0 == other.task0 && omega0 == other.omega0
+					&& Arrays.equals(genes, other.genes);
+		}
+	}
+}
@@ -9,8 +9,12 @@ import org.opt4j.core.problem.Evaluator;
 
 import com.google.inject.Inject;
 
-import de.uu.es.avr.model.AvrTask;
+import de.uu.es.avr.metrics.AvrEvents;
+import de.uu.es.avr.metrics.AvrMetrics;
+import de.uu.es.avr.metrics.EvaluationEvent;
+import de.uu.es.avr.model.C;
 import de.uu.es.avr.model.EventSequence;
+import de.uu.es.avr.model.TaskTable;
 
 /**
  * The {@link AvrEvaluator} assesses the quality of an {@link EventSequence},
@@ -57,6 +61,33 @@ public class AvrEvaluator implements Evaluator<EventSequence> {
 	@Override
 	public Objectives evaluate(EventSequence events) {
 
+		if (!AvrMetrics.ENABLED && !AvrEvents.ENABLED) {
+			return evaluateObjectives(events);
+		}
+
+		EvaluationEvent event = new EvaluationEvent();
+		event.begin();
+
+		long start = System.nanoTime();
+		Objectives obj = evaluateObjectives(events);
+
+		if (AvrMetrics.ENABLED) {
+			AvrMetrics.get().evaluated(System.nanoTime() - start);
+		}
+		event.commit(events);
+
+		return obj;
+	}
+
+	/**
+	 * Evaluates an event sequence (see {@link #evaluate(EventSequence)}).
+	 *
+	 * @param events
+	 *            the event sequence
+	 * @return the objectives
+	 */
+	protected Objectives evaluateObjectives(EventSequence events) {
+
 		Objectives obj = new Objectives();
 
 		if (!events.isFeasible()) {
@@ -66,10 +97,16 @@ public class AvrEvaluator implements Evaluator<EventSequence> {
 			return obj;
 		}
 
-		double muVal = mu(events);
+		// objectives accumulated during decoding (or stored by a previous
+		// evaluation of a cached sequence) need not be recalculated
+		if (!events.hasObjectives()) {
+			events.setObjectives(mu(events), sum_c(events));
+		}
+
+		double muVal = events.getMu();
 		obj.add(mu, muVal);
 
-		double sum_cVal = sum_c(events);
+		double sum_cVal = events.getSumC();
 		obj.add(sum_c, sum_cVal);
 
 		return obj;
@@ -87,34 +124,58 @@ public class AvrEvaluator implements Evaluator<EventSequence> {
 
 		double sum = 0;
 
-		for (int i = 0; i <= events.size() - 2; i++) {
+		if (events.size() <= 1) {
+			return sum;
+		}
+
+		TaskTable table = events.getTaskTable();
+		double[] omegas = events.getOmegas();
+		int task = events.getTaskIndex(0);
 
-			AvrTask event1 = events.get(i);
-			AvrTask event2 = events.get(i + 1);
+		for (int i = 0; i <= omegas.length - 2; i++) {
 
-			double deltaPhi = AvrUtils.deltaPhi(event1, event2);
+			double deltaPhi = table.getDeltaPhi(task);
 
-			sum += mu(deltaPhi, event1, event2);
+			sum += mu(deltaPhi, omegas[i], omegas[i + 1]);
+			task = table.next(task);
 		}
 
 		return sum;
 	}
 
 	/**
-	 * Calculates the minimal time between two consecutive events.
+	 * Calculates the minimal time between two consecutive events, given their
+	 * rotation speeds.
 	 *
 	 * @param deltaPhi
 	 *            the rotational angle between the events
-	 * @param event1
-	 *            the first event
-	 * @param event2
-	 *            the subsequent event
+	 * @param omega1
+	 *            the rotation speed at the first event
+	 * @param omega2
+	 *            the rotation speed at the subsequent event
 	 * @return the minimal time
 	 */
-	protected double mu(double deltaPhi, AvrTask event1, AvrTask event2) {
+	protected double mu(double deltaPhi, double omega1, double omega2) {
+		return mu(deltaPhi, omega1, omega2, accMin, accMax);
+	}
 
-		double omega1 = event1.getOmega();
-		double omega2 = event2.getOmega();
+	/**
+	 * Calculates the minimal time between two consecutive events, given their
+	 * rotation speeds and the physical constraints of the system.
+	 *
+	 * @param deltaPhi
+	 *            the rotational angle between the events
+	 * @param omega1
+	 *            the rotation speed at the first event
+	 * @param omega2
+	 *            the rotation speed at the subsequent event
+	 * @param accMin
+	 *            the minimal acceleration
+	 * @param accMax
+	 *            the maximal acceleration
+	 * @return the minimal time
+	 */
+	public static double mu(double deltaPhi, double omega1, double omega2, double accMin, double accMax) {
 
 		double nom = 2 * accMax * accMin * deltaPhi - accMax * omega2 * omega2 + accMin * omega1 * omega1;
 		double denom = (accMin - accMax);
@@ -131,7 +192,7 @@ public class AvrEvaluator implements Evaluator<EventSequence> {
 
 	/**
 	 * Calculates the overall worst case execution time (WCET) of an event
-	 * sequence.
+	 * sequence from the execution modes recorded during decoding.
 	 *
 	 * @param events
 	 *            the event sequence
@@ -141,11 +202,177 @@ public class AvrEvaluator implements Evaluator<EventSequence> {
 
 		int sum = 0;
 
-		for (AvrTask task : events) {
-			double omega = task.getOmega();
-			double c = task.getCfunction().getC(omega);
+		if (events.isEmpty()) {
+			return sum;
+		}
+
+		TaskTable table = events.getTaskTable();
+		double[] omegas = events.getOmegas();
+		int[] modes = events.getModes();
+		int task = events.getTaskIndex(0);
+
+		for (int i = 0; i < modes.length; i++) {
+			// rotation speeds out of range have no mode, getC() reports them
+			double c = modes[i] == C.NO_MODE ? table.getC(task, omegas[i]) : table.getWcet(task, modes[i]);
 			sum += c;
+			task = table.next(task);
 		}
 		return sum;
 	}
+
+	/**
+	 * Calculates the objectives and the feasibility of an evaluated, feasible
+	 * event sequence after changing the rotation speed of a single event,
+	 * without changing the sequence. Only the times between the event and its
+	 * neighbours and the WCET of the event are recalculated, so that the cost
+	 * is constant (unless the WCETs are not integral, see
+	 * {@link TaskTable#hasIntegralWcets()}).
+	 *
+	 * @param events
+	 *            the evaluated event sequence
+	 * @param index
+	 *            the position of the event
+	 * @param omega
+	 *            the new rotation speed of the event
+	 * @return the objectives and feasibility after the change
+	 */
+	public Delta delta(EventSequence events, int index, double omega) {
+
+		assert events.isFeasible() && events.hasObjectives() : "AvrEvaluator: event sequence not evaluated";
+
+		TaskTable table = events.getTaskTable();
+		double[] omegas = events.getOmegas();
+		int last = omegas.length - 1;
+
+		int task = events.getTaskIndex(index);
+		int prev = index > 0 ? events.getTaskIndex(index - 1) : -1;
+
+		// i) feasibility of the rotation speed and of the transitions from the
+		// preceding and to the subsequent event
+		int mode = table.findMode(task, omega);
+
+		boolean feasible = mode != C.NO_MODE;
+		feasible = feasible && (index == 0 || AvrUtils.isValid(table, prev, omegas[index - 1], omega, avrProblem));
+		feasible = feasible && (index == last || AvrUtils.isValid(table, task, omega, omegas[index + 1], avrProblem));
+
+		if (!feasible) {
+			return new Delta(false, Double.NaN, 0);
+		}
+
+		// ii) replaces the times between the event and its neighbours
+		double muVal = events.getMu();
+
+		if (index > 0) {
+			double deltaPhi = table.getDeltaPhi(prev);
+			muVal += mu(deltaPhi, omegas[index - 1], omega) - mu(deltaPhi, omegas[index - 1], omegas[index]);
+		}
+		if (index < last) {
+			double deltaPhi = table.getDeltaPhi(task);
+			muVal += mu(deltaPhi, omega, omegas[index + 1]) - mu(deltaPhi, omegas[index], omegas[index + 1]);
+		}
+
+		// iii) replaces the WCET of the event (integral WCETs are summed
+		// exactly, otherwise the accumulation of sum_c is repeated)
+		int sumCVal;
+
+		if (table.hasIntegralWcets()) {
+			int oldMode = events.getMode(index);
+			double oldC = oldMode == C.NO_MODE ? table.getC(task, omegas[index]) : table.getWcet(task, oldMode);
+
+			sumCVal = events.getSumC() - (int) oldC + (int) table.getWcet(task, mode);
+		} else {
+			sumCVal = 0;
+			int curr = events.getTaskIndex(0);
+
+			for (int i = 0; i <= last; i++) {
+				sumCVal += i == index ? table.getWcet(task, mode) : table.getC(curr, omegas[i]);
+				curr = table.next(curr);
+			}
+		}
+		return new Delta(true, muVal, sumCVal);
+	}
+
+	/**
+	 * Applies a feasible change of the rotation speed of a single event to an
+	 * evaluated event sequence, together with the objectives calculated by
+	 * {@link #delta(EventSequence, int, double)}.
+	 *
+	 * @param events
+	 *            the evaluated event sequence
+	 * @param index
+	 *            the position of the event
+	 * @param omega
+	 *            the new rotation speed of the event
+	 * @param delta
+	 *            the objectives after the change
+	 */
+	public void apply(EventSequence events, int index, double omega, Delta delta) {
+
+		assert delta.isFeasible() : "AvrEvaluator: infeasible change";
+
+		events.setOmega(index, omega);
+		events.setObjectives(delta.getMu(), delta.getSumC());
+
+		// the decoding state no longer matches the rotation speeds
+		events.setCheckpoint(null);
+	}
+
+	/**
+	 * The objectives and the feasibility of an event sequence after a change
+	 * of a single rotation speed (see
+	 * {@link AvrEvaluator#delta(EventSequence, int, double)}).
+	 *
+	 * @author vrichthammer
+	 *
+	 */
+	public static class Delta {
+
+		protected final boolean feasible;
+		protected final double mu;
+		protected final int sumC;
+
+		/**
+		 * Creates a {@link Delta}.
+		 *
+		 * @param feasible
+		 *            the feasibility after the change
+		 * @param mu
+		 *            the time of the event sequence after the change
+		 * @param sumC
+		 *            the overall WCET after the change
+		 */
+		public Delta(boolean feasible, double mu, int sumC) {
+			this.feasible = feasible;
+			this.mu = mu;
+			this.sumC = sumC;
+		}
+
+		/**
+		 * Returns whether the event sequence is feasible after the change.
+		 *
+		 * @return the feasibility
+		 */
+		public boolean isFeasible() {
+			return feasible;
+		}
+
+		/**
+		 * Returns the time of the event sequence after the change (NaN if
+		 * infeasible).
+		 *
+		 * @return the time of the event sequence
+		 */
+		public double getMu() {
+			return mu;
+		}
+
+		/**
+		 * Returns the overall WCET of the event sequence after the change.
+		 *
+		 * @return the overall WCET
+		 */
+		public int getSumC() {
+			return sumC;
+		}
+	}
 }
@@ -0,0 +1,146 @@
+package de.uu.es.avr;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.opt4j.core.Genotype;
+
+import com.google.inject.Singleton;
+
+import de.uu.es.avr.creatorDecoder.AvrIncrementalDecoder;
+import de.uu.es.avr.creatorDecoder.AvrLineageDecoder;
+import de.uu.es.avr.model.EventSequence;
+import de.uu.es.avr.operator.AvrCrossover;
+import de.uu.es.avr.operator.AvrMutate;
+
+/**
+ * The {@link AvrLineage} records the parent of each offspring genotype, so
+ * that the offspring can be decoded incrementally (see
+ * {@link AvrIncrementalDecoder}): the {@link AvrLineageDecoder} records the
+ * decoded {@link EventSequence} of each genotype, the {@link AvrCrossover}
+ * derives the children from their parents and the {@link AvrMutate} records
+ * the first gene it changed.
+ *
+ * Genotypes are held weakly; nothing is recorded for genotypes of parents that
+ * were not decoded by the {@link AvrLineageDecoder} (e.g. if it is not used).
+ *
+ * @author vrichthammer
+ *
+ */
+@Singleton
+public class AvrLineage {
+
+	/**
+	 * The {@link Parent} is the decoded parent of an offspring genotype and the
+	 * index of the first gene of the rotation speeds in which the offspring
+	 * differs from it.
+	 *
+	 * @author vrichthammer
+	 *
+	 */
+	public static class Parent {
+
+		protected final EventSequence eventSequence;
+		protected final int index;
+
+		/**
+		 * Creates a {@link Parent}.
+		 *
+		 * @param eventSequence
+		 *            the decoded parent
+		 * @param index
+		 *            the index of the first changed gene
+		 */
+		public Parent(EventSequence eventSequence, int index) {
+			this.eventSequence = eventSequence;
+			this.index = index;
+		}
+
+		/**
+		 * Returns the decoded parent.
+		 *
+		 * @return the event sequence
+		 */
+		public EventSequence getEventSequence() {
+			return eventSequence;
+		}
+
+		/**
+		 * Returns the index of the first changed gene of the rotation speeds.
+		 *
+		 * @return the index
+		 */
+		public int getIndex() {
+			return index;
+		}
+	}
+
+	// the decoded event sequences of the genotypes
+	protected final Map<Genotype, EventSequence> decoded = Collections
+			.synchronizedMap(new WeakHashMap<Genotype, EventSequence>());
+
+	// the parents of the offspring genotypes not decoded yet
+	protected final Map<Genotype, Parent> parents = Collections.synchronizedMap(new WeakHashMap<Genotype, Parent>());
+
+	/**
+	 * Records the decoded event sequence of a genotype.
+	 *
+	 * @param genotype
+	 *            the genotype
+	 * @param eventSequence
+	 *            the event sequence
+	 */
+	public void setDecoded(Genotype genotype, EventSequence eventSequence) {
+		decoded.put(genotype, eventSequence);
+	}
+
+	/**
+	 * Records a child derived from a parent, equal to it in the genes of the
+	 * rotation speeds before {@code index} and in the first event.
+	 *
+	 * @param parent
+	 *            the genotype of the parent
+	 * @param child
+	 *            the genotype of the child
+	 * @param index
+	 *            the index of the first gene of the rotation speeds differing
+	 *            from the parent
+	 */
+	public void derive(Genotype parent, Genotype child, int index) {
+		EventSequence eventSequence = decoded.get(parent);
+
+		if (eventSequence != null) {
+			parents.put(child, new Parent(eventSequence, index));
+		}
+	}
+
+	/**
+	 * Records a change of a child, e.g. by a mutation.
+	 *
+	 * @param child
+	 *            the genotype of the child
+	 * @param index
+	 *            the index of the first changed gene of the rotation speeds
+	 */
+	public void changed(Genotype child, int index) {
+		synchronized (parents) {
+			Parent parent = parents.get(child);
+
+			if (parent != null && index < parent.getIndex()) {
+				parents.put(child, new Parent(parent.getEventSequence(), index));
+			}
+		}
+	}
+
+	/**
+	 * Returns and removes the parent of a child.
+	 *
+	 * @param child
+	 *            the genotype of the child
+	 * @return the parent (null if unknown)
+	 */
+	public Parent remove(Genotype child) {
+		return parents.remove(child);
+	}
+}
@@ -0,0 +1,427 @@
+package de.uu.es.avr;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.opt4j.core.Genotype;
+import org.opt4j.core.Individual;
+import org.opt4j.core.IndividualFactory;
+import org.opt4j.core.genotype.CompositeGenotype;
+import org.opt4j.core.genotype.DoubleGenotype;
+import org.opt4j.core.genotype.IntegerGenotype;
+import org.opt4j.core.optimizer.Archive;
+import org.opt4j.core.optimizer.Optimizer;
+import org.opt4j.core.optimizer.OptimizerIterationListener;
+import org.opt4j.core.optimizer.OptimizerStateListener;
+import org.opt4j.core.optimizer.Population;
+import org.opt4j.core.start.Constant;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+import de.uu.es.avr.AvrEvaluator.Delta;
+import de.uu.es.avr.AvrUtils.DoubleRange;
+import de.uu.es.avr.model.C;
+import de.uu.es.avr.model.Envelope;
+import de.uu.es.avr.model.EventSequence;
+import de.uu.es.avr.model.TaskTable;
+
+/**
+ * The {@link AvrLocalSearch} refines the individuals of the population after
+ * each iteration of the optimizer by hill climbing over single-event changes of
+ * the rotation speed (memetic optimization). The rotation speed of an event is
+ * moved to the boundaries of its execution mode (see {@link C#getBoundaries()}
+ * ): to the fastest rotation speed of the mode, or across the boundary into the
+ * adjacent faster or slower mode. Such small changes are found by the
+ * evolutionary operators only by chance.
+ *
+ * Changes are evaluated in constant time (see
+ * {@link AvrEvaluator#delta(EventSequence, int, double)}) and accepted if they
+ * increase the overall WCET, or keep it and decrease the time of the event
+ * sequence. Improved rotation speeds are written back into the genotype
+ * (absolute or relative encoding), the rotation speed of the first event is
+ * kept.
+ *
+ * Individuals are refined in parallel, within a time budget per iteration. As
+ * the archive is updated before the iteration listeners, a refined individual
+ * is a new individual (with a copy of the genotype) that replaces the original
+ * in the population and is added to the archive; the archived original keeps
+ * its objectives.
+ *
+ * @author vrichthammer
+ *
+ */
+@Singleton
+public class AvrLocalSearch implements OptimizerIterationListener, OptimizerStateListener {
+
+	protected final Population population;
+	protected final Archive archive;
+	protected final IndividualFactory individualFactory;
+	protected final AvrWCRTProblem avrProblem;
+	protected final AvrEvaluator evaluator;
+
+	// the number of threads and the time budget per iteration in milliseconds
+	protected final int threads;
+	protected final int budget;
+
+	// the threads refining individuals (during the optimization)
+	protected ExecutorService executor = null;
+
+	/**
+	 * Creates the {@link AvrLocalSearch}.
+	 *
+	 * @param population
+	 *            the population
+	 * @param archive
+	 *            the archive
+	 * @param individualFactory
+	 *            the individual factory
+	 * @param avrProblem
+	 *            the AVR problem
+	 * @param evaluator
+	 *            the evaluator
+	 * @param threads
+	 *            the number of threads refining individuals in parallel
+	 * @param budget
+	 *            the time budget per iteration in milliseconds
+	 */
+	@Inject
+	public AvrLocalSearch(Population population, Archive archive, IndividualFactory individualFactory,
+			AvrWCRTProblem avrProblem, AvrEvaluator evaluator,
+			@Constant(namespace = AvrWCRTProblem.class, value = "threads") int threads,
+			@Constant(namespace = AvrWCRTProblem.class, value = "localSearchBudget") int budget) {
+
+		assert threads > 0 : "AvrLocalSearch: number of threads must be positive";
+		assert budget > 0 : "AvrLocalSearch: time budget must be positive";
+
+		this.population = population;
+		this.archive = archive;
+		this.individualFactory = individualFactory;
+		this.avrProblem = avrProblem;
+		this.evaluator = evaluator;
+		this.threads = threads;
+		this.budget = budget;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * org.opt4j.core.optimizer.OptimizerIterationListener#iterationComplete(
+	 * int)
+	 */
+	@Override
+	public void iterationComplete(int iteration) {
+
+		assert executor != null : "AvrLocalSearch: optimization not started";
+
+		// i) all evaluated, feasible individuals
+		List<Individual> individuals = new ArrayList<Individual>();
+		List<Callable<Individual>> tasks = new ArrayList<Callable<Individual>>();
+		final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budget);
+
+		for (final Individual individual : population) {
+			if (individual.isEvaluated() && individual.getPhenotype() instanceof EventSequence
+					&& ((EventSequence) individual.getPhenotype()).isFeasible()) {
+
+				individuals.add(individual);
+				tasks.add(new Callable<Individual>() {
+					@Override
+					public Individual call() throws Exception {
+						return refine(individual, deadline);
+					}
+				});
+			}
+		}
+
+		// ii) refines them in parallel (each stops at the deadline)
+		Set<Individual> refined = new HashSet<Individual>();
+
+		try {
+			List<Future<Individual>> futures = executor.invokeAll(tasks);
+
+			for (int i = 0; i < futures.size(); i++) {
+				Individual individual = futures.get(i).get();
+
+				// iii) replaces the original in the population
+				if (individual != null) {
+					population.remove(individuals.get(i));
+					population.add(individual);
+					refined.add(individual);
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			throw new RuntimeException(e.getCause());
+		}
+
+		// iv) adds the refined individuals to the archive
+		if (!refined.isEmpty()) {
+			archive.update(refined);
+		}
+	}
+
+	/**
+	 * Refines an individual. The individual itself is not changed (it may be
+	 * archived).
+	 *
+	 * @param individual
+	 *            the individual
+	 * @param deadline
+	 *            the deadline (see {@link System#nanoTime()})
+	 * @return the refined individual (with a copy of the genotype), or
+	 *         {@code null} if the individual was not improved
+	 */
+	@SuppressWarnings("unchecked")
+	protected Individual refine(Individual individual, long deadline) {
+		CompositeGenotype<String, Genotype> genotype = copy((CompositeGenotype<String, Genotype>) individual
+				.getGenotype());
+		EventSequence events = (EventSequence) individual.getPhenotype();
+
+		EventSequence improved = improve(genotype, events, deadline);
+
+		if (improved == null) {
+			return null;
+		}
+
+		Individual result = individualFactory.create(genotype);
+		result.setPhenotype(improved);
+		result.setObjectives(evaluator.evaluate(improved));
+
+		return result;
+	}
+
+	/**
+	 * Copies a genotype (see {@link AvrUtils#TASK_0}, {@link AvrUtils#OMEGA_0}
+	 * and the absolute or relative encoding of the rotation speeds).
+	 *
+	 * @param genotype
+	 *            the genotype
+	 * @return the copy
+	 */
+	protected CompositeGenotype<String, Genotype> copy(CompositeGenotype<String, Genotype> genotype) {
+		CompositeGenotype<String, Genotype> copy = genotype.newInstance();
+
+		IntegerGenotype task0 = genotype.get(AvrUtils.TASK_0);
+		IntegerGenotype copyTask0 = task0.newInstance();
+		copyTask0.addAll(task0);
+		copy.put(AvrUtils.TASK_0, copyTask0);
+
+		String key = genotype.get(AvrUtils.OMEGAS) != null ? AvrUtils.OMEGAS : AvrUtils.RELATIVE;
+
+		for (String name : new String[] { AvrUtils.OMEGA_0, key }) {
+			DoubleGenotype genes = genotype.get(name);
+			DoubleGenotype copyGenes = genes.newInstance();
+			copyGenes.addAll(genes);
+			copy.put(name, copyGenes);
+		}
+		return copy;
+	}
+
+	/**
+	 * Improves a feasible event sequence by hill climbing and writes the
+	 * changed rotation speeds back into the genotype. The event sequence
+	 * itself is not changed (it may be shared, e.g. by the
+	 * {@link AvrEvaluationCache}).
+	 *
+	 * @param genotype
+	 *            the genotype of the event sequence
+	 * @param events
+	 *            the event sequence
+	 * @param deadline
+	 *            the deadline (see {@link System#nanoTime()})
+	 * @return the improved event sequence, or {@code null} if no change was
+	 *         accepted
+	 */
+	public EventSequence improve(CompositeGenotype<String, Genotype> genotype, EventSequence events, long deadline) {
+
+		TaskTable table = events.getTaskTable();
+		EventSequence current = null;
+
+		boolean changed = true;
+
+		while (changed && System.nanoTime() < deadline) {
+			changed = false;
+
+			// the rotation speed of the first event is encoded discretely
+			for (int i = 1; i < events.size() && System.nanoTime() < deadline; i++) {
+
+				EventSequence base = current == null ? events : current;
+				int task = base.getTaskIndex(i);
+				int mode = base.getMode(i);
+
+				if (mode == C.NO_MODE) {
+					continue;
+				}
+
+				// i) the rotation speeds reachable from the preceding event
+				DoubleRange range = AvrUtils.findNextRange(base.getOmega(i - 1),
+						table.getDeltaPhi(base.getTaskIndex(i - 1)), avrProblem);
+
+				if (!AvrUtils.checkAndAdaptBoundaries(range, table.getMinOmega(task), table.getMaxOmega(task))) {
+					continue;
+				}
+
+				// ii) the fastest rotation speed of the mode, the slowest one of
+				// the next faster mode, and the fastest one of the next slower
+				// mode
+				double upper = table.getBoundary(task, mode + 1);
+
+				double[] candidates = new double[] { upper,
+						mode + 1 < table.getModeCount(task) ? Math.nextUp(upper) : Double.NaN,
+						mode > 0 ? table.getBoundary(task, mode) : Double.NaN };
+
+				double bestOmega = Double.NaN;
+				Delta best = null;
+
+				for (double candidate : candidates) {
+					if (Double.isNaN(candidate)) {
+						continue;
+					}
+					double omega = Math.max(range.getLower(), Math.min(range.getUpper(), candidate));
+
+					if (omega == base.getOmega(i)) {
+						continue;
+					}
+					Delta delta = evaluator.delta(base, i, omega);
+
+					if (delta.isFeasible() && isBetter(delta, best == null ? base.getSumC() : best.getSumC(),
+							best == null ? base.getMu() : best.getMu())) {
+						best = delta;
+						bestOmega = omega;
+					}
+				}
+
+				// iii) applies the best change (to a copy of the event sequence)
+				if (best != null) {
+					if (current == null) {
+						current = copy(events);
+					}
+					evaluator.apply(current, i, bestOmega, best);
+					encode(genotype, current, i);
+
+					changed = true;
+				}
+			}
+		}
+		return current;
+	}
+
+	/**
+	 * Returns whether a change improves an event sequence: the overall WCET
+	 * (the worst case analyzed) increases, or remains and the time decreases.
+	 *
+	 * @param delta
+	 *            the objectives after the change
+	 * @param sumC
+	 *            the overall WCET before the change
+	 * @param mu
+	 *            the time before the change
+	 * @return true if the change is an improvement
+	 */
+	protected boolean isBetter(Delta delta, int sumC, double mu) {
+		return delta.getSumC() > sumC || (delta.getSumC() == sumC && delta.getMu() < mu);
+	}
+
+	/**
+	 * Copies a feasible, evaluated event sequence.
+	 *
+	 * @param events
+	 *            the event sequence
+	 * @return the copy
+	 */
+	protected EventSequence copy(EventSequence events) {
+		EventSequence copy = new EventSequence(events.getTaskTable(), events.getTaskIndex(0), events.size());
+
+		copy.copyOmegas(events, events.size());
+		copy.setFeasible(true);
+
+		if (!events.hasObjectives()) {
+			evaluator.evaluate(events);
+		}
+		copy.setObjectives(events.getMu(), events.getSumC());
+
+		return copy;
+	}
+
+	/**
+	 * Writes the changed rotation speed of an event back into the genotype.
+	 * With the relative encoding, the gene of the subsequent event is adapted
+	 * as well, as its feasible range depends on the changed rotation speed
+	 * (inverse of {@code AvrRelativeCreatorDecoder#decodeOmega}).
+	 *
+	 * @param genotype
+	 *            the genotype
+	 * @param events
+	 *            the changed event sequence
+	 * @param index
+	 *            the position of the changed event (> 0)
+	 */
+	protected void encode(CompositeGenotype<String, Genotype> genotype, EventSequence events, int index) {
+		DoubleGenotype omegas = genotype.get(AvrUtils.OMEGAS);
+
+		// i) absolute encoding
+		if (omegas != null) {
+			omegas.set(index - 1, events.getOmega(index));
+			return;
+		}
+
+		// ii) relative encoding, within the envelope of the event sequence
+		DoubleGenotype relative = genotype.get(AvrUtils.RELATIVE);
+		TaskTable table = events.getTaskTable();
+		Envelope envelope = avrProblem.getEnvelope(events.getTaskIndex(0), events.size());
+
+		for (int i = index; i <= index + 1 && i < events.size(); i++) {
+			DoubleRange range = AvrUtils.findNextRange(events.getOmega(i - 1),
+					table.getDeltaPhi(events.getTaskIndex(i - 1)), avrProblem);
+			envelope.adapt(i, range);
+
+			double width = range.getUpper() - range.getLower();
+			double factor = width > 0 ? (events.getOmega(i) - range.getLower()) / width : 0;
+
+			relative.set(i - 1, Math.max(0, Math.min(1, factor)));
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.opt4j.core.optimizer.OptimizerStateListener#optimizationStarted(
+	 * org.opt4j.core.optimizer.Optimizer)
+	 */
+	@Override
+	public void optimizationStarted(Optimizer optimizer) {
+		executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "AvrLocalSearch");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.opt4j.core.optimizer.OptimizerStateListener#optimizationStopped(
+	 * org.opt4j.core.optimizer.Optimizer)
+	 */
+	@Override
+	public void optimizationStopped(Optimizer optimizer) {
+		if (executor != null) {
+			executor.shutdown();
+			executor = null;
+		}
+	}
+}
@@ -1,20 +1,41 @@
 package de.uu.es.avr;
 
+import java.util.Random;
+
+import org.opt4j.core.Genotype;
 import org.opt4j.core.config.Icons;
 import org.opt4j.core.config.annotations.Icon;
 import org.opt4j.core.config.annotations.Info;
 import org.opt4j.core.config.annotations.Order;
+import org.opt4j.core.genotype.CompositeGenotype;
+import org.opt4j.core.optimizer.IndividualCompleter;
 import org.opt4j.core.problem.Creator;
 import org.opt4j.core.problem.Decoder;
 import org.opt4j.core.problem.ProblemModule;
 import org.opt4j.core.start.Constant;
 
+import com.google.inject.TypeLiteral;
+
+import de.uu.es.avr.checkpoint.AvrCheckpointer;
+import de.uu.es.avr.creatorDecoder.AvrCachingDecoder;
 import de.uu.es.avr.creatorDecoder.AvrCorrBoundDecoder;
 import de.uu.es.avr.creatorDecoder.AvrCorrMeanDecoder;
 import de.uu.es.avr.creatorDecoder.AvrCorrRandDecoder;
 import de.uu.es.avr.creatorDecoder.AvrDoubleCreator;
+import de.uu.es.avr.creatorDecoder.AvrFeasibleCreator;
+import de.uu.es.avr.creatorDecoder.AvrFusedCreatorDecoder;
+import de.uu.es.avr.creatorDecoder.AvrIncrementalDecoder;
 import de.uu.es.avr.creatorDecoder.AvrInfDecoder;
+import de.uu.es.avr.creatorDecoder.AvrLineageDecoder;
 import de.uu.es.avr.creatorDecoder.AvrRelativeCreatorDecoder;
+import de.uu.es.avr.creatorDecoder.AvrStratifiedCreator;
+import de.uu.es.avr.metrics.AvrEventRecorder;
+import de.uu.es.avr.metrics.AvrMetricsReporter;
+import de.uu.es.avr.model.EventSequence;
+import de.uu.es.avr.sampling.HaltonSampler;
+import de.uu.es.avr.sampling.LatinHypercubeSampler;
+import de.uu.es.avr.sampling.Sampler;
+import de.uu.es.avr.sampling.SobolSampler;
 
 /**
  * The {@link AvrModule} is used for the configuration of the AVR problem. It
@@ -37,6 +58,82 @@ public class AvrModule extends ProblemModule {
 	@Order(2)
 	protected AvrDec decoder = AvrDec.RELATIVE;
 
+	@Order(3)
+	@Info("The number of threads decoding and evaluating individuals in parallel (1: sequential).")
+	@Constant(namespace = AvrWCRTProblem.class, value = "threads")
+	protected int threads = 1;
+
+	@Order(4)
+	@Info("The number of decoded and evaluated genotypes to cache (0: no cache).")
+	@Constant(namespace = AvrWCRTProblem.class, value = "cacheSize")
+	protected int cacheSize = 0;
+
+	@Order(5)
+	@Info("Print the hit/miss statistics of the cache at the end of the optimization.")
+	@Constant(namespace = AvrWCRTProblem.class, value = "cacheStatistics")
+	protected boolean cacheStatistics = false;
+
+	@Order(6)
+	@Info("Refine the individuals by a local search over the rotation speeds after each iteration.")
+	protected boolean localSearch = false;
+
+	@Order(7)
+	@Info("The time budget of the local search per iteration in milliseconds.")
+	@Constant(namespace = AvrWCRTProblem.class, value = "localSearchBudget")
+	protected int localSearchBudget = 100;
+
+	@Order(8)
+	@Info("The initialization of the absolute encoding (CORR_*, INFEASIBLE).")
+	protected AvrInit initialization = AvrInit.RANDOM;
+
+	@Order(9)
+	@Info("The sampling of the initial relative encoding (RELATIVE, RELATIVE_FUSED).")
+	protected AvrSampling sampling = AvrSampling.RANDOM;
+
+	@Order(10)
+	@Info("The number of genotypes per batch of the Latin hypercube sampling.")
+	@Constant(namespace = AvrWCRTProblem.class, value = "samplingBatch")
+	protected int samplingBatch = 100;
+
+	@Order(11)
+	@Info("Report the metrics of decoding, correction and evaluation via JMX (requires -Davr.metrics=true).")
+	protected boolean metrics = false;
+
+	@Order(12)
+	@Info("The CSV file the metrics are written to (empty: no file).")
+	@Constant(namespace = AvrWCRTProblem.class, value = "metricsFile")
+	protected String metricsFile = "metrics.csv";
+
+	@Order(13)
+	@Info("The interval between the snapshots of the metrics in milliseconds (0: at the end only).")
+	@Constant(namespace = AvrWCRTProblem.class, value = "metricsInterval")
+	protected int metricsInterval = 1000;
+
+	@Order(14)
+	@Info("Emit Java Flight Recorder events per iteration of the optimizer (requires -Davr.jfr=true).")
+	protected boolean flightRecorder = false;
+
+	@Order(15)
+	@Info("The file the population and archive are checkpointed to (empty: no checkpoints).")
+	@Constant(namespace = AvrWCRTProblem.class, value = "checkpointFile")
+	protected String checkpointFile = "";
+
+	@Order(16)
+	@Info("The number of iterations between the checkpoints (0: at the end only).")
+	@Constant(namespace = AvrWCRTProblem.class, value = "checkpointInterval")
+	protected int checkpointInterval = 10;
+
+	@Order(17)
+	@Info("Resume the optimization from the checkpoint file (if existing).")
+	@Constant(namespace = AvrWCRTProblem.class, value = "resume")
+	protected boolean resume = false;
+
+	@Order(18)
+	@Info("The number of events between the decode checkpoints offspring are decoded incrementally from (0: decode "
+			+ "every genotype from the first event; RELATIVE, RELATIVE_FUSED, CORR_*).")
+	@Constant(namespace = AvrWCRTProblem.class, value = "decodeCheckpointInterval")
+	protected int decodeCheckpointInterval = 0;
+
 	/**
 	 * Constructs a {@link QueensModule}.
 	 */
@@ -55,6 +152,11 @@ public class AvrModule extends ProblemModule {
 		 * Uses the {@link AvrRelativeCreatorDecoder}.
 		 */
 		RELATIVE,
+		/**
+		 * Uses the {@link AvrFusedCreatorDecoder} (relative encoding,
+		 * objectives accumulated during decoding).
+		 */
+		RELATIVE_FUSED,
 		/**
 		 * Uses the {@link AvrDoubleCreator} with {@link AvrCorrRandomDecoder}.
 		 */
@@ -73,6 +175,55 @@ public class AvrModule extends ProblemModule {
 		INFEASIBLE;
 	}
 
+	/**
+	 * The initialization of the absolute encoding of the AVR WCRT problem.
+	 * 
+	 * @author vrichthammer
+	 * 
+	 */
+	public enum AvrInit {
+		/**
+		 * Uses the {@link AvrDoubleCreator} (random rotation speeds between
+		 * the minimal and maximal rotation speed of the task set).
+		 */
+		RANDOM,
+		/**
+		 * Uses the {@link AvrFeasibleCreator} (feasible by construction).
+		 */
+		FEASIBLE,
+		/**
+		 * Uses the {@link AvrStratifiedCreator} (feasible by construction,
+		 * execution modes spread across the population).
+		 */
+		STRATIFIED;
+	}
+
+	/**
+	 * The sampling of the initial relative encoding of the AVR WCRT problem.
+	 * 
+	 * @author vrichthammer
+	 * 
+	 */
+	public enum AvrSampling {
+		/**
+		 * Independent random values.
+		 */
+		RANDOM,
+		/**
+		 * Uses the {@link LatinHypercubeSampler}.
+		 */
+		LATIN_HYPERCUBE,
+		/**
+		 * Uses the {@link HaltonSampler}.
+		 */
+		HALTON,
+		/**
+		 * Uses the {@link SobolSampler} (sequences of length n &lt;
+		 * {@link SobolSampler#MAX_DIMENSION}).
+		 */
+		SOBOL;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -89,6 +240,10 @@ public class AvrModule extends ProblemModule {
 			creatorClass = AvrRelativeCreatorDecoder.class;
 			decoderClass = AvrRelativeCreatorDecoder.class;
 			break;
+		case RELATIVE_FUSED:
+			creatorClass = AvrFusedCreatorDecoder.class;
+			decoderClass = AvrFusedCreatorDecoder.class;
+			break;
 		case CORR_RANDOM:
 			creatorClass = AvrDoubleCreator.class;
 			decoderClass = AvrCorrRandDecoder.class;
@@ -111,7 +266,105 @@ public class AvrModule extends ProblemModule {
 			break;
 		}
 
+		if (creatorClass == AvrDoubleCreator.class) {
+			switch (initialization) {
+			case FEASIBLE:
+				creatorClass = AvrFeasibleCreator.class;
+				break;
+			case STRATIFIED:
+				creatorClass = AvrStratifiedCreator.class;
+				break;
+			default:
+				break;
+			}
+		}
+
+		switch (sampling) {
+		case LATIN_HYPERCUBE:
+			bind(Sampler.class).to(LatinHypercubeSampler.class).in(SINGLETON);
+			break;
+		case HALTON:
+			bind(Sampler.class).to(HaltonSampler.class).in(SINGLETON);
+			break;
+		case SOBOL:
+			if (n + 1 > SobolSampler.MAX_DIMENSION) {
+				throw new IllegalArgumentException("AvrModule: SOBOL sampling supports n < "
+						+ SobolSampler.MAX_DIMENSION + ", use HALTON or LATIN_HYPERCUBE");
+			}
+			bind(Sampler.class).to(SobolSampler.class).in(SINGLETON);
+			break;
+		default:
+			break;
+		}
+
+		if (decodeCheckpointInterval > 0) {
+			if (!AvrIncrementalDecoder.class.isAssignableFrom(decoderClass)) {
+				throw new IllegalArgumentException("AvrModule: decoder " + decoder + " cannot decode incrementally");
+			}
+			// the configured decoder resumes at the decode checkpoints of the
+			// parents
+			bind(AvrIncrementalDecoder.class).annotatedWith(AvrLineageDecoder.Delegate.class)
+					.to(decoderClass.asSubclass(AvrIncrementalDecoder.class));
+			bind(AvrLineage.class).in(SINGLETON);
+
+			decoderClass = AvrLineageDecoder.class;
+		}
+
+		if (cacheSize > 0) {
+			// the configured decoder is used by the caching decoder
+			bind(new TypeLiteral<Decoder<CompositeGenotype<String, Genotype>, EventSequence>>() {
+			}).annotatedWith(AvrCachingDecoder.Delegate.class).to(castDecoder(decoderClass));
+
+			bind(AvrEvaluationCache.class).in(SINGLETON);
+			addOptimizerStateListener(AvrEvaluationCache.class);
+
+			decoderClass = AvrCachingDecoder.class;
+		}
+
 		bindProblem(creatorClass, decoderClass, AvrEvaluator.class);
+
+		// the random number generator whose state is saved in checkpoints
+		bind(Random.class).to(AvrRandom.class).in(SINGLETON);
+
+		if (threads > 1) {
+			bind(IndividualCompleter.class).to(AvrParallelCompleter.class).in(SINGLETON);
+		}
+
+		if (localSearch) {
+			bind(AvrLocalSearch.class).in(SINGLETON);
+			addOptimizerIterationListener(AvrLocalSearch.class);
+			addOptimizerStateListener(AvrLocalSearch.class);
+		}
+
+		if (metrics) {
+			bind(AvrMetricsReporter.class).in(SINGLETON);
+			addOptimizerStateListener(AvrMetricsReporter.class);
+		}
+
+		if (flightRecorder) {
+			bind(AvrEventRecorder.class).in(SINGLETON);
+			addOptimizerIterationListener(AvrEventRecorder.class);
+			addOptimizerStateListener(AvrEventRecorder.class);
+		}
+
+		if (checkpointFile.length() > 0) {
+			bind(AvrCheckpointer.class).in(SINGLETON);
+			addOptimizerIterationListener(AvrCheckpointer.class);
+			addOptimizerStateListener(AvrCheckpointer.class);
+		}
+	}
+
+	/**
+	 * Casts the class of a decoder of the {@link AvrWCRTProblem}.
+	 *
+	 * @param decoderClass
+	 *            the decoder class
+	 * @return the decoder class
+	 */
+	@SuppressWarnings("unchecked")
+	private static Class<? extends Decoder<CompositeGenotype<String, Genotype>, EventSequence>> castDecoder(
+			Class<? extends Decoder<?, ?>> decoderClass) {
+		return (Class<? extends Decoder<CompositeGenotype<String, Genotype>, EventSequence>>) decoderClass;
 	}
 
 	/**
@@ -152,4 +405,314 @@ public class AvrModule extends ProblemModule {
 	public void setDecoder(AvrDec decoder) {
 		this.decoder = decoder;
 	}
+
+	/**
+	 * Returns the number of threads decoding and evaluating individuals.
+	 *
+	 * @return the number of threads
+	 */
+	public int getThreads() {
+		return threads;
+	}
+
+	/**
+	 * Sets the number of threads decoding and evaluating individuals.
+	 *
+	 * @param threads
+	 *            the number of threads
+	 */
+	public void setThreads(int threads) {
+		this.threads = threads;
+	}
+
+	/**
+	 * Returns the number of decoded and evaluated genotypes to cache.
+	 *
+	 * @return the cache size (0: no cache)
+	 */
+	public int getCacheSize() {
+		return cacheSize;
+	}
+
+	/**
+	 * Sets the number of decoded and evaluated genotypes to cache.
+	 *
+	 * @param cacheSize
+	 *            the cache size (0: no cache)
+	 */
+	public void setCacheSize(int cacheSize) {
+		this.cacheSize = cacheSize;
+	}
+
+	/**
+	 * Returns whether the statistics of the cache are printed at the end of
+	 * the optimization.
+	 *
+	 * @return true if the statistics are printed
+	 */
+	public boolean isCacheStatistics() {
+		return cacheStatistics;
+	}
+
+	/**
+	 * Sets whether the statistics of the cache are printed at the end of the
+	 * optimization.
+	 *
+	 * @param cacheStatistics
+	 *            true if the statistics are printed
+	 */
+	public void setCacheStatistics(boolean cacheStatistics) {
+		this.cacheStatistics = cacheStatistics;
+	}
+
+	/**
+	 * Returns whether the individuals are refined by a local search after each
+	 * iteration.
+	 *
+	 * @return true if the local search is enabled
+	 */
+	public boolean isLocalSearch() {
+		return localSearch;
+	}
+
+	/**
+	 * Sets whether the individuals are refined by a local search after each
+	 * iteration.
+	 *
+	 * @param localSearch
+	 *            true if the local search is enabled
+	 */
+	public void setLocalSearch(boolean localSearch) {
+		this.localSearch = localSearch;
+	}
+
+	/**
+	 * Returns the time budget of the local search per iteration.
+	 *
+	 * @return the time budget in milliseconds
+	 */
+	public int getLocalSearchBudget() {
+		return localSearchBudget;
+	}
+
+	/**
+	 * Sets the time budget of the local search per iteration.
+	 *
+	 * @param localSearchBudget
+	 *            the time budget in milliseconds
+	 */
+	public void setLocalSearchBudget(int localSearchBudget) {
+		this.localSearchBudget = localSearchBudget;
+	}
+
+	/**
+	 * Returns the initialization of the absolute encoding.
+	 *
+	 * @return the initialization
+	 */
+	public AvrInit getInitialization() {
+		return initialization;
+	}
+
+	/**
+	 * Sets the initialization of the absolute encoding.
+	 *
+	 * @param initialization
+	 *            the initialization
+	 */
+	public void setInitialization(AvrInit initialization) {
+		this.initialization = initialization;
+	}
+
+	/**
+	 * Returns the sampling of the initial relative encoding.
+	 *
+	 * @return the sampling
+	 */
+	public AvrSampling getSampling() {
+		return sampling;
+	}
+
+	/**
+	 * Sets the sampling of the initial relative encoding.
+	 *
+	 * @param sampling
+	 *            the sampling
+	 */
+	public void setSampling(AvrSampling sampling) {
+		this.sampling = sampling;
+	}
+
+	/**
+	 * Returns the number of genotypes per batch of the Latin hypercube
+	 * sampling.
+	 *
+	 * @return the batch size
+	 */
+	public int getSamplingBatch() {
+		return samplingBatch;
+	}
+
+	/**
+	 * Sets the number of genotypes per batch of the Latin hypercube sampling.
+	 *
+	 * @param samplingBatch
+	 *            the batch size
+	 */
+	public void setSamplingBatch(int samplingBatch) {
+		this.samplingBatch = samplingBatch;
+	}
+
+	/**
+	 * Returns whether the metrics are reported.
+	 *
+	 * @return true if the metrics are reported
+	 */
+	public boolean isMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * Sets whether the metrics are reported.
+	 *
+	 * @param metrics
+	 *            true if the metrics are reported
+	 */
+	public void setMetrics(boolean metrics) {
+		this.metrics = metrics;
+	}
+
+	/**
+	 * Returns the CSV file the metrics are written to.
+	 *
+	 * @return the file (empty: no file)
+	 */
+	public String getMetricsFile() {
+		return metricsFile;
+	}
+
+	/**
+	 * Sets the CSV file the metrics are written to.
+	 *
+	 * @param metricsFile
+	 *            the file (empty: no file)
+	 */
+	public void setMetricsFile(String metricsFile) {
+		this.metricsFile = metricsFile;
+	}
+
+	/**
+	 * Returns the interval between the snapshots of the metrics.
+	 *
+	 * @return the interval in milliseconds (0: at the end only)
+	 */
+	public int getMetricsInterval() {
+		return metricsInterval;
+	}
+
+	/**
+	 * Sets the interval between the snapshots of the metrics.
+	 *
+	 * @param metricsInterval
+	 *            the interval in milliseconds (0: at the end only)
+	 */
+	public void setMetricsInterval(int metricsInterval) {
+		this.metricsInterval = metricsInterval;
+	}
+
+	/**
+	 * Returns whether the flight-recorder events of the iterations are
+	 * emitted.
+	 *
+	 * @return true if the events are emitted
+	 */
+	public boolean isFlightRecorder() {
+		return flightRecorder;
+	}
+
+	/**
+	 * Sets whether the flight-recorder events of the iterations are emitted.
+	 *
+	 * @param flightRecorder
+	 *            true if the events are emitted
+	 */
+	public void setFlightRecorder(boolean flightRecorder) {
+		this.flightRecorder = flightRecorder;
+	}
+
+	/**
+	 * Returns the file the population and archive are checkpointed to.
+	 *
+	 * @return the file (empty: no checkpoints)
+	 */
+	public String getCheckpointFile() {
+		return checkpointFile;
+	}
+
+	/**
+	 * Sets the file the population and archive are checkpointed to.
+	 *
+	 * @param checkpointFile
+	 *            the file (empty: no checkpoints)
+	 */
+	public void setCheckpointFile(String checkpointFile) {
+		this.checkpointFile = checkpointFile;
+	}
+
+	/**
+	 * Returns the number of iterations between the checkpoints.
+	 *
+	 * @return the number of iterations (0: at the end only)
+	 */
+	public int getCheckpointInterval() {
+		return checkpointInterval;
+	}
+
+	/**
+	 * Sets the number of iterations between the checkpoints.
+	 *
+	 * @param checkpointInterval
+	 *            the number of iterations (0: at the end only)
+	 */
+	public void setCheckpointInterval(int checkpointInterval) {
+		this.checkpointInterval = checkpointInterval;
+	}
+
+	/**
+	 * Returns whether the optimization is resumed from the checkpoint file.
+	 *
+	 * @return true if resumed
+	 */
+	public boolean isResume() {
+		return resume;
+	}
+
+	/**
+	 * Sets whether the optimization is resumed from the checkpoint file.
+	 *
+	 * @param resume
+	 *            true if resumed
+	 */
+	public void setResume(boolean resume) {
+		this.resume = resume;
+	}
+
+	/**
+	 * Returns the number of events between the decode checkpoints.
+	 *
+	 * @return the number of events (0: no incremental decoding)
+	 */
+	public int getDecodeCheckpointInterval() {
+		return decodeCheckpointInterval;
+	}
+
+	/**
+	 * Sets the number of events between the decode checkpoints.
+	 *
+	 * @param decodeCheckpointInterval
+	 *            the number of events (0: no incremental decoding)
+	 */
+	public void setDecodeCheckpointInterval(int decodeCheckpointInterval) {
+		this.decodeCheckpointInterval = decodeCheckpointInterval;
+	}
 }
\ No newline at end of file
@@ -0,0 +1,40 @@
+package de.uu.es.avr;
+
+import org.opt4j.core.Genotype;
+import org.opt4j.core.common.completer.ParallelIndividualCompleter;
+import org.opt4j.core.optimizer.Control;
+import org.opt4j.core.problem.Decoder;
+import org.opt4j.core.problem.Evaluator;
+import org.opt4j.core.start.Constant;
+
+import com.google.inject.Inject;
+
+/**
+ * The {@link AvrParallelCompleter} decodes and evaluates the individuals of the
+ * {@link AvrWCRTProblem} with a fixed-size thread pool. The decoders use one
+ * random number generator per thread ({@link RandomStreams}) and share only
+ * immutable task tables, so that throughput scales with the number of threads.
+ *
+ * @author vrichthammer
+ *
+ */
+public class AvrParallelCompleter extends ParallelIndividualCompleter {
+
+	/**
+	 * Creates the {@link AvrParallelCompleter}.
+	 *
+	 * @param control
+	 *            the optimization control
+	 * @param decoder
+	 *            the decoder
+	 * @param evaluator
+	 *            the evaluator
+	 * @param threads
+	 *            the number of threads of the pool
+	 */
+	@Inject
+	public AvrParallelCompleter(Control control, Decoder<Genotype, Object> decoder, Evaluator<Object> evaluator,
+			@Constant(namespace = AvrWCRTProblem.class, value = "threads") int threads) {
+		super(control, decoder, evaluator, threads);
+	}
+}
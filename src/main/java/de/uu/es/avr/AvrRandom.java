@@ -0,0 +1,144 @@
+package de.uu.es.avr;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The {@link AvrRandom} is a random number generator with a state of a single
+ * long (SplitMix64), so that its state can be saved and restored exactly (see
+ * {@link de.uu.es.avr.checkpoint.AvrCheckpointer}).
+ *
+ * The generators of other threads (see {@link RandomStreams}) are split from
+ * the generator with {@link #split()}; their states are part of the state of
+ * the generator, see {@link #getStates()} and {@link #setStates(long[])}.
+ *
+ * @author vrichthammer
+ *
+ */
+public class AvrRandom extends Random {
+
+	private static final long serialVersionUID = 1L;
+
+	// the increment of the state (golden ratio)
+	protected static final long GAMMA = 0x9E3779B97F4A7C15L;
+
+	// the state (set by setSeed in the constructor of Random)
+	protected long state;
+
+	// the generators split from this generator
+	protected final List<AvrRandom> streams = new ArrayList<AvrRandom>();
+
+	// the restored states of the generators not split again yet
+	protected long[] restored = new long[0];
+
+	/**
+	 * Creates an {@link AvrRandom} with a seed of the current time.
+	 */
+	public AvrRandom() {
+		super();
+	}
+
+	/**
+	 * Creates an {@link AvrRandom}.
+	 *
+	 * @param seed
+	 *            the seed
+	 */
+	public AvrRandom(long seed) {
+		super(seed);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.Random#setSeed(long)
+	 */
+	@Override
+	public synchronized void setSeed(long seed) {
+		// clears the cached Gaussian of Random
+		super.setSeed(seed);
+		state = seed;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.Random#next(int)
+	 */
+	@Override
+	protected synchronized int next(int bits) {
+		state += GAMMA;
+
+		long z = state;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		z = z ^ (z >>> 31);
+
+		return (int) (z >>> (64 - bits));
+	}
+
+	/**
+	 * Creates a generator for another thread. The generator continues a
+	 * restored state (see {@link #setStates(long[])}) if available, otherwise
+	 * it is seeded from this generator.
+	 *
+	 * @return the generator
+	 */
+	public synchronized AvrRandom split() {
+		int index = streams.size();
+		AvrRandom stream = new AvrRandom(index < restored.length ? restored[index] : nextLong());
+
+		streams.add(stream);
+		return stream;
+	}
+
+	/**
+	 * Returns the state of the generator followed by the states of the
+	 * generators split from it.
+	 *
+	 * @return the states
+	 */
+	public synchronized long[] getStates() {
+		int size = Math.max(streams.size(), restored.length);
+		long[] states = new long[1 + size];
+
+		states[0] = state;
+		for (int i = 0; i < size; i++) {
+			states[1 + i] = i < streams.size() ? streams.get(i).getState() : restored[i];
+		}
+		return states;
+	}
+
+	/**
+	 * Restores the states returned by {@link #getStates()}. The generators
+	 * already split continue from their restored states, the generators split
+	 * later from the remaining ones. A cached Gaussian (see
+	 * {@link Random#nextGaussian()}) is discarded.
+	 *
+	 * @param states
+	 *            the states
+	 */
+	public synchronized void setStates(long[] states) {
+		if (states.length == 0) {
+			throw new IllegalArgumentException("no state of the random number generator");
+		}
+		setSeed(states[0]);
+
+		restored = new long[states.length - 1];
+		System.arraycopy(states, 1, restored, 0, restored.length);
+
+		for (int i = 0; i < streams.size() && i < restored.length; i++) {
+			streams.get(i).setSeed(restored[i]);
+		}
+	}
+
+	/**
+	 * Returns the state of the generator.
+	 *
+	 * @return the state
+	 */
+	protected synchronized long getState() {
+		return state;
+	}
+}
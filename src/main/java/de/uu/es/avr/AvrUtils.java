@@ -1,7 +1,9 @@
 package de.uu.es.avr;
 
+import de.uu.es.avr.metrics.AvrMetrics;
 import de.uu.es.avr.model.AvrTask;
 import de.uu.es.avr.model.EventSequence;
+import de.uu.es.avr.model.TaskTable;
 
 /**
  * Contains utility methods and constants for the optimization and analysis of
@@ -33,6 +35,30 @@ public class AvrUtils {
 	 */
 	public static boolean isValid(EventSequence eventSequence, AvrWCRTProblem avrProblem) {
 
+		if (!AvrMetrics.ENABLED) {
+			return checkValid(eventSequence, avrProblem);
+		}
+
+		long start = System.nanoTime();
+		boolean valid = checkValid(eventSequence, avrProblem);
+		AvrMetrics.get().validated(valid, System.nanoTime() - start);
+
+		return valid;
+	}
+
+	/**
+	 * Checks whether an event sequence is feasible (see
+	 * {@link #isValid(EventSequence, AvrWCRTProblem)}).
+	 *
+	 * @param eventSequence
+	 *            the decoded event sequence with fixed rotation speed per event
+	 * @param avrProblem
+	 *            the AVR problem
+	 * @return true if the sequence of rotation speeds in the event sequence is
+	 *         feasible
+	 */
+	private static boolean checkValid(EventSequence eventSequence, AvrWCRTProblem avrProblem) {
+
 		if (eventSequence == null) {
 			return false;
 		}
@@ -41,56 +67,97 @@ public class AvrUtils {
 			return true;
 		}
 
-		AvrTask curr = eventSequence.get(0);
-		AvrTask next;
+		TaskTable table = eventSequence.getTaskTable();
+		int curr = eventSequence.getTaskIndex(0);
 
 		// check all combinations of consecutive rotation speeds (at least two
 		// events in sequence)
 		for (int i = 1; i < eventSequence.size(); i++) {
-			next = eventSequence.get(i);
 
-			DoubleRange boundaries = findNextRange(curr, next, avrProblem);
-			boolean validRange = checkAndAdaptBoundaries(boundaries, next.minOmega(), next.maxOmega());
-
-			if (!validRange) {
+			if (!isValid(table, curr, eventSequence.getOmega(i - 1), eventSequence.getOmega(i), avrProblem)) {
 				return false;
 			}
-
-			boolean inRange = checkInRange(next.getOmega(), boundaries);
-
-			if (!inRange) {
-				return false;
-			}
-			curr = next;
+			curr = table.next(curr);
 		}
 		// all combinations of consecutive rotation speeds valid
 		return true;
 	}
 
 	/**
-	 * Finds the next feasible range of rotation speeds, given an event and the
-	 * type of the subsequent task for an {@link AvrWCRTProblem}. The
-	 * feasibility depends on the rotation speed at the event's occurrence, the
-	 * type of subsequent task, and the minimal and maximal acceleration
-	 * possible in the system.
+	 * Checks whether the transition between the rotation speeds of two
+	 * consecutive events is feasible, i.e. possible within the physical
+	 * acceleration limits of the system.
 	 *
+	 * @param table
+	 *            the task table
+	 * @param task
+	 *            the index of the task of the first event
+	 * @param omega
+	 *            the rotation speed at the first event
+	 * @param nextOmega
+	 *            the rotation speed at the subsequent event
+	 * @param avrProblem
+	 *            the AVR problem
+	 * @return true if the transition is feasible
+	 */
+	public static boolean isValid(TaskTable table, int task, double omega, double nextOmega,
+			AvrWCRTProblem avrProblem) {
+
+		int next = table.next(task);
+
+		DoubleRange boundaries = findNextRange(omega, table.getDeltaPhi(task), avrProblem);
+		boolean validRange = checkAndAdaptBoundaries(boundaries, table.getMinOmega(next), table.getMaxOmega(next));
+
+		return validRange && checkInRange(nextOmega, boundaries);
+	}
+
+	/**
+	 * Finds the next feasible range of rotation speeds, given the rotation
+	 * speed at the current event and the release angle between the current and
+	 * the subsequent event. If the rotation speed may drop to zero (no real
+	 * lower bound, see {@link #findBound}), the lower bound is 0.
 	 *
-	 * @param curr
-	 *            the current event
-	 * @param next
-	 *            the subsequent event
+	 * @param omega
+	 *            the rotation speed at the current event
+	 * @param deltaPhi
+	 *            the release angle between the events
 	 * @param avrProblem
 	 *            the AVR problem specification
 	 * @return the feasible range of subsequent rotation speeds
 	 */
-	public static DoubleRange findNextRange(AvrTask curr, AvrTask next, AvrWCRTProblem avrProblem) {
-
-		double omega = curr.getOmega();
-		double deltaPhi = AvrUtils.deltaPhi(curr, next);
+	public static DoubleRange findNextRange(double omega, double deltaPhi, AvrWCRTProblem avrProblem) {
 
 		double lower = findBound(omega, avrProblem.getAccMin(), deltaPhi);
 		double upper = findBound(omega, avrProblem.getAccMax(), deltaPhi);
 
+		// the rotation speed may drop to zero
+		if (Double.isNaN(lower)) {
+			lower = 0;
+		}
+		return new DoubleRange(lower, upper);
+	}
+
+	/**
+	 * Finds the feasible range of rotation speeds of the preceding event,
+	 * given the rotation speed at the current event and the release angle
+	 * between the preceding and the current event (inverse of
+	 * {@link #findNextRange}).
+	 *
+	 * @param omega
+	 *            the rotation speed at the current event
+	 * @param deltaPhi
+	 *            the release angle between the events
+	 * @param avrProblem
+	 *            the AVR problem specification
+	 * @return the feasible range of preceding rotation speeds
+	 */
+	public static DoubleRange findPreviousRange(double omega, double deltaPhi, AvrWCRTProblem avrProblem) {
+
+		// the rotation speeds accelerating to at least and decelerating to at
+		// most omega
+		double lower = Math.sqrt(Math.max(0, omega * omega - 2 * avrProblem.getAccMax() * deltaPhi));
+		double upper = Math.sqrt(omega * omega - 2 * avrProblem.getAccMin() * deltaPhi);
+
 		return new DoubleRange(lower, upper);
 	}
 
@@ -190,8 +257,20 @@ public class AvrUtils {
 	 * @return the rotational angle between the events
 	 */
 	public static double deltaPhi(AvrTask curr, AvrTask next) {
-		double phi1 = curr.getPhi();
-		double phi2 = next.getPhi();
+		return deltaPhi(curr.getPhi(), next.getPhi());
+	}
+
+	/**
+	 * Calculates the rotational angle between two consecutive release angles,
+	 * correcting for cases where the full rotation of 2*PI is crossed.
+	 *
+	 * @param phi1
+	 *            the release angle of the first event
+	 * @param phi2
+	 *            the release angle of the subsequent event
+	 * @return the rotational angle between the events
+	 */
+	public static double deltaPhi(double phi1, double phi2) {
 
 		// calculate delta
 		double deltaPhi = phi2 - phi1;
@@ -1,14 +1,25 @@
 package de.uu.es.avr;
 
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import org.opt4j.core.start.Constant;
 
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 
+import de.uu.es.avr.io.BinaryTaskSetReader;
+import de.uu.es.avr.io.TaskSetCache;
 import de.uu.es.avr.io.TaskSetReader;
 import de.uu.es.avr.model.AvrTask;
+import de.uu.es.avr.model.Envelope;
+import de.uu.es.avr.model.EventSequence;
+import de.uu.es.avr.model.TaskTable;
 
 /**
  * The {@link AvrWCRTProblem} specification to determine worst-case response
@@ -30,13 +41,36 @@ public class AvrWCRTProblem {
 	protected final List<AvrTask> taskset;
 	protected final int tasksetSize;
 
+	// dense primitive tables of the task set, used for decoding and evaluation
+	protected final TaskTable taskTable;
+
 	static TaskSetReader reader = new TaskSetReader();
+	static BinaryTaskSetReader binaryReader = new BinaryTaskSetReader();
 
 	// minimal and maximal omega values over all tasks, used for absolute
 	// encoding
 	protected final double minOmega;
 	protected final double maxOmega;
 
+	// reachable rotation speeds per first task, by length of the event
+	// sequence (computed on demand, per first task)
+	protected final ConcurrentMap<Integer, AtomicReferenceArray<Envelope>> envelopes =
+			new ConcurrentHashMap<Integer, AtomicReferenceArray<Envelope>>();
+
+	/**
+	 * Constructs an {@link AvrWCRTProblem} specification.
+	 * 
+	 * @param filename
+	 *            the xml specification of the task set
+	 * @param accMax
+	 *            the maximal acceleration
+	 * @param accMin
+	 *            the minimal acceleration
+	 */
+	public AvrWCRTProblem(String filename, double accMin, double accMax) {
+		this(filename, accMin, accMax, 0);
+	}
+
 	/**
 	 * Constructs an {@link AvrWCRTProblem} specification.
 	 * 
@@ -46,74 +80,114 @@ public class AvrWCRTProblem {
 	 *            the maximal acceleration
 	 * @param accMin
 	 *            the minimal acceleration
+	 * @param modeResolution
+	 *            the resolution of the direct-index tables for looking up
+	 *            execution modes (0: binary search)
+	 */
+	public AvrWCRTProblem(String filename, double accMin, double accMax, int modeResolution) {
+		this(filename, accMin, accMax, modeResolution, "");
+	}
+
+	/**
+	 * Constructs an {@link AvrWCRTProblem} specification.
+	 * 
+	 * @param filename
+	 *            the xml specification of the task set, or a binary task set
+	 *            (see {@link BinaryTaskSetReader})
+	 * @param accMax
+	 *            the maximal acceleration
+	 * @param accMin
+	 *            the minimal acceleration
+	 * @param modeResolution
+	 *            the resolution of the direct-index tables for looking up
+	 *            execution modes (0: binary search)
+	 * @param taskSetCache
+	 *            the directory caching binary task sets of xml specifications
+	 *            (empty: no cache)
 	 */
 	@Inject
 	public AvrWCRTProblem(@Constant(value = "filename", namespace = AvrWCRTProblem.class) String filename,
 			@Constant(value = "accMin", namespace = AvrWCRTProblem.class) double accMin,
-			@Constant(value = "accMax", namespace = AvrWCRTProblem.class) double accMax) {
+			@Constant(value = "accMax", namespace = AvrWCRTProblem.class) double accMax,
+			@Constant(value = "modeResolution", namespace = AvrWCRTProblem.class) int modeResolution,
+			@Constant(value = "taskSetCache", namespace = AvrWCRTProblem.class) String taskSetCache) {
+		this(readTaskTable(filename, modeResolution, taskSetCache), accMin, accMax);
+	}
+
+	/**
+	 * Constructs an {@link AvrWCRTProblem} specification for a task set that
+	 * is already read, e.g., shared by problems with different physical
+	 * constraints (see {@link #readTaskTable(String, int, String)}).
+	 * 
+	 * @param taskTable
+	 *            the task table of the task set
+	 * @param accMin
+	 *            the minimal acceleration
+	 * @param accMax
+	 *            the maximal acceleration
+	 */
+	public AvrWCRTProblem(TaskTable taskTable, double accMin, double accMax) {
 
 		assert accMin < accMax : "AvrWCRTProblem: minimal acceleration must be smaller than maxmimal acceleration";
 
 		this.accMax = accMax;
 		this.accMin = accMin;
 
-		// import task set from xml specification
-		this.taskset = reader.read(filename);
+		AvrTask[] tasks = new AvrTask[taskTable.size()];
+
+		for (int i = 0; i < tasks.length; i++) {
+			tasks[i] = taskTable.getTask(i);
+		}
+
+		this.taskset = Collections.unmodifiableList(Arrays.asList(tasks));
 		this.tasksetSize = taskset.size();
+		this.taskTable = taskTable;
 
-		this.minOmega = minOmega(taskset);
-		this.maxOmega = maxOmega(taskset);
+		this.minOmega = taskTable.getMinOmega();
+		this.maxOmega = taskTable.getMaxOmega();
 	}
 
 	/**
-	 * Returns the {@link AvrTask} at the specified index from the task set.
-	 *
-	 * @param index
-	 *            the index
-	 * @return the AVR task
+	 * Reads a task set into a {@link TaskTable}.
+	 * 
+	 * @param filename
+	 *            the xml specification of the task set, or a binary task set
+	 *            (see {@link BinaryTaskSetReader})
+	 * @param modeResolution
+	 *            the resolution of the direct-index tables for looking up
+	 *            execution modes (0: binary search)
+	 * @param taskSetCache
+	 *            the directory caching binary task sets of xml specifications
+	 *            (empty: no cache)
+	 * @return the task table
 	 */
-	public AvrTask getTask(int index) {
-		return this.taskset.get(index);
-	}
+	public static TaskTable readTaskTable(String filename, int modeResolution, String taskSetCache) {
 
-	/**
-	 * Returns the minimal rotation speed over all {@link AvrTask}s in the task
-	 * set.
-	 *
-	 * @param taskset
-	 *            the task set
-	 * @return the overall minimal rotation speed
-	 */
-	private double minOmega(List<AvrTask> taskset) {
-		double min = Double.MAX_VALUE;
+		// import task set from xml specification (or binary task set)
+		AvrTask[] tasks;
 
-		for (AvrTask task : taskset) {
-			double minOmega = task.minOmega();
-			if (minOmega < min) {
-				min = minOmega;
-			}
+		if (filename.endsWith(BinaryTaskSetReader.EXTENSION)) {
+			tasks = binaryReader.readTasks(filename);
+		} else if (taskSetCache != null && !taskSetCache.isEmpty()) {
+			tasks = new TaskSetCache(new File(taskSetCache)).readTasks(new File(filename));
+		} else {
+			tasks = reader.readTasks(filename);
 		}
-		return min;
+
+		// build primitive tables once, so that the hot path never touches the
+		// task objects
+		return new TaskTable(tasks, modeResolution);
 	}
 
 	/**
-	 * Returns the maximal rotation speed over all {@link AvrTask}s in the task
-	 * set.
+	 * Returns the {@link AvrTask} at the specified index from the task set.
 	 *
-	 * @param taskset
-	 *            the task set
-	 * @return the overall maximal rotation speed
+	 * @param index
+	 *            the index
+	 * @return the AVR task
 	 */
-	private double maxOmega(List<AvrTask> taskset) {
-		double max = Double.MIN_VALUE;
-
-		for (AvrTask task : taskset) {
-			double maxOmega = task.maxOmega();
-			if (maxOmega > max) {
-				max = maxOmega;
-			}
-		}
-		return max;
+	public AvrTask getTask(int index) {
+		return this.taskTable.getTask(index);
 	}
 
 	/**
@@ -143,6 +217,17 @@ public class AvrWCRTProblem {
 		return this.taskset;
 	}
 
+	/**
+	 * Returns the dense primitive tables of the task set (release angles,
+	 * rotation-speed ranges, execution modes) that are shared by all decoded
+	 * {@link EventSequence}s.
+	 *
+	 * @return the task table
+	 */
+	public TaskTable getTaskTable() {
+		return this.taskTable;
+	}
+
 	/**
 	 * Returns the number of {@link AvrTask}s in the task set.
 	 *
@@ -169,4 +254,143 @@ public class AvrWCRTProblem {
 	public double getMaxOmega() {
 		return maxOmega;
 	}
+
+	/**
+	 * Returns the {@link Envelope} of feasible rotation speeds per position for
+	 * event sequences of a given length, starting at a given task. Envelopes
+	 * are computed once per first task and length, when first requested, and
+	 * shared.
+	 *
+	 * @param task0
+	 *            the index of the task of the first event
+	 * @param length
+	 *            the length of the event sequences
+	 * @return the envelope
+	 */
+	public Envelope getEnvelope(int task0, int length) {
+		AtomicReferenceArray<Envelope> result = envelopes.get(length);
+
+		if (result == null) {
+			result = new AtomicReferenceArray<Envelope>(taskTable.size());
+
+			AtomicReferenceArray<Envelope> previous = envelopes.putIfAbsent(length, result);
+			if (previous != null) {
+				result = previous;
+			}
+		}
+
+		Envelope envelope = result.get(task0);
+
+		if (envelope == null) {
+			envelope = computeEnvelope(task0, length);
+
+			if (!result.compareAndSet(task0, null, envelope)) {
+				envelope = result.get(task0);
+			}
+		}
+		return envelope;
+	}
+
+	/**
+	 * Computes the {@link Envelope} of event sequences of a given length,
+	 * starting at a given task. The bounds of the envelope are inclusive, while
+	 * the minimal rotation speed of a task is exclusive (see
+	 * {@link TaskTable#getBoundary}).
+	 *
+	 * @param task0
+	 *            the index of the task of the first event
+	 * @param length
+	 *            the length of the event sequences
+	 * @return the envelope
+	 */
+	protected Envelope computeEnvelope(int task0, int length) {
+		assert length > 0 : "AvrWCRTProblem: event sequence must not be empty";
+
+		int size = taskTable.size();
+
+		double[] lowers = new double[length];
+		double[] uppers = new double[length];
+
+		// i) backward: the rotation speeds of the event at each position from
+		// which the remaining events can follow (NaN if none); each position
+		// depends on the subsequent one only
+		int last = (task0 + length - 1) % size;
+
+		lowers[length - 1] = Math.nextUp(taskTable.getMinOmega(last));
+		uppers[length - 1] = taskTable.getMaxOmega(last);
+
+		for (int i = length - 2; i >= 0; i--) {
+			int task = (task0 + i) % size;
+			double deltaPhi = taskTable.getDeltaPhi(task);
+
+			double a = lowers[i + 1];
+			double b = uppers[i + 1];
+
+			// the rotation speeds accelerating to at least a and decelerating
+			// to at most b (inverse of AvrUtils.findBound)
+			double lower = Math.sqrt(Math.max(0, a * a - 2 * accMax * deltaPhi));
+			double upper = Math.sqrt(b * b - 2 * accMin * deltaPhi);
+
+			lower = Math.max(lower, Math.nextUp(taskTable.getMinOmega(task)));
+			upper = Math.min(upper, taskTable.getMaxOmega(task));
+
+			// compensates for rounding errors
+			while (lower < upper && AvrUtils.findBound(lower, accMax, deltaPhi) < a) {
+				lower = Math.nextUp(lower);
+			}
+			while (lower < upper && AvrUtils.findBound(upper, accMin, deltaPhi) > b) {
+				upper = Math.nextDown(upper);
+			}
+
+			if (!(lower <= upper)) {
+				lower = Double.NaN;
+				upper = Double.NaN;
+			}
+			lowers[i] = lower;
+			uppers[i] = upper;
+		}
+
+		// ii) forward: restricts the backward bounds to the rotation speeds
+		// reachable from the initial rotation speeds of the first task
+		double lower = Double.POSITIVE_INFINITY;
+		double upper = Double.NEGATIVE_INFINITY;
+
+		for (int k = 0; k < taskTable.getModeCount(task0); k++) {
+			double omega0 = taskTable.getOmega0(task0, k);
+
+			if (omega0 >= lowers[0] && omega0 <= uppers[0]) {
+				lower = Math.min(lower, omega0);
+				upper = Math.max(upper, omega0);
+			}
+		}
+
+		int task = task0;
+
+		for (int i = 1; i < length; i++) {
+			double deltaPhi = taskTable.getDeltaPhi(task);
+
+			if (lower <= upper) {
+				lower = AvrUtils.findBound(lower, accMin, deltaPhi);
+				upper = AvrUtils.findBound(upper, accMax, deltaPhi);
+
+				// the rotation speed may drop to zero
+				if (Double.isNaN(lower)) {
+					lower = 0;
+				}
+			}
+
+			lower = Math.max(lower, lowers[i]);
+			upper = Math.min(upper, uppers[i]);
+
+			if (!(lower <= upper)) {
+				lower = Double.NaN;
+				upper = Double.NaN;
+			}
+			lowers[i] = lower;
+			uppers[i] = upper;
+
+			task = taskTable.next(task);
+		}
+		return new Envelope(task0, lowers, uppers);
+	}
 }
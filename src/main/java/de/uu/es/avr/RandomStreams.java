@@ -0,0 +1,75 @@
+package de.uu.es.avr;
+
+import java.util.Random;
+
+/**
+ * The {@link RandomStreams} provide one random number generator per thread, so
+ * that creators and decoders can be used concurrently without contention on a
+ * shared {@link Random}. The thread constructing the {@link RandomStreams} uses
+ * the given (root) generator itself; any other thread gets an own generator
+ * that is seeded from the root generator once. If the root generator is an
+ * {@link AvrRandom}, the generators are split from it with
+ * {@link AvrRandom#split()}, so that their states are saved with it.
+ *
+ * @author vrichthammer
+ *
+ */
+public class RandomStreams {
+
+	// the root generator, used by the owning thread and for seeding
+	protected final Random random;
+
+	// the thread that created the streams
+	protected final Thread owner;
+
+	// the generator of the current thread
+	protected final ThreadLocal<Random> streams = new ThreadLocal<Random>() {
+		@Override
+		protected Random initialValue() {
+			return split();
+		}
+	};
+
+	/**
+	 * Creates the {@link RandomStreams} derived from a root generator.
+	 *
+	 * @param random
+	 *            the root random number generator
+	 */
+	public RandomStreams(Random random) {
+		assert random != null : "RandomStreams: root random number generator must not be null";
+
+		this.random = random;
+		this.owner = Thread.currentThread();
+	}
+
+	/**
+	 * Returns the random number generator of the current thread.
+	 *
+	 * @return the random number generator
+	 */
+	public Random get() {
+		return streams.get();
+	}
+
+	/**
+	 * Creates the random number generator of the current thread.
+	 *
+	 * @return the random number generator
+	 */
+	protected Random split() {
+
+		if (Thread.currentThread() == owner) {
+			return random;
+		}
+		if (random instanceof AvrRandom) {
+			return ((AvrRandom) random).split();
+		}
+
+		long seed;
+		synchronized (random) {
+			seed = random.nextLong();
+		}
+		return new Random(seed ^ Thread.currentThread().getId());
+	}
+}
@@ -0,0 +1,652 @@
+package de.uu.es.avr.batch;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.opt4j.core.Individual;
+import org.opt4j.core.Objective;
+import org.opt4j.core.Objectives;
+import org.opt4j.core.Value;
+import org.opt4j.core.optimizer.Archive;
+import org.opt4j.core.start.Opt4JTask;
+import org.opt4j.optimizers.ea.EvolutionaryAlgorithmModule;
+
+import com.google.inject.Module;
+
+import de.uu.es.avr.AvrModule;
+import de.uu.es.avr.AvrWCRTProblem;
+import de.uu.es.avr.io.AvrInputModule;
+import de.uu.es.avr.metrics.AvrEvents;
+import de.uu.es.avr.metrics.AvrMetrics;
+
+/**
+ * The {@link AvrBatchRunner} optimizes the {@link AvrWCRTProblem} for many task
+ * sets without the configurator and viewer of Opt4J, e.g., for unattended
+ * regression runs. Each task set is optimized by an own {@link Opt4JTask} (one
+ * injector per task set) on a pool of a fixed number of threads, and the final
+ * archive (the Pareto front) is written to a CSV file per task set as soon as
+ * the optimization of the task set completes.
+ *
+ * The modules of each optimization are the {@link EvolutionaryAlgorithmModule},
+ * the {@link AvrModule}, the {@link AvrInputModule} (with the task set as
+ * input specification) and optionally further modules. Their properties are
+ * set by name (see {@link #setProperty(List, String, String)}). The metrics
+ * and checkpoint files of the {@link AvrModule} are derived per task set,
+ * named after its result file. The metrics and flight-recorder events are
+ * process-wide and thus require a single concurrent optimization.
+ *
+ * @author vrichthammer
+ *
+ */
+public class AvrBatchRunner {
+
+	// the glob characters of task-set patterns
+	protected static final String GLOB = "*?[{";
+
+	protected final List<File> taskSets;
+	protected final List<Class<? extends Module>> modules;
+	protected final Map<String, String> properties;
+	protected final File directory;
+	protected final int runs;
+
+	/**
+	 * Creates the {@link AvrBatchRunner}.
+	 *
+	 * @param taskSets
+	 *            the task sets (xml specifications or binary task sets)
+	 * @param modules
+	 *            the additional modules (e.g., operators)
+	 * @param properties
+	 *            the properties of the modules (name and value)
+	 * @param directory
+	 *            the directory of the result files
+	 * @param runs
+	 *            the number of concurrent optimizations
+	 */
+	public AvrBatchRunner(List<File> taskSets, List<Class<? extends Module>> modules, Map<String, String> properties,
+			File directory, int runs) {
+		assert runs > 0 : "at least one concurrent optimization required";
+
+		this.taskSets = taskSets;
+		this.modules = modules;
+		this.properties = properties;
+		this.directory = directory;
+		this.runs = runs;
+	}
+
+	/**
+	 * Optimizes all task sets. Failed optimizations are reported on the error
+	 * stream and do not stop the other optimizations.
+	 *
+	 * @return the number of failed optimizations
+	 * @throws IOException
+	 *             if the directory of the result files cannot be created
+	 * @throws InterruptedException
+	 *             if interrupted while waiting for the optimizations
+	 */
+	public int run() throws IOException, InterruptedException {
+
+		// i) checks the properties before any optimization starts
+		List<File> results = getResultFiles(taskSets, directory);
+		checkConcurrency(createModules(taskSets.get(0), results.get(0)), Math.min(runs, taskSets.size()));
+
+		if (!directory.isDirectory() && !directory.mkdirs() && !directory.isDirectory()) {
+			throw new IOException("cannot create directory " + directory);
+		}
+
+		// ii) optimizes the task sets concurrently
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(runs, taskSets.size()));
+		CompletionService<String> completion = new ExecutorCompletionService<String>(executor);
+		Map<Future<String>, File> submitted = new HashMap<Future<String>, File>();
+		int failures = 0;
+
+		try {
+			for (int i = 0; i < taskSets.size(); i++) {
+				final File taskSet = taskSets.get(i);
+				final File result = results.get(i);
+
+				Future<String> future = completion.submit(new Callable<String>() {
+					@Override
+					public String call() throws Exception {
+						long start = System.currentTimeMillis();
+						int solutions = optimize(taskSet, result);
+
+						return taskSet + ": " + solutions + " solutions written to " + result + " ("
+								+ (System.currentTimeMillis() - start) + " ms)";
+					}
+				});
+				submitted.put(future, taskSet);
+			}
+
+			// iii) reports the optimizations in the order of completion
+			for (int i = 0; i < taskSets.size(); i++) {
+				Future<String> future = completion.take();
+
+				try {
+					System.out.println(future.get());
+				} catch (ExecutionException e) {
+					System.err.println(submitted.get(future) + ": optimization failed");
+					e.getCause().printStackTrace();
+					failures++;
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		return failures;
+	}
+
+	/**
+	 * Optimizes a task set and writes the final archive to the result file.
+	 *
+	 * @param taskSet
+	 *            the task set
+	 * @param result
+	 *            the result file
+	 * @return the number of solutions in the archive
+	 * @throws Exception
+	 *             if the optimization fails
+	 */
+	protected int optimize(File taskSet, File result) throws Exception {
+		Opt4JTask task = new Opt4JTask(false);
+		task.init(createModules(taskSet, result));
+
+		try {
+			task.execute();
+			return write(task.getInstance(Archive.class), result);
+		} finally {
+			task.close();
+		}
+	}
+
+	/**
+	 * Creates the modules of the optimization of a task set. The metrics and
+	 * checkpoint files are named after the result file of the task set (see
+	 * {@link #getFile(File, String)}).
+	 *
+	 * @param taskSet
+	 *            the task set
+	 * @param resultFile
+	 *            the result file of the task set
+	 * @return the modules
+	 */
+	protected List<Module> createModules(File taskSet, File resultFile) {
+		AvrInputModule input = new AvrInputModule();
+
+		List<Module> result = createModules(input, modules, properties);
+		input.setFilename(taskSet.getPath());
+
+		setFiles(result, resultFile);
+		return result;
+	}
+
+	/**
+	 * Names the metrics and checkpoint files of an optimization after its
+	 * result file (see {@link #getFile(File, String)}), so that concurrent
+	 * optimizations do not share them.
+	 *
+	 * @param modules
+	 *            the modules of the optimization
+	 * @param resultFile
+	 *            the result file of the optimization
+	 */
+	protected static void setFiles(List<Module> modules, File resultFile) {
+		for (Module module : modules) {
+			if (module instanceof AvrModule) {
+				AvrModule avrModule = (AvrModule) module;
+
+				avrModule.setMetricsFile(getFile(resultFile, avrModule.getMetricsFile()));
+				avrModule.setCheckpointFile(getFile(resultFile, avrModule.getCheckpointFile()));
+			}
+		}
+	}
+
+	/**
+	 * Returns the file of a task set, named after its result file, e.g.,
+	 * {@code results/task1-metrics.csv} for the result file
+	 * {@code results/task1.csv} and the file {@code metrics.csv}.
+	 *
+	 * @param resultFile
+	 *            the result file of the task set
+	 * @param file
+	 *            the file (empty: no file)
+	 * @return the file of the task set (empty: no file)
+	 */
+	protected static String getFile(File resultFile, String file) {
+		if (file.isEmpty()) {
+			return file;
+		}
+		String name = resultFile.getName().replaceFirst("\\.csv$", "");
+
+		return new File(resultFile.getParentFile(), name + "-" + new File(file).getName()).getPath();
+	}
+
+	/**
+	 * Checks that concurrent optimizations do not report the process-wide
+	 * metrics ({@link AvrMetrics}) or flight-recorder events
+	 * ({@link AvrEvents}), which would mix the counts of all optimizations.
+	 *
+	 * @param modules
+	 *            the modules of an optimization
+	 * @param runs
+	 *            the number of concurrent optimizations
+	 * @throws IllegalArgumentException
+	 *             if metrics or events are reported by concurrent
+	 *             optimizations
+	 */
+	protected static void checkConcurrency(List<Module> modules, int runs) {
+		for (Module module : modules) {
+			if (runs > 1 && module instanceof AvrModule) {
+				AvrModule avrModule = (AvrModule) module;
+
+				if (avrModule.isMetrics() || avrModule.isFlightRecorder()) {
+					throw new IllegalArgumentException("metrics and flightRecorder are process-wide and require "
+							+ "a single concurrent optimization (-j 1)");
+				}
+			}
+		}
+	}
+
+	/**
+	 * Creates the modules of an optimization: the
+	 * {@link EvolutionaryAlgorithmModule}, the {@link AvrModule}, the input
+	 * module and the additional modules, with the given properties.
+	 *
+	 * @param input
+	 *            the input module
+	 * @param modules
+	 *            the additional modules
+	 * @param properties
+	 *            the properties of the modules (name and value)
+	 * @return the modules
+	 */
+	protected static List<Module> createModules(AvrInputModule input, List<Class<? extends Module>> modules,
+			Map<String, String> properties) {
+		List<Module> result = new ArrayList<Module>();
+		result.add(new EvolutionaryAlgorithmModule());
+		result.add(new AvrModule());
+		result.add(input);
+
+		for (Class<? extends Module> module : modules) {
+			try {
+				result.add(module.getDeclaredConstructor().newInstance());
+			} catch (ReflectiveOperationException e) {
+				throw new IllegalArgumentException("cannot create module " + module.getName(), e);
+			}
+		}
+
+		for (Map.Entry<String, String> property : properties.entrySet()) {
+			setProperty(result, property.getKey(), property.getValue());
+		}
+		return result;
+	}
+
+	/**
+	 * Sets a property of all modules that have this property (a setter with
+	 * the name of the property). The value is converted to the type of the
+	 * property (primitive types, their wrappers, enums and strings).
+	 *
+	 * @param modules
+	 *            the modules
+	 * @param name
+	 *            the name of the property
+	 * @param value
+	 *            the value of the property
+	 * @throws IllegalArgumentException
+	 *             if no module has the property or the value is invalid
+	 */
+	protected static void setProperty(List<Module> modules, String name, String value) {
+		boolean found = false;
+
+		for (Module module : modules) {
+			Method setter = getSetter(module, name);
+
+			if (setter != null) {
+				try {
+					setter.invoke(module, toValue(setter.getParameterTypes()[0], value));
+				} catch (IllegalAccessException e) {
+					throw new IllegalArgumentException("cannot set " + name, e);
+				} catch (InvocationTargetException e) {
+					throw new IllegalArgumentException("cannot set " + name + " to " + value, e.getCause());
+				}
+				found = true;
+			}
+		}
+
+		if (!found) {
+			throw new IllegalArgumentException("unknown property " + name);
+		}
+	}
+
+	/**
+	 * Returns the type of a property of the modules.
+	 *
+	 * @param modules
+	 *            the modules
+	 * @param name
+	 *            the name of the property
+	 * @return the type of the property (of the first module that has it)
+	 * @throws IllegalArgumentException
+	 *             if no module has the property
+	 */
+	protected static Class<?> getPropertyType(List<Module> modules, String name) {
+		for (Module module : modules) {
+			Method setter = getSetter(module, name);
+
+			if (setter != null) {
+				return setter.getParameterTypes()[0];
+			}
+		}
+		throw new IllegalArgumentException("unknown property " + name);
+	}
+
+	/**
+	 * Returns the setter of a property of a module.
+	 *
+	 * @param module
+	 *            the module
+	 * @param name
+	 *            the name of the property
+	 * @return the setter (null if the module does not have the property)
+	 */
+	protected static Method getSetter(Module module, String name) {
+		String setter = "set" + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+
+		for (Method method : module.getClass().getMethods()) {
+			if (method.getName().equals(setter) && method.getParameterTypes().length == 1) {
+				return method;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Converts the value of a property to the type of the property.
+	 *
+	 * @param type
+	 *            the type
+	 * @param value
+	 *            the value
+	 * @return the converted value
+	 * @throws IllegalArgumentException
+	 *             if the value is invalid
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	protected static Object toValue(Class<?> type, String value) {
+		if (type == String.class) {
+			return value;
+		} else if (type == int.class || type == Integer.class) {
+			return Integer.valueOf(value);
+		} else if (type == long.class || type == Long.class) {
+			return Long.valueOf(value);
+		} else if (type == double.class || type == Double.class) {
+			return Double.valueOf(value);
+		} else if (type == float.class || type == Float.class) {
+			return Float.valueOf(value);
+		} else if (type == boolean.class || type == Boolean.class) {
+			if (!value.equalsIgnoreCase("true") && !value.equalsIgnoreCase("false")) {
+				throw new IllegalArgumentException("invalid boolean " + value);
+			}
+			return Boolean.valueOf(value);
+		} else if (type.isEnum()) {
+			return Enum.valueOf((Class<? extends Enum>) type, value.toUpperCase());
+		}
+		throw new IllegalArgumentException("unsupported type " + type.getName());
+	}
+
+	/**
+	 * Writes the archive to a CSV file: the objectives and the event sequence
+	 * of each solution. The file is written next to the result file first and
+	 * renamed when complete, so that no partial results are read.
+	 *
+	 * @param archive
+	 *            the archive
+	 * @param result
+	 *            the result file
+	 * @return the number of solutions
+	 * @throws IOException
+	 *             if the result file cannot be written
+	 */
+	protected static int write(Iterable<Individual> archive, File result) throws IOException {
+		File temp = new File(result.getPath() + ".part");
+		PrintWriter out = new PrintWriter(new OutputStreamWriter(new FileOutputStream(temp), "UTF-8"));
+		int solutions = 0;
+
+		try {
+			for (Individual individual : archive) {
+				if (solutions == 0) {
+					out.println(getHeader(individual.getObjectives()));
+				}
+				out.println(getLine(individual.getObjectives(), individual.getPhenotype()));
+				solutions++;
+			}
+		} finally {
+			out.close();
+		}
+
+		if (out.checkError()) {
+			temp.delete();
+			throw new IOException("cannot write " + result);
+		}
+		Files.move(temp.toPath(), result.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+		return solutions;
+	}
+
+	/**
+	 * Returns the header of the CSV file: the names of the objectives and the
+	 * event sequence.
+	 *
+	 * @param objectives
+	 *            the objectives of a solution
+	 * @return the header
+	 */
+	protected static String getHeader(Objectives objectives) {
+		StringBuilder result = new StringBuilder();
+
+		for (Map.Entry<Objective, Value<?>> objective : objectives) {
+			result.append(objective.getKey().getName()).append(',');
+		}
+		return result.append("eventSequence").toString();
+	}
+
+	/**
+	 * Returns the line of a solution in the CSV file.
+	 *
+	 * @param objectives
+	 *            the objectives of the solution
+	 * @param phenotype
+	 *            the event sequence of the solution
+	 * @return the line
+	 */
+	protected static String getLine(Objectives objectives, Object phenotype) {
+		StringBuilder result = new StringBuilder();
+
+		for (Map.Entry<Objective, Value<?>> objective : objectives) {
+			Value<?> value = objective.getValue();
+
+			// infeasible objectives remain empty
+			if (value != null && value.getValue() != null) {
+				result.append(value.getValue());
+			}
+			result.append(',');
+		}
+		return result.append('"').append(String.valueOf(phenotype).trim().replace("\"", "\"\"")).append('"')
+				.toString();
+	}
+
+	/**
+	 * Returns the result files of the task sets: the name of the task set
+	 * (without extension) in the directory, numbered if ambiguous.
+	 *
+	 * @param taskSets
+	 *            the task sets
+	 * @param directory
+	 *            the directory of the result files
+	 * @return the result files
+	 */
+	protected static List<File> getResultFiles(List<File> taskSets, File directory) {
+		List<File> result = new ArrayList<File>();
+		Set<String> names = new HashSet<String>();
+
+		for (File taskSet : taskSets) {
+			String name = taskSet.getName().replaceFirst("\\.[^.]*$", "");
+			String unique = name;
+
+			for (int k = 2; !names.add(unique); k++) {
+				unique = name + "-" + k;
+			}
+			result.add(new File(directory, unique + ".csv"));
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the task sets matching a file name or a glob pattern (e.g.,
+	 * {@code specs/*.xml} or {@code specs/**.xml}).
+	 *
+	 * @param pattern
+	 *            the file name or pattern
+	 * @return the matching files, ordered by name
+	 * @throws IOException
+	 *             if the directories cannot be read
+	 */
+	protected static List<File> expand(String pattern) throws IOException {
+		int glob = pattern.length();
+
+		for (char c : GLOB.toCharArray()) {
+			int index = pattern.indexOf(c);
+
+			if (index >= 0 && index < glob) {
+				glob = index;
+			}
+		}
+
+		if (glob == pattern.length()) {
+			return Collections.singletonList(new File(pattern));
+		}
+
+		// i) the directory preceding the first glob character
+		int separator = Math.max(pattern.lastIndexOf('/', glob), pattern.lastIndexOf(File.separatorChar, glob));
+		Path base = separator < 0 ? Paths.get("") : Paths.get(pattern.substring(0, separator + 1));
+
+		// ii) all files below the directory matching the pattern
+		final PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+		final List<File> result = new ArrayList<File>();
+
+		if (Files.isDirectory(base)) {
+			Files.walkFileTree(base, new SimpleFileVisitor<Path>() {
+				@Override
+				public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+					if (attributes.isRegularFile() && matcher.matches(file)) {
+						result.add(file.toFile());
+					}
+					return FileVisitResult.CONTINUE;
+				}
+			});
+		}
+		Collections.sort(result);
+
+		return result;
+	}
+
+	/**
+	 * Optimizes task sets without the configurator and viewer of Opt4J.
+	 *
+	 * <pre>
+	 * AvrBatchRunner [-o &lt;directory&gt;] [-j &lt;runs&gt;] [-m &lt;module&gt;]... [&lt;property&gt;=&lt;value&gt;]... &lt;task set or pattern&gt;...
+	 * </pre>
+	 *
+	 * The options are the directory of the result files (default: results),
+	 * the number of concurrent optimizations (default: the number of
+	 * processors) and additional modules (class names). The properties are
+	 * set on all modules with this property, e.g., {@code generations=500}
+	 * ({@link EvolutionaryAlgorithmModule}), {@code n=10} and
+	 * {@code decoder=RELATIVE} ({@link AvrModule}) or {@code accMax=300}
+	 * ({@link AvrInputModule}). The metrics and checkpoint files are written
+	 * per task set next to its result file.
+	 *
+	 * @param args
+	 *            the options, properties and task sets
+	 * @throws Exception
+	 *             if the arguments are invalid
+	 */
+	public static void main(String[] args) throws Exception {
+		File directory = new File("results");
+		int runs = Runtime.getRuntime().availableProcessors();
+		List<Class<? extends Module>> modules = new ArrayList<Class<? extends Module>>();
+		Map<String, String> properties = new LinkedHashMap<String, String>();
+		List<File> taskSets = new ArrayList<File>();
+
+		for (int i = 0; i < args.length; i++) {
+			String arg = args[i];
+
+			if (arg.equals("-o") && i + 1 < args.length) {
+				directory = new File(args[++i]);
+			} else if (arg.equals("-j") && i + 1 < args.length) {
+				runs = Integer.parseInt(args[++i]);
+			} else if (arg.equals("-m") && i + 1 < args.length) {
+				modules.add(Class.forName(args[++i]).asSubclass(Module.class));
+			} else if (arg.startsWith("-")) {
+				usage();
+			} else if (arg.indexOf('=') > 0) {
+				properties.put(arg.substring(0, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+			} else {
+				List<File> files = expand(arg);
+
+				if (files.isEmpty()) {
+					System.err.println("no task set matches " + arg);
+				}
+				taskSets.addAll(files);
+			}
+		}
+
+		if (taskSets.isEmpty() || runs < 1) {
+			usage();
+		}
+
+		int failures = new AvrBatchRunner(taskSets, modules, properties, directory, runs).run();
+		System.out.println((taskSets.size() - failures) + " of " + taskSets.size() + " task sets optimized");
+
+		// the optimizations may leave non-daemon threads
+		System.exit(failures > 0 ? 2 : 0);
+	}
+
+	/**
+	 * Prints the usage and exits.
+	 */
+	private static void usage() {
+		System.err.println("usage: AvrBatchRunner [-o <directory>] [-j <runs>] [-m <module>]... "
+				+ "[<property>=<value>]... <task set or pattern>...");
+		System.exit(1);
+	}
+}
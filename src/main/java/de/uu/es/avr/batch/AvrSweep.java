@@ -0,0 +1,504 @@
+package de.uu.es.avr.batch;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.opt4j.core.Individual;
+import org.opt4j.core.optimizer.Archive;
+import org.opt4j.core.start.Opt4JTask;
+
+import com.google.inject.Module;
+
+import de.uu.es.avr.AvrModule;
+import de.uu.es.avr.AvrWCRTProblem;
+import de.uu.es.avr.io.AvrInputModule;
+
+/**
+ * The {@link AvrSweep} optimizes the {@link AvrWCRTProblem} for each point of
+ * a {@link ParameterGrid} (e.g., the length of the event sequence, the
+ * accelerations and the decoder) and each task set, without the configurator
+ * and viewer of Opt4J. The optimizations run on a work-stealing
+ * {@link ForkJoinPool}, so that threads finishing short optimizations take
+ * over pending ones from busy threads. Each task set is read once and shared
+ * by all its optimizations ({@link SharedTaskSets}).
+ *
+ * The Pareto fronts and the runtimes of all optimizations are written to a
+ * single CSV table: one row per solution (or per optimization without
+ * solutions), with the task set and the parameters of the optimization. The
+ * metrics and checkpoint files of each optimization are written next to the
+ * table, named after the task set and the parameters (see
+ * {@link #getFile(File, File, Map)}). As in the {@link AvrBatchRunner},
+ * process-wide metrics and flight-recorder events require a single concurrent
+ * optimization.
+ *
+ * @author vrichthammer
+ *
+ */
+public class AvrSweep {
+
+	protected final List<File> taskSets;
+	protected final List<Class<? extends Module>> modules;
+	protected final Map<String, String> properties;
+	protected final ParameterGrid grid;
+	protected final File table;
+	protected final int parallelism;
+
+	protected final SharedTaskSets sharedTaskSets = new SharedTaskSets();
+
+	/**
+	 * An optimization of the sweep and its results.
+	 *
+	 * @author vrichthammer
+	 *
+	 */
+	protected static class Run {
+
+		protected final File taskSet;
+		protected final Map<String, String> parameters;
+
+		// the file the metrics and checkpoint files are named after
+		protected final File file;
+
+		// the objectives (header) and the lines of the solutions
+		protected String objectives = null;
+		protected final List<String> solutions = new ArrayList<String>();
+
+		protected long runtime = 0;
+		protected Exception failure = null;
+
+		/**
+		 * Creates the {@link Run}.
+		 *
+		 * @param taskSet
+		 *            the task set
+		 * @param parameters
+		 *            the parameters (a point of the grid)
+		 * @param file
+		 *            the file the metrics and checkpoint files are named
+		 *            after
+		 */
+		protected Run(File taskSet, Map<String, String> parameters, File file) {
+			this.taskSet = taskSet;
+			this.parameters = parameters;
+			this.file = file;
+		}
+	}
+
+	/**
+	 * The {@link RunAction} executes a range of the optimizations, splitting
+	 * it into halves that idle threads of the pool can steal.
+	 *
+	 * @author vrichthammer
+	 *
+	 */
+	protected class RunAction extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		protected final List<Run> runs;
+		protected final int from;
+		protected final int to;
+
+		/**
+		 * Creates the {@link RunAction}.
+		 *
+		 * @param runs
+		 *            the optimizations
+		 * @param from
+		 *            the first optimization (inclusive)
+		 * @param to
+		 *            the last optimization (exclusive)
+		 */
+		protected RunAction(List<Run> runs, int from, int to) {
+			this.runs = runs;
+			this.from = from;
+			this.to = to;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see java.util.concurrent.RecursiveAction#compute()
+		 */
+		@Override
+		protected void compute() {
+			if (to - from == 1) {
+				execute(runs.get(from));
+			} else {
+				int middle = (from + to) >>> 1;
+				invokeAll(new RunAction(runs, from, middle), new RunAction(runs, middle, to));
+			}
+		}
+	}
+
+	/**
+	 * Creates the {@link AvrSweep}.
+	 *
+	 * @param taskSets
+	 *            the task sets (xml specifications or binary task sets)
+	 * @param modules
+	 *            the additional modules (e.g., operators)
+	 * @param properties
+	 *            the properties of the modules common to all optimizations
+	 * @param grid
+	 *            the parameter grid
+	 * @param table
+	 *            the CSV table of the results
+	 * @param parallelism
+	 *            the number of concurrent optimizations
+	 */
+	public AvrSweep(List<File> taskSets, List<Class<? extends Module>> modules, Map<String, String> properties,
+			ParameterGrid grid, File table, int parallelism) {
+		assert parallelism > 0 : "at least one concurrent optimization required";
+
+		this.taskSets = taskSets;
+		this.modules = modules;
+		this.properties = properties;
+		this.grid = grid;
+		this.table = table;
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Optimizes all task sets for all points of the grid and writes the table
+	 * of the results. Failed optimizations are reported on the error stream
+	 * and in the table, and do not stop the other optimizations.
+	 *
+	 * @return the number of failed optimizations
+	 * @throws IOException
+	 *             if the table cannot be written
+	 */
+	public int run() throws IOException {
+
+		// i) all optimizations (the properties of each point are checked
+		// before any optimization starts)
+		List<Map<String, String>> points = grid.expand();
+		int concurrency = Math.min(parallelism, taskSets.size() * points.size());
+
+		for (Map<String, String> point : points) {
+			AvrBatchRunner.checkConcurrency(createModules(new AvrInputModule(), point), concurrency);
+		}
+
+		List<File> files = AvrBatchRunner.getResultFiles(taskSets, table.getAbsoluteFile().getParentFile());
+		List<Run> runs = new ArrayList<Run>();
+
+		for (int i = 0; i < taskSets.size(); i++) {
+			for (Map<String, String> point : points) {
+				runs.add(new Run(taskSets.get(i), point, getFile(files.get(i), point)));
+			}
+		}
+
+		// ii) executes the optimizations
+		ForkJoinPool pool = new ForkJoinPool(concurrency);
+		long start = System.currentTimeMillis();
+
+		try {
+			pool.invoke(new RunAction(runs, 0, runs.size()));
+		} finally {
+			pool.shutdownNow();
+		}
+
+		// iii) writes the table
+		write(runs, table);
+
+		int failures = 0;
+		for (Run run : runs) {
+			if (run.failure != null) {
+				failures++;
+			}
+		}
+		System.out.println((runs.size() - failures) + " of " + runs.size() + " optimizations of "
+				+ sharedTaskSets.size() + " task sets in " + (System.currentTimeMillis() - start) + " ms, written to "
+				+ table);
+
+		return failures;
+	}
+
+	/**
+	 * Creates the modules of an optimization.
+	 *
+	 * @param input
+	 *            the input module
+	 * @param point
+	 *            the parameters of the optimization
+	 * @return the modules
+	 */
+	protected List<Module> createModules(AvrInputModule input, Map<String, String> point) {
+		Map<String, String> merged = new LinkedHashMap<String, String>(properties);
+		merged.putAll(point);
+
+		return AvrBatchRunner.createModules(input, modules, merged);
+	}
+
+	/**
+	 * Returns the file the metrics and checkpoint files of an optimization
+	 * are named after (see {@link AvrBatchRunner#getFile(File, String)}): the
+	 * file of the task set, extended by the parameters of the grid point,
+	 * e.g., {@code task1-n=4-decoder=RELATIVE.csv} for {@code task1.csv}.
+	 *
+	 * @param file
+	 *            the (unique) file of the task set
+	 * @param point
+	 *            the parameters of the optimization
+	 * @return the file of the optimization
+	 */
+	protected static File getFile(File file, Map<String, String> point) {
+		StringBuilder name = new StringBuilder(file.getName().replaceFirst("\\.csv$", ""));
+
+		for (Map.Entry<String, String> parameter : point.entrySet()) {
+			name.append('-').append(parameter.getKey()).append('=').append(parameter.getValue());
+		}
+		return new File(file.getParentFile(), name.toString().replaceAll("[^\\w.=+-]", "_") + ".csv");
+	}
+
+	/**
+	 * Executes an optimization and records its results.
+	 *
+	 * @param run
+	 *            the optimization
+	 */
+	protected void execute(Run run) {
+		long start = System.nanoTime();
+
+		try {
+			SharedInputModule input = new SharedInputModule(sharedTaskSets);
+			List<Module> modules = createModules(input, run.parameters);
+			input.setFilename(run.taskSet.getPath());
+			AvrBatchRunner.setFiles(modules, run.file);
+
+			Opt4JTask task = new Opt4JTask(false);
+			task.init(modules);
+
+			try {
+				task.execute();
+
+				for (Individual individual : task.getInstance(Archive.class)) {
+					if (run.objectives == null) {
+						run.objectives = AvrBatchRunner.getHeader(individual.getObjectives());
+					}
+					run.solutions.add(AvrBatchRunner.getLine(individual.getObjectives(), individual.getPhenotype()));
+				}
+			} finally {
+				task.close();
+			}
+		} catch (Exception e) {
+			run.failure = e;
+		}
+		run.runtime = (System.nanoTime() - start) / 1000000;
+
+		if (run.failure == null) {
+			System.out.println(run.taskSet + " " + run.parameters + ": " + run.solutions.size() + " solutions ("
+					+ run.runtime + " ms)");
+		} else {
+			System.err.println(run.taskSet + " " + run.parameters + ": optimization failed");
+			run.failure.printStackTrace();
+		}
+	}
+
+	/**
+	 * Writes the table of the results. The table is written next to the file
+	 * first and renamed when complete.
+	 *
+	 * @param runs
+	 *            the optimizations
+	 * @param table
+	 *            the CSV table
+	 * @throws IOException
+	 *             if the table cannot be written
+	 */
+	protected void write(List<Run> runs, File table) throws IOException {
+
+		// the objectives are the same for all optimizations
+		String objectives = null;
+		for (Run run : runs) {
+			if (run.objectives != null) {
+				objectives = run.objectives;
+				break;
+			}
+		}
+
+		// the empty objectives and event sequence of optimizations without
+		// solutions
+		String empty = objectives == null ? "" : objectives.replaceAll("[^,]", "");
+
+		File temp = new File(table.getPath() + ".part");
+		PrintWriter out = new PrintWriter(new OutputStreamWriter(new FileOutputStream(temp), "UTF-8"));
+
+		try {
+			StringBuilder header = new StringBuilder("taskSet,");
+			for (String name : grid.getNames()) {
+				header.append(name).append(',');
+			}
+			header.append("status,runtime,solutions");
+			out.println(objectives == null ? header : header.append(',').append(objectives));
+
+			for (Run run : runs) {
+				StringBuilder prefix = new StringBuilder(quote(run.taskSet.getPath())).append(',');
+				for (String name : grid.getNames()) {
+					prefix.append(quote(run.parameters.get(name))).append(',');
+				}
+				prefix.append(run.failure == null ? "ok" : "failed").append(',').append(run.runtime).append(',')
+						.append(run.solutions.size());
+
+				if (run.solutions.isEmpty()) {
+					out.println(objectives == null ? prefix : prefix + "," + empty);
+				}
+				for (String solution : run.solutions) {
+					out.println(prefix + "," + solution);
+				}
+			}
+		} finally {
+			out.close();
+		}
+
+		if (out.checkError()) {
+			temp.delete();
+			throw new IOException("cannot write " + table);
+		}
+		Files.move(temp.toPath(), table.toPath(), StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	/**
+	 * Quotes a value of the CSV table if necessary.
+	 *
+	 * @param value
+	 *            the value
+	 * @return the quoted value
+	 */
+	protected static String quote(String value) {
+		if (value.indexOf(',') < 0 && value.indexOf('"') < 0) {
+			return value;
+		}
+		return '"' + value.replace("\"", "\"\"") + '"';
+	}
+
+	/**
+	 * Parses the values of a parameter of the grid (see
+	 * {@link ParameterGrid#parseValues(String)}). The values {@code *} of an
+	 * enum or boolean property are all its values, e.g., {@code decoder=*}
+	 * for all decoders of the {@link AvrModule}.
+	 *
+	 * @param modules
+	 *            the modules (to look up the type of the property)
+	 * @param name
+	 *            the name of the parameter
+	 * @param spec
+	 *            the values
+	 * @return the list of values
+	 */
+	protected static List<String> parseValues(List<Module> modules, String name, String spec) {
+		if (!spec.equals("*")) {
+			return ParameterGrid.parseValues(spec);
+		}
+
+		Class<?> type = AvrBatchRunner.getPropertyType(modules, name);
+		List<String> result = new ArrayList<String>();
+
+		if (type.isEnum()) {
+			for (Object constant : type.getEnumConstants()) {
+				result.add(((Enum<?>) constant).name());
+			}
+		} else if (type == boolean.class || type == Boolean.class) {
+			Collections.addAll(result, "false", "true");
+		} else {
+			throw new IllegalArgumentException("no values * of property " + name);
+		}
+		return result;
+	}
+
+	/**
+	 * Optimizes task sets for the points of a parameter grid.
+	 *
+	 * <pre>
+	 * AvrSweep [-o &lt;table&gt;] [-j &lt;runs&gt;] [-m &lt;module&gt;]... [&lt;property&gt;=&lt;values&gt;]... &lt;task set or pattern&gt;...
+	 * </pre>
+	 *
+	 * The options are the CSV table of the results (default: sweep.csv), the
+	 * number of concurrent optimizations (default: the number of processors)
+	 * and additional modules (class names). Properties with several values
+	 * span the grid, e.g., {@code n=2..10:2 accMax=100,200 decoder=*};
+	 * properties with a single value are common to all optimizations (see
+	 * {@link AvrBatchRunner#main(String[])}).
+	 *
+	 * @param args
+	 *            the options, properties and task sets
+	 * @throws Exception
+	 *             if the arguments are invalid
+	 */
+	public static void main(String[] args) throws Exception {
+		File table = new File("sweep.csv");
+		int parallelism = Runtime.getRuntime().availableProcessors();
+		List<Class<? extends Module>> modules = new ArrayList<Class<? extends Module>>();
+		Map<String, String> specs = new LinkedHashMap<String, String>();
+		List<File> taskSets = new ArrayList<File>();
+
+		for (int i = 0; i < args.length; i++) {
+			String arg = args[i];
+
+			if (arg.equals("-o") && i + 1 < args.length) {
+				table = new File(args[++i]);
+			} else if (arg.equals("-j") && i + 1 < args.length) {
+				parallelism = Integer.parseInt(args[++i]);
+			} else if (arg.equals("-m") && i + 1 < args.length) {
+				modules.add(Class.forName(args[++i]).asSubclass(Module.class));
+			} else if (arg.startsWith("-")) {
+				usage();
+			} else if (arg.indexOf('=') > 0) {
+				specs.put(arg.substring(0, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+			} else {
+				List<File> files = AvrBatchRunner.expand(arg);
+
+				if (files.isEmpty()) {
+					System.err.println("no task set matches " + arg);
+				}
+				taskSets.addAll(files);
+			}
+		}
+
+		if (taskSets.isEmpty() || parallelism < 1) {
+			usage();
+		}
+
+		// properties with several values span the grid
+		List<Module> prototypes = AvrBatchRunner.createModules(new AvrInputModule(), modules,
+				Collections.<String, String> emptyMap());
+		Map<String, String> properties = new LinkedHashMap<String, String>();
+		ParameterGrid grid = new ParameterGrid();
+
+		for (Map.Entry<String, String> spec : specs.entrySet()) {
+			List<String> values = parseValues(prototypes, spec.getKey(), spec.getValue());
+
+			if (values.size() == 1) {
+				properties.put(spec.getKey(), values.get(0));
+			} else {
+				grid.add(spec.getKey(), values);
+			}
+		}
+
+		int failures = new AvrSweep(taskSets, modules, properties, grid, table, parallelism).run();
+
+		// the optimizations may leave non-daemon threads
+		System.exit(failures > 0 ? 2 : 0);
+	}
+
+	/**
+	 * Prints the usage and exits.
+	 */
+	private static void usage() {
+		System.err.println("usage: AvrSweep [-o <table>] [-j <runs>] [-m <module>]... [<property>=<values>]... "
+				+ "<task set or pattern>...");
+		System.exit(1);
+	}
+}
@@ -0,0 +1,128 @@
+package de.uu.es.avr.batch;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@link ParameterGrid} is the Cartesian product of the values of
+ * parameters (properties of modules, see
+ * {@link AvrBatchRunner#setProperty(List, String, String)}).
+ *
+ * @author vrichthammer
+ *
+ */
+public class ParameterGrid {
+
+	// the values per parameter, in the order added
+	protected final Map<String, List<String>> values = new LinkedHashMap<String, List<String>>();
+
+	/**
+	 * Adds a parameter.
+	 *
+	 * @param name
+	 *            the name of the parameter
+	 * @param values
+	 *            the values of the parameter
+	 */
+	public void add(String name, List<String> values) {
+		if (values.isEmpty()) {
+			throw new IllegalArgumentException("no values of parameter " + name);
+		}
+		this.values.put(name, values);
+	}
+
+	/**
+	 * Returns the names of the parameters.
+	 *
+	 * @return the names, in the order added
+	 */
+	public List<String> getNames() {
+		return new ArrayList<String>(values.keySet());
+	}
+
+	/**
+	 * Returns the number of points of the grid.
+	 *
+	 * @return the number of points
+	 */
+	public int size() {
+		int size = 1;
+
+		for (List<String> parameter : values.values()) {
+			size *= parameter.size();
+		}
+		return size;
+	}
+
+	/**
+	 * Returns the points of the grid. The last parameter varies fastest.
+	 *
+	 * @return the points (name and value of each parameter)
+	 */
+	public List<Map<String, String>> expand() {
+		List<Map<String, String>> result = new ArrayList<Map<String, String>>();
+		result.add(Collections.<String, String> emptyMap());
+
+		for (Map.Entry<String, List<String>> parameter : values.entrySet()) {
+			List<Map<String, String>> points = new ArrayList<Map<String, String>>();
+
+			for (Map<String, String> point : result) {
+				for (String value : parameter.getValue()) {
+					Map<String, String> next = new LinkedHashMap<String, String>(point);
+					next.put(parameter.getKey(), value);
+					points.add(next);
+				}
+			}
+			result = points;
+		}
+		return result;
+	}
+
+	/**
+	 * Parses the values of a parameter: a list separated by commas, where each
+	 * element is a value or a range {@code <first>..<last>[:<step>]} of
+	 * numbers (e.g., {@code 2..10:2} or {@code 100,200..400:100}).
+	 *
+	 * @param spec
+	 *            the values
+	 * @return the list of values
+	 */
+	public static List<String> parseValues(String spec) {
+		List<String> result = new ArrayList<String>();
+
+		for (String element : spec.split(",")) {
+			int range = element.indexOf("..");
+
+			if (range <= 0) {
+				result.add(element.trim());
+				continue;
+			}
+
+			int separator = element.indexOf(':', range);
+			String last = separator < 0 ? element.substring(range + 2) : element.substring(range + 2, separator);
+
+			try {
+				BigDecimal first = new BigDecimal(element.substring(0, range).trim());
+				BigDecimal end = new BigDecimal(last.trim());
+				BigDecimal step = separator < 0 ? BigDecimal.ONE : new BigDecimal(element.substring(separator + 1)
+						.trim());
+
+				if (step.signum() <= 0 || first.compareTo(end) > 0) {
+					throw new IllegalArgumentException("invalid range " + element);
+				}
+
+				// exact decimal steps, e.g., 0.1..0.3:0.1
+				for (BigDecimal value = first; value.compareTo(end) <= 0; value = value.add(step)) {
+					result.add(value.toPlainString());
+				}
+			} catch (NumberFormatException e) {
+				throw new IllegalArgumentException("invalid range " + element, e);
+			}
+		}
+		return result;
+	}
+}
@@ -0,0 +1,39 @@
+package de.uu.es.avr.batch;
+
+import de.uu.es.avr.AvrWCRTProblem;
+import de.uu.es.avr.io.AvrInputModule;
+
+/**
+ * The {@link SharedInputModule} is the {@link AvrInputModule} of an
+ * optimization of the {@link AvrSweep}: the {@link AvrWCRTProblem} uses the
+ * task table of the {@link SharedTaskSets} instead of reading the task set
+ * again.
+ *
+ * @author vrichthammer
+ *
+ */
+public class SharedInputModule extends AvrInputModule {
+
+	protected final SharedTaskSets taskSets;
+
+	/**
+	 * Creates the {@link SharedInputModule}.
+	 *
+	 * @param taskSets
+	 *            the shared task sets
+	 */
+	public SharedInputModule(SharedTaskSets taskSets) {
+		this.taskSets = taskSets;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see de.uu.es.avr.io.AvrInputModule#config()
+	 */
+	@Override
+	protected void config() {
+		bind(AvrWCRTProblem.class).toInstance(
+				new AvrWCRTProblem(taskSets.get(filename, modeResolution, taskSetCache), accMin, accMax));
+	}
+}
@@ -0,0 +1,82 @@
+package de.uu.es.avr.batch;
+
+import java.io.File;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import de.uu.es.avr.AvrWCRTProblem;
+import de.uu.es.avr.model.TaskTable;
+
+/**
+ * The {@link SharedTaskSets} read each task set once and share its
+ * {@link TaskTable} between all optimizations of the task set (the task
+ * tables are immutable). Concurrent requests for the same task set wait for
+ * the first one to read it.
+ *
+ * @author vrichthammer
+ *
+ */
+public class SharedTaskSets {
+
+	// the task tables by file and resolution
+	protected final ConcurrentMap<String, FutureTask<TaskTable>> tables =
+			new ConcurrentHashMap<String, FutureTask<TaskTable>>();
+
+	/**
+	 * Returns the task table of a task set, reading it on first use (see
+	 * {@link AvrWCRTProblem#readTaskTable(String, int, String)}).
+	 *
+	 * @param filename
+	 *            the task set
+	 * @param modeResolution
+	 *            the resolution of the direct-index tables for looking up
+	 *            execution modes (0: binary search)
+	 * @param taskSetCache
+	 *            the directory caching binary task sets of xml specifications
+	 *            (empty: no cache)
+	 * @return the task table
+	 */
+	public TaskTable get(final String filename, final int modeResolution, final String taskSetCache) {
+		String key = new File(filename).getAbsolutePath() + "#" + modeResolution;
+		FutureTask<TaskTable> table = tables.get(key);
+
+		if (table == null) {
+			FutureTask<TaskTable> task = new FutureTask<TaskTable>(new Callable<TaskTable>() {
+				@Override
+				public TaskTable call() {
+					return AvrWCRTProblem.readTaskTable(filename, modeResolution, taskSetCache);
+				}
+			});
+
+			table = tables.putIfAbsent(key, task);
+			if (table == null) {
+				table = task;
+				table.run();
+			}
+		}
+
+		try {
+			return table.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	/**
+	 * Returns the number of task tables read.
+	 *
+	 * @return the number of task tables
+	 */
+	public int size() {
+		return tables.size();
+	}
+}
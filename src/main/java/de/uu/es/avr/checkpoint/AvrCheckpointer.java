@@ -0,0 +1,544 @@
+package de.uu.es.avr.checkpoint;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import org.opt4j.core.Genotype;
+import org.opt4j.core.Individual;
+import org.opt4j.core.IndividualFactory;
+import org.opt4j.core.genotype.CompositeGenotype;
+import org.opt4j.core.genotype.DoubleGenotype;
+import org.opt4j.core.genotype.IntegerGenotype;
+import org.opt4j.core.optimizer.Archive;
+import org.opt4j.core.optimizer.Iteration;
+import org.opt4j.core.optimizer.Optimizer;
+import org.opt4j.core.optimizer.OptimizerIterationListener;
+import org.opt4j.core.optimizer.OptimizerStateListener;
+import org.opt4j.core.optimizer.Population;
+import org.opt4j.core.problem.Decoder;
+import org.opt4j.core.start.Constant;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+import de.uu.es.avr.AvrEvaluator;
+import de.uu.es.avr.AvrRandom;
+import de.uu.es.avr.AvrUtils;
+import de.uu.es.avr.AvrWCRTProblem;
+import de.uu.es.avr.creatorDecoder.AvrCachingDecoder;
+import de.uu.es.avr.creatorDecoder.AvrLineageDecoder;
+import de.uu.es.avr.model.EventSequence;
+import de.uu.es.avr.model.TaskTable;
+
+/**
+ * The {@link AvrCheckpointer} periodically writes a {@link Checkpoint} of the
+ * population and the archive of the optimizer and resumes an optimization from
+ * it.
+ *
+ * The individuals are copied on the optimization thread after an iteration is
+ * complete; the file is written by a background thread. A checkpoint is
+ * skipped if the previous one is still being written, the last one is written
+ * when the optimization stops. The states of the random number generator
+ * ({@link AvrRandom}, bound by the {@link de.uu.es.avr.AvrModule}) and of the
+ * generators of the threads decoding in parallel (see
+ * {@link de.uu.es.avr.RandomStreams}) are saved and restored directly.
+ *
+ * On resume, the individuals are restored with their genotypes, decoded event
+ * sequences and objectives, so that they are neither decoded nor evaluated
+ * again; the optimizer only creates the individuals missing in the population.
+ * A checkpoint of a different problem (see {@link Checkpoint.Signature}) is
+ * rejected.
+ *
+ * The generators of the threads are restored in the order they were split; as
+ * the assignment of individuals to threads is not reproducible, a parallel
+ * optimization is not reproducible either way.
+ *
+ * @author vrichthammer
+ *
+ */
+@Singleton
+public class AvrCheckpointer implements OptimizerIterationListener, OptimizerStateListener {
+
+	protected final Population population;
+	protected final Archive archive;
+	protected final Iteration iteration;
+	protected final IndividualFactory individualFactory;
+	protected final AvrWCRTProblem avrProblem;
+	protected final AvrEvaluator evaluator;
+	protected final Random random;
+	protected final Checkpoint.Signature signature;
+
+	protected final File file;
+	protected final int interval;
+	protected final boolean resume;
+
+	protected final ExecutorService executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "AvrCheckpointer");
+			thread.setDaemon(true);
+			return thread;
+		}
+	});
+
+	// the pending write of the last checkpoint
+	protected Future<?> pending = null;
+
+	// whether the state of the random number generator cannot be saved
+	protected boolean unknownRandom = false;
+
+	/**
+	 * Creates the {@link AvrCheckpointer}.
+	 *
+	 * @param population
+	 *            the population
+	 * @param archive
+	 *            the archive
+	 * @param iteration
+	 *            the iteration of the optimizer
+	 * @param individualFactory
+	 *            the factory of the restored individuals
+	 * @param avrProblem
+	 *            the AVR problem
+	 * @param evaluator
+	 *            the evaluator
+	 * @param decoder
+	 *            the decoder
+	 * @param random
+	 *            the random number generator of the optimizer
+	 * @param n
+	 *            the length of the event sequences
+	 * @param filename
+	 *            the checkpoint file
+	 * @param interval
+	 *            the number of iterations between checkpoints (0: at the end
+	 *            only)
+	 * @param resume
+	 *            resume from the checkpoint file (if existing)
+	 */
+	@Inject
+	public AvrCheckpointer(Population population, Archive archive, Iteration iteration,
+			IndividualFactory individualFactory, AvrWCRTProblem avrProblem, AvrEvaluator evaluator,
+			Decoder<Genotype, Object> decoder, Random random,
+			@Constant(namespace = AvrWCRTProblem.class, value = "n") int n,
+			@Constant(namespace = AvrWCRTProblem.class, value = "checkpointFile") String filename,
+			@Constant(namespace = AvrWCRTProblem.class, value = "checkpointInterval") int interval,
+			@Constant(namespace = AvrWCRTProblem.class, value = "resume") boolean resume) {
+		this(population, archive, iteration, individualFactory, avrProblem, evaluator, random,
+				new Checkpoint.Signature(avrProblem, n, getDecoderClass(decoder)), filename, interval, resume);
+	}
+
+	/**
+	 * Creates the {@link AvrCheckpointer} for a problem of the given
+	 * signature.
+	 *
+	 * @param population
+	 *            the population
+	 * @param archive
+	 *            the archive
+	 * @param iteration
+	 *            the iteration of the optimizer
+	 * @param individualFactory
+	 *            the factory of the restored individuals
+	 * @param avrProblem
+	 *            the AVR problem
+	 * @param evaluator
+	 *            the evaluator
+	 * @param random
+	 *            the random number generator of the optimizer
+	 * @param signature
+	 *            the signature of the problem
+	 * @param filename
+	 *            the checkpoint file
+	 * @param interval
+	 *            the number of iterations between checkpoints (0: at the end
+	 *            only)
+	 * @param resume
+	 *            resume from the checkpoint file (if existing)
+	 */
+	public AvrCheckpointer(Population population, Archive archive, Iteration iteration,
+			IndividualFactory individualFactory, AvrWCRTProblem avrProblem, AvrEvaluator evaluator, Random random,
+			Checkpoint.Signature signature, String filename, int interval, boolean resume) {
+
+		assert filename.length() > 0 : "AvrCheckpointer: checkpoint file must be specified";
+		assert interval >= 0 : "AvrCheckpointer: interval must not be negative";
+
+		this.population = population;
+		this.archive = archive;
+		this.iteration = iteration;
+		this.individualFactory = individualFactory;
+		this.avrProblem = avrProblem;
+		this.evaluator = evaluator;
+		this.random = random;
+		this.signature = signature;
+		this.file = new File(filename);
+		this.interval = interval;
+		this.resume = resume;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.opt4j.core.optimizer.OptimizerStateListener#optimizationStarted(
+	 * org.opt4j.core.optimizer.Optimizer)
+	 */
+	@Override
+	public void optimizationStarted(Optimizer optimizer) {
+		if (!resume) {
+			return;
+		}
+		if (!file.isFile()) {
+			System.err.println("AvrCheckpointer: no checkpoint " + file + ", starting a new optimization");
+			return;
+		}
+
+		try {
+			restore(Checkpoint.read(file));
+		} catch (IOException e) {
+			throw new IllegalStateException("cannot read checkpoint " + file, e);
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * org.opt4j.core.optimizer.OptimizerIterationListener#iterationComplete(
+	 * int)
+	 */
+	@Override
+	public void iterationComplete(int iteration) {
+		if (interval > 0 && iteration % interval == 0 && (pending == null || pending.isDone())) {
+			check(pending);
+
+			final Checkpoint checkpoint = snapshot(iteration);
+
+			pending = executor.submit(new Runnable() {
+				@Override
+				public void run() {
+					write(checkpoint);
+				}
+			});
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.opt4j.core.optimizer.OptimizerStateListener#optimizationStopped(
+	 * org.opt4j.core.optimizer.Optimizer)
+	 */
+	@Override
+	public void optimizationStopped(Optimizer optimizer) {
+		try {
+			check(pending);
+			pending = null;
+
+			write(snapshot(iteration.value()));
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Copies the individuals of the population and the archive into a
+	 * checkpoint.
+	 *
+	 * @param iteration
+	 *            the iteration
+	 * @return the checkpoint
+	 */
+	protected Checkpoint snapshot(int iteration) {
+
+		// i) the individuals of the population and the archive
+		Map<Individual, Integer> individuals = new LinkedHashMap<Individual, Integer>();
+
+		for (Individual individual : population) {
+			individuals.put(individual, Checkpoint.POPULATION);
+		}
+		for (Individual individual : archive) {
+			Integer flags = individuals.get(individual);
+			individuals.put(individual, (flags == null ? 0 : flags) | Checkpoint.ARCHIVE);
+		}
+
+		// ii) the states of the random number generators
+		long[] states = new long[0];
+
+		if (random instanceof AvrRandom) {
+			states = ((AvrRandom) random).getStates();
+		} else if (!unknownRandom) {
+			unknownRandom = true;
+			System.err.println("AvrCheckpointer: the state of the random number generator ("
+					+ random.getClass().getName() + ") cannot be saved");
+		}
+
+		// iii) copies the individuals
+		Checkpoint checkpoint = null;
+
+		for (Map.Entry<Individual, Integer> entry : individuals.entrySet()) {
+			CompositeGenotype<String, Genotype> genotype = getGenotype(entry.getKey());
+			DoubleGenotype genes = getGenes(genotype);
+
+			if (checkpoint == null) {
+				checkpoint = new Checkpoint(signature, iteration, states, genotype.get(AvrUtils.RELATIVE) != null,
+						genes.size());
+			}
+			checkpoint.add(createEntry(entry.getKey(), entry.getValue(), genotype, genes));
+		}
+		return checkpoint == null ? new Checkpoint(signature, iteration, states, false, 0) : checkpoint;
+	}
+
+	/**
+	 * Copies an individual into an entry of a checkpoint.
+	 *
+	 * @param individual
+	 *            the individual
+	 * @param flags
+	 *            the flags ({@link Checkpoint#POPULATION},
+	 *            {@link Checkpoint#ARCHIVE})
+	 * @param genotype
+	 *            the genotype of the individual
+	 * @param genes
+	 *            the genes of the rotation speeds
+	 * @return the entry
+	 */
+	protected Checkpoint.Entry createEntry(Individual individual, int flags,
+			CompositeGenotype<String, Genotype> genotype, DoubleGenotype genes) {
+
+		int task0 = ((IntegerGenotype) genotype.get(AvrUtils.TASK_0)).get(0);
+		double omega0 = ((DoubleGenotype) genotype.get(AvrUtils.OMEGA_0)).get(0);
+
+		double[] values = new double[genes.size()];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = genes.get(i);
+		}
+
+		double[] omegas = null;
+		double mu = 0;
+		int sumC = 0;
+
+		if (individual.isEvaluated()) {
+			flags |= Checkpoint.EVALUATED;
+		}
+		if (individual.getPhenotype() instanceof EventSequence) {
+			EventSequence events = (EventSequence) individual.getPhenotype();
+
+			flags |= Checkpoint.PHENOTYPE;
+			omegas = events.getOmegas().clone();
+
+			if (events.isFeasible()) {
+				flags |= Checkpoint.FEASIBLE;
+			}
+			if (events.hasObjectives()) {
+				flags |= Checkpoint.OBJECTIVES;
+				mu = events.getMu();
+				sumC = events.getSumC();
+			}
+		}
+		return new Checkpoint.Entry(flags, task0, omega0, values, omegas, mu, sumC);
+	}
+
+	/**
+	 * Restores the population, the archive, the iteration and the random
+	 * number generator from a checkpoint.
+	 *
+	 * @param checkpoint
+	 *            the checkpoint
+	 */
+	protected void restore(Checkpoint checkpoint) {
+		String difference = signature.getDifference(checkpoint.getSignature());
+
+		if (difference != null) {
+			throw new IllegalStateException("checkpoint " + file + " of " + difference);
+		}
+
+		List<Individual> archived = new ArrayList<Individual>();
+
+		for (Checkpoint.Entry entry : checkpoint.getEntries()) {
+
+			// i) the genotype (created by the configured creator and
+			// overwritten, so that its bounds are kept)
+			Individual individual = individualFactory.create();
+			CompositeGenotype<String, Genotype> genotype = getGenotype(individual);
+			restoreGenotype(checkpoint, entry, genotype);
+
+			// ii) the decoded event sequence and its objectives
+			if (entry.is(Checkpoint.PHENOTYPE)) {
+				EventSequence events = createEvents(entry);
+				individual.setPhenotype(events);
+
+				if (entry.is(Checkpoint.EVALUATED)) {
+					individual.setObjectives(evaluator.evaluate(events));
+				}
+			}
+
+			if (entry.is(Checkpoint.POPULATION)) {
+				population.add(individual);
+			}
+			if (entry.is(Checkpoint.ARCHIVE)) {
+				archived.add(individual);
+			}
+		}
+		archive.update(new HashSet<Individual>(archived));
+
+		// iii) the iteration and the random number generator
+		while (iteration.value() < checkpoint.getIteration()) {
+			iteration.next();
+		}
+		if (checkpoint.getRandom().length > 0 && random instanceof AvrRandom) {
+			((AvrRandom) random).setStates(checkpoint.getRandom());
+		} else {
+			System.err.println("AvrCheckpointer: the state of the random number generator is not restored");
+		}
+
+		System.err.println("AvrCheckpointer: resumed " + population.size() + " individuals (" + archive.size()
+				+ " archived) at iteration " + checkpoint.getIteration() + " from " + file);
+	}
+
+	/**
+	 * Overwrites a genotype with the genes of an entry of a checkpoint.
+	 *
+	 * @param checkpoint
+	 *            the checkpoint
+	 * @param entry
+	 *            the entry
+	 * @param genotype
+	 *            the genotype
+	 */
+	protected void restoreGenotype(Checkpoint checkpoint, Checkpoint.Entry entry,
+			CompositeGenotype<String, Genotype> genotype) {
+
+		if ((genotype.get(AvrUtils.RELATIVE) != null) != checkpoint.isRelative()) {
+			throw new IllegalStateException("checkpoint " + file + " of a different encoding");
+		}
+		DoubleGenotype genes = getGenes(genotype);
+
+		if (genes.size() != checkpoint.getGenes()) {
+			throw new IllegalStateException("checkpoint " + file + " of " + checkpoint.getGenes()
+					+ " genes instead of " + genes.size());
+		}
+		if (entry.getTask0() < 0 || entry.getTask0() >= avrProblem.getTasksetSize()) {
+			throw new IllegalStateException("checkpoint " + file + " of a different task set");
+		}
+
+		((IntegerGenotype) genotype.get(AvrUtils.TASK_0)).set(0, entry.getTask0());
+		((DoubleGenotype) genotype.get(AvrUtils.OMEGA_0)).set(0, entry.getOmega0());
+
+		double[] values = entry.getGenes();
+		for (int i = 0; i < values.length; i++) {
+			genes.set(i, values[i]);
+		}
+	}
+
+	/**
+	 * Creates the decoded event sequence of an entry of a checkpoint.
+	 *
+	 * @param entry
+	 *            the entry
+	 * @return the event sequence
+	 */
+	protected EventSequence createEvents(Checkpoint.Entry entry) {
+		TaskTable table = avrProblem.getTaskTable();
+		double[] omegas = entry.getOmegas();
+
+		EventSequence events = new EventSequence(table, entry.getTask0(), omegas.length);
+
+		for (int i = 0; i < omegas.length; i++) {
+			events.setOmega(i, omegas[i]);
+		}
+		events.setFeasible(entry.is(Checkpoint.FEASIBLE));
+
+		if (entry.is(Checkpoint.OBJECTIVES)) {
+			events.setObjectives(entry.getMu(), entry.getSumC());
+		}
+		return events;
+	}
+
+	/**
+	 * Writes a checkpoint to the checkpoint file.
+	 *
+	 * @param checkpoint
+	 *            the checkpoint
+	 */
+	protected void write(Checkpoint checkpoint) {
+		try {
+			checkpoint.write(file);
+		} catch (IOException e) {
+			throw new IllegalStateException("cannot write checkpoint " + file, e);
+		}
+	}
+
+	/**
+	 * Waits for the write of a checkpoint and rethrows its failure.
+	 *
+	 * @param future
+	 *            the write (may be null)
+	 */
+	protected void check(Future<?> future) {
+		if (future == null) {
+			return;
+		}
+		try {
+			future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			throw new RuntimeException(e.getCause());
+		}
+	}
+
+	/**
+	 * Returns the class of a decoder; the class of the decoder whose results
+	 * are cached for the {@link AvrCachingDecoder} and the class of the decoder
+	 * that decodes incrementally for the {@link AvrLineageDecoder}.
+	 *
+	 * @param decoder
+	 *            the decoder
+	 * @return the class of the decoder
+	 */
+	protected static Class<?> getDecoderClass(Decoder<?, ?> decoder) {
+		if (decoder instanceof AvrCachingDecoder) {
+			return getDecoderClass(((AvrCachingDecoder) decoder).getDecoder());
+		}
+		if (decoder instanceof AvrLineageDecoder) {
+			return ((AvrLineageDecoder) decoder).getDecoder().getClass();
+		}
+		return decoder.getClass();
+	}
+
+	/**
+	 * Returns the genotype of an individual.
+	 *
+	 * @param individual
+	 *            the individual
+	 * @return the genotype
+	 */
+	@SuppressWarnings("unchecked")
+	protected static CompositeGenotype<String, Genotype> getGenotype(Individual individual) {
+		return (CompositeGenotype<String, Genotype>) individual.getGenotype();
+	}
+
+	/**
+	 * Returns the genes of the rotation speeds ({@link AvrUtils#OMEGAS} or
+	 * {@link AvrUtils#RELATIVE}) of a genotype.
+	 *
+	 * @param genotype
+	 *            the genotype
+	 * @return the genes
+	 */
+	protected static DoubleGenotype getGenes(CompositeGenotype<String, Genotype> genotype) {
+		Genotype relative = genotype.get(AvrUtils.RELATIVE);
+		return (DoubleGenotype) (relative != null ? relative : genotype.get(AvrUtils.OMEGAS));
+	}
+}
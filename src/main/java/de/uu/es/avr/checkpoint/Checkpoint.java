@@ -0,0 +1,673 @@
+package de.uu.es.avr.checkpoint;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import de.uu.es.avr.AvrRandom;
+import de.uu.es.avr.AvrUtils;
+import de.uu.es.avr.AvrWCRTProblem;
+import de.uu.es.avr.model.TaskTable;
+
+/**
+ * The {@link Checkpoint} is the state of an optimization of the
+ * {@link AvrWCRTProblem}: the individuals of the population and the archive
+ * (genotype, decoded rotation speeds and objectives), the iteration and the
+ * states of the random number generators. The {@link Signature} of the problem
+ * identifies the problem the objectives are valid for. It is written in a
+ * compact binary format (big-endian):
+ *
+ * <pre>
+ * int      magic ({@link #MAGIC})
+ * int      version ({@link #VERSION})
+ * byte[32] SHA-256 hash of the task table
+ * double   minimal acceleration
+ * double   maximal acceleration
+ * int      length of the event sequences
+ * UTF      decoder (class name)
+ * int      iteration
+ * int      number of states of the random number generators r (0: unknown)
+ * long[r]  states of the random number generator and the generators split
+ *          from it (see {@link AvrRandom#getStates()})
+ * byte     encoding (0: {@link AvrUtils#OMEGAS}, 1: {@link AvrUtils#RELATIVE})
+ * int      number of genes g (of the rotation speeds)
+ * int      number of individuals s
+ * s times: byte     flags ({@link #POPULATION}, {@link #ARCHIVE}, ...)
+ *          int      {@link AvrUtils#TASK_0}
+ *          double   {@link AvrUtils#OMEGA_0}
+ *          double[g] genes of the rotation speeds
+ *          if {@link #PHENOTYPE}: int length l, double[l] rotation speeds
+ *          if {@link #OBJECTIVES}: double mu, int sum_c
+ * </pre>
+ *
+ * @author vrichthammer
+ *
+ */
+public class Checkpoint {
+
+	// the first bytes of a checkpoint ("AVRC") and the format version
+	public static final int MAGIC = 0x41565243;
+	public static final int VERSION = 3;
+
+	// the size of the hash of the task table in bytes
+	protected static final int HASH = 32;
+
+	// the flags of an individual
+	public static final int POPULATION = 1;
+	public static final int ARCHIVE = 2;
+	public static final int EVALUATED = 4;
+	public static final int PHENOTYPE = 8;
+	public static final int FEASIBLE = 16;
+	public static final int OBJECTIVES = 32;
+
+	protected final Signature signature;
+	protected final int iteration;
+	protected final long[] random;
+	protected final boolean relative;
+	protected final int genes;
+
+	protected final List<Entry> entries = new ArrayList<Entry>();
+
+	/**
+	 * The {@link Signature} identifies an {@link AvrWCRTProblem}, its decoder
+	 * and the length of the event sequences, as the decoded event sequences
+	 * and objectives of a {@link Checkpoint} are valid only for the same
+	 * problem.
+	 *
+	 * @author vrichthammer
+	 *
+	 */
+	public static class Signature {
+		protected final byte[] taskTable;
+		protected final double accMin;
+		protected final double accMax;
+		protected final int n;
+		protected final String decoder;
+
+		/**
+		 * Creates a {@link Signature}.
+		 *
+		 * @param taskTable
+		 *            the hash of the task table (see {@link #hash(TaskTable)})
+		 * @param accMin
+		 *            the minimal acceleration
+		 * @param accMax
+		 *            the maximal acceleration
+		 * @param n
+		 *            the length of the event sequences
+		 * @param decoder
+		 *            the class name of the decoder
+		 */
+		public Signature(byte[] taskTable, double accMin, double accMax, int n, String decoder) {
+			assert taskTable.length == HASH : "Checkpoint: invalid hash of the task table";
+
+			this.taskTable = taskTable;
+			this.accMin = accMin;
+			this.accMax = accMax;
+			this.n = n;
+			this.decoder = decoder;
+		}
+
+		/**
+		 * Creates the {@link Signature} of an {@link AvrWCRTProblem}.
+		 *
+		 * @param avrProblem
+		 *            the AVR problem
+		 * @param n
+		 *            the length of the event sequences
+		 * @param decoder
+		 *            the decoder
+		 */
+		public Signature(AvrWCRTProblem avrProblem, int n, Class<?> decoder) {
+			this(hash(avrProblem.getTaskTable()), avrProblem.getAccMin(), avrProblem.getAccMax(), n,
+					decoder.getName());
+		}
+
+		/**
+		 * Returns the difference to another signature.
+		 *
+		 * @param other
+		 *            the other signature
+		 * @return the description of the difference, or {@code null} if the
+		 *         signatures are equal
+		 */
+		public String getDifference(Signature other) {
+			if (!Arrays.equals(taskTable, other.taskTable)) {
+				return "a different task set";
+			}
+			if (Double.compare(accMin, other.accMin) != 0 || Double.compare(accMax, other.accMax) != 0) {
+				return "accelerations [" + other.accMin + ", " + other.accMax + "] instead of [" + accMin + ", "
+						+ accMax + "]";
+			}
+			if (n != other.n) {
+				return "event sequences of length " + other.n + " instead of " + n;
+			}
+			if (!decoder.equals(other.decoder)) {
+				return "decoder " + other.decoder + " instead of " + decoder;
+			}
+			return null;
+		}
+
+		/**
+		 * Returns the SHA-256 hash of the content of a task table (release
+		 * angles, WCETs and boundaries of the execution modes), independent
+		 * of the format the task set was read from.
+		 *
+		 * @param table
+		 *            the task table
+		 * @return the hash
+		 */
+		public static byte[] hash(TaskTable table) {
+			MessageDigest digest;
+
+			try {
+				digest = MessageDigest.getInstance("SHA-256");
+			} catch (NoSuchAlgorithmException e) {
+				throw new IllegalStateException(e);
+			}
+
+			DataOutputStream out = new DataOutputStream(new DigestOutputStream(new OutputStream() {
+				@Override
+				public void write(int b) {
+					// only digested
+				}
+			}, digest));
+
+			try {
+				out.writeInt(table.size());
+
+				for (int task = 0; task < table.size(); task++) {
+					int modes = table.getModeCount(task);
+
+					out.writeDouble(table.getPhi(task));
+					out.writeInt(modes);
+
+					for (int mode = 0; mode < modes; mode++) {
+						out.writeDouble(table.getWcet(task, mode));
+					}
+					for (int boundary = 0; boundary <= modes; boundary++) {
+						out.writeDouble(table.getBoundary(task, boundary));
+					}
+				}
+				out.flush();
+			} catch (IOException e) {
+				throw new IllegalStateException(e);
+			}
+			return digest.digest();
+		}
+
+		/**
+		 * Returns the hash of the task table.
+		 *
+		 * @return the hash
+		 */
+		public byte[] getTaskTable() {
+			return taskTable;
+		}
+
+		/**
+		 * Returns the minimal acceleration.
+		 *
+		 * @return the minimal acceleration
+		 */
+		public double getAccMin() {
+			return accMin;
+		}
+
+		/**
+		 * Returns the maximal acceleration.
+		 *
+		 * @return the maximal acceleration
+		 */
+		public double getAccMax() {
+			return accMax;
+		}
+
+		/**
+		 * Returns the length of the event sequences.
+		 *
+		 * @return the length
+		 */
+		public int getN() {
+			return n;
+		}
+
+		/**
+		 * Returns the class name of the decoder.
+		 *
+		 * @return the class name
+		 */
+		public String getDecoder() {
+			return decoder;
+		}
+	}
+
+	/**
+	 * An individual of the {@link Checkpoint}.
+	 *
+	 * @author vrichthammer
+	 *
+	 */
+	public static class Entry {
+		protected final int flags;
+		protected final int task0;
+		protected final double omega0;
+		protected final double[] genes;
+		protected final double[] omegas;
+		protected final double mu;
+		protected final int sumC;
+
+		/**
+		 * Creates an {@link Entry}.
+		 *
+		 * @param flags
+		 *            the flags
+		 * @param task0
+		 *            the index of the first task
+		 * @param omega0
+		 *            the gene of the first rotation speed
+		 * @param genes
+		 *            the genes of the rotation speeds
+		 * @param omegas
+		 *            the decoded rotation speeds (if {@link #PHENOTYPE})
+		 * @param mu
+		 *            the time of the event sequence (if {@link #OBJECTIVES})
+		 * @param sumC
+		 *            the sum of the WCETs (if {@link #OBJECTIVES})
+		 */
+		public Entry(int flags, int task0, double omega0, double[] genes, double[] omegas, double mu, int sumC) {
+			assert ((flags & PHENOTYPE) != 0) == (omegas != null) : "Checkpoint: rotation speeds of the phenotype";
+
+			this.flags = flags;
+			this.task0 = task0;
+			this.omega0 = omega0;
+			this.genes = genes;
+			this.omegas = omegas;
+			this.mu = mu;
+			this.sumC = sumC;
+		}
+
+		/**
+		 * Returns whether a flag is set.
+		 *
+		 * @param flag
+		 *            the flag
+		 * @return true if set
+		 */
+		public boolean is(int flag) {
+			return (flags & flag) != 0;
+		}
+
+		/**
+		 * Returns the flags.
+		 *
+		 * @return the flags
+		 */
+		public int getFlags() {
+			return flags;
+		}
+
+		/**
+		 * Returns the index of the first task.
+		 *
+		 * @return the index of the first task
+		 */
+		public int getTask0() {
+			return task0;
+		}
+
+		/**
+		 * Returns the gene of the first rotation speed.
+		 *
+		 * @return the gene of the first rotation speed
+		 */
+		public double getOmega0() {
+			return omega0;
+		}
+
+		/**
+		 * Returns the genes of the rotation speeds.
+		 *
+		 * @return the genes
+		 */
+		public double[] getGenes() {
+			return genes;
+		}
+
+		/**
+		 * Returns the decoded rotation speeds.
+		 *
+		 * @return the rotation speeds (null if not decoded)
+		 */
+		public double[] getOmegas() {
+			return omegas;
+		}
+
+		/**
+		 * Returns the time of the event sequence.
+		 *
+		 * @return the time
+		 */
+		public double getMu() {
+			return mu;
+		}
+
+		/**
+		 * Returns the sum of the WCETs of the event sequence.
+		 *
+		 * @return the sum of the WCETs
+		 */
+		public int getSumC() {
+			return sumC;
+		}
+	}
+
+	/**
+	 * Creates an empty {@link Checkpoint}.
+	 *
+	 * @param signature
+	 *            the signature of the problem
+	 * @param iteration
+	 *            the iteration
+	 * @param random
+	 *            the states of the random number generators (see
+	 *            {@link AvrRandom#getStates()}, empty: unknown)
+	 * @param relative
+	 *            whether the genes are the relative encoding
+	 *            ({@link AvrUtils#RELATIVE})
+	 * @param genes
+	 *            the number of genes of the rotation speeds
+	 */
+	public Checkpoint(Signature signature, int iteration, long[] random, boolean relative, int genes) {
+		this.signature = signature;
+		this.iteration = iteration;
+		this.random = random;
+		this.relative = relative;
+		this.genes = genes;
+	}
+
+	/**
+	 * Adds an individual.
+	 *
+	 * @param entry
+	 *            the individual
+	 */
+	public void add(Entry entry) {
+		if (entry.genes.length != genes) {
+			throw new IllegalArgumentException(entry.genes.length + " genes instead of " + genes);
+		}
+		entries.add(entry);
+	}
+
+	/**
+	 * Returns the individuals.
+	 *
+	 * @return the individuals
+	 */
+	public List<Entry> getEntries() {
+		return Collections.unmodifiableList(entries);
+	}
+
+	/**
+	 * Returns the signature of the problem.
+	 *
+	 * @return the signature
+	 */
+	public Signature getSignature() {
+		return signature;
+	}
+
+	/**
+	 * Returns the iteration.
+	 *
+	 * @return the iteration
+	 */
+	public int getIteration() {
+		return iteration;
+	}
+
+	/**
+	 * Returns the states of the random number generators.
+	 *
+	 * @return the states (see {@link AvrRandom#getStates()}, empty: unknown)
+	 */
+	public long[] getRandom() {
+		return random.clone();
+	}
+
+	/**
+	 * Returns whether the genes are the relative encoding.
+	 *
+	 * @return true if {@link AvrUtils#RELATIVE}, false if
+	 *         {@link AvrUtils#OMEGAS}
+	 */
+	public boolean isRelative() {
+		return relative;
+	}
+
+	/**
+	 * Returns the number of genes of the rotation speeds.
+	 *
+	 * @return the number of genes
+	 */
+	public int getGenes() {
+		return genes;
+	}
+
+	/**
+	 * Writes the checkpoint to a file. The checkpoint is written to a
+	 * temporary file first and moved to the file when complete, so that the
+	 * previous checkpoint remains if writing fails.
+	 *
+	 * @param file
+	 *            the file
+	 * @throws IOException
+	 *             if the checkpoint cannot be written
+	 */
+	public void write(File file) throws IOException {
+		File directory = file.getAbsoluteFile().getParentFile();
+		File temp = File.createTempFile(file.getName(), ".tmp", directory);
+
+		try {
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)));
+
+			try {
+				write(out);
+			} finally {
+				out.close();
+			}
+
+			try {
+				Files.move(temp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			temp.delete();
+		}
+	}
+
+	/**
+	 * Writes the checkpoint to a stream.
+	 *
+	 * @param out
+	 *            the output stream
+	 * @throws IOException
+	 *             if the checkpoint cannot be written
+	 */
+	public void write(DataOutputStream out) throws IOException {
+
+		// i) header
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		out.write(signature.taskTable);
+		out.writeDouble(signature.accMin);
+		out.writeDouble(signature.accMax);
+		out.writeInt(signature.n);
+		out.writeUTF(signature.decoder);
+		out.writeInt(iteration);
+		out.writeInt(random.length);
+		for (long state : random) {
+			out.writeLong(state);
+		}
+		out.writeByte(relative ? 1 : 0);
+		out.writeInt(genes);
+		out.writeInt(entries.size());
+
+		// ii) individuals
+		for (Entry entry : entries) {
+			out.writeByte(entry.flags);
+			out.writeInt(entry.task0);
+			out.writeDouble(entry.omega0);
+
+			for (double gene : entry.genes) {
+				out.writeDouble(gene);
+			}
+
+			if (entry.is(PHENOTYPE)) {
+				out.writeInt(entry.omegas.length);
+
+				for (double omega : entry.omegas) {
+					out.writeDouble(omega);
+				}
+			}
+			if (entry.is(OBJECTIVES)) {
+				out.writeDouble(entry.mu);
+				out.writeInt(entry.sumC);
+			}
+		}
+	}
+
+	/**
+	 * Reads a checkpoint from a file.
+	 *
+	 * @param file
+	 *            the file
+	 * @return the checkpoint
+	 * @throws IOException
+	 *             if the file cannot be read or is not a valid checkpoint
+	 */
+	public static Checkpoint read(File file) throws IOException {
+		DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+
+		try {
+			return read(in);
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Reads a checkpoint from a stream.
+	 *
+	 * @param in
+	 *            the input stream
+	 * @return the checkpoint
+	 * @throws IOException
+	 *             if the stream cannot be read or is not a valid checkpoint
+	 */
+	public static Checkpoint read(DataInputStream in) throws IOException {
+		try {
+			// i) header
+			if (in.readInt() != MAGIC) {
+				throw new IOException("not a checkpoint");
+			}
+			int version = in.readInt();
+			if (version != VERSION) {
+				throw new IOException("unsupported version " + version);
+			}
+
+			byte[] taskTable = new byte[HASH];
+			in.readFully(taskTable);
+			Signature signature = new Signature(taskTable, in.readDouble(), in.readDouble(), in.readInt(),
+					in.readUTF());
+
+			int iteration = in.readInt();
+			int states = in.readInt();
+			if (states < 0) {
+				throw new IOException("invalid number of states of the random number generators");
+			}
+			long[] random = new long[states];
+			for (int i = 0; i < states; i++) {
+				random[i] = in.readLong();
+			}
+
+			boolean relative = in.readByte() != 0;
+			int genes = in.readInt();
+			int size = in.readInt();
+
+			if (genes < 0 || size < 0) {
+				throw new IOException("invalid size of the checkpoint");
+			}
+
+			Checkpoint checkpoint = new Checkpoint(signature, iteration, random, relative, genes);
+
+			// ii) individuals
+			for (int i = 0; i < size; i++) {
+				int flags = in.readByte();
+				int task0 = in.readInt();
+				double omega0 = in.readDouble();
+				double[] values = readDoubles(in, genes);
+
+				double[] omegas = null;
+				if ((flags & PHENOTYPE) != 0) {
+					int length = in.readInt();
+
+					if (length < 0) {
+						throw new IOException("invalid length of the event sequence");
+					}
+					omegas = readDoubles(in, length);
+				}
+
+				double mu = 0;
+				int sumC = 0;
+				if ((flags & OBJECTIVES) != 0) {
+					mu = in.readDouble();
+					sumC = in.readInt();
+				}
+				checkpoint.add(new Entry(flags, task0, omega0, values, omegas, mu, sumC));
+			}
+			return checkpoint;
+
+		} catch (EOFException e) {
+			throw new IOException("truncated checkpoint", e);
+		}
+	}
+
+	/**
+	 * Reads doubles from a stream.
+	 *
+	 * @param in
+	 *            the input stream
+	 * @param length
+	 *            the number of doubles
+	 * @return the doubles
+	 * @throws IOException
+	 *             if the stream cannot be read
+	 */
+	protected static double[] readDoubles(DataInputStream in, int length) throws IOException {
+		double[] result = new double[length];
+
+		for (int i = 0; i < length; i++) {
+			result[i] = in.readDouble();
+		}
+		return result;
+	}
+}
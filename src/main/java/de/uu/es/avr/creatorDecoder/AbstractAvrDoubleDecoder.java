@@ -1,8 +1,5 @@
 package de.uu.es.avr.creatorDecoder;
 
-import java.util.LinkedList;
-import java.util.List;
-
 import org.opt4j.core.Genotype;
 import org.opt4j.core.genotype.CompositeGenotype;
 import org.opt4j.core.genotype.DoubleGenotype;
@@ -11,8 +8,8 @@ import org.opt4j.core.problem.Decoder;
 
 import de.uu.es.avr.AvrUtils;
 import de.uu.es.avr.AvrWCRTProblem;
-import de.uu.es.avr.model.AvrTask;
 import de.uu.es.avr.model.EventSequence;
+import de.uu.es.avr.model.TaskTable;
 
 /**
  * The {@link AbstractAvrDoubleDecoder} decodes {@link Genotype}s of the
@@ -37,15 +34,17 @@ public abstract class AbstractAvrDoubleDecoder implements Decoder<CompositeGenot
 	 */
 	public EventSequence getEventSequence(CompositeGenotype<String, Genotype> genotype) {
 
-		List<AvrTask> eventSequence = new LinkedList<AvrTask>();
+		DoubleGenotype omegas = genotype.get(AvrUtils.OMEGAS);
+		TaskTable table = avrProblem.getTaskTable();
 
 		// i.1) decode first task
 		int task0_index = ((IntegerGenotype) genotype.get(AvrUtils.TASK_0)).get(0);
-		AvrTask first = (avrProblem.getTask(task0_index)).getEvent();
+
+		EventSequence sequence = new EventSequence(table, task0_index, omegas.size() + 1);
 
 		// i.2) decode omega0
 		double omega0_rel = ((DoubleGenotype) genotype.get(AvrUtils.OMEGA_0)).get(0);
-		double omega0_count = first.getOmega0s().length;
+		double omega0_count = table.getModeCount(task0_index);
 
 		int omega0_index = (int) (omega0_rel * omega0_count);
 
@@ -55,24 +54,15 @@ public abstract class AbstractAvrDoubleDecoder implements Decoder<CompositeGenot
 			omega0_index -= 1;
 		}
 
-		// i.3) decode and store first event with rotation speed
-		first.setOmega(first.getOmega0(omega0_index));
-		eventSequence.add(first);
-
-		// ii) decode and store events_1..n with omega_1..n
-		DoubleGenotype omegas = genotype.get(AvrUtils.OMEGAS);
+		// i.3) decode and store rotation speed of first event
+		sequence.setOmega(0, table.getOmega0(task0_index, omega0_index));
 
+		// ii) decode and store omega_1..n of events_1..n
 		for (int i = 0; i < omegas.size(); i++) {
-			int index = (task0_index + 1 + i) % avrProblem.getTasksetSize();
-
-			AvrTask next = avrProblem.getTask(index).getEvent();
-			next.setOmega(omegas.get(i));
-
-			eventSequence.add(next);
+			sequence.setOmega(i + 1, omegas.get(i));
 		}
 
 		// iii) check and set feasibility of event sequence
-		EventSequence sequence = new EventSequence(eventSequence);
 		sequence.setFeasible(AvrUtils.isValid(sequence, avrProblem));
 
 		return sequence;
@@ -1,18 +1,23 @@
 package de.uu.es.avr.creatorDecoder;
 
-import java.util.LinkedList;
-import java.util.List;
-
 import org.opt4j.core.Genotype;
 import org.opt4j.core.genotype.CompositeGenotype;
 import org.opt4j.core.genotype.DoubleGenotype;
 import org.opt4j.core.genotype.IntegerGenotype;
 
+import de.uu.es.avr.AvrEvaluator;
 import de.uu.es.avr.AvrUtils;
 import de.uu.es.avr.AvrUtils.DoubleRange;
 import de.uu.es.avr.AvrWCRTProblem;
-import de.uu.es.avr.model.AvrTask;
+import de.uu.es.avr.metrics.AvrEvents;
+import de.uu.es.avr.metrics.AvrMetrics;
+import de.uu.es.avr.metrics.CorrectionEvent;
+import de.uu.es.avr.metrics.DecodeEvent;
+import de.uu.es.avr.model.C;
+import de.uu.es.avr.model.DecodeCheckpoint;
+import de.uu.es.avr.model.Envelope;
 import de.uu.es.avr.model.EventSequence;
+import de.uu.es.avr.model.TaskTable;
 
 /**
  * The {@link AbstractAvrDoubleDecoderCorrecting} decodes {@link Genotype}s of
@@ -21,25 +26,36 @@ import de.uu.es.avr.model.EventSequence;
  * infeasible, a correcting scheme is applied to repair infeasible parts of the
  * {@link Genotype} as well as the {@link EventSequence}.
  * 
+ * The decoder itself is stateless and can be shared by concurrent threads. The
+ * repaired rotation speeds are written back into the decoded {@link Genotype}
+ * only, which is owned by a single individual and thus decoded by one thread at
+ * a time.
+ * 
+ * The objectives are accumulated while decoding. If enabled, a
+ * {@link DecodeCheckpoint} is kept with each decoded {@link EventSequence}, so
+ * that mutated copies of the genotype can be decoded incrementally.
+ * 
  * @author vrichthammer
  *
  */
-public abstract class AbstractAvrDoubleDecoderCorrecting extends AbstractAvrDoubleDecoder {
+public abstract class AbstractAvrDoubleDecoderCorrecting extends AbstractAvrDoubleDecoder
+		implements AvrIncrementalDecoder {
+
+	// the interval of recorded decode checkpoints (0: none)
+	protected int checkpointInterval = 0;
 
 	/**
 	 * Allows to integrate various correcting strategies during decoding.
 	 *
 	 * @param genotype
 	 *            the genotype
-	 * @param task
-	 *            the task requiring correction of its rotation speed
 	 * @param index
-	 *            the task's position in the event sequence
+	 *            the position of the rotation speed in the genotype
 	 * @param bounds
-	 *            the feasible bounds for the task's rotation speed
-	 * @return the corrected task
+	 *            the feasible bounds for the event's rotation speed
+	 * @return the corrected rotation speed
 	 */
-	public abstract AvrTask correctingStrategy(CompositeGenotype<String, Genotype> genotype, AvrTask task, int index,
+	public abstract double correctingStrategy(CompositeGenotype<String, Genotype> genotype, int index,
 			DoubleRange bounds);
 
 	/*
@@ -50,14 +66,32 @@ public abstract class AbstractAvrDoubleDecoderCorrecting extends AbstractAvrDoub
 	@Override
 	public EventSequence decode(CompositeGenotype<String, Genotype> genotype) {
 
-		EventSequence eventSequence = getEventSequence(genotype);
+		// validates and corrects in a single pass (feasible sequences are
+		// decoded unchanged)
+		return correct(genotype);
+	}
 
-		if (AvrUtils.isValid(eventSequence, this.avrProblem)) {
-			return eventSequence;
-		}
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see de.uu.es.avr.creatorDecoder.AvrIncrementalDecoder#decode(org.opt4j.
+	 * core.genotype.CompositeGenotype, de.uu.es.avr.model.EventSequence, int)
+	 */
+	@Override
+	public EventSequence decode(CompositeGenotype<String, Genotype> genotype, EventSequence parent, int index) {
+		return correct(genotype, parent, index);
+	}
 
-		// try to correct and check if correction was successful
-		return correct(genotype);
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see de.uu.es.avr.creatorDecoder.AvrIncrementalDecoder#
+	 * setCheckpointInterval(int)
+	 */
+	@Override
+	public void setCheckpointInterval(int interval) {
+		assert interval >= 0 : "AbstractAvrDoubleDecoderCorrecting: interval must not be negative";
+		this.checkpointInterval = interval;
 	}
 
 	/**
@@ -65,6 +99,13 @@ public abstract class AbstractAvrDoubleDecoderCorrecting extends AbstractAvrDoub
 	 * requiring repair. Applies a correcting strategy to try and correct them.
 	 * Returns the decoded {@link EventSequence} and whether correction was
 	 * successful.
+	 * 
+	 * Validation and repair happen in one forward pass: each transition is
+	 * checked once, and decoding stops at the first transition without any
+	 * feasible rotation speed. Feasible ranges are restricted to the
+	 * {@link Envelope} of the problem, so that a repaired prefix never leads
+	 * into a dead end; the rotation speed of the first event is moved to the
+	 * closest initial rotation speed within the envelope.
 	 *
 	 * @param genotype
 	 *            the genotype to repair
@@ -72,59 +113,211 @@ public abstract class AbstractAvrDoubleDecoderCorrecting extends AbstractAvrDoub
 	 *         repair was successful
 	 */
 	public EventSequence correct(CompositeGenotype<String, Genotype> genotype) {
+		return correct(genotype, null, 0);
+	}
+
+	/**
+	 * Repairs a genotype as {@link #correct(CompositeGenotype)}, resuming at
+	 * the last {@link DecodeCheckpoint} of the parent before the first changed
+	 * gene (see {@link AvrIncrementalDecoder}). The objectives are accumulated
+	 * while decoding.
+	 *
+	 * @param genotype
+	 *            the genotype to repair
+	 * @param parent
+	 *            the decoded parent (or {@code null})
+	 * @param index
+	 *            the index of the first changed gene of the rotation speeds
+	 * @return the decoded event sequence, including information on whether
+	 *         repair was successful
+	 */
+	public EventSequence correct(CompositeGenotype<String, Genotype> genotype, EventSequence parent, int index) {
+
+		if (!AvrMetrics.ENABLED && !AvrEvents.ENABLED) {
+			return repair(genotype, parent, index);
+		}
+
+		DecodeEvent event = new DecodeEvent();
+		event.begin();
+
+		long start = System.nanoTime();
+		EventSequence eventSequence = repair(genotype, parent, index);
+
+		if (AvrMetrics.ENABLED) {
+			AvrMetrics.get().decoded(eventSequence.isFeasible(), System.nanoTime() - start);
+		}
+		event.commit(this, eventSequence);
+
+		return eventSequence;
+	}
+
+	/**
+	 * Repairs a genotype (see
+	 * {@link #correct(CompositeGenotype, EventSequence, int)}).
+	 *
+	 * @param genotype
+	 *            the genotype to repair
+	 * @param parent
+	 *            the decoded parent (or {@code null})
+	 * @param index
+	 *            the index of the first changed gene of the rotation speeds
+	 * @return the decoded event sequence, including information on whether
+	 *         repair was successful
+	 */
+	protected EventSequence repair(CompositeGenotype<String, Genotype> genotype, EventSequence parent, int index) {
 
-		List<AvrTask> events = new LinkedList<AvrTask>();
+		DoubleGenotype omegas = genotype.get(AvrUtils.OMEGAS);
+		TaskTable table = avrProblem.getTaskTable();
 
 		// i) decodes first task and omega0 (always valid, by encoding)
 		int task0_index = ((IntegerGenotype) genotype.get(AvrUtils.TASK_0)).get(0);
-		AvrTask first = (avrProblem.getTask(task0_index)).getEvent();
 
-		double omega0_rel = ((DoubleGenotype) genotype.get(AvrUtils.OMEGA_0)).get(0);
-		double omega0N = first.getOmega0s().length;
+		int length = omegas.size() + 1;
+		EventSequence eventSequence = new EventSequence(table, task0_index, length);
+
+		Envelope envelope = avrProblem.getEnvelope(task0_index, length);
+		DecodeCheckpoint checkpoint = checkpointInterval > 0 ? new DecodeCheckpoint(length, checkpointInterval)
+				: null;
+
+		int position = 0;
+		double mu = 0;
+		int sumC = 0;
+
+		// whether all rotation speeds have an execution mode (otherwise, e.g.
+		// if repaired to the minimal rotation speed of a task, the evaluator
+		// reports the rotation speed out of range)
+		boolean complete = true;
+
+		// the number of corrected rotation speeds (metrics only)
+		int corrections = 0;
+
+		DoubleGenotype omega0_gene = genotype.get(AvrUtils.OMEGA_0);
+		double omega0_rel = omega0_gene.get(0);
+		double omega0N = table.getModeCount(task0_index);
 		int omega0_index = (int) (omega0_rel * omega0N);
 
-		// encoding 1.0 should refer to last execution mode in list of rotation
-		// speeds
+		// encoding 1.0 should refer to last execution mode in list of
+		// rotation speeds
 		if (omega0_index == omega0N) {
 			omega0_index -= 1;
 		}
-		first.setOmega(first.getOmega0(omega0_index));
-		events.add(first);
+		eventSequence.setOmega(0, table.getOmega0(task0_index, omega0_index));
+
+		// i.1) moves omega0 into the envelope (no feasible event sequence
+		// otherwise) and corrects the genotype
+		int envelope_index = envelope.findOmega0(table, omega0_index);
+
+		if (envelope_index == Envelope.NO_OMEGA0) {
+			eventSequence.setFeasible(false);
+			return eventSequence;
+		}
+		if (envelope_index != omega0_index) {
+			omega0_index = envelope_index;
+			omega0_gene.set(0, (omega0_index + 0.5) / omega0N);
+		}
+		double omega0 = table.getOmega0(task0_index, omega0_index);
+
+		if (DecodeCheckpoint.isResumable(parent, table, task0_index, length, omega0, index, checkpointInterval)) {
+
+			// i.2) resumes at the parent's last checkpoint before the change
+			DecodeCheckpoint previous = parent.getCheckpoint();
+			position = previous.getPosition(index);
+
+			if (checkpoint != null) {
+				checkpoint.copy(previous, position);
+			}
+			eventSequence.copyOmegas(parent, position + 1);
+
+			mu = previous.getMu(position);
+			sumC = previous.getSumC(position);
+
+		} else {
+			eventSequence.setOmega(0, omega0);
+
+			sumC += table.getWcet(task0_index, eventSequence.getMode(0));
+
+			if (checkpoint != null) {
+				checkpoint.record(0, omega0, mu, sumC);
+			}
+		}
 
 		// ii) decodes event1..n with omega1..n while correcting infeasible
 		// entries
-		DoubleGenotype omegas = genotype.get(AvrUtils.OMEGAS);
 
-		AvrTask curr = first;
-		AvrTask next;
+		int curr = eventSequence.getTaskIndex(position);
+		double currOmega = eventSequence.getOmega(position);
 
 		// ii.1) checks all combinations of consecutive rotation speeds
-		for (int i = 0; i < omegas.size(); i++) {
+		for (int i = position; i < omegas.size(); i++) {
 
-			int index = (task0_index + 1 + i) % avrProblem.getTasksetSize();
-			next = avrProblem.getTask(index).getEvent();
+			int next = table.next(curr);
 
-			DoubleRange boundaries = AvrUtils.findNextRange(curr, next, avrProblem);
-			boolean validRange = AvrUtils.checkAndAdaptBoundaries(boundaries, next.minOmega(), next.maxOmega());
+			// restricted to the envelope (within the task's range)
+			DoubleRange boundaries = AvrUtils.findNextRange(currOmega, table.getDeltaPhi(curr), avrProblem);
+			boolean validRange = envelope.adapt(i + 1, boundaries);
 
 			if (!validRange) {
-				return new EventSequence(events, false);
+				if (AvrMetrics.ENABLED && corrections > 0) {
+					AvrMetrics.get().repaired(corrections);
+				}
+				eventSequence.setFeasible(false);
+				return eventSequence;
 			}
 
 			double nextOmega = omegas.get(i);
 			boolean inRange = AvrUtils.checkInRange(nextOmega, boundaries);
 
-			// ii.2) corrects next AVR task and genotype, if infeasible
+			// ii.2) corrects rotation speed of next event and genotype, if
+			// infeasible
 			if (!inRange) {
-				next = correctingStrategy(genotype, next, i, boundaries);
+				if (AvrMetrics.ENABLED || AvrEvents.ENABLED) {
+					CorrectionEvent event = new CorrectionEvent();
+					event.begin();
+
+					long start = System.nanoTime();
+					nextOmega = correctingStrategy(genotype, i, boundaries);
+
+					if (AvrMetrics.ENABLED) {
+						AvrMetrics.get().corrected(i, System.nanoTime() - start);
+					}
+					event.commit(this, i, eventSequence.size());
+					corrections++;
+				} else {
+					nextOmega = correctingStrategy(genotype, i, boundaries);
+				}
+
+				assert AvrUtils.checkInRange(nextOmega, boundaries) : "correcting strategy left the feasible range";
+			}
+			eventSequence.setOmega(i + 1, nextOmega);
+
+			// ii.3) accumulates the objectives
+			mu += AvrEvaluator.mu(table.getDeltaPhi(curr), currOmega, nextOmega, avrProblem.getAccMin(),
+					avrProblem.getAccMax());
+
+			int mode = eventSequence.getMode(i + 1);
+			if (mode == C.NO_MODE) {
+				complete = false;
+			} else {
+				sumC += table.getWcet(next, mode);
 			}
-			events.add(next);
+			if (checkpoint != null) {
+				checkpoint.record(i + 1, nextOmega, mu, sumC);
+			}
+
 			curr = next;
+			currOmega = nextOmega;
 		}
 
-		// iii) checks and sets feasibility of decoded event sequence
-		EventSequence eventSequence = new EventSequence(events);
-		eventSequence.setFeasible(AvrUtils.isValid(eventSequence, avrProblem));
+		if (AvrMetrics.ENABLED && corrections > 0) {
+			AvrMetrics.get().repaired(corrections);
+		}
+
+		// iii) all transitions are feasible (checked or corrected above)
+		if (complete) {
+			eventSequence.setObjectives(mu, sumC);
+			eventSequence.setCheckpoint(checkpoint);
+		}
+		eventSequence.setFeasible(true);
 
 		return eventSequence;
 	}
@@ -0,0 +1,112 @@
+package de.uu.es.avr.creatorDecoder;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.ElementType.PARAMETER;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import org.opt4j.core.Genotype;
+import org.opt4j.core.genotype.CompositeGenotype;
+import org.opt4j.core.genotype.DoubleGenotype;
+import org.opt4j.core.problem.Decoder;
+
+import com.google.inject.BindingAnnotation;
+import com.google.inject.Inject;
+
+import de.uu.es.avr.AvrEvaluationCache;
+import de.uu.es.avr.AvrEvaluationCache.Entry;
+import de.uu.es.avr.AvrEvaluationCache.Key;
+import de.uu.es.avr.AvrEvaluator;
+import de.uu.es.avr.AvrUtils;
+import de.uu.es.avr.AvrWCRTProblem;
+import de.uu.es.avr.model.EventSequence;
+
+/**
+ * The {@link AvrCachingDecoder} looks up genotypes in the
+ * {@link AvrEvaluationCache} before delegating to the configured decoder.
+ * Cached {@link EventSequence}s are shared by identical genotypes; as the
+ * {@link AvrEvaluator} stores the objectives with the sequence, a cache hit
+ * also skips the evaluation. Repairs of correcting decoders are written back
+ * into the genotype on a cache hit as well.
+ *
+ * @author vrichthammer
+ *
+ */
+public class AvrCachingDecoder implements Decoder<CompositeGenotype<String, Genotype>, EventSequence> {
+
+	/**
+	 * Annotates the binding of the decoder whose results are cached.
+	 */
+	@BindingAnnotation
+	@Target({ FIELD, PARAMETER, METHOD })
+	@Retention(RUNTIME)
+	public @interface Delegate {
+	}
+
+	protected final Decoder<CompositeGenotype<String, Genotype>, EventSequence> decoder;
+	protected final AvrEvaluationCache cache;
+	protected final AvrWCRTProblem avrProblem;
+
+	/**
+	 * Creates the {@link AvrCachingDecoder}.
+	 *
+	 * @param decoder
+	 *            the decoder whose results are cached
+	 * @param cache
+	 *            the cache
+	 * @param avrProblem
+	 *            the AVR problem
+	 */
+	@Inject
+	public AvrCachingDecoder(@Delegate Decoder<CompositeGenotype<String, Genotype>, EventSequence> decoder,
+			AvrEvaluationCache cache, AvrWCRTProblem avrProblem) {
+		this.decoder = decoder;
+		this.cache = cache;
+		this.avrProblem = avrProblem;
+	}
+
+	/**
+	 * Returns the decoder whose results are cached.
+	 *
+	 * @return the decoder
+	 */
+	public Decoder<CompositeGenotype<String, Genotype>, EventSequence> getDecoder() {
+		return decoder;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.opt4j.core.problem.Decoder#decode(org.opt4j.core.Genotype)
+	 */
+	@Override
+	public EventSequence decode(CompositeGenotype<String, Genotype> genotype) {
+
+		Key key = new Key(genotype, avrProblem.getTaskTable());
+		Entry entry = cache.get(key);
+
+		if (entry != null) {
+			// applies repairs of the cached decoding to the genotype
+			DoubleGenotype omegas = genotype.get(AvrUtils.OMEGAS);
+
+			if (omegas != null) {
+				((DoubleGenotype) genotype.get(AvrUtils.OMEGA_0)).set(0, entry.getOmega0());
+				double[] genes = entry.getGenes();
+
+				for (int i = 0; i < genes.length; i++) {
+					omegas.set(i, genes[i]);
+				}
+			}
+			return entry.getEventSequence();
+		}
+
+		EventSequence eventSequence = decoder.decode(genotype);
+		double omega0 = ((DoubleGenotype) genotype.get(AvrUtils.OMEGA_0)).get(0);
+		cache.put(key, new Entry(eventSequence, omega0, Key.getGenes(genotype)));
+
+		return eventSequence;
+	}
+}
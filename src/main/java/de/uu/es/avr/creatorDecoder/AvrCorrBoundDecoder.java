@@ -9,7 +9,6 @@ import com.google.inject.Inject;
 import de.uu.es.avr.AvrUtils;
 import de.uu.es.avr.AvrUtils.DoubleRange;
 import de.uu.es.avr.AvrWCRTProblem;
-import de.uu.es.avr.model.AvrTask;
 
 /**
  * The {@link AvrCorrBoundDecoder} repairs a {@link Genotype} by correcting any
@@ -36,11 +35,11 @@ public class AvrCorrBoundDecoder extends AbstractAvrDoubleDecoderCorrecting {
 	 * (non-Javadoc)
 	 * 
 	 * @see uu.avrOpt.creatorDecoder.AbstractAvrDoubleDecoderCorrecting#
-	 * correctingStrategy(org.opt4j.genotype.CompositeGenotype,
-	 * uu.avrOpt.model.AvrTask, int, uu.avrOpt.AvrUtils.DoubleRange)
+	 * correctingStrategy(org.opt4j.genotype.CompositeGenotype, int,
+	 * uu.avrOpt.AvrUtils.DoubleRange)
 	 */
 	@Override
-	public AvrTask correctingStrategy(CompositeGenotype<String, Genotype> genotype, AvrTask event, int index,
+	public double correctingStrategy(CompositeGenotype<String, Genotype> genotype, int index,
 			DoubleRange boundaries) {
 
 		double lower = boundaries.getLower();
@@ -61,10 +60,9 @@ public class AvrCorrBoundDecoder extends AbstractAvrDoubleDecoderCorrecting {
 			corrected = upper;
 		}
 
-		// correct genotype and event
+		// correct genotype
 		omegas.set(index, corrected);
-		event.setOmega(corrected);
 
-		return event;
+		return corrected;
 	}
 }
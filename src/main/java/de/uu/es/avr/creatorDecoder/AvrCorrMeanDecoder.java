@@ -9,7 +9,6 @@ import com.google.inject.Inject;
 import de.uu.es.avr.AvrUtils;
 import de.uu.es.avr.AvrUtils.DoubleRange;
 import de.uu.es.avr.AvrWCRTProblem;
-import de.uu.es.avr.model.AvrTask;
 
 /**
  * The {@link AvrCorrMeanDecoder} repairs a {@link Genotype} by correcting any
@@ -35,11 +34,11 @@ public class AvrCorrMeanDecoder extends AbstractAvrDoubleDecoderCorrecting {
 	 * (non-Javadoc)
 	 * 
 	 * @see uu.avrOpt.creatorDecoder.AbstractAvrDoubleDecoderCorrecting#
-	 * correctingStrategy(org.opt4j.genotype.CompositeGenotype,
-	 * uu.avrOpt.model.AvrTask, int, uu.avrOpt.AvrUtils.DoubleRange)
+	 * correctingStrategy(org.opt4j.genotype.CompositeGenotype, int,
+	 * uu.avrOpt.AvrUtils.DoubleRange)
 	 */
 	@Override
-	public AvrTask correctingStrategy(CompositeGenotype<String, Genotype> genotype, AvrTask event, int index,
+	public double correctingStrategy(CompositeGenotype<String, Genotype> genotype, int index,
 			DoubleRange boundaries) {
 
 		double lower = boundaries.getLower();
@@ -48,16 +47,17 @@ public class AvrCorrMeanDecoder extends AbstractAvrDoubleDecoderCorrecting {
 		DoubleGenotype omegas = genotype.get(AvrUtils.OMEGAS);
 		double omega = omegas.get(index);
 
+		double corrected = omega;
+
 		// correct if genotype entry out of valid range
 		if (omega <= lower || omega > upper) {
 
 			// correct to mean of valid interval
-			double corrected = lower + (upper - lower) * 0.5;
+			corrected = lower + (upper - lower) * 0.5;
 
-			// correct genotype and event
+			// correct genotype
 			omegas.set(index, corrected);
-			event.setOmega(corrected);
 		}
-		return event;
+		return corrected;
 	}
 }
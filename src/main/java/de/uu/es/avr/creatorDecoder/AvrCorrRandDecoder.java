@@ -11,7 +11,7 @@ import com.google.inject.Inject;
 import de.uu.es.avr.AvrUtils;
 import de.uu.es.avr.AvrUtils.DoubleRange;
 import de.uu.es.avr.AvrWCRTProblem;
-import de.uu.es.avr.model.AvrTask;
+import de.uu.es.avr.RandomStreams;
 
 /**
  * The {@link AvrCorrRandDecoder} repairs a {@link Genotype} by correcting any
@@ -23,7 +23,8 @@ import de.uu.es.avr.model.AvrTask;
  */
 public class AvrCorrRandDecoder extends AbstractAvrDoubleDecoderCorrecting {
 
-	Random random;
+	// one random number generator per thread (decoding may be parallel)
+	protected final RandomStreams random;
 
 	/**
 	 * Creates the {@link AvrCorrRandDecoder}.
@@ -36,18 +37,18 @@ public class AvrCorrRandDecoder extends AbstractAvrDoubleDecoderCorrecting {
 	@Inject
 	public AvrCorrRandDecoder(AvrWCRTProblem avrProblem, Random random) {
 		this.avrProblem = avrProblem;
-		this.random = random;
+		this.random = new RandomStreams(random);
 	}
 
 	/*
 	 * (non-Javadoc)
 	 * 
 	 * @see uu.avrOpt.creatorDecoder.AbstractAvrDoubleDecoderCorrecting#
-	 * correctingStrategy(org.opt4j.genotype.CompositeGenotype,
-	 * uu.avrOpt.model.AvrTask, int, uu.avrOpt.AvrUtils.DoubleRange)
+	 * correctingStrategy(org.opt4j.genotype.CompositeGenotype, int,
+	 * uu.avrOpt.AvrUtils.DoubleRange)
 	 */
 	@Override
-	public AvrTask correctingStrategy(CompositeGenotype<String, Genotype> genotype, AvrTask event, int index,
+	public double correctingStrategy(CompositeGenotype<String, Genotype> genotype, int index,
 			DoubleRange boundaries) {
 
 		double lower = boundaries.getLower();
@@ -56,23 +57,22 @@ public class AvrCorrRandDecoder extends AbstractAvrDoubleDecoderCorrecting {
 		DoubleGenotype omegas = genotype.get(AvrUtils.OMEGAS);
 		double omega = omegas.get(index);
 
+		double corrected = omega;
+
 		// correct if genotype entry out of valid range
 		if (omega <= lower || omega > upper) {
-
-			System.out.println("if");
 			// correct to random value in valid interval
-			double factor = random.nextDouble();
-			double corrected = lower + (upper - lower) * factor;
+			double factor = random.get().nextDouble();
+			corrected = lower + (upper - lower) * factor;
 
 			// minimally shift corrected value, so that it is \in (lower, upper]
 			if (factor == 0) {
 				corrected += Double.MIN_VALUE;
 			}
 
-			// correct genotype and event
+			// correct genotype
 			omegas.set(index, corrected);
-			event.setOmega(corrected);
 		}
-		return event;
+		return corrected;
 	}
 }
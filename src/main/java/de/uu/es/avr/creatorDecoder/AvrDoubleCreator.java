@@ -14,6 +14,7 @@ import com.google.inject.Inject;
 
 import de.uu.es.avr.AvrUtils;
 import de.uu.es.avr.AvrWCRTProblem;
+import de.uu.es.avr.RandomStreams;
 
 /**
  * The {@link AvrDoubleCreator} creates an absolute encoding of
@@ -27,7 +28,8 @@ public class AvrDoubleCreator implements Creator<CompositeGenotype<String, Genot
 
 	protected final AvrWCRTProblem avrProblem;
 
-	protected final Random random;
+	// one random number generator per thread (decoding may be parallel)
+	protected final RandomStreams random;
 	protected final int n;
 
 	/**
@@ -48,7 +50,7 @@ public class AvrDoubleCreator implements Creator<CompositeGenotype<String, Genot
 		super();
 
 		this.avrProblem = avrProblem;
-		this.random = random;
+		this.random = new RandomStreams(random);
 		this.n = n;
 	}
 
@@ -60,20 +62,38 @@ public class AvrDoubleCreator implements Creator<CompositeGenotype<String, Genot
 	@Override
 	public CompositeGenotype<String, Genotype> create() {
 
+		Random rand = random.get();
 		CompositeGenotype<String, Genotype> genotype = new CompositeGenotype<String, Genotype>();
 
 		// i.1) select task that starts event sequence
 		IntegerGenotype task0 = new IntegerGenotype(0, avrProblem.getTasksetSize() - 1);
-		task0.init(random, 1);
+		task0.init(rand, 1);
 		genotype.put(AvrUtils.TASK_0, task0);
 
 		// i.2) optimize rotation speed for first task (relative value, mapped
 		// to set of initial speeds during decoding)
 		DoubleGenotype omega0 = new DoubleGenotype(0, 1);
-		omega0.init(random, 1);
+		omega0.init(rand, 1);
 		genotype.put(AvrUtils.OMEGA_0, omega0);
 
 		// ii) optimize omega1..n
+		genotype.put(AvrUtils.OMEGAS, createOmegas(task0.get(0), omega0.get(0), rand));
+
+		return genotype;
+	}
+
+	/**
+	 * Creates the absolute encoding of the rotation speeds of event1..n.
+	 * 
+	 * @param task0
+	 *            the index of the task of the first event
+	 * @param omega0_rel
+	 *            the encoded rotation speed of the first event
+	 * @param rand
+	 *            the random number generator
+	 * @return the rotation speeds
+	 */
+	protected DoubleGenotype createOmegas(int task0, double omega0_rel, Random rand) {
 		double[] lowerBounds = new double[n - 1];
 		double[] upperBounds = new double[n - 1];
 
@@ -84,12 +104,29 @@ public class AvrDoubleCreator implements Creator<CompositeGenotype<String, Genot
 		}
 		DoubleBounds bounds = new DoubleBounds(lowerBounds, upperBounds);
 
-		// ii.2) initialize genotype with random absolute rotation-speed values
+		// ii.2) initialize genotype with absolute rotation-speed values
 		// (within boundaries)
 		DoubleGenotype omegas = new DoubleGenotype(bounds);
-		omegas.init(random, n - 1);
-		genotype.put(AvrUtils.OMEGAS, omegas);
+		initOmegas(omegas, task0, omega0_rel, rand);
 
-		return genotype;
+		return omegas;
+	}
+
+	/**
+	 * Initializes the absolute encoding of the rotation speeds of event1..n
+	 * with random values between the minimal and maximal rotation speed of the
+	 * task set.
+	 * 
+	 * @param omegas
+	 *            the (empty) rotation speeds
+	 * @param task0
+	 *            the index of the task of the first event
+	 * @param omega0_rel
+	 *            the encoded rotation speed of the first event
+	 * @param rand
+	 *            the random number generator
+	 */
+	protected void initOmegas(DoubleGenotype omegas, int task0, double omega0_rel, Random rand) {
+		omegas.init(rand, n - 1);
 	}
 }
@@ -0,0 +1,109 @@
+package de.uu.es.avr.creatorDecoder;
+
+import java.util.Random;
+
+import org.opt4j.core.genotype.DoubleGenotype;
+import org.opt4j.core.start.Constant;
+
+import com.google.inject.Inject;
+
+import de.uu.es.avr.AvrUtils;
+import de.uu.es.avr.AvrUtils.DoubleRange;
+import de.uu.es.avr.AvrWCRTProblem;
+import de.uu.es.avr.model.Envelope;
+import de.uu.es.avr.model.TaskTable;
+
+/**
+ * The {@link AvrFeasibleCreator} creates an absolute encoding of genotypes for
+ * the {@link AvrWCRTProblem} (see {@link AvrDoubleCreator}) that is feasible by
+ * construction: the rotation speeds are sampled event by event, each within the
+ * range reachable from the preceding event (see {@link AvrUtils#findNextRange})
+ * and restricted to the {@link Envelope} of the event sequence, so that the
+ * walk never runs into a dead end.
+ *
+ * @author vrichthammer
+ *
+ */
+public class AvrFeasibleCreator extends AvrDoubleCreator {
+
+	/**
+	 * Creates the {@link AvrFeasibleCreator}.
+	 *
+	 * @param avrProblem
+	 *            the AVR problem specification
+	 * @param random
+	 *            the random number generator
+	 * @param n
+	 *            the size of the search space / length of event sequence to
+	 *            analyse
+	 */
+	@Inject
+	public AvrFeasibleCreator(AvrWCRTProblem avrProblem, Random random,
+			@Constant(namespace = AvrWCRTProblem.class, value = "n") int n) {
+		super(avrProblem, random, n);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * de.uu.es.avr.creatorDecoder.AvrDoubleCreator#initOmegas(org.opt4j.core.
+	 * genotype.DoubleGenotype, int, double, java.util.Random)
+	 */
+	@Override
+	protected void initOmegas(DoubleGenotype omegas, int task0, double omega0_rel, Random rand) {
+		TaskTable table = avrProblem.getTaskTable();
+
+		// i) the rotation speed of the first event (as decoded)
+		Envelope envelope = avrProblem.getEnvelope(task0, n);
+
+		int omega0_count = table.getModeCount(task0);
+		int omega0_index = envelope.findOmega0(table, Math.min((int) (omega0_rel * omega0_count), omega0_count - 1));
+
+		// no feasible event sequence starts with the task
+		if (omega0_index == Envelope.NO_OMEGA0) {
+			super.initOmegas(omegas, task0, omega0_rel, rand);
+			return;
+		}
+
+		// ii) walks forward through event1..n
+		omegas.clear();
+
+		int curr = task0;
+		double currOmega = table.getOmega0(task0, omega0_index);
+
+		for (int i = 1; i < n; i++) {
+			int next = table.next(curr);
+
+			DoubleRange range = AvrUtils.findNextRange(currOmega, table.getDeltaPhi(curr), avrProblem);
+			boolean validRange = envelope.adapt(i, range);
+
+			assert validRange : "AvrFeasibleCreator: rotation speed left the envelope";
+
+			double omega = sample(next, i, range, rand);
+
+			omegas.add(omega);
+
+			curr = next;
+			currOmega = omega;
+		}
+	}
+
+	/**
+	 * Samples the rotation speed of an event uniformly within its feasible
+	 * range.
+	 *
+	 * @param task
+	 *            the index of the task of the event
+	 * @param position
+	 *            the position of the event
+	 * @param range
+	 *            the feasible range
+	 * @param rand
+	 *            the random number generator
+	 * @return the rotation speed
+	 */
+	protected double sample(int task, int position, DoubleRange range, Random rand) {
+		return range.getLower() + (range.getUpper() - range.getLower()) * rand.nextDouble();
+	}
+}
@@ -0,0 +1,111 @@
+package de.uu.es.avr.creatorDecoder;
+
+import java.util.Random;
+
+import org.opt4j.core.Genotype;
+import org.opt4j.core.genotype.CompositeGenotype;
+import org.opt4j.core.start.Constant;
+
+import com.google.inject.Inject;
+
+import de.uu.es.avr.AvrEvaluator;
+import de.uu.es.avr.AvrWCRTProblem;
+import de.uu.es.avr.model.EventSequence;
+import de.uu.es.avr.model.TaskTable;
+
+/**
+ * The {@link AvrFusedCreatorDecoder} uses the relative encoding of the
+ * {@link AvrRelativeCreatorDecoder}, accumulating the objectives of the
+ * {@link AvrEvaluator} (time and overall WCET of the event sequence) while
+ * decoding. Thus, each individual is decoded and evaluated in a single pass.
+ * The rotation speeds of the events are not stored; the returned
+ * {@link EventSequence} decodes them again only if they are accessed (e.g. by
+ * the viewer or archive).
+ *
+ * @author vrichthammer
+ *
+ */
+public class AvrFusedCreatorDecoder extends AvrRelativeCreatorDecoder {
+
+	/**
+	 * Creates the {@link AvrFusedCreatorDecoder}.
+	 *
+	 * @param avrProblem
+	 *            the AVR problem
+	 * @param random
+	 *            the random number generator
+	 * @param n
+	 *            the search-space size / length of the event sequence to
+	 *            analyze
+	 */
+	@Inject
+	public AvrFusedCreatorDecoder(AvrWCRTProblem avrProblem, Random random,
+			@Constant(namespace = AvrWCRTProblem.class, value = "n") int n) {
+		super(avrProblem, random, n);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see de.uu.es.avr.creatorDecoder.AvrRelativeCreatorDecoder#
+	 * createEventSequence(org.opt4j.core.genotype.CompositeGenotype, int, int)
+	 */
+	@Override
+	protected EventSequence createEventSequence(CompositeGenotype<String, Genotype> genotype, int task0_index,
+			int length) {
+		return new FusedEventSequence(avrProblem.getTaskTable(), task0_index, length, genotype);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see de.uu.es.avr.creatorDecoder.AvrRelativeCreatorDecoder#storesOmegas()
+	 */
+	@Override
+	protected boolean storesOmegas() {
+		// rotation speeds are decoded on demand
+		return false;
+	}
+
+	/**
+	 * The {@link FusedEventSequence} is an {@link EventSequence} with
+	 * objectives that decodes its rotation speeds from the genotype on first
+	 * access.
+	 *
+	 * @author vrichthammer
+	 *
+	 */
+	protected class FusedEventSequence extends EventSequence {
+
+		protected final CompositeGenotype<String, Genotype> genotype;
+
+		/**
+		 * Creates the {@link FusedEventSequence}.
+		 *
+		 * @param table
+		 *            the task set
+		 * @param task0
+		 *            the index of the task of the first event
+		 * @param length
+		 *            the length of the event sequence
+		 * @param genotype
+		 *            the genotype to decode the rotation speeds from
+		 */
+		protected FusedEventSequence(TaskTable table, int task0, int length,
+				CompositeGenotype<String, Genotype> genotype) {
+			super(table, task0, length, false);
+			this.genotype = genotype;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see de.uu.es.avr.model.EventSequence#materialize()
+		 */
+		@Override
+		protected void materialize() {
+			super.materialize();
+			decode(genotype, this);
+		}
+	}
+}
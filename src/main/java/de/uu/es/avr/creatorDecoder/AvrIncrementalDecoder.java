@@ -0,0 +1,54 @@
+package de.uu.es.avr.creatorDecoder;
+
+import org.opt4j.core.Genotype;
+import org.opt4j.core.genotype.CompositeGenotype;
+import org.opt4j.core.problem.Decoder;
+
+import de.uu.es.avr.model.DecodeCheckpoint;
+import de.uu.es.avr.model.EventSequence;
+
+/**
+ * An {@link AvrIncrementalDecoder} decodes a {@link Genotype} that differs
+ * from an already decoded one (the parent) only in the rotation speeds from a
+ * given gene on, e.g. a mutated copy of the parent's genotype. Decoding
+ * resumes at the last {@link DecodeCheckpoint} of the parent before the first
+ * changed gene.
+ *
+ * Checkpoints are recorded only if enabled (see
+ * {@link #setCheckpointInterval(int)}), as recording them costs time and
+ * memory for every decoded genotype. The {@link AvrLineageDecoder} enables
+ * them and decodes the offspring of the optimizer incrementally.
+ *
+ * @author vrichthammer
+ *
+ */
+public interface AvrIncrementalDecoder extends Decoder<CompositeGenotype<String, Genotype>, EventSequence> {
+
+	/**
+	 * Decodes a genotype, reusing the decoding of its parent up to the first
+	 * changed gene. The first task and the rotation speed of the first event
+	 * as well as all genes of the rotation speeds before {@code index} must be
+	 * equal to the genotype the parent was decoded from (after repair).
+	 * Decodes from the first event if the parent is infeasible, has no
+	 * checkpoint or differs in the first event (see
+	 * {@link DecodeCheckpoint#isResumable}).
+	 *
+	 * @param genotype
+	 *            the genotype
+	 * @param parent
+	 *            the decoded parent
+	 * @param index
+	 *            the index of the first changed gene of the rotation speeds
+	 * @return the event sequence, with objectives
+	 */
+	public EventSequence decode(CompositeGenotype<String, Genotype> genotype, EventSequence parent, int index);
+
+	/**
+	 * Sets the number of events between two recorded checkpoints of each
+	 * decoded event sequence.
+	 *
+	 * @param interval
+	 *            the interval (0: no checkpoints are recorded)
+	 */
+	public void setCheckpointInterval(int interval);
+}
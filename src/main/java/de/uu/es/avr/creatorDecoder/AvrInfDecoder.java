@@ -6,6 +6,9 @@ import org.opt4j.core.genotype.CompositeGenotype;
 import com.google.inject.Inject;
 
 import de.uu.es.avr.AvrWCRTProblem;
+import de.uu.es.avr.metrics.AvrEvents;
+import de.uu.es.avr.metrics.AvrMetrics;
+import de.uu.es.avr.metrics.DecodeEvent;
 import de.uu.es.avr.model.EventSequence;
 
 /**
@@ -38,6 +41,22 @@ public class AvrInfDecoder extends AbstractAvrDoubleDecoder {
 	 */
 	@Override
 	public EventSequence decode(CompositeGenotype<String, Genotype> genotype) {
-		return getEventSequence(genotype);
+
+		if (!AvrMetrics.ENABLED && !AvrEvents.ENABLED) {
+			return getEventSequence(genotype);
+		}
+
+		DecodeEvent event = new DecodeEvent();
+		event.begin();
+
+		long start = System.nanoTime();
+		EventSequence eventSequence = getEventSequence(genotype);
+
+		if (AvrMetrics.ENABLED) {
+			AvrMetrics.get().decoded(eventSequence.isFeasible(), System.nanoTime() - start);
+		}
+		event.commit(this, eventSequence);
+
+		return eventSequence;
 	}
 }
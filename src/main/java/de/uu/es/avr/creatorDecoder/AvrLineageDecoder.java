@@ -0,0 +1,95 @@
+package de.uu.es.avr.creatorDecoder;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.ElementType.PARAMETER;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import org.opt4j.core.Genotype;
+import org.opt4j.core.genotype.CompositeGenotype;
+import org.opt4j.core.problem.Decoder;
+import org.opt4j.core.start.Constant;
+
+import com.google.inject.BindingAnnotation;
+import com.google.inject.Inject;
+
+import de.uu.es.avr.AvrLineage;
+import de.uu.es.avr.AvrWCRTProblem;
+import de.uu.es.avr.model.DecodeCheckpoint;
+import de.uu.es.avr.model.EventSequence;
+
+/**
+ * The {@link AvrLineageDecoder} decodes offspring genotypes incrementally: if
+ * the {@link AvrLineage} knows the parent of a genotype, the configured
+ * {@link AvrIncrementalDecoder} resumes at the parent's last
+ * {@link DecodeCheckpoint} before the first changed gene. The decoded
+ * {@link EventSequence}s are recorded as parents of the next offspring.
+ *
+ * @author vrichthammer
+ *
+ */
+public class AvrLineageDecoder implements Decoder<CompositeGenotype<String, Genotype>, EventSequence> {
+
+	/**
+	 * Annotates the binding of the decoder that decodes incrementally.
+	 */
+	@BindingAnnotation
+	@Target({ FIELD, PARAMETER, METHOD })
+	@Retention(RUNTIME)
+	public @interface Delegate {
+	}
+
+	protected final AvrIncrementalDecoder decoder;
+	protected final AvrLineage lineage;
+
+	/**
+	 * Creates the {@link AvrLineageDecoder}.
+	 *
+	 * @param decoder
+	 *            the decoder that decodes incrementally
+	 * @param lineage
+	 *            the lineage of the genotypes
+	 * @param interval
+	 *            the number of events between two decode checkpoints
+	 *            (positive)
+	 */
+	@Inject
+	public AvrLineageDecoder(@Delegate AvrIncrementalDecoder decoder, AvrLineage lineage,
+			@Constant(namespace = AvrWCRTProblem.class, value = "decodeCheckpointInterval") int interval) {
+
+		assert interval > 0 : "AvrLineageDecoder: interval must be positive";
+
+		this.decoder = decoder;
+		this.lineage = lineage;
+
+		decoder.setCheckpointInterval(interval);
+	}
+
+	/**
+	 * Returns the decoder that decodes incrementally.
+	 *
+	 * @return the decoder
+	 */
+	public AvrIncrementalDecoder getDecoder() {
+		return decoder;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.opt4j.core.problem.Decoder#decode(org.opt4j.core.Genotype)
+	 */
+	@Override
+	public EventSequence decode(CompositeGenotype<String, Genotype> genotype) {
+		AvrLineage.Parent parent = lineage.remove(genotype);
+
+		EventSequence eventSequence = parent == null ? decoder.decode(genotype)
+				: decoder.decode(genotype, parent.getEventSequence(), parent.getIndex());
+
+		lineage.setDecoded(genotype, eventSequence);
+		return eventSequence;
+	}
+}
@@ -1,7 +1,5 @@
 package de.uu.es.avr.creatorDecoder;
 
-import java.util.LinkedList;
-import java.util.List;
 import java.util.Random;
 
 import org.opt4j.core.Genotype;
@@ -10,16 +8,24 @@ import org.opt4j.core.genotype.DoubleBounds;
 import org.opt4j.core.genotype.DoubleGenotype;
 import org.opt4j.core.genotype.IntegerGenotype;
 import org.opt4j.core.problem.Creator;
-import org.opt4j.core.problem.Decoder;
 import org.opt4j.core.start.Constant;
 
 import com.google.inject.Inject;
 
+import de.uu.es.avr.AvrEvaluator;
 import de.uu.es.avr.AvrUtils;
 import de.uu.es.avr.AvrUtils.DoubleRange;
 import de.uu.es.avr.AvrWCRTProblem;
-import de.uu.es.avr.model.AvrTask;
+import de.uu.es.avr.RandomStreams;
+import de.uu.es.avr.metrics.AvrEvents;
+import de.uu.es.avr.metrics.AvrMetrics;
+import de.uu.es.avr.metrics.DecodeEvent;
+import de.uu.es.avr.model.C;
+import de.uu.es.avr.model.DecodeCheckpoint;
+import de.uu.es.avr.model.Envelope;
 import de.uu.es.avr.model.EventSequence;
+import de.uu.es.avr.model.TaskTable;
+import de.uu.es.avr.sampling.Sampler;
 
 /**
  * The {@link AvrRelativeCreatorDecoder} encodes {@link Genotype}s for the
@@ -30,20 +36,36 @@ import de.uu.es.avr.model.EventSequence;
  * rotation-speed range of the event during decoding that can be determined once
  * its preceding event has been decoded.
  * 
+ * Feasible ranges are restricted to the {@link Envelope} of the problem, so
+ * that no decoded prefix leads into a dead end. The objectives are accumulated
+ * while decoding. If enabled, a {@link DecodeCheckpoint} is kept with each
+ * decoded {@link EventSequence}, so that mutated copies of the genotype can be
+ * decoded incrementally.
+ * 
+ * If a {@link Sampler} is bound, the genotypes are created from its points
+ * (e.g. a low-discrepancy sequence) instead of independent random values.
+ * 
  * @author vrichthammer
  *
  */
 public class AvrRelativeCreatorDecoder implements Creator<CompositeGenotype<String, Genotype>>,
-		Decoder<CompositeGenotype<String, Genotype>, EventSequence> {
+		AvrIncrementalDecoder {
 
 	protected final double[] lowerBounds;
 	protected final double[] upperBounds;
 
 	protected final AvrWCRTProblem avrProblem;
 
-	protected final Random random;
+	// one random number generator per thread (decoding may be parallel)
+	protected final RandomStreams random;
 	protected final int n;
 
+	// the sampler of created genotypes (null: independent random values)
+	protected Sampler sampler = null;
+
+	// the interval of recorded decode checkpoints (0: none)
+	protected int checkpointInterval = 0;
+
 	/**
 	 * Creates the {@link AvrRelativeCreatorDecoder}.
 	 * 
@@ -60,7 +82,7 @@ public class AvrRelativeCreatorDecoder implements Creator<CompositeGenotype<Stri
 			@Constant(namespace = AvrWCRTProblem.class, value = "n") int n) {
 
 		this.avrProblem = avrProblem;
-		this.random = random;
+		this.random = new RandomStreams(random);
 		this.n = n;
 
 		this.lowerBounds = new double[n - 1];
@@ -74,6 +96,31 @@ public class AvrRelativeCreatorDecoder implements Creator<CompositeGenotype<Stri
 		}
 	}
 
+	/**
+	 * Sets the {@link Sampler} the genotypes are created from. Its dimension
+	 * must be the length of the event sequence plus one.
+	 * 
+	 * @param sampler
+	 *            the sampler
+	 */
+	@Inject(optional = true)
+	public void setSampler(Sampler sampler) {
+		assert sampler.getDimension() == n + 1 : "AvrRelativeCreatorDecoder: sampler has wrong dimension";
+		this.sampler = sampler;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see de.uu.es.avr.creatorDecoder.AvrIncrementalDecoder#
+	 * setCheckpointInterval(int)
+	 */
+	@Override
+	public void setCheckpointInterval(int interval) {
+		assert interval >= 0 : "AvrRelativeCreatorDecoder: interval must not be negative";
+		this.checkpointInterval = interval;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -82,23 +129,64 @@ public class AvrRelativeCreatorDecoder implements Creator<CompositeGenotype<Stri
 	@Override
 	public CompositeGenotype<String, Genotype> create() {
 
+		if (sampler != null) {
+			return create(sampler.next());
+		}
+
+		Random rand = random.get();
 		CompositeGenotype<String, Genotype> genotype = new CompositeGenotype<String, Genotype>();
 
 		// i.1) selects task that starts event sequence
 		IntegerGenotype task0 = new IntegerGenotype(0, avrProblem.getTasksetSize() - 1);
-		task0.init(random, 1);
+		task0.init(rand, 1);
 		genotype.put(AvrUtils.TASK_0, task0);
 
 		// i.2) optimizes rotation speed for first task (map to discrete values)
 		DoubleGenotype omega0 = new DoubleGenotype(0, 1);
-		omega0.init(random, 1);
+		omega0.init(rand, 1);
 		genotype.put(AvrUtils.OMEGA_0, omega0);
 
 		// ii) optimizes omega1..n using relative encoding [0,1] for each event
 		DoubleBounds bounds = new DoubleBounds(lowerBounds, upperBounds);
 
 		DoubleGenotype omegas = new DoubleGenotype(bounds);
-		omegas.init(random, n - 1);
+		omegas.init(rand, n - 1);
+		genotype.put(AvrUtils.RELATIVE, omegas);
+
+		return genotype;
+	}
+
+	/**
+	 * Creates the genotype of a point \in [0,1)^(n+1): the first coordinate
+	 * selects the first task, the second the rotation speed of the first
+	 * event, and the remaining ones are the relative encoding of event1..n.
+	 * 
+	 * @param point
+	 *            the point
+	 * @return the genotype
+	 */
+	protected CompositeGenotype<String, Genotype> create(double[] point) {
+
+		CompositeGenotype<String, Genotype> genotype = new CompositeGenotype<String, Genotype>();
+
+		// i.1) selects task that starts event sequence
+		int size = avrProblem.getTasksetSize();
+
+		IntegerGenotype task0 = new IntegerGenotype(0, size - 1);
+		task0.add(Math.min((int) (point[0] * size), size - 1));
+		genotype.put(AvrUtils.TASK_0, task0);
+
+		// i.2) rotation speed for first task
+		DoubleGenotype omega0 = new DoubleGenotype(0, 1);
+		omega0.add(point[1]);
+		genotype.put(AvrUtils.OMEGA_0, omega0);
+
+		// ii) relative encoding of omega1..n
+		DoubleGenotype omegas = new DoubleGenotype(new DoubleBounds(lowerBounds, upperBounds));
+
+		for (int i = 2; i < point.length; i++) {
+			omegas.add(point[i]);
+		}
 		genotype.put(AvrUtils.RELATIVE, omegas);
 
 		return genotype;
@@ -110,18 +198,241 @@ public class AvrRelativeCreatorDecoder implements Creator<CompositeGenotype<Stri
 	 * @see org.opt4j.core.problem.Decoder#decode(org.opt4j.core.Genotype)
 	 */
 	public EventSequence decode(CompositeGenotype<String, Genotype> genotype) {
+		return decode(genotype, null, 0);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see de.uu.es.avr.creatorDecoder.AvrIncrementalDecoder#decode(org.opt4j.
+	 * core.genotype.CompositeGenotype, de.uu.es.avr.model.EventSequence, int)
+	 */
+	@Override
+	public EventSequence decode(CompositeGenotype<String, Genotype> genotype, EventSequence parent, int index) {
+
+		if (!AvrMetrics.ENABLED && !AvrEvents.ENABLED) {
+			return decodeSequence(genotype, parent, index);
+		}
+
+		DecodeEvent event = new DecodeEvent();
+		event.begin();
+
+		long start = System.nanoTime();
+		EventSequence eventSequence = decodeSequence(genotype, parent, index);
+
+		if (AvrMetrics.ENABLED) {
+			AvrMetrics.get().decoded(eventSequence.isFeasible(), System.nanoTime() - start);
+		}
+		event.commit(this, eventSequence);
+
+		return eventSequence;
+	}
+
+	/**
+	 * Decodes a genotype (see
+	 * {@link #decode(CompositeGenotype, EventSequence, int)}).
+	 * 
+	 * @param genotype
+	 *            the genotype
+	 * @param parent
+	 *            the decoded parent (or {@code null})
+	 * @param index
+	 *            the index of the first changed gene of the rotation speeds
+	 * @return the decoded event sequence
+	 */
+	protected EventSequence decodeSequence(CompositeGenotype<String, Genotype> genotype, EventSequence parent,
+			int index) {
+
+		DoubleGenotype omegas = genotype.get(AvrUtils.RELATIVE);
+		TaskTable table = avrProblem.getTaskTable();
+
+		int task0_index = ((IntegerGenotype) genotype.get(AvrUtils.TASK_0)).get(0);
+		int length = omegas.size() + 1;
+
+		Envelope envelope = avrProblem.getEnvelope(task0_index, length);
+		DecodeCheckpoint checkpoint = checkpointInterval > 0 ? new DecodeCheckpoint(length, checkpointInterval)
+				: null;
+
+		EventSequence eventSequence;
+		int position = 0;
+		double mu = 0;
+		int sumC = 0;
+
+		// whether all rotation speeds have an execution mode (otherwise, the
+		// evaluator reports the rotation speed out of range)
+		boolean complete = true;
+
+		// i) decodes first event and its rotation speed omega0
+		double currOmega = decodeOmega0(genotype, envelope);
+
+		// feasible by construction, unless the first task has no feasible
+		// event sequence at all
+		if (Double.isNaN(currOmega)) {
+			eventSequence = new EventSequence(table, task0_index, length);
+			eventSequence.setFeasible(false);
+			return eventSequence;
+		}
+		eventSequence = createEventSequence(genotype, task0_index, length);
+
+		if (DecodeCheckpoint.isResumable(parent, table, task0_index, length, currOmega, index, checkpointInterval)) {
+
+			// i.1) resumes at the parent's last checkpoint before the change
+			DecodeCheckpoint previous = parent.getCheckpoint();
+			position = previous.getPosition(index);
+
+			if (storesOmegas()) {
+				eventSequence.copyOmegas(parent, position + 1);
+			}
+			if (checkpoint != null) {
+				checkpoint.copy(previous, position);
+			}
+
+			currOmega = previous.getOmega(position);
+			mu = previous.getMu(position);
+			sumC = previous.getSumC(position);
 
-		// decodes event sequence (with concrete rotation speeds) from relative
-		// genotype: phenotype is valid by construction
-		List<AvrTask> eventSequence = new LinkedList<AvrTask>();
+		} else {
 
-		// i.1) decodes first event
+			if (storesOmegas()) {
+				eventSequence.setOmega(0, currOmega);
+			}
+			sumC += table.getWcet(task0_index, table.getMode(task0_index, currOmega));
+
+			if (checkpoint != null) {
+				checkpoint.record(0, currOmega, mu, sumC);
+			}
+		}
+
+		// ii) decodes rotation speeds omega1..n and accumulates objectives
+		int currEvent = eventSequence.getTaskIndex(position);
+
+		for (int i = position; i < omegas.size(); i++) {
+
+			int nextEvent = table.next(currEvent);
+			double decodedOmega = decodeOmega(currOmega, currEvent, envelope, i + 1, omegas.get(i));
+
+			if (storesOmegas()) {
+				eventSequence.setOmega(i + 1, decodedOmega);
+			}
+
+			mu += AvrEvaluator.mu(table.getDeltaPhi(currEvent), currOmega, decodedOmega, avrProblem.getAccMin(),
+					avrProblem.getAccMax());
+
+			int mode = table.findMode(nextEvent, decodedOmega);
+			if (mode == C.NO_MODE) {
+				complete = false;
+			} else {
+				sumC += table.getWcet(nextEvent, mode);
+			}
+			if (checkpoint != null) {
+				checkpoint.record(i + 1, decodedOmega, mu, sumC);
+			}
+
+			currEvent = nextEvent;
+			currOmega = decodedOmega;
+		}
+
+		// iii) returns feasible event sequence (by construction) with
+		// objectives
+		if (complete) {
+			eventSequence.setObjectives(mu, sumC);
+			eventSequence.setCheckpoint(checkpoint);
+		}
+		eventSequence.setFeasible(true);
+
+		return eventSequence;
+	}
+
+	/**
+	 * Creates the (empty) event sequence a genotype is decoded into.
+	 * 
+	 * @param genotype
+	 *            the genotype
+	 * @param task0_index
+	 *            the index of the task of the first event
+	 * @param length
+	 *            the length of the event sequence
+	 * @return the event sequence
+	 */
+	protected EventSequence createEventSequence(CompositeGenotype<String, Genotype> genotype, int task0_index,
+			int length) {
+		return new EventSequence(avrProblem.getTaskTable(), task0_index, length);
+	}
+
+	/**
+	 * Returns whether the decoded rotation speeds are stored in the event
+	 * sequence (rather than decoded again on access).
+	 * 
+	 * @return true if the rotation speeds are stored
+	 */
+	protected boolean storesOmegas() {
+		return true;
+	}
+
+	/**
+	 * Decodes the rotation speeds of an event sequence (with concrete rotation
+	 * speeds) from a relative genotype: the phenotype is valid by construction.
+	 * Used to materialize lazily decoded event sequences.
+	 * 
+	 * @param genotype
+	 *            the genotype
+	 * @param eventSequence
+	 *            the event sequence starting at the genotype's first task
+	 * @return false if there is no feasible event sequence starting at the
+	 *         first task
+	 */
+	protected boolean decode(CompositeGenotype<String, Genotype> genotype, EventSequence eventSequence) {
+
+		DoubleGenotype omegas = genotype.get(AvrUtils.RELATIVE);
+		TaskTable table = avrProblem.getTaskTable();
+
+		// i) decodes first event and its rotation speed omega0
 		int task0_index = ((IntegerGenotype) genotype.get(AvrUtils.TASK_0)).get(0);
-		AvrTask event0 = (avrProblem.getTask(task0_index)).getEvent();
+		Envelope envelope = avrProblem.getEnvelope(task0_index, omegas.size() + 1);
+
+		double currOmega = decodeOmega0(genotype, envelope);
+
+		if (Double.isNaN(currOmega)) {
+			return false;
+		}
+		eventSequence.setOmega(0, currOmega);
+
+		// ii) decodes event1..n and rotation speeds omega1..n
+		int currEvent = task0_index;
+
+		for (int i = 0; i < omegas.size(); i++) {
+
+			int nextEvent = table.next(currEvent);
+			double decodedOmega = decodeOmega(currOmega, currEvent, envelope, i + 1, omegas.get(i));
+
+			// stores rotation speed of decoded event
+			eventSequence.setOmega(i + 1, decodedOmega);
+
+			currEvent = nextEvent;
+			currOmega = decodedOmega;
+		}
+		return true;
+	}
+
+	/**
+	 * Decodes the rotation speed of the first event from the relative encoding
+	 * (mapped to the discrete set of initial rotation speeds of its task). The
+	 * closest initial rotation speed within the envelope is selected.
+	 * 
+	 * @param genotype
+	 *            the genotype
+	 * @param envelope
+	 *            the envelope of the event sequence
+	 * @return the rotation speed of the first event, or NaN if no initial
+	 *         rotation speed is within the envelope
+	 */
+	protected double decodeOmega0(CompositeGenotype<String, Genotype> genotype, Envelope envelope) {
+
+		TaskTable table = avrProblem.getTaskTable();
+		int task0_index = envelope.getTask0();
 
-		// i.2) decodes first rotation speed omega0 from relative encoding
 		double omega0_rel = ((DoubleGenotype) genotype.get(AvrUtils.OMEGA_0)).get(0);
-		int omega0_count = event0.getOmega0s().length;
+		int omega0_count = table.getModeCount(task0_index);
 
 		int indOmega0 = (int) (omega0_rel * omega0_count);
 
@@ -131,42 +442,49 @@ public class AvrRelativeCreatorDecoder implements Creator<CompositeGenotype<Stri
 			indOmega0 -= 1;
 		}
 
-		event0.setOmega(event0.getOmega0(indOmega0));
-		eventSequence.add(event0);
-
-		// ii) decodes event1..n and rotation speeds omega1..n
-		DoubleGenotype omegas = genotype.get(AvrUtils.RELATIVE);
-		AvrTask currEvent = event0;
-
-		for (int i = 0; i < omegas.size(); i++) {
+		indOmega0 = envelope.findOmega0(table, indOmega0);
 
-			int index = (task0_index + 1 + i) % avrProblem.getTasksetSize();
-			AvrTask nextEvent = avrProblem.getTask(index).getEvent();
+		if (indOmega0 == Envelope.NO_OMEGA0) {
+			return Double.NaN;
+		}
+		return table.getOmega0(task0_index, indOmega0);
+	}
 
-			// finds and verifies rotation-speed boundaries for nextEvent
-			DoubleRange range = AvrUtils.findNextRange(currEvent, nextEvent, avrProblem);
-			AvrUtils.checkAndAdaptBoundaries(range, nextEvent.minOmega(), nextEvent.maxOmega());
+	/**
+	 * Decodes the rotation speed of an event from its relative encoding,
+	 * mapped to the feasible rotation-speed range given the preceding event
+	 * (restricted to the envelope).
+	 * 
+	 * @param currOmega
+	 *            the rotation speed of the preceding event
+	 * @param currEvent
+	 *            the index of the task of the preceding event
+	 * @param envelope
+	 *            the envelope of the event sequence
+	 * @param position
+	 *            the position of the event
+	 * @param factor
+	 *            the relative encoding \in [0,1]
+	 * @return the rotation speed of the event
+	 */
+	protected double decodeOmega(double currOmega, int currEvent, Envelope envelope, int position, double factor) {
 
-			double lower = range.getLower();
-			double upper = range.getUpper();
+		TaskTable table = avrProblem.getTaskTable();
 
-			double factor = omegas.get(i);
-			double decodedOmega = lower + (upper - lower) * factor;
+		// finds and verifies rotation-speed boundaries for the event
+		DoubleRange range = AvrUtils.findNextRange(currOmega, table.getDeltaPhi(currEvent), avrProblem);
+		envelope.adapt(position, range);
 
-			// minimally shifts decoded omega, if it lands on the lower bound
-			// (must be \in (lower, upper])
-			if (decodedOmega == lower) {
-				decodedOmega += Double.MIN_VALUE;
-			}
+		double lower = range.getLower();
+		double upper = range.getUpper();
 
-			// stores decoded event with rotation speed
-			nextEvent.setOmega(decodedOmega);
-			eventSequence.add(nextEvent);
+		double decodedOmega = lower + (upper - lower) * factor;
 
-			currEvent = nextEvent;
+		// minimally shifts decoded omega, if it lands on the lower bound
+		// (must be \in (lower, upper])
+		if (decodedOmega == lower) {
+			decodedOmega += Double.MIN_VALUE;
 		}
-
-		// returns feasible event sequence (by construction)
-		return new EventSequence(eventSequence, true);
+		return decodedOmega;
 	}
 }
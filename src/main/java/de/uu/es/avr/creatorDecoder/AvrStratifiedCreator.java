@@ -0,0 +1,121 @@
+package de.uu.es.avr.creatorDecoder;
+
+import java.util.Random;
+
+import org.opt4j.core.start.Constant;
+
+import com.google.inject.Inject;
+
+import de.uu.es.avr.AvrUtils.DoubleRange;
+import de.uu.es.avr.AvrWCRTProblem;
+import de.uu.es.avr.model.C;
+import de.uu.es.avr.model.TaskTable;
+
+/**
+ * The {@link AvrStratifiedCreator} creates feasible genotypes as the
+ * {@link AvrFeasibleCreator}, spreading the execution modes of each event
+ * across the created genotypes (Latin hypercube sampling over the mode
+ * indices): the mode range of each position is split into as many strata as
+ * the largest number of modes of a task, and each stratum is selected once per
+ * that many genotypes, in random order. The rotation speed is sampled within
+ * the selected mode, or the closest mode reachable from the preceding event.
+ *
+ * @author vrichthammer
+ *
+ */
+public class AvrStratifiedCreator extends AvrFeasibleCreator {
+
+	// the number of strata per position
+	protected final int strata;
+
+	// the random order of the strata per position and the next one to select
+	protected final int[][] orders;
+	protected final int[] cursors;
+
+	/**
+	 * Creates the {@link AvrStratifiedCreator}.
+	 *
+	 * @param avrProblem
+	 *            the AVR problem specification
+	 * @param random
+	 *            the random number generator
+	 * @param n
+	 *            the size of the search space / length of event sequence to
+	 *            analyse
+	 */
+	@Inject
+	public AvrStratifiedCreator(AvrWCRTProblem avrProblem, Random random,
+			@Constant(namespace = AvrWCRTProblem.class, value = "n") int n) {
+		super(avrProblem, random, n);
+
+		TaskTable table = avrProblem.getTaskTable();
+		int max = 1;
+
+		for (int task = 0; task < table.size(); task++) {
+			max = Math.max(max, table.getModeCount(task));
+		}
+		this.strata = max;
+
+		this.orders = new int[n][strata];
+		this.cursors = new int[n];
+
+		// all strata need to be shuffled first
+		for (int i = 0; i < n; i++) {
+			cursors[i] = strata;
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see de.uu.es.avr.creatorDecoder.AvrFeasibleCreator#sample(int, int,
+	 * de.uu.es.avr.AvrUtils.DoubleRange, java.util.Random)
+	 */
+	@Override
+	protected double sample(int task, int position, DoubleRange range, Random rand) {
+		TaskTable table = avrProblem.getTaskTable();
+
+		// i) the modes within the feasible range
+		int lowest = table.findMode(task, Math.min(Math.nextUp(range.getLower()), range.getUpper()));
+		int highest = table.findMode(task, range.getUpper());
+
+		if (lowest == C.NO_MODE || highest == C.NO_MODE) {
+			return super.sample(task, position, range, rand);
+		}
+
+		// ii) the mode of the next stratum (or the closest feasible one)
+		double u = nextStratum(position, rand);
+		int mode = (int) (u * table.getModeCount(task));
+		mode = Math.max(lowest, Math.min(highest, mode));
+
+		// iii) the rotation speed within the mode
+		double lower = Math.max(range.getLower(), table.getBoundary(task, mode));
+		double upper = Math.min(range.getUpper(), table.getBoundary(task, mode + 1));
+
+		return lower + (upper - lower) * rand.nextDouble();
+	}
+
+	/**
+	 * Returns a random value \in [0,1) within the next stratum of a position.
+	 * The strata are reshuffled once all of them were selected.
+	 *
+	 * @param position
+	 *            the position of the event
+	 * @param rand
+	 *            the random number generator
+	 * @return the value
+	 */
+	protected synchronized double nextStratum(int position, Random rand) {
+		int[] order = orders[position];
+
+		if (cursors[position] == strata) {
+			for (int k = 0; k < strata; k++) {
+				int j = rand.nextInt(k + 1);
+				order[k] = order[j];
+				order[j] = k;
+			}
+			cursors[position] = 0;
+		}
+		return (order[cursors[position]++] + rand.nextDouble()) / strata;
+	}
+}
@@ -33,6 +33,16 @@ public class AvrInputModule extends Opt4JModule {
 	@Constant(namespace = AvrWCRTProblem.class, value = "accMin")
 	protected double accMin = -100.0 * Math.PI;
 
+	@Order(4)
+	@Info("The resolution of the direct-index tables for looking up execution modes (0: binary search).")
+	@Constant(namespace = AvrWCRTProblem.class, value = "modeResolution")
+	protected int modeResolution = 0;
+
+	@Order(5)
+	@Info("The directory caching binary task sets of xml specifications (empty: no cache).")
+	@Constant(namespace = AvrWCRTProblem.class, value = "taskSetCache")
+	protected String taskSetCache = "";
+
 	@Override
 	protected void config() {
 		bind(AvrWCRTProblem.class).in(SINGLETON);
@@ -94,4 +104,44 @@ public class AvrInputModule extends Opt4JModule {
 	public void setAccMin(double accMin) {
 		this.accMin = accMin;
 	}
+
+	/**
+	 * Returns the resolution of the direct-index tables for looking up
+	 * execution modes.
+	 *
+	 * @return the resolution (0: binary search)
+	 */
+	public int getModeResolution() {
+		return modeResolution;
+	}
+
+	/**
+	 * Sets the resolution of the direct-index tables for looking up execution
+	 * modes.
+	 *
+	 * @param modeResolution
+	 *            the resolution (0: binary search)
+	 */
+	public void setModeResolution(int modeResolution) {
+		this.modeResolution = modeResolution;
+	}
+
+	/**
+	 * Returns the directory caching binary task sets of xml specifications.
+	 *
+	 * @return the directory (empty: no cache)
+	 */
+	public String getTaskSetCache() {
+		return taskSetCache;
+	}
+
+	/**
+	 * Sets the directory caching binary task sets of xml specifications.
+	 *
+	 * @param taskSetCache
+	 *            the directory (empty: no cache)
+	 */
+	public void setTaskSetCache(String taskSetCache) {
+		this.taskSetCache = taskSetCache;
+	}
 }
@@ -0,0 +1,220 @@
+package de.uu.es.avr.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+import de.uu.es.avr.model.AvrTask;
+import de.uu.es.avr.model.C;
+
+/**
+ * Imports a task set from the compact binary format written by the
+ * {@link TaskSetConverter}. The file is memory-mapped and copied into the
+ * tables of the tasks without any parsing. The format (big-endian) is:
+ *
+ * <pre>
+ * int      magic ({@link #MAGIC})
+ * int      version ({@link #VERSION})
+ * int      number of tasks s
+ * int      number of execution modes m (over all tasks)
+ * double[s]    release angles (as specified, in units of PI)
+ * int[s+1]     offsets of the execution modes of each task
+ * double[m]    WCETs of the execution modes
+ * double[m+s]  boundaries of the execution modes (m_i + 1 per task)
+ * s times: int length, byte[length] id (UTF-8)
+ * </pre>
+ *
+ * @author vrichthammer
+ *
+ */
+public class BinaryTaskSetReader {
+
+	// the file extension of binary task sets
+	public static final String EXTENSION = ".avrt";
+
+	// the first bytes of a binary task set ("AVRT") and the format version
+	public static final int MAGIC = 0x41565254;
+	public static final int VERSION = 1;
+
+	// the size of the header in bytes
+	protected static final int HEADER = 16;
+
+	protected static final Charset UTF8 = Charset.forName("UTF-8");
+
+	/**
+	 * Reads task set from a binary file.
+	 *
+	 * @param filename
+	 *            the file name
+	 * @return the tasks, ordered by offset
+	 */
+	public AvrTask[] readTasks(String filename) {
+		return readTasks(new File(filename));
+	}
+
+	/**
+	 * Reads task set from a binary file.
+	 *
+	 * @param file
+	 *            the file
+	 * @return the tasks, ordered by offset
+	 */
+	public AvrTask[] readTasks(File file) {
+		RandomAccessFile in = null;
+
+		try {
+			in = new RandomAccessFile(file, "r");
+			FileChannel channel = in.getChannel();
+
+			if (channel.size() > Integer.MAX_VALUE) {
+				throw error("file too large");
+			}
+
+			// the mapping stays valid after the channel is closed
+			return readTasks(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		} catch (IOException e) {
+			throw new IllegalArgumentException(e);
+		} finally {
+			if (in != null) {
+				try {
+					in.close();
+				} catch (IOException e) {
+					// nothing was written
+				}
+			}
+		}
+	}
+
+	/**
+	 * Reads task set from a buffer containing a binary task set.
+	 *
+	 * @param buffer
+	 *            the buffer (positioned at the magic number)
+	 * @return the tasks, ordered by offset
+	 */
+	public AvrTask[] readTasks(ByteBuffer buffer) {
+		try {
+			// i) header
+			if (buffer.remaining() < HEADER || buffer.getInt() != MAGIC) {
+				throw error("not a binary task set");
+			}
+			int version = buffer.getInt();
+			if (version != VERSION) {
+				throw error("unsupported version " + version);
+			}
+
+			int size = buffer.getInt();
+			int modes = buffer.getInt();
+
+			// the tables must fit into the buffer
+			if (size <= 0 || modes < size
+					|| buffer.remaining() < 8L * size + 4L * (size + 1) + 8L * modes + 8L * (modes + size)) {
+				throw error("invalid size of the tables");
+			}
+
+			// ii) tables
+			double[] phis = getDoubles(buffer, size);
+			int[] offsets = getInts(buffer, size + 1);
+			double[] wcets = getDoubles(buffer, modes);
+			double[] boundaries = getDoubles(buffer, modes + size);
+
+			if (offsets[0] != 0 || offsets[size] != modes) {
+				throw error("invalid mode offsets");
+			}
+
+			// iii) tasks
+			AvrTask[] tasks = new AvrTask[size];
+
+			for (int i = 0; i < size; i++) {
+				int count = offsets[i + 1] - offsets[i];
+
+				if (count <= 0) {
+					throw error("invalid mode offsets");
+				}
+
+				double[] cs = new double[count];
+				System.arraycopy(wcets, offsets[i], cs, 0, count);
+
+				double[] bounds = new double[count + 1];
+				System.arraycopy(boundaries, offsets[i] + i, bounds, 0, count + 1);
+
+				tasks[i] = new AvrTask(getString(buffer), phis[i], new C(cs, bounds));
+			}
+			return tasks;
+
+		} catch (BufferUnderflowException e) {
+			throw new TaskSetFormatException("truncated binary task set", -1, -1, e);
+		}
+	}
+
+	/**
+	 * Reads doubles from a buffer.
+	 *
+	 * @param buffer
+	 *            the buffer
+	 * @param length
+	 *            the number of doubles
+	 * @return the doubles
+	 */
+	protected static double[] getDoubles(ByteBuffer buffer, int length) {
+		double[] result = new double[length];
+
+		buffer.asDoubleBuffer().get(result);
+		buffer.position(buffer.position() + 8 * length);
+
+		return result;
+	}
+
+	/**
+	 * Reads ints from a buffer.
+	 *
+	 * @param buffer
+	 *            the buffer
+	 * @param length
+	 *            the number of ints
+	 * @return the ints
+	 */
+	protected static int[] getInts(ByteBuffer buffer, int length) {
+		int[] result = new int[length];
+
+		buffer.asIntBuffer().get(result);
+		buffer.position(buffer.position() + 4 * length);
+
+		return result;
+	}
+
+	/**
+	 * Reads a string (length and UTF-8 bytes) from a buffer.
+	 *
+	 * @param buffer
+	 *            the buffer
+	 * @return the string
+	 */
+	protected static String getString(ByteBuffer buffer) {
+		int length = buffer.getInt();
+
+		if (length < 0 || length > buffer.remaining()) {
+			throw error("invalid task id");
+		}
+
+		byte[] bytes = new byte[length];
+		buffer.get(bytes);
+
+		return new String(bytes, UTF8);
+	}
+
+	/**
+	 * Creates a {@link TaskSetFormatException} for a binary task set.
+	 *
+	 * @param message
+	 *            the description of the error
+	 * @return the exception
+	 */
+	protected static TaskSetFormatException error(String message) {
+		return new TaskSetFormatException(message, -1, -1);
+	}
+}
@@ -0,0 +1,140 @@
+package de.uu.es.avr.io;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import de.uu.es.avr.model.AvrTask;
+
+/**
+ * The {@link TaskSetCache} keeps binary task sets (see
+ * {@link BinaryTaskSetReader}) of xml specifications in a directory, keyed by
+ * the hash of the content of the specification. A specification is converted
+ * on first use; afterwards, the binary task set is loaded instead of parsing
+ * the specification. The directory may be shared by concurrent processes.
+ *
+ * @author vrichthammer
+ *
+ */
+public class TaskSetCache {
+
+	protected final File directory;
+
+	protected final BinaryTaskSetReader reader = new BinaryTaskSetReader();
+	protected final TaskSetConverter converter = new TaskSetConverter();
+
+	/**
+	 * Creates the {@link TaskSetCache}.
+	 *
+	 * @param directory
+	 *            the directory of the binary task sets
+	 */
+	public TaskSetCache(File directory) {
+		this.directory = directory;
+	}
+
+	/**
+	 * Reads task set from an xml specification, from its binary task set if
+	 * cached.
+	 *
+	 * @param xml
+	 *            the xml specification
+	 * @return the tasks, ordered by offset
+	 */
+	public AvrTask[] readTasks(File xml) {
+		try {
+			File binary = getFile(xml);
+
+			// i) loads the cached binary task set (converted again if written
+			// by a different version)
+			if (binary.isFile()) {
+				try {
+					return reader.readTasks(binary);
+				} catch (TaskSetFormatException e) {
+					binary.delete();
+				}
+			}
+
+			// ii) converts the specification (written to a temporary file
+			// first, so that no partial binary task set is read)
+			if (!directory.isDirectory() && !directory.mkdirs() && !directory.isDirectory()) {
+				throw new IOException("cannot create directory " + directory);
+			}
+
+			File temp = File.createTempFile(binary.getName(), ".tmp", directory);
+
+			try {
+				AvrTask[] tasks = converter.convert(xml, temp);
+
+				try {
+					Files.move(temp.toPath(), binary.toPath(), StandardCopyOption.ATOMIC_MOVE);
+				} catch (AtomicMoveNotSupportedException e) {
+					Files.move(temp.toPath(), binary.toPath(), StandardCopyOption.REPLACE_EXISTING);
+				}
+				return tasks;
+			} finally {
+				temp.delete();
+			}
+		} catch (IOException e) {
+			throw new IllegalArgumentException(e);
+		}
+	}
+
+	/**
+	 * Returns the binary task set of an xml specification in the cache.
+	 *
+	 * @param xml
+	 *            the xml specification
+	 * @return the binary task set (may not exist)
+	 * @throws IOException
+	 *             if the specification cannot be read
+	 */
+	public File getFile(File xml) throws IOException {
+		return new File(directory, hash(xml) + BinaryTaskSetReader.EXTENSION);
+	}
+
+	/**
+	 * Returns the SHA-256 hash of the content of a file.
+	 *
+	 * @param file
+	 *            the file
+	 * @return the hash (hexadecimal)
+	 * @throws IOException
+	 *             if the file cannot be read
+	 */
+	protected static String hash(File file) throws IOException {
+		MessageDigest digest;
+
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+
+		InputStream in = new FileInputStream(file);
+
+		try {
+			byte[] buffer = new byte[1 << 16];
+
+			for (int read = in.read(buffer); read >= 0; read = in.read(buffer)) {
+				digest.update(buffer, 0, read);
+			}
+		} finally {
+			in.close();
+		}
+
+		StringBuilder result = new StringBuilder();
+
+		for (byte b : digest.digest()) {
+			result.append(Character.forDigit((b >> 4) & 0xf, 16));
+			result.append(Character.forDigit(b & 0xf, 16));
+		}
+		return result.toString();
+	}
+}
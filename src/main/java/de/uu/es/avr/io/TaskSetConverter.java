@@ -0,0 +1,137 @@
+package de.uu.es.avr.io;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import de.uu.es.avr.model.AvrTask;
+
+/**
+ * Converts an xml task-set specification (see {@link TaskSetReader}) into the
+ * compact binary format read by the {@link BinaryTaskSetReader}.
+ *
+ * @author vrichthammer
+ *
+ */
+public class TaskSetConverter {
+
+	/**
+	 * Converts an xml specification into a binary task set.
+	 *
+	 * @param xml
+	 *            the xml specification
+	 * @param binary
+	 *            the binary task set to write
+	 * @return the tasks, ordered by offset
+	 * @throws IOException
+	 *             if the binary task set cannot be written
+	 */
+	public AvrTask[] convert(File xml, File binary) throws IOException {
+
+		// i) reads the specification, keeping the release angles as specified
+		// (the tasks store them in radians)
+		final List<Double> phis = new ArrayList<Double>();
+
+		TaskSetReader reader = new TaskSetReader() {
+			@Override
+			protected AvrTask createTask(String id, double phi, double[] cs, double[] boundaries) {
+				phis.add(phi);
+				return super.createTask(id, phi, cs, boundaries);
+			}
+		};
+		AvrTask[] tasks = reader.readTasks(xml);
+
+		// ii) writes the binary task set
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(binary)));
+
+		try {
+			write(out, tasks, phis);
+		} finally {
+			out.close();
+		}
+		return tasks;
+	}
+
+	/**
+	 * Writes a binary task set.
+	 *
+	 * @param out
+	 *            the output stream
+	 * @param tasks
+	 *            the tasks
+	 * @param phis
+	 *            the release angles of the tasks as specified
+	 * @throws IOException
+	 *             if the binary task set cannot be written
+	 */
+	protected void write(DataOutputStream out, AvrTask[] tasks, List<Double> phis) throws IOException {
+		int modes = 0;
+		for (AvrTask task : tasks) {
+			modes += task.getCfunction().getCs().length;
+		}
+
+		// i) header
+		out.writeInt(BinaryTaskSetReader.MAGIC);
+		out.writeInt(BinaryTaskSetReader.VERSION);
+		out.writeInt(tasks.length);
+		out.writeInt(modes);
+
+		// ii) tables
+		for (double phi : phis) {
+			out.writeDouble(phi);
+		}
+
+		int offset = 0;
+		out.writeInt(offset);
+		for (AvrTask task : tasks) {
+			offset += task.getCfunction().getCs().length;
+			out.writeInt(offset);
+		}
+
+		for (AvrTask task : tasks) {
+			for (double wcet : task.getCfunction().getCs()) {
+				out.writeDouble(wcet);
+			}
+		}
+		for (AvrTask task : tasks) {
+			for (double boundary : task.getCfunction().getBoundaries()) {
+				out.writeDouble(boundary);
+			}
+		}
+
+		// iii) ids
+		for (AvrTask task : tasks) {
+			byte[] id = task.getId().getBytes(BinaryTaskSetReader.UTF8);
+			out.writeInt(id.length);
+			out.write(id);
+		}
+	}
+
+	/**
+	 * Converts an xml specification into a binary task set. The binary task
+	 * set is written next to the specification, unless specified.
+	 *
+	 * @param args
+	 *            the xml specification [and the binary task set]
+	 * @throws IOException
+	 *             if the binary task set cannot be written
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 1 || args.length > 2) {
+			System.err.println("usage: TaskSetConverter <specification.xml> [<taskset" + BinaryTaskSetReader.EXTENSION
+					+ ">]");
+			System.exit(1);
+		}
+
+		File xml = new File(args[0]);
+		File binary = new File(args.length > 1 ? args[1]
+				: args[0].replaceFirst("(\\.xml)?$", BinaryTaskSetReader.EXTENSION));
+
+		AvrTask[] tasks = new TaskSetConverter().convert(xml, binary);
+		System.out.println("converted " + tasks.length + " tasks to " + binary);
+	}
+}
@@ -0,0 +1,70 @@
+package de.uu.es.avr.io;
+
+/**
+ * The {@link TaskSetFormatException} is thrown by the {@link TaskSetReader} if
+ * a task-set specification is malformed or invalid. It reports the position
+ * in the specification at which the error was detected.
+ *
+ * @author vrichthammer
+ *
+ */
+public class TaskSetFormatException extends IllegalArgumentException {
+
+	private static final long serialVersionUID = 1L;
+
+	// the position of the error in the specification (-1: unknown)
+	protected final int line;
+	protected final int column;
+
+	/**
+	 * Creates the {@link TaskSetFormatException}.
+	 *
+	 * @param message
+	 *            the description of the error
+	 * @param line
+	 *            the line of the error (-1: unknown)
+	 * @param column
+	 *            the column of the error (-1: unknown)
+	 */
+	public TaskSetFormatException(String message, int line, int column) {
+		this(message, line, column, null);
+	}
+
+	/**
+	 * Creates the {@link TaskSetFormatException}.
+	 *
+	 * @param message
+	 *            the description of the error
+	 * @param line
+	 *            the line of the error (-1: unknown)
+	 * @param column
+	 *            the column of the error (-1: unknown)
+	 * @param cause
+	 *            the cause of the error
+	 */
+	public TaskSetFormatException(String message, int line, int column, Throwable cause) {
+		super("specification error" + (line < 0 ? "" : " (line " + line + ", column " + column + ")") + ": "
+				+ message, cause);
+
+		this.line = line;
+		this.column = column;
+	}
+
+	/**
+	 * Returns the line of the error in the specification.
+	 *
+	 * @return the line (-1: unknown)
+	 */
+	public int getLine() {
+		return line;
+	}
+
+	/**
+	 * Returns the column of the error in the specification.
+	 *
+	 * @return the column (-1: unknown)
+	 */
+	public int getColumn() {
+		return column;
+	}
+}
@@ -1,25 +1,44 @@
 package de.uu.es.avr.io;
 
+import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.InputStream;
-import java.lang.reflect.InvocationTargetException;
-import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.Arrays;
 import java.util.List;
 
+import javax.xml.stream.Location;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
 import de.uu.es.avr.model.AvrTask;
 import de.uu.es.avr.model.C;
 
 /**
- * Imports a task set from an xml specification.
- * 
+ * Imports a task set from an xml specification. The specification is parsed
+ * in a single pass (StAX), without building a document tree, directly into an
+ * array of {@link AvrTask}s. Malformed or invalid specifications are reported
+ * by a {@link TaskSetFormatException} with the position of the error.
+ *
  * @author vrichthammer
  *
  */
 public class TaskSetReader {
 
+	// the elements and attributes of the specification
+	protected static final String TASK = "task";
+	protected static final String PHI = "phi";
+	protected static final String C_FUNCTION = "c";
+	protected static final String BOUNDARIES = "boundaries";
+	protected static final String ID = "id";
+	protected static final String VALUE = "value";
+
+	// the separator of the values of the WCETs and boundaries
+	protected static final char SEPARATOR = '|';
+
 	/**
 	 * Reads task set from a file.
 	 *
@@ -39,12 +58,7 @@ public class TaskSetReader {
 	 * @return the task set
 	 */
 	public List<AvrTask> read(File file) {
-		try {
-			return read(new FileInputStream(file));
-		} catch (FileNotFoundException e) {
-			e.printStackTrace();
-			return null;
-		}
+		return Arrays.asList(readTasks(file));
 	}
 
 	/**
@@ -55,144 +69,373 @@ public class TaskSetReader {
 	 * @return the task set
 	 */
 	public List<AvrTask> read(InputStream in) {
-		try {
-			nu.xom.Builder parser = new nu.xom.Builder();
-			nu.xom.Document doc = parser.build(in);
+		return Arrays.asList(readTasks(in));
+	}
 
-			nu.xom.Element eSpec = doc.getRootElement();
+	/**
+	 * Reads task set from a file.
+	 *
+	 * @param filename
+	 *            the file name
+	 * @return the tasks, ordered by offset
+	 */
+	public AvrTask[] readTasks(String filename) {
+		return readTasks(new File(filename));
+	}
 
-			return toTaskSet(eSpec);
-		} catch (Exception ex) {
-			throw new IllegalArgumentException(ex);
+	/**
+	 * Reads task set from a file.
+	 *
+	 * @param file
+	 *            the file
+	 * @return the tasks, ordered by offset
+	 */
+	public AvrTask[] readTasks(File file) {
+		InputStream in = null;
+
+		try {
+			in = new BufferedInputStream(new FileInputStream(file));
+			return readTasks(in);
+		} catch (IOException e) {
+			throw new IllegalArgumentException(e);
+		} finally {
+			close(in);
 		}
 	}
 
 	/**
-	 * Converts an XML element to a task set.
+	 * Reads task set from an input stream. The stream is not closed.
 	 *
-	 * @param eSpecification
-	 *            the XML element
-	 * @return the task set
+	 * @param in
+	 *            the input stream
+	 * @return the tasks, ordered by offset
 	 */
-	public List<AvrTask> toTaskSet(nu.xom.Element eSpecification) {
+	public AvrTask[] readTasks(InputStream in) {
+		XMLStreamReader reader = null;
+
 		try {
+			reader = createFactory().createXMLStreamReader(in);
+			return readTasks(reader);
+		} catch (XMLStreamException e) {
+			Location location = e.getLocation();
 
-			List<AvrTask> taskset = new LinkedList<AvrTask>();
+			if (location == null) {
+				throw new TaskSetFormatException(e.getMessage(), -1, -1, e);
+			}
+			throw new TaskSetFormatException(e.getMessage(), location.getLineNumber(), location.getColumnNumber(), e);
+		} finally {
+			if (reader != null) {
+				try {
+					reader.close();
+				} catch (XMLStreamException e) {
+					// the stream is closed by the caller
+				}
+			}
+		}
+	}
+
+	/**
+	 * Creates the factory of the XML stream readers (external entities and
+	 * DTDs are not processed).
+	 *
+	 * @return the factory
+	 */
+	protected XMLInputFactory createFactory() {
+		XMLInputFactory factory = XMLInputFactory.newInstance();
+
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+
+		return factory;
+	}
+
+	/**
+	 * Reads the tasks from the root element of a specification.
+	 *
+	 * @param reader
+	 *            the XML stream reader, positioned before the root element
+	 * @return the tasks, ordered by offset
+	 * @throws XMLStreamException
+	 *             if the specification is malformed
+	 */
+	protected AvrTask[] readTasks(XMLStreamReader reader) throws XMLStreamException {
 
-			nu.xom.Elements eTasks = eSpecification.getChildElements("task");
+		// i) finds the root element
+		while (reader.next() != XMLStreamConstants.START_ELEMENT) {
+			if (reader.getEventType() == XMLStreamConstants.END_DOCUMENT) {
+				throw error(reader, "no root element");
+			}
+		}
 
-			for (nu.xom.Element eTask : iterable(eTasks)) {
-				AvrTask task = toTask(eTask);
-				taskset.add(task);
+		// ii) reads the tasks (other elements are ignored)
+		AvrTask[] tasks = new AvrTask[16];
+		int size = 0;
+
+		while (nextChild(reader)) {
+			if (!TASK.equals(reader.getLocalName())) {
+				skip(reader);
+				continue;
 			}
 
-			// check validity of task set (tasks ordered by offsets)
-			AvrTask prev;
-			AvrTask curr;
-			for (int i = 0; i < taskset.size() - 1; i++) {
-				prev = taskset.get(i);
-				curr = taskset.get(i + 1);
-				assert prev.getPhi() < curr.getPhi() : "specification error: tasks not ordered by offset!";
+			int line = reader.getLocation().getLineNumber();
+			int column = reader.getLocation().getColumnNumber();
+
+			AvrTask task = readTask(reader);
+
+			// checks validity of task set (tasks ordered by offsets)
+			if (size > 0 && !(tasks[size - 1].getPhi() < task.getPhi())) {
+				throw new TaskSetFormatException("tasks not ordered by offset (task " + task.getId() + ")", line,
+						column);
 			}
 
-			return taskset;
+			if (size == tasks.length) {
+				tasks = Arrays.copyOf(tasks, 2 * size);
+			}
+			tasks[size++] = task;
+		}
 
-		} catch (Exception ex) {
-			throw new IllegalArgumentException(ex);
+		if (size == 0) {
+			throw error(reader, "no tasks specified");
 		}
+		return size == tasks.length ? tasks : Arrays.copyOf(tasks, size);
 	}
 
 	/**
-	 * Converts a task from xml element to an {@link AvrTask}.
+	 * Reads a task element.
 	 *
-	 * @param eTask
-	 *            the xml element
+	 * @param reader
+	 *            the XML stream reader, positioned at the start of the task
+	 *            element (afterwards: at its end)
 	 * @return the AVR task
-	 * 
-	 * @throws IllegalArgumentException
-	 * @throws SecurityException
-	 * @throws InstantiationException
-	 * @throws IllegalAccessException
-	 * @throws InvocationTargetException
-	 * @throws NoSuchMethodException
-	 * @throws ClassNotFoundException
+	 * @throws XMLStreamException
+	 *             if the specification is malformed
 	 */
-	protected AvrTask toTask(nu.xom.Element eTask)
-			throws IllegalArgumentException, SecurityException, InstantiationException, IllegalAccessException,
-			InvocationTargetException, NoSuchMethodException, ClassNotFoundException {
+	protected AvrTask readTask(XMLStreamReader reader) throws XMLStreamException {
+
+		String id = reader.getAttributeValue(null, ID);
+
+		if (id == null) {
+			throw error(reader, "task without id");
+		}
+
+		String phi = null;
+		String cs = null;
+		String boundaries = null;
 
-		nu.xom.Elements ePhi = eTask.getChildElements("phi");
-		assert ePhi.size() == 1 : "specification error: multiple values for phi specified!";
+		while (nextChild(reader)) {
+			String name = reader.getLocalName();
 
-		double phi = Double.parseDouble((ePhi.get(0)).getAttributeValue("value"));
+			if (PHI.equals(name)) {
+				if (phi != null) {
+					throw error(reader, "multiple values for phi specified (task " + id + ")");
+				}
+				phi = getValue(reader, id);
+			} else if (C_FUNCTION.equals(name)) {
+				if (cs != null) {
+					throw error(reader, "multiple values for c specified (task " + id + ")");
+				}
+				cs = getValue(reader, id);
+			} else if (BOUNDARIES.equals(name)) {
+				if (boundaries != null) {
+					throw error(reader, "multiple values for boundaries list specified (task " + id + ")");
+				}
+				boundaries = getValue(reader, id);
+			}
+			skip(reader);
+		}
 
-		nu.xom.Elements eC = eTask.getChildElements("c");
-		assert eC.size() == 1 : "specification error: multiple values for c specified!";
+		if (phi == null || cs == null || boundaries == null) {
+			throw error(reader, "missing " + (phi == null ? PHI : cs == null ? C_FUNCTION : BOUNDARIES)
+					+ " (task " + id + ")");
+		}
 
-		String cs = (eC.get(0)).getAttributeValue("value");
-		double[] cArray = toDoubleArray(cs);
+		// i) release angle, WCETs and boundaries of the execution modes
+		double phiValue = toDouble(reader, phi, id);
+		double[] csArray = toDoubleArray(reader, cs, id);
+		double[] boundariesArray = toDoubleArray(reader, boundaries, id);
 
-		nu.xom.Elements eBoundaries = eTask.getChildElements("boundaries");
-		assert eBoundaries.size() == 1 : "specification error: multiple values for boundaries list specified!";
+		// ii) checks validity of the execution modes
+		if (boundariesArray.length < 2) {
+			throw error(reader, "at least 2 boundaries required (task " + id + ")");
+		}
+		if (csArray.length != boundariesArray.length - 1) {
+			throw error(reader, csArray.length + " WCETs for " + (boundariesArray.length - 1)
+					+ " execution modes (task " + id + ")");
+		}
+		for (int k = 1; k < boundariesArray.length; k++) {
+			if (!(boundariesArray[k - 1] < boundariesArray[k])) {
+				throw error(reader, "boundaries not ordered (task " + id + ")");
+			}
+		}
 
-		String boundaries = (eBoundaries.get(0)).getAttributeValue("value");
-		double[] boundariesArray = toDoubleArray(boundaries);
+		return createTask(id, phiValue, csArray, boundariesArray);
+	}
 
-		C c = new C(cArray, boundariesArray);
+	/**
+	 * Creates a task of the specification.
+	 *
+	 * @param id
+	 *            the id
+	 * @param phi
+	 *            the release angle as specified (in units of PI)
+	 * @param cs
+	 *            the WCETs of the execution modes
+	 * @param boundaries
+	 *            the boundaries of the rotation-speed intervals
+	 * @return the AVR task
+	 */
+	protected AvrTask createTask(String id, double phi, double[] cs, double[] boundaries) {
+		return new AvrTask(id, phi, new C(cs, boundaries));
+	}
 
-		String id = eTask.getAttributeValue("id");
-		return new AvrTask(id, phi, c);
+	/**
+	 * Returns the value attribute of the current element.
+	 *
+	 * @param reader
+	 *            the XML stream reader
+	 * @param id
+	 *            the id of the task (for error reporting)
+	 * @return the value
+	 */
+	protected String getValue(XMLStreamReader reader, String id) {
+		String value = reader.getAttributeValue(null, VALUE);
+
+		if (value == null) {
+			throw error(reader, "missing value of " + reader.getLocalName() + " (task " + id + ")");
+		}
+		return value;
 	}
 
 	/**
-	 * Converts a {@link String} of doubles into an array.
+	 * Advances to the next child element of the current element.
 	 *
+	 * @param reader
+	 *            the XML stream reader
+	 * @return true if positioned at the start of a child element, false if
+	 *         positioned at the end of the current element
+	 * @throws XMLStreamException
+	 *             if the specification is malformed
+	 */
+	protected static boolean nextChild(XMLStreamReader reader) throws XMLStreamException {
+		while (true) {
+			switch (reader.next()) {
+			case XMLStreamConstants.START_ELEMENT:
+				return true;
+			case XMLStreamConstants.END_ELEMENT:
+				return false;
+			default:
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Skips the current element including all its children.
+	 *
+	 * @param reader
+	 *            the XML stream reader, positioned at the start of the element
+	 *            (afterwards: at its end)
+	 * @throws XMLStreamException
+	 *             if the specification is malformed
+	 */
+	protected static void skip(XMLStreamReader reader) throws XMLStreamException {
+		int depth = 1;
+
+		while (depth > 0) {
+			switch (reader.next()) {
+			case XMLStreamConstants.START_ELEMENT:
+				depth++;
+				break;
+			case XMLStreamConstants.END_ELEMENT:
+				depth--;
+				break;
+			default:
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Converts a {@link String} into a double.
+	 *
+	 * @param reader
+	 *            the XML stream reader (for error reporting)
+	 * @param value
+	 *            the value
+	 * @param id
+	 *            the id of the task (for error reporting)
+	 * @return the double
+	 */
+	protected static double toDouble(XMLStreamReader reader, String value, String id) {
+		try {
+			return Double.parseDouble(value);
+		} catch (NumberFormatException e) {
+			throw error(reader, "invalid number '" + value + "' (task " + id + ")");
+		}
+	}
+
+	/**
+	 * Converts a {@link String} of doubles (separated by '|') into an array.
+	 *
+	 * @param reader
+	 *            the XML stream reader (for error reporting)
 	 * @param doubles
 	 *            the doubles
+	 * @param id
+	 *            the id of the task (for error reporting)
 	 * @return the double array
 	 */
-	private double[] toDoubleArray(String doubles) {
+	protected static double[] toDoubleArray(XMLStreamReader reader, String doubles, String id) {
+		int count = 1;
 
-		String[] elements = doubles.split("[|]");
-		double[] doubleArray = new double[elements.length];
+		for (int i = 0; i < doubles.length(); i++) {
+			if (doubles.charAt(i) == SEPARATOR) {
+				count++;
+			}
+		}
+
+		double[] doubleArray = new double[count];
+		int start = 0;
+
+		for (int i = 0; i < count; i++) {
+			int end = doubles.indexOf(SEPARATOR, start);
 
-		for (int i = 0; i < elements.length; i++) {
-			doubleArray[i] = Double.parseDouble(elements[i]);
+			if (end < 0) {
+				end = doubles.length();
+			}
+			doubleArray[i] = toDouble(reader, doubles.substring(start, end), id);
+			start = end + 1;
 		}
 		return doubleArray;
 	}
 
 	/**
-	 * Transforms an {@code Elements} object into a set of iterable
-	 * {@code Element} objects.
+	 * Creates a {@link TaskSetFormatException} at the current position.
 	 *
-	 * @param elements
-	 *            the elements object
-	 * @return the iterable element objects
+	 * @param reader
+	 *            the XML stream reader
+	 * @param message
+	 *            the description of the error
+	 * @return the exception
 	 */
-	public static Iterable<nu.xom.Element> iterable(final nu.xom.Elements elements) {
-		return new Iterable<nu.xom.Element>() {
-			@Override
-			public Iterator<nu.xom.Element> iterator() {
-				return new Iterator<nu.xom.Element>() {
-					int c = 0;
-
-					@Override
-					public boolean hasNext() {
-						return elements.size() > c;
-					}
-
-					@Override
-					public nu.xom.Element next() {
-						return elements.get(c++);
-					}
+	protected static TaskSetFormatException error(XMLStreamReader reader, String message) {
+		Location location = reader.getLocation();
+		return new TaskSetFormatException(message, location.getLineNumber(), location.getColumnNumber());
+	}
 
-					@Override
-					public void remove() {
-						throw new RuntimeException("invalid operation: remove");
-					}
-				};
+	/**
+	 * Closes an input stream, ignoring errors.
+	 *
+	 * @param in
+	 *            the input stream (may be null)
+	 */
+	private static void close(InputStream in) {
+		if (in != null) {
+			try {
+				in.close();
+			} catch (IOException e) {
+				// nothing was written
 			}
-		};
+		}
 	}
 }
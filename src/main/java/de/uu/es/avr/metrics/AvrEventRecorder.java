@@ -0,0 +1,75 @@
+package de.uu.es.avr.metrics;
+
+import org.opt4j.core.optimizer.Optimizer;
+import org.opt4j.core.optimizer.OptimizerIterationListener;
+import org.opt4j.core.optimizer.OptimizerStateListener;
+
+import com.google.inject.Singleton;
+
+/**
+ * The {@link AvrEventRecorder} emits an {@link IterationEvent} per iteration
+ * of the optimizer and tags the events of decoding, correction and evaluation
+ * with the current iteration (see {@link AvrEvents}).
+ *
+ * @author vrichthammer
+ *
+ */
+@Singleton
+public class AvrEventRecorder implements OptimizerIterationListener, OptimizerStateListener {
+
+	// the event of the current iteration
+	protected IterationEvent event = null;
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.opt4j.core.optimizer.OptimizerStateListener#optimizationStarted(
+	 * org.opt4j.core.optimizer.Optimizer)
+	 */
+	@Override
+	public void optimizationStarted(Optimizer optimizer) {
+		if (!AvrEvents.ENABLED) {
+			System.err.println("AvrEventRecorder: events are disabled (set -Davr.jfr=true)");
+		}
+
+		// the initial population is decoded in iteration 0
+		AvrEvents.reset();
+		begin();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * org.opt4j.core.optimizer.OptimizerIterationListener#iterationComplete(
+	 * int)
+	 */
+	@Override
+	public void iterationComplete(int iteration) {
+		if (event != null) {
+			event.commit(AvrEvents.getIteration());
+		}
+		AvrEvents.setIteration(iteration);
+		begin();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.opt4j.core.optimizer.OptimizerStateListener#optimizationStopped(
+	 * org.opt4j.core.optimizer.Optimizer)
+	 */
+	@Override
+	public void optimizationStopped(Optimizer optimizer) {
+		// the last (incomplete) iteration is not recorded
+		event = null;
+	}
+
+	/**
+	 * Begins the event of the next iteration.
+	 */
+	protected void begin() {
+		event = new IterationEvent();
+		event.begin();
+	}
+}
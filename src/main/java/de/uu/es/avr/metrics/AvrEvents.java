@@ -0,0 +1,93 @@
+package de.uu.es.avr.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The {@link AvrEvents} control the Java Flight Recorder events of the
+ * optimization phases ({@link DecodeEvent}, {@link CorrectionEvent},
+ * {@link EvaluationEvent} and {@link IterationEvent}), so that recordings can
+ * be sliced by decoder, length of the event sequence and iteration.
+ *
+ * The events are emitted if the system property {@code avr.jfr=true} is set
+ * (and recorded if a flight recording is running, e.g., started by
+ * {@code -XX:StartFlightRecording}). The call sites check the constant
+ * {@link #ENABLED} first, so that the instrumentation is removed by the JIT
+ * compiler if disabled.
+ *
+ * @author vrichthammer
+ *
+ */
+public class AvrEvents {
+
+	/**
+	 * Whether events are emitted (system property {@code avr.jfr}).
+	 */
+	public static final boolean ENABLED = Boolean.getBoolean("avr.jfr");
+
+	// the current iteration of the optimizer
+	protected static volatile int iteration = 0;
+
+	// the counts of the current iteration
+	protected static final LongAdder decodes = new LongAdder();
+	protected static final LongAdder infeasible = new LongAdder();
+	protected static final LongAdder corrections = new LongAdder();
+	protected static final LongAdder evaluations = new LongAdder();
+
+	/**
+	 * Returns the current iteration of the optimizer.
+	 *
+	 * @return the iteration
+	 */
+	public static int getIteration() {
+		return iteration;
+	}
+
+	/**
+	 * Sets the current iteration of the optimizer.
+	 *
+	 * @param iteration
+	 *            the iteration
+	 */
+	public static void setIteration(int iteration) {
+		AvrEvents.iteration = iteration;
+	}
+
+	/**
+	 * Resets the iteration and the counts of the current iteration.
+	 */
+	static void reset() {
+		iteration = 0;
+		decodes.reset();
+		infeasible.reset();
+		corrections.reset();
+		evaluations.reset();
+	}
+
+	/**
+	 * Counts a decoded genotype.
+	 *
+	 * @param feasible
+	 *            whether the decoded event sequence is feasible
+	 */
+	static void decoded(boolean feasible) {
+		decodes.increment();
+
+		if (!feasible) {
+			infeasible.increment();
+		}
+	}
+
+	/**
+	 * Counts a corrected rotation speed.
+	 */
+	static void corrected() {
+		corrections.increment();
+	}
+
+	/**
+	 * Counts an evaluated event sequence.
+	 */
+	static void evaluated() {
+		evaluations.increment();
+	}
+}
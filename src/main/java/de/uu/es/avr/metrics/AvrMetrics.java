@@ -0,0 +1,360 @@
+package de.uu.es.avr.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The {@link AvrMetrics} record where the optimization time goes: decoding
+ * (and how often infeasible genotypes are corrected), validation and
+ * evaluation, as well as the look-ups of the evaluation cache. The metrics are recorded in striped counters and
+ * {@link Histogram}s that concurrent threads rarely contend on.
+ *
+ * Recording is enabled by the system property {@code avr.metrics=true}. The
+ * call sites check the constant {@link #ENABLED} first, so that the
+ * instrumentation is removed by the JIT compiler if disabled.
+ *
+ * @author vrichthammer
+ *
+ */
+public class AvrMetrics implements AvrMetricsMXBean {
+
+	/**
+	 * Whether metrics are recorded (system property {@code avr.metrics}).
+	 */
+	public static final boolean ENABLED = Boolean.getBoolean("avr.metrics");
+
+	protected static final AvrMetrics INSTANCE = new AvrMetrics();
+
+	// decoding
+	protected final Histogram decodeLatency = new Histogram();
+	protected final LongAdder infeasible = new LongAdder();
+
+	// correction
+	protected final Histogram correctionLatency = new Histogram();
+	protected final Histogram correctionsPerIndividual = new Histogram();
+	protected final ConcurrentMap<Integer, LongAdder> repairs = new ConcurrentHashMap<Integer, LongAdder>();
+
+	// validation
+	protected final Histogram validationLatency = new Histogram();
+	protected final LongAdder invalid = new LongAdder();
+
+	// evaluation
+	protected final Histogram evaluationLatency = new Histogram();
+
+	// evaluation cache
+	protected final LongAdder cacheHits = new LongAdder();
+	protected final LongAdder cacheMisses = new LongAdder();
+
+	/**
+	 * Returns the metrics of this JVM.
+	 *
+	 * @return the metrics
+	 */
+	public static AvrMetrics get() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Records a decoded genotype.
+	 *
+	 * @param feasible
+	 *            whether the decoded event sequence is feasible
+	 * @param nanos
+	 *            the latency of decoding
+	 */
+	public void decoded(boolean feasible, long nanos) {
+		decodeLatency.record(nanos);
+
+		if (!feasible) {
+			infeasible.increment();
+		}
+	}
+
+	/**
+	 * Records a corrected rotation speed.
+	 *
+	 * @param position
+	 *            the position of the corrected rotation speed in the genotype
+	 * @param nanos
+	 *            the latency of the correcting strategy
+	 */
+	public void corrected(int position, long nanos) {
+		correctionLatency.record(nanos);
+
+		LongAdder counter = repairs.get(position);
+
+		if (counter == null) {
+			counter = new LongAdder();
+
+			LongAdder previous = repairs.putIfAbsent(position, counter);
+			if (previous != null) {
+				counter = previous;
+			}
+		}
+		counter.increment();
+	}
+
+	/**
+	 * Records the number of corrected rotation speeds of a genotype that
+	 * required correction.
+	 *
+	 * @param corrections
+	 *            the number of corrections
+	 */
+	public void repaired(int corrections) {
+		correctionsPerIndividual.record(corrections);
+	}
+
+	/**
+	 * Records a validated event sequence.
+	 *
+	 * @param valid
+	 *            whether the event sequence is valid
+	 * @param nanos
+	 *            the latency of validation
+	 */
+	public void validated(boolean valid, long nanos) {
+		validationLatency.record(nanos);
+
+		if (!valid) {
+			invalid.increment();
+		}
+	}
+
+	/**
+	 * Records an evaluated event sequence.
+	 *
+	 * @param nanos
+	 *            the latency of evaluation
+	 */
+	public void evaluated(long nanos) {
+		evaluationLatency.record(nanos);
+	}
+
+	/**
+	 * Records a look-up of the evaluation cache.
+	 *
+	 * @param hit
+	 *            whether the look-up was a hit
+	 */
+	public void cached(boolean hit) {
+		if (hit) {
+			cacheHits.increment();
+		} else {
+			cacheMisses.increment();
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see de.uu.es.avr.metrics.AvrMetricsMXBean#getDecodes()
+	 */
+	@Override
+	public long getDecodes() {
+		return decodeLatency.getCount();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see de.uu.es.avr.metrics.AvrMetricsMXBean#getInfeasibleRate()
+	 */
+	@Override
+	public double getInfeasibleRate() {
+		long decodes = getDecodes();
+		return decodes == 0 ? 0 : (double) infeasible.sum() / decodes;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see de.uu.es.avr.metrics.AvrMetricsMXBean#getDecodeMean()
+	 */
+	@Override
+	public double getDecodeMean() {
+		return decodeLatency.getMean();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see de.uu.es.avr.metrics.AvrMetricsMXBean#getDecodeP99()
+	 */
+	@Override
+	public long getDecodeP99() {
+		return decodeLatency.getPercentile(0.99);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see de.uu.es.avr.metrics.AvrMetricsMXBean#getCorrections()
+	 */
+	@Override
+	public long getCorrections() {
+		return correctionLatency.getCount();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see de.uu.es.avr.metrics.AvrMetricsMXBean#getCorrectionsPerIndividual()
+	 */
+	@Override
+	public double getCorrectionsPerIndividual() {
+		return correctionsPerIndividual.getMean();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see de.uu.es.avr.metrics.AvrMetricsMXBean#getCorrectionMean()
+	 */
+	@Override
+	public double getCorrectionMean() {
+		return correctionLatency.getMean();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see de.uu.es.avr.metrics.AvrMetricsMXBean#getRepairFrequencies()
+	 */
+	@Override
+	public Map<Integer, Long> getRepairFrequencies() {
+		Map<Integer, Long> result = new TreeMap<Integer, Long>();
+
+		for (Map.Entry<Integer, LongAdder> entry : repairs.entrySet()) {
+			result.put(entry.getKey(), entry.getValue().sum());
+		}
+		return result;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see de.uu.es.avr.metrics.AvrMetricsMXBean#getValidations()
+	 */
+	@Override
+	public long getValidations() {
+		return validationLatency.getCount();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see de.uu.es.avr.metrics.AvrMetricsMXBean#getInvalidRate()
+	 */
+	@Override
+	public double getInvalidRate() {
+		long validations = getValidations();
+		return validations == 0 ? 0 : (double) invalid.sum() / validations;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see de.uu.es.avr.metrics.AvrMetricsMXBean#getValidationMean()
+	 */
+	@Override
+	public double getValidationMean() {
+		return validationLatency.getMean();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see de.uu.es.avr.metrics.AvrMetricsMXBean#getEvaluations()
+	 */
+	@Override
+	public long getEvaluations() {
+		return evaluationLatency.getCount();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see de.uu.es.avr.metrics.AvrMetricsMXBean#getEvaluationMean()
+	 */
+	@Override
+	public double getEvaluationMean() {
+		return evaluationLatency.getMean();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see de.uu.es.avr.metrics.AvrMetricsMXBean#getEvaluationP99()
+	 */
+	@Override
+	public long getEvaluationP99() {
+		return evaluationLatency.getPercentile(0.99);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see de.uu.es.avr.metrics.AvrMetricsMXBean#getCacheHits()
+	 */
+	@Override
+	public long getCacheHits() {
+		return cacheHits.sum();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see de.uu.es.avr.metrics.AvrMetricsMXBean#getCacheMisses()
+	 */
+	@Override
+	public long getCacheMisses() {
+		return cacheMisses.sum();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see de.uu.es.avr.metrics.AvrMetricsMXBean#getCacheHitRate()
+	 */
+	@Override
+	public double getCacheHitRate() {
+		long hits = getCacheHits();
+		long lookups = hits + getCacheMisses();
+		return lookups == 0 ? 0 : (double) hits / lookups;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see de.uu.es.avr.metrics.AvrMetricsMXBean#reset()
+	 */
+	@Override
+	public void reset() {
+		decodeLatency.reset();
+		infeasible.reset();
+		correctionLatency.reset();
+		correctionsPerIndividual.reset();
+		repairs.clear();
+		validationLatency.reset();
+		invalid.reset();
+		evaluationLatency.reset();
+		cacheHits.reset();
+		cacheMisses.reset();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return "AvrMetrics [decodes=" + getDecodes() + ", infeasibleRate=" + getInfeasibleRate() + ", corrections="
+				+ getCorrections() + ", correctionsPerIndividual=" + getCorrectionsPerIndividual() + ", validations="
+				+ getValidations() + ", evaluations=" + getEvaluations() + "]";
+	}
+}
@@ -0,0 +1,140 @@
+package de.uu.es.avr.metrics;
+
+import java.util.Map;
+
+/**
+ * The management interface of the {@link AvrMetrics}, exposed via JMX by the
+ * {@link AvrMetricsReporter}. Latencies are given in nanoseconds.
+ *
+ * @author vrichthammer
+ *
+ */
+public interface AvrMetricsMXBean {
+
+	/**
+	 * Returns the number of decoded genotypes.
+	 *
+	 * @return the number of decodings
+	 */
+	public long getDecodes();
+
+	/**
+	 * Returns the ratio of decoded genotypes that are infeasible.
+	 *
+	 * @return the infeasibility rate
+	 */
+	public double getInfeasibleRate();
+
+	/**
+	 * Returns the mean latency of decoding.
+	 *
+	 * @return the mean latency
+	 */
+	public double getDecodeMean();
+
+	/**
+	 * Returns the 99th percentile of the latency of decoding (upper bound).
+	 *
+	 * @return the percentile
+	 */
+	public long getDecodeP99();
+
+	/**
+	 * Returns the number of corrected rotation speeds.
+	 *
+	 * @return the number of corrections
+	 */
+	public long getCorrections();
+
+	/**
+	 * Returns the mean number of corrected rotation speeds per repaired
+	 * genotype.
+	 *
+	 * @return the corrections per individual
+	 */
+	public double getCorrectionsPerIndividual();
+
+	/**
+	 * Returns the mean latency of a correcting strategy.
+	 *
+	 * @return the mean latency
+	 */
+	public double getCorrectionMean();
+
+	/**
+	 * Returns the number of corrected rotation speeds per position in the event
+	 * sequence.
+	 *
+	 * @return the repair frequency by position
+	 */
+	public Map<Integer, Long> getRepairFrequencies();
+
+	/**
+	 * Returns the number of validated event sequences.
+	 *
+	 * @return the number of validations
+	 */
+	public long getValidations();
+
+	/**
+	 * Returns the ratio of validated event sequences that are invalid.
+	 *
+	 * @return the invalidity rate
+	 */
+	public double getInvalidRate();
+
+	/**
+	 * Returns the mean latency of validation.
+	 *
+	 * @return the mean latency
+	 */
+	public double getValidationMean();
+
+	/**
+	 * Returns the number of evaluated event sequences.
+	 *
+	 * @return the number of evaluations
+	 */
+	public long getEvaluations();
+
+	/**
+	 * Returns the mean latency of evaluation.
+	 *
+	 * @return the mean latency
+	 */
+	public double getEvaluationMean();
+
+	/**
+	 * Returns the 99th percentile of the latency of evaluation (upper bound).
+	 *
+	 * @return the percentile
+	 */
+	public long getEvaluationP99();
+
+	/**
+	 * Returns the number of look-ups of the evaluation cache that were hits.
+	 *
+	 * @return the number of hits
+	 */
+	public long getCacheHits();
+
+	/**
+	 * Returns the number of look-ups of the evaluation cache that were
+	 * misses.
+	 *
+	 * @return the number of misses
+	 */
+	public long getCacheMisses();
+
+	/**
+	 * Returns the ratio of look-ups of the evaluation cache that were hits.
+	 *
+	 * @return the hit rate
+	 */
+	public double getCacheHitRate();
+
+	/**
+	 * Resets all metrics.
+	 */
+	public void reset();
+}
@@ -0,0 +1,276 @@
+package de.uu.es.avr.metrics;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.opt4j.core.optimizer.Optimizer;
+import org.opt4j.core.optimizer.OptimizerStateListener;
+import org.opt4j.core.start.Constant;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+import de.uu.es.avr.AvrWCRTProblem;
+
+/**
+ * The {@link AvrMetricsReporter} exposes the {@link AvrMetrics} via JMX during
+ * the optimization and appends a snapshot of them to a CSV file periodically
+ * (and at the end of the optimization). The repair frequencies per position
+ * are written to a second CSV file at the end of the optimization.
+ *
+ * The {@link AvrMetrics} are process-wide: concurrent optimizations (one
+ * injector each) share the counters, so their CSV files report the sum of all
+ * optimizations. The MBean is registered by the first started reporter and
+ * unregistered when the last active reporter stops.
+ *
+ * @author vrichthammer
+ *
+ */
+@Singleton
+public class AvrMetricsReporter implements OptimizerStateListener {
+
+	// the name of the registered MBean
+	public static final String NAME = "de.uu.es.avr:type=AvrMetrics";
+
+	protected static final String HEADER = "time,decodes,infeasibleRate,decodeMean,decodeP99,corrections,"
+			+ "correctionsPerIndividual,correctionMean,validations,invalidRate,validationMean,evaluations,"
+			+ "evaluationMean,evaluationP99,cacheHits,cacheHitRate";
+
+	protected final AvrMetrics metrics;
+	protected final File file;
+	protected final int interval;
+
+	// the number of started reporters of the process (registering the MBean)
+	protected static int active = 0;
+
+	protected ScheduledExecutorService executor = null;
+	protected boolean started = false;
+	protected long start;
+
+	/**
+	 * Creates the {@link AvrMetricsReporter}.
+	 *
+	 * @param file
+	 *            the CSV file (empty: no file)
+	 * @param interval
+	 *            the interval between the snapshots in milliseconds (0: only
+	 *            at the end of the optimization)
+	 */
+	@Inject
+	public AvrMetricsReporter(@Constant(namespace = AvrWCRTProblem.class, value = "metricsFile") String file,
+			@Constant(namespace = AvrWCRTProblem.class, value = "metricsInterval") int interval) {
+		this(AvrMetrics.get(), file.isEmpty() ? null : new File(file), interval);
+	}
+
+	/**
+	 * Creates the {@link AvrMetricsReporter}.
+	 *
+	 * @param metrics
+	 *            the metrics
+	 * @param file
+	 *            the CSV file (null: no file)
+	 * @param interval
+	 *            the interval between the snapshots in milliseconds (0: only
+	 *            at the end of the optimization)
+	 */
+	public AvrMetricsReporter(AvrMetrics metrics, File file, int interval) {
+		this.metrics = metrics;
+		this.file = file;
+		this.interval = interval;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.opt4j.core.optimizer.OptimizerStateListener#optimizationStarted(
+	 * org.opt4j.core.optimizer.Optimizer)
+	 */
+	@Override
+	public void optimizationStarted(Optimizer optimizer) {
+		if (!AvrMetrics.ENABLED) {
+			System.err.println("AvrMetricsReporter: metrics are disabled (set -Davr.metrics=true)");
+		}
+		start = System.currentTimeMillis();
+
+		// i) registers the MBean (if the first active reporter)
+		if (!started) {
+			register(metrics);
+			started = true;
+		}
+
+		// ii) writes snapshots periodically
+		if (file != null) {
+			write(file, HEADER, false);
+
+			if (interval > 0) {
+				executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+					@Override
+					public Thread newThread(Runnable runnable) {
+						Thread thread = new Thread(runnable, "AvrMetricsReporter");
+						thread.setDaemon(true);
+						return thread;
+					}
+				});
+				executor.scheduleAtFixedRate(new Runnable() {
+					@Override
+					public void run() {
+						write(file, snapshot(), true);
+					}
+				}, interval, interval, TimeUnit.MILLISECONDS);
+			}
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.opt4j.core.optimizer.OptimizerStateListener#optimizationStopped(
+	 * org.opt4j.core.optimizer.Optimizer)
+	 */
+	@Override
+	public void optimizationStopped(Optimizer optimizer) {
+		if (executor != null) {
+			executor.shutdown();
+
+			try {
+				executor.awaitTermination(interval, TimeUnit.MILLISECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			executor = null;
+		}
+
+		if (file != null) {
+			write(file, snapshot(), true);
+			write(getPositionsFile(file), positions(), false);
+		}
+
+		if (started) {
+			unregister();
+			started = false;
+		}
+	}
+
+	/**
+	 * Registers the MBean of the metrics, if no other reporter is active.
+	 *
+	 * @param metrics
+	 *            the metrics
+	 */
+	protected static synchronized void register(AvrMetrics metrics) {
+		if (active++ > 0) {
+			return;
+		}
+
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName(NAME);
+
+			if (!server.isRegistered(name)) {
+				server.registerMBean(metrics, name);
+			}
+		} catch (JMException e) {
+			System.err.println("AvrMetricsReporter: " + e);
+		}
+	}
+
+	/**
+	 * Unregisters the MBean of the metrics, if no other reporter is active.
+	 */
+	protected static synchronized void unregister() {
+		if (--active > 0) {
+			return;
+		}
+
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName(NAME);
+
+			if (server.isRegistered(name)) {
+				server.unregisterMBean(name);
+			}
+		} catch (JMException e) {
+			System.err.println("AvrMetricsReporter: " + e);
+		}
+	}
+
+	/**
+	 * Returns a snapshot of the metrics as a line of the CSV file.
+	 *
+	 * @return the snapshot
+	 */
+	protected String snapshot() {
+		return (System.currentTimeMillis() - start) + "," + metrics.getDecodes() + "," + metrics.getInfeasibleRate()
+				+ "," + metrics.getDecodeMean() + "," + metrics.getDecodeP99() + "," + metrics.getCorrections() + ","
+				+ metrics.getCorrectionsPerIndividual() + "," + metrics.getCorrectionMean() + ","
+				+ metrics.getValidations() + "," + metrics.getInvalidRate() + "," + metrics.getValidationMean() + ","
+				+ metrics.getEvaluations() + "," + metrics.getEvaluationMean() + "," + metrics.getEvaluationP99() + ","
+				+ metrics.getCacheHits() + "," + metrics.getCacheHitRate();
+	}
+
+	/**
+	 * Returns the repair frequencies per position as the content of a CSV
+	 * file.
+	 *
+	 * @return the repair frequencies
+	 */
+	protected String positions() {
+		StringBuilder result = new StringBuilder("position,repairs");
+
+		for (Map.Entry<Integer, Long> entry : metrics.getRepairFrequencies().entrySet()) {
+			result.append(System.lineSeparator()).append(entry.getKey()).append(',').append(entry.getValue());
+		}
+		return result.toString();
+	}
+
+	/**
+	 * Returns the CSV file of the repair frequencies per position, next to the
+	 * CSV file of the snapshots.
+	 *
+	 * @param file
+	 *            the CSV file of the snapshots
+	 * @return the CSV file of the repair frequencies
+	 */
+	protected static File getPositionsFile(File file) {
+		String name = file.getName().replaceFirst("(\\.csv)?$", "-positions.csv");
+		return new File(file.getAbsoluteFile().getParentFile(), name);
+	}
+
+	/**
+	 * Writes a line (or lines) to a file.
+	 *
+	 * @param file
+	 *            the file
+	 * @param line
+	 *            the line
+	 * @param append
+	 *            whether the line is appended
+	 */
+	protected static synchronized void write(File file, String line, boolean append) {
+		PrintWriter out = null;
+
+		try {
+			out = new PrintWriter(new OutputStreamWriter(new FileOutputStream(file, append), "UTF-8"));
+			out.println(line);
+		} catch (IOException e) {
+			System.err.println("AvrMetricsReporter: " + e);
+		} finally {
+			if (out != null) {
+				out.close();
+			}
+		}
+	}
+}
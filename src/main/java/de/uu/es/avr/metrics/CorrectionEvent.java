@@ -0,0 +1,58 @@
+package de.uu.es.avr.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The {@link CorrectionEvent} is the flight-recorder event of correcting an
+ * infeasible rotation speed of a genotype (see {@link AvrEvents}).
+ *
+ * @author vrichthammer
+ *
+ */
+@Name("de.uu.es.avr.Correction")
+@Label("Correction")
+@Category({ "AVR", "Optimization" })
+@Description("Correction of an infeasible rotation speed by the correcting strategy of a decoder")
+@StackTrace(false)
+public class CorrectionEvent extends jdk.jfr.Event {
+
+	@Label("Decoder")
+	protected Class<?> decoder;
+
+	@Label("Position")
+	@Description("The position of the corrected rotation speed in the genotype")
+	protected int position;
+
+	@Label("Length")
+	@Description("The number of events of the event sequence")
+	protected int length;
+
+	@Label("Iteration")
+	protected int iteration;
+
+	/**
+	 * Ends and commits the event (if recorded).
+	 *
+	 * @param decoder
+	 *            the decoder
+	 * @param position
+	 *            the position of the corrected rotation speed
+	 * @param length
+	 *            the number of events of the event sequence
+	 */
+	public void commit(Object decoder, int position, int length) {
+		AvrEvents.corrected();
+
+		if (shouldCommit()) {
+			this.decoder = decoder.getClass();
+			this.position = position;
+			this.length = length;
+			this.iteration = AvrEvents.getIteration();
+			commit();
+		}
+	}
+}
@@ -0,0 +1,56 @@
+package de.uu.es.avr.metrics;
+
+import de.uu.es.avr.model.EventSequence;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The {@link DecodeEvent} is the flight-recorder event of decoding a genotype
+ * into an {@link EventSequence} (see {@link AvrEvents}).
+ *
+ * @author vrichthammer
+ *
+ */
+@Name("de.uu.es.avr.Decode")
+@Label("Decode")
+@Category({ "AVR", "Optimization" })
+@Description("Decoding of a genotype into an event sequence")
+@StackTrace(false)
+public class DecodeEvent extends jdk.jfr.Event {
+
+	@Label("Decoder")
+	protected Class<?> decoder;
+
+	@Label("Length")
+	@Description("The number of events of the event sequence")
+	protected int length;
+
+	@Label("Feasible")
+	protected boolean feasible;
+
+	@Label("Iteration")
+	protected int iteration;
+
+	/**
+	 * Ends and commits the event (if recorded).
+	 *
+	 * @param decoder
+	 *            the decoder
+	 * @param eventSequence
+	 *            the decoded event sequence
+	 */
+	public void commit(Object decoder, EventSequence eventSequence) {
+		AvrEvents.decoded(eventSequence.isFeasible());
+
+		if (shouldCommit()) {
+			this.decoder = decoder.getClass();
+			this.length = eventSequence.size();
+			this.feasible = eventSequence.isFeasible();
+			this.iteration = AvrEvents.getIteration();
+			commit();
+		}
+	}
+}
@@ -0,0 +1,50 @@
+package de.uu.es.avr.metrics;
+
+import de.uu.es.avr.model.EventSequence;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The {@link EvaluationEvent} is the flight-recorder event of evaluating an
+ * {@link EventSequence} (see {@link AvrEvents}).
+ *
+ * @author vrichthammer
+ *
+ */
+@Name("de.uu.es.avr.Evaluation")
+@Label("Evaluation")
+@Category({ "AVR", "Optimization" })
+@Description("Evaluation of the objectives of an event sequence")
+@StackTrace(false)
+public class EvaluationEvent extends jdk.jfr.Event {
+
+	@Label("Length")
+	@Description("The number of events of the event sequence")
+	protected int length;
+
+	@Label("Feasible")
+	protected boolean feasible;
+
+	@Label("Iteration")
+	protected int iteration;
+
+	/**
+	 * Ends and commits the event (if recorded).
+	 *
+	 * @param eventSequence
+	 *            the evaluated event sequence
+	 */
+	public void commit(EventSequence eventSequence) {
+		AvrEvents.evaluated();
+
+		if (shouldCommit()) {
+			this.length = eventSequence.size();
+			this.feasible = eventSequence.isFeasible();
+			this.iteration = AvrEvents.getIteration();
+			commit();
+		}
+	}
+}
@@ -0,0 +1,117 @@
+package de.uu.es.avr.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The {@link Histogram} records the distribution of non-negative values (e.g.
+ * latencies in nanoseconds) in buckets of powers of two. Recording only
+ * increments striped counters ({@link LongAdder}), so that concurrent threads
+ * rarely contend; percentiles are approximated by the upper bound of their
+ * bucket.
+ *
+ * @author vrichthammer
+ *
+ */
+public class Histogram {
+
+	// bucket k counts the values in [2^(k-1), 2^k) (bucket 0: the value 0)
+	protected static final int BUCKETS = 64;
+
+	protected final LongAdder[] buckets = new LongAdder[BUCKETS];
+	protected final LongAdder count = new LongAdder();
+	protected final LongAdder sum = new LongAdder();
+
+	/**
+	 * Creates the {@link Histogram}.
+	 */
+	public Histogram() {
+		for (int k = 0; k < BUCKETS; k++) {
+			buckets[k] = new LongAdder();
+		}
+	}
+
+	/**
+	 * Records a value.
+	 *
+	 * @param value
+	 *            the value (negative values are recorded as 0)
+	 */
+	public void record(long value) {
+		long v = Math.max(0, value);
+
+		buckets[BUCKETS - Long.numberOfLeadingZeros(v)].increment();
+		count.increment();
+		sum.add(v);
+	}
+
+	/**
+	 * Returns the number of recorded values.
+	 *
+	 * @return the number of values
+	 */
+	public long getCount() {
+		return count.sum();
+	}
+
+	/**
+	 * Returns the sum of the recorded values.
+	 *
+	 * @return the sum
+	 */
+	public long getSum() {
+		return sum.sum();
+	}
+
+	/**
+	 * Returns the mean of the recorded values.
+	 *
+	 * @return the mean (0 if none)
+	 */
+	public double getMean() {
+		long n = getCount();
+		return n == 0 ? 0 : (double) getSum() / n;
+	}
+
+	/**
+	 * Returns an upper bound of a percentile of the recorded values (the upper
+	 * bound of its bucket).
+	 *
+	 * @param p
+	 *            the percentile \in [0,1]
+	 * @return the upper bound (0 if none)
+	 */
+	public long getPercentile(double p) {
+		assert p >= 0 && p <= 1 : "Histogram: percentile must be within [0,1]";
+
+		long[] counts = new long[BUCKETS];
+		long n = 0;
+
+		for (int k = 0; k < BUCKETS; k++) {
+			counts[k] = buckets[k].sum();
+			n += counts[k];
+		}
+
+		long rank = (long) Math.ceil(p * n);
+		long seen = 0;
+
+		for (int k = 0; k < BUCKETS; k++) {
+			seen += counts[k];
+
+			if (seen >= rank && counts[k] > 0) {
+				return k == 0 ? 0 : k == BUCKETS - 1 ? Long.MAX_VALUE : (1L << k) - 1;
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Resets the histogram (concurrently recorded values may be lost).
+	 */
+	public void reset() {
+		for (LongAdder bucket : buckets) {
+			bucket.reset();
+		}
+		count.reset();
+		sum.reset();
+	}
+}
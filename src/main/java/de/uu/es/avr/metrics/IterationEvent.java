@@ -0,0 +1,59 @@
+package de.uu.es.avr.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The {@link IterationEvent} is the flight-recorder event of an iteration of
+ * the optimizer, with the number of decoded, corrected and evaluated
+ * individuals of the iteration (see {@link AvrEvents}).
+ *
+ * @author vrichthammer
+ *
+ */
+@Name("de.uu.es.avr.Iteration")
+@Label("Iteration")
+@Category({ "AVR", "Optimization" })
+@Description("An iteration of the optimizer")
+@StackTrace(false)
+public class IterationEvent extends jdk.jfr.Event {
+
+	@Label("Iteration")
+	protected int iteration;
+
+	@Label("Decodes")
+	protected long decodes;
+
+	@Label("Infeasible")
+	@Description("The number of decoded, infeasible event sequences")
+	protected long infeasible;
+
+	@Label("Corrections")
+	@Description("The number of corrected rotation speeds")
+	protected long corrections;
+
+	@Label("Evaluations")
+	protected long evaluations;
+
+	/**
+	 * Ends and commits the event (if recorded), resetting the counts of the
+	 * iteration.
+	 *
+	 * @param iteration
+	 *            the completed iteration
+	 */
+	public void commit(int iteration) {
+		this.iteration = iteration;
+		this.decodes = AvrEvents.decodes.sumThenReset();
+		this.infeasible = AvrEvents.infeasible.sumThenReset();
+		this.corrections = AvrEvents.corrections.sumThenReset();
+		this.evaluations = AvrEvents.evaluations.sumThenReset();
+
+		if (shouldCommit()) {
+			commit();
+		}
+	}
+}
@@ -3,7 +3,10 @@ package de.uu.es.avr.model;
 import com.google.inject.Inject;
 
 /**
- * The {@link AvrTask} models an adaptive variable-rate task.
+ * The {@link AvrTask} models an adaptive variable-rate task. {@link AvrTask}s
+ * are immutable templates that are shared by all decoded
+ * {@link EventSequence}s; the rotation speed of each event is stored in the
+ * {@link EventSequence}.
  * 
  * @author vrichthammer
  *
@@ -20,9 +23,6 @@ public class AvrTask extends Task {
 	// the task
 	protected final double[] omega0;
 
-	// rotation speed after decoding, set for each released event
-	protected double decodedOmega;
-
 	/**
 	 * Constructs an {@link AvrTask} with its id, release angle, and execution
 	 * modes.
@@ -112,25 +112,6 @@ public class AvrTask extends Task {
 		return this.omega0[index];
 	}
 
-	/**
-	 * Returns the decoded rotation speed of an event (task instance).
-	 *
-	 * @return the rotation speed
-	 */
-	public double getOmega() {
-		return this.decodedOmega;
-	}
-
-	/**
-	 * Sets the rotation speed of an event (task instance).
-	 *
-	 * @param decodedOmega
-	 *            the rotation speed
-	 */
-	public void setOmega(double decodedOmega) {
-		this.decodedOmega = decodedOmega;
-	}
-
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -138,6 +119,7 @@ public class AvrTask extends Task {
 	 */
 	@Override
 	public AvrTask getEvent() {
-		return new AvrTask(this.id, this.phi / Math.PI, this.cFunction);
+		// immutable: events share the task instance
+		return this;
 	}
 }
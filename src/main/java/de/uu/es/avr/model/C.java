@@ -22,9 +22,23 @@ public class C {
 	// maximal rotation speed
 	protected final double maxOmega;
 
+	// optional direct-index table: execution mode at the lower end of each
+	// cell of the quantized rotation-speed range, or null
+	protected final int[] lookup;
+
+	// number of cells per unit of rotation speed
+	protected final double lookupScale;
+
+	/**
+	 * The index returned by {@link #findMode(double)} for rotation speeds out
+	 * of range.
+	 */
+	public static final int NO_MODE = -1;
+
 	/**
 	 * Creates the step-wise function representing worst case execution times
-	 * (WCETs) of an {@link AvrTask} depending on rotation speeds.
+	 * (WCETs) of an {@link AvrTask} depending on rotation speeds. Execution
+	 * modes are looked up by binary search.
 	 * 
 	 * @param cs
 	 *            the WCETs of the execution modes
@@ -32,15 +46,63 @@ public class C {
 	 *            the boundaries of the rotation-speed intervals
 	 */
 	public C(double[] cs, double[] boundaries) {
+		this(cs, boundaries, 0);
+	}
+
+	/**
+	 * Creates the step-wise function representing worst case execution times
+	 * (WCETs) of an {@link AvrTask} depending on rotation speeds. If the
+	 * resolution is positive, the rotation-speed range is quantized into
+	 * {@code resolution} equally sized cells and the execution mode at the
+	 * lower end of each cell is precomputed, so that a look-up only needs to
+	 * step over the (few) boundaries lying within a cell.
+	 * 
+	 * @param cs
+	 *            the WCETs of the execution modes
+	 * @param boundaries
+	 *            the boundaries of the rotation-speed intervals
+	 * @param resolution
+	 *            the number of cells of the direct-index table (0: binary
+	 *            search only)
+	 */
+	public C(double[] cs, double[] boundaries, int resolution) {
 		this.cs = cs;
 		this.boundaries = boundaries;
 
 		assert boundaries != null
 				&& boundaries.length > 1 : "boundaries must not be null and must have at least 2 boundary entries";
 		assert cs != null && cs.length == boundaries.length - 1 : "WCET array must not be null or has incorrect length";
+		assert resolution >= 0 : "resolution must not be negative";
 
 		this.minOmega = boundaries[0];
 		this.maxOmega = boundaries[boundaries.length - 1];
+
+		if (resolution > 0 && maxOmega > minOmega) {
+			this.lookupScale = resolution / (maxOmega - minOmega);
+			this.lookup = new int[resolution + 1];
+
+			for (int j = 0; j <= resolution; j++) {
+				int mode = search(minOmega + j / lookupScale);
+				lookup[j] = mode < 0 ? 0 : mode;
+			}
+		} else {
+			this.lookupScale = 0;
+			this.lookup = null;
+		}
+	}
+
+	/**
+	 * Returns a copy of this function with a direct-index table of the given
+	 * resolution (see {@link #C(double[], double[], int)}). The WCET and
+	 * boundary arrays are shared.
+	 * 
+	 * @param resolution
+	 *            the number of cells of the direct-index table (0: binary
+	 *            search only)
+	 * @return the function with direct-index table
+	 */
+	public C withResolution(int resolution) {
+		return new C(cs, boundaries, resolution);
 	}
 
 	/**
@@ -52,7 +114,7 @@ public class C {
 	 */
 	public double getC(double omega) {
 
-		int index = determineIndex(omega);
+		int index = getMode(omega);
 		return cs[index];
 	}
 
@@ -63,25 +125,89 @@ public class C {
 	 * @param omega
 	 *            the rotation speed
 	 * @return the index of the execution mode
+	 * @throws IllegalArgumentException
+	 *             if the rotation speed is out of range
 	 */
-	private int determineIndex(double omega) {
+	public int getMode(double omega) {
 
-		if (omega <= this.minOmega || omega > this.maxOmega) {
+		int index = findMode(omega);
+
+		if (index == NO_MODE) {
 			throw new IllegalArgumentException(
 					" getC(): omega " + omega + " out of range (" + this.minOmega + ", " + this.maxOmega + ")");
 		}
+		return index;
+	}
+
+	/**
+	 * Returns the index of the execution mode of a given rotation speed in the
+	 * array of WCETs, or {@link #NO_MODE} if the rotation speed is out of
+	 * range.
+	 *
+	 * @param omega
+	 *            the rotation speed
+	 * @return the index of the execution mode or {@link #NO_MODE}
+	 */
+	public int findMode(double omega) {
+
+		if (!(omega > this.minOmega && omega <= this.maxOmega)) {
+			return NO_MODE;
+		}
 
-		int index = 0;
+		if (lookup == null) {
+			return search(omega);
+		}
 
-		for (int i = 1; i < this.boundaries.length; i++) {
-			if (omega <= this.boundaries[i]) {
-				index = i - 1;
-				break;
-			}
+		int index = lookup[(int) ((omega - minOmega) * lookupScale)];
+
+		// correct for boundaries within the cell (and for rounding at the
+		// cell borders)
+		while (omega > boundaries[index + 1]) {
+			index++;
+		}
+		while (index > 0 && omega <= boundaries[index]) {
+			index--;
 		}
 		return index;
 	}
 
+	/**
+	 * Binary search for the execution mode {@code k} with {@code boundaries[k]
+	 * < omega <= boundaries[k + 1]}. Rotation speeds not exceeding the first
+	 * boundary yield -1.
+	 *
+	 * @param omega
+	 *            the rotation speed
+	 * @return the index of the execution mode
+	 */
+	private int search(double omega) {
+
+		// find the first boundary >= omega
+		int low = 0;
+		int high = boundaries.length - 1;
+
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+
+			if (boundaries[mid] < omega) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low - 1;
+	}
+
+	/**
+	 * Returns whether this function uses a direct-index table for looking up
+	 * execution modes.
+	 *
+	 * @return {@code true} if a direct-index table is used
+	 */
+	public boolean hasLookupTable() {
+		return lookup != null;
+	}
+
 	/**
 	 * Returns the WCETs of an {@link AvrTask} for all execution modes.
 	 * 
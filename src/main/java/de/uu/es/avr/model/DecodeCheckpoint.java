@@ -0,0 +1,196 @@
+package de.uu.es.avr.model;
+
+/**
+ * The {@link DecodeCheckpoint} records the state of the forward decoding of an
+ * {@link EventSequence} at every {@code interval}-th event: the rotation speed
+ * of the event and the objectives accumulated up to (and including) it. As
+ * the rotation speed of each event only depends on its predecessor, decoding
+ * a genotype that differs from an already decoded one only from a certain gene
+ * on can resume at the last checkpoint before that gene.
+ *
+ * @author vrichthammer
+ *
+ */
+public class DecodeCheckpoint {
+
+	/**
+	 * The default number of events between two checkpoints.
+	 */
+	public static final int DEFAULT_INTERVAL = 16;
+
+	protected final int interval;
+
+	// state per checkpoint (events 0, interval, 2 * interval, ...)
+	protected final double[] omegas;
+	protected final double[] mus;
+	protected final int[] sumCs;
+
+	/**
+	 * Creates a {@link DecodeCheckpoint} with the default interval.
+	 *
+	 * @param length
+	 *            the length of the event sequence
+	 */
+	public DecodeCheckpoint(int length) {
+		this(length, DEFAULT_INTERVAL);
+	}
+
+	/**
+	 * Creates a {@link DecodeCheckpoint}.
+	 *
+	 * @param length
+	 *            the length of the event sequence
+	 * @param interval
+	 *            the number of events between two checkpoints
+	 */
+	public DecodeCheckpoint(int length, int interval) {
+		assert length > 0 : "DecodeCheckpoint: event sequence must not be empty";
+		assert interval > 0 : "DecodeCheckpoint: interval must be positive";
+
+		this.interval = interval;
+
+		int count = (length - 1) / interval + 1;
+
+		this.omegas = new double[count];
+		this.mus = new double[count];
+		this.sumCs = new int[count];
+	}
+
+	/**
+	 * Returns whether decoding a genotype can resume at a checkpoint of its
+	 * decoded parent: the parent is feasible, has checkpoints (with the given
+	 * interval, if checkpoints are recorded again) and has the same events as
+	 * well as the same rotation speed of the first event as the genotype.
+	 * Otherwise, the genotype has to be decoded from the first event.
+	 *
+	 * @param parent
+	 *            the decoded parent (or {@code null})
+	 * @param table
+	 *            the task table of the genotype
+	 * @param task0
+	 *            the index of the first task of the genotype
+	 * @param length
+	 *            the length of the event sequence of the genotype
+	 * @param omega0
+	 *            the decoded rotation speed of the first event of the genotype
+	 * @param index
+	 *            the index of the first changed gene of the rotation speeds
+	 * @param interval
+	 *            the interval of the recorded checkpoints (0: none recorded)
+	 * @return true if decoding can resume at a checkpoint of the parent
+	 */
+	public static boolean isResumable(EventSequence parent, TaskTable table, int task0, int length, double omega0,
+			int index, int interval) {
+		if (parent == null || !parent.isFeasible() || parent.getCheckpoint() == null) {
+			return false;
+		}
+		DecodeCheckpoint previous = parent.getCheckpoint();
+
+		// i) the same events
+		if (parent.getTaskTable() != table || parent.size() != length || parent.getTaskIndex(0) != task0) {
+			return false;
+		}
+
+		// ii) the same first event and a valid change
+		if (previous.getOmega(0) != omega0 || index < 0 || index >= length) {
+			return false;
+		}
+		return interval == 0 || previous.getInterval() == interval;
+	}
+
+	/**
+	 * Records the state after decoding an event, if the event is a
+	 * checkpoint.
+	 *
+	 * @param i
+	 *            the position of the event
+	 * @param omega
+	 *            the rotation speed of the event
+	 * @param mu
+	 *            the time up to the event
+	 * @param sumC
+	 *            the overall WCET up to (and including) the event
+	 */
+	public void record(int i, double omega, double mu, int sumC) {
+		if (i % interval == 0) {
+			int k = i / interval;
+
+			omegas[k] = omega;
+			mus[k] = mu;
+			sumCs[k] = sumC;
+		}
+	}
+
+	/**
+	 * Copies the checkpoints up to (and including) a position from another
+	 * {@link DecodeCheckpoint} with the same interval.
+	 *
+	 * @param other
+	 *            the other checkpoint
+	 * @param position
+	 *            the position of the last checkpoint to copy
+	 */
+	public void copy(DecodeCheckpoint other, int position) {
+		assert other.interval == interval : "DecodeCheckpoint: different intervals";
+
+		int count = position / interval + 1;
+
+		System.arraycopy(other.omegas, 0, omegas, 0, count);
+		System.arraycopy(other.mus, 0, mus, 0, count);
+		System.arraycopy(other.sumCs, 0, sumCs, 0, count);
+	}
+
+	/**
+	 * Returns the position of the last checkpoint at or before an event.
+	 *
+	 * @param i
+	 *            the position of the event
+	 * @return the position of the checkpoint
+	 */
+	public int getPosition(int i) {
+		return Math.min(i / interval, omegas.length - 1) * interval;
+	}
+
+	/**
+	 * Returns the rotation speed of the event at a checkpoint.
+	 *
+	 * @param position
+	 *            the position of the checkpoint
+	 * @return the rotation speed
+	 */
+	public double getOmega(int position) {
+		return omegas[position / interval];
+	}
+
+	/**
+	 * Returns the time up to the event at a checkpoint.
+	 *
+	 * @param position
+	 *            the position of the checkpoint
+	 * @return the time
+	 */
+	public double getMu(int position) {
+		return mus[position / interval];
+	}
+
+	/**
+	 * Returns the overall WCET up to (and including) the event at a
+	 * checkpoint.
+	 *
+	 * @param position
+	 *            the position of the checkpoint
+	 * @return the overall WCET
+	 */
+	public int getSumC(int position) {
+		return sumCs[position / interval];
+	}
+
+	/**
+	 * Returns the number of events between two checkpoints.
+	 *
+	 * @return the interval
+	 */
+	public int getInterval() {
+		return interval;
+	}
+}
@@ -0,0 +1,176 @@
+package de.uu.es.avr.model;
+
+import de.uu.es.avr.AvrUtils;
+import de.uu.es.avr.AvrUtils.DoubleRange;
+
+/**
+ * The {@link Envelope} holds, for an event sequence of a given length starting
+ * at a given task, the rotation speeds per position that are both reachable
+ * from an initial rotation speed of the first task (forward) and admit a
+ * feasible continuation up to the last event (backward). Decoders restricting
+ * the rotation speed of each event to the envelope never run into a dead end.
+ *
+ * The bounds are inclusive: each rotation speed within the bounds of a
+ * position is feasible (unlike the exclusive minimal rotation speed of a task,
+ * see {@link AvrUtils#checkAndAdaptBoundaries}).
+ *
+ * @author vrichthammer
+ *
+ */
+public class Envelope {
+
+	/**
+	 * Index returned by {@link #findOmega0} if no initial rotation speed is
+	 * within the envelope.
+	 */
+	public static final int NO_OMEGA0 = -1;
+
+	protected final int task0;
+
+	// the rotation-speed bounds per position (NaN if unreachable)
+	protected final double[] lowers;
+	protected final double[] uppers;
+
+	/**
+	 * Creates an {@link Envelope}.
+	 *
+	 * @param task0
+	 *            the index of the task of the first event
+	 * @param lowers
+	 *            the lower rotation-speed bound per position
+	 * @param uppers
+	 *            the upper rotation-speed bound per position
+	 */
+	public Envelope(int task0, double[] lowers, double[] uppers) {
+		assert lowers.length == uppers.length : "Envelope: bounds of different length";
+
+		this.task0 = task0;
+		this.lowers = lowers;
+		this.uppers = uppers;
+	}
+
+	/**
+	 * Returns the index of the task of the first event.
+	 *
+	 * @return the index of the first task
+	 */
+	public int getTask0() {
+		return task0;
+	}
+
+	/**
+	 * Returns the length of the event sequences.
+	 *
+	 * @return the length
+	 */
+	public int size() {
+		return uppers.length;
+	}
+
+	/**
+	 * Returns the lower rotation-speed bound at a position.
+	 *
+	 * @param i
+	 *            the position
+	 * @return the lower bound
+	 */
+	public double getLower(int i) {
+		return lowers[i];
+	}
+
+	/**
+	 * Returns the upper rotation-speed bound at a position.
+	 *
+	 * @param i
+	 *            the position
+	 * @return the upper bound
+	 */
+	public double getUpper(int i) {
+		return uppers[i];
+	}
+
+	/**
+	 * Returns whether any feasible event sequence exists, i.e. whether the
+	 * envelope is non-empty at each position.
+	 *
+	 * @return true if a feasible event sequence exists
+	 */
+	public boolean isFeasible() {
+		int last = uppers.length - 1;
+
+		// empty positions propagate to the last one (NaN)
+		return lowers[last] <= uppers[last];
+	}
+
+	/**
+	 * Restricts a rotation-speed range of the event at a position to the
+	 * (inclusive) bounds of the envelope.
+	 *
+	 * @param i
+	 *            the position
+	 * @param range
+	 *            the range to adapt
+	 * @return true if the restricted range is non-empty
+	 */
+	public boolean adapt(int i, DoubleRange range) {
+		if (!(lowers[i] <= uppers[i])) {
+			return false;
+		}
+
+		double lower = Math.max(range.getLower(), lowers[i]);
+		double upper = Math.min(range.getUpper(), uppers[i]);
+
+		if (!(lower <= upper)) {
+			return false;
+		}
+		range.setLower(lower);
+		range.setUpper(upper);
+
+		return true;
+	}
+
+	/**
+	 * Returns the index of the initial rotation speed of the first task (see
+	 * {@link TaskTable#getOmega0}) that is closest to a given index and within
+	 * the envelope, or {@link #NO_OMEGA0}.
+	 *
+	 * @param table
+	 *            the task table
+	 * @param index
+	 *            the preferred index of the initial rotation speed
+	 * @return the index of the initial rotation speed or {@link #NO_OMEGA0}
+	 */
+	public int findOmega0(TaskTable table, int index) {
+		int count = table.getModeCount(task0);
+
+		for (int distance = 0; distance < count; distance++) {
+			if (containsOmega0(table, index - distance)) {
+				return index - distance;
+			}
+			if (containsOmega0(table, index + distance)) {
+				return index + distance;
+			}
+		}
+		return NO_OMEGA0;
+	}
+
+	/**
+	 * Returns whether an initial rotation speed of the first task is within
+	 * the envelope.
+	 *
+	 * @param table
+	 *            the task table
+	 * @param index
+	 *            the index of the initial rotation speed
+	 * @return true if the index is valid and the rotation speed is within the
+	 *         envelope
+	 */
+	protected boolean containsOmega0(TaskTable table, int index) {
+		if (index < 0 || index >= table.getModeCount(task0)) {
+			return false;
+		}
+		double omega0 = table.getOmega0(task0, index);
+
+		return omega0 >= lowers[0] && omega0 <= uppers[0];
+	}
+}
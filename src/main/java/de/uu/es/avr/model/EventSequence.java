@@ -1,7 +1,9 @@
 package de.uu.es.avr.model;
 
-import java.util.LinkedList;
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.RandomAccess;
 
 import com.google.inject.Inject;
 
@@ -11,43 +13,274 @@ import de.uu.es.avr.AvrWCRTProblem;
  * The {@link EventSequence} represents the phenotype of the
  * {@link AvrWCRTProblem}. It is a sequence of events ({@link AvrTask}
  * instances) with decoded execution modes, maximizing interference.
- * 
+ *
+ * Events are consecutive instances of the (immutable, shared) {@link AvrTask}s
+ * of a task set, starting at the task with index {@code task0}. Per event, only
+ * the decoded rotation speed and its execution mode are stored in primitive
+ * arrays, so that any
+ * position can be accessed in constant time and decoding allocates no
+ * {@link AvrTask}s. The {@link List} view of the {@link AvrTask}s is kept for
+ * the viewer and archives of Opt4J. As the shared {@link AvrTask}s do not carry
+ * the decoded state, event sequences are only equal to event sequences of the
+ * same tasks, first task, rotation speeds and feasibility.
+ *
+ * Decoders may accumulate the objectives while decoding and store them with the
+ * sequence; such sequences can defer decoding the rotation speeds until they
+ * are accessed (see {@link #materialize()}). They also keep the
+ * {@link DecodeCheckpoint} of the decoding, so that similar genotypes can be
+ * decoded incrementally.
+ *
  * @author vrichthammer
  *
  */
-public class EventSequence extends LinkedList<AvrTask> {
+public class EventSequence extends AbstractList<AvrTask> implements RandomAccess {
+
+	// the tasks the events are instances of (shared, not copied)
+	protected final TaskTable table;
+
+	// index of the task of the first event
+	protected final int task0;
 
-	private static final long serialVersionUID = 1L;
+	// the length of the event sequence
+	protected final int length;
+
+	// rotation speed of the events (decoded on first access for lazily
+	// decoded sequences)
+	protected double[] omegas;
+
+	// execution mode of the events, recorded when the rotation speed is set
+	// (C.NO_MODE if the rotation speed is out of the task's range)
+	protected int[] modes;
 
 	protected boolean feasible;
 
+	// whether the rotation speeds have been decoded
+	private volatile boolean materialized;
+
+	// objectives accumulated during decoding or stored by the evaluator (NaN
+	// if not available; mu is written last)
+	protected volatile double mu = Double.NaN;
+	protected int sumC;
+
+	// the state of the decoding at regular positions (null if not recorded)
+	protected DecodeCheckpoint checkpoint;
+
+	/**
+	 * Constructs an event sequence of {@code length} consecutive instances of
+	 * the given tasks, starting with the task at index {@code task0}. The
+	 * rotation speeds are set by the decoder.
+	 *
+	 * @param table
+	 *            the task set
+	 * @param task0
+	 *            the index of the task of the first event
+	 * @param length
+	 *            the length of the event sequence
+	 */
+	public EventSequence(TaskTable table, int task0, int length) {
+		this(table, task0, length, true);
+	}
+
+	/**
+	 * Constructs an event sequence of {@code length} consecutive instances of
+	 * the given tasks, starting with the task at index {@code task0}. If not
+	 * allocated, the rotation speeds are decoded by {@link #materialize()} on
+	 * first access.
+	 *
+	 * @param table
+	 *            the task set
+	 * @param task0
+	 *            the index of the task of the first event
+	 * @param length
+	 *            the length of the event sequence
+	 * @param allocate
+	 *            whether the rotation speeds are allocated immediately
+	 */
+	protected EventSequence(TaskTable table, int task0, int length, boolean allocate) {
+		this.table = table;
+		this.task0 = task0;
+		this.length = length;
+
+		if (allocate) {
+			materialize();
+			this.materialized = true;
+		}
+	}
+
 	/**
-	 * Constructs an event sequence with a list of AVR task instances.
-	 * 
+	 * Constructs an event sequence with a list of AVR task instances and their
+	 * rotation speeds.
+	 *
 	 * @param eventSequence
 	 *            the event sequence
+	 * @param omegas
+	 *            the rotation speeds of the events
 	 */
 	@Inject
-	public EventSequence(List<AvrTask> eventSequence) {
-		this.addAll(eventSequence);
+	public EventSequence(List<AvrTask> eventSequence, double[] omegas) {
+		assert eventSequence.size() == omegas.length : "EventSequence: one rotation speed per event required";
+
+		this.table = new TaskTable(eventSequence);
+		this.task0 = 0;
+		this.length = omegas.length;
+		this.modes = new int[omegas.length];
+		this.omegas = omegas.clone();
+		this.materialized = true;
+
+		for (int i = 0; i < omegas.length; i++) {
+			modes[i] = table.findMode(i, omegas[i]);
+		}
 	}
 
 	/**
-	 * Constructs an event sequence with a list of AVR task instances,
-	 * indicating whether the combination of decoded consecutive rotation speeds
-	 * is feasible.
-	 * 
+	 * Constructs an event sequence with a list of AVR task instances and their
+	 * rotation speeds, indicating whether the combination of decoded
+	 * consecutive rotation speeds is feasible.
+	 *
 	 * @param eventSequence
 	 *            the event sequence
+	 * @param omegas
+	 *            the rotation speeds of the events
 	 * @param feasible
 	 *            the feasibility
 	 */
 	@Inject
-	public EventSequence(List<AvrTask> eventSequence, boolean feasible) {
-		this(eventSequence);
+	public EventSequence(List<AvrTask> eventSequence, double[] omegas, boolean feasible) {
+		this(eventSequence, omegas);
 		this.feasible = feasible;
 	}
 
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.AbstractList#get(int)
+	 */
+	@Override
+	public AvrTask get(int index) {
+		return table.getTask(getTaskIndex(index));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.AbstractCollection#size()
+	 */
+	@Override
+	public int size() {
+		return length;
+	}
+
+	/**
+	 * Returns the index in the task set of the event's task at the given
+	 * position.
+	 *
+	 * @param index
+	 *            the position in the event sequence
+	 * @return the index of the task in the task set
+	 */
+	public int getTaskIndex(int index) {
+		checkIndex(index);
+		return (task0 + index) % table.size();
+	}
+
+	/**
+	 * Returns the release angle of the event at the given position.
+	 *
+	 * @param index
+	 *            the position in the event sequence
+	 * @return the release angle
+	 */
+	public double getPhi(int index) {
+		return table.getPhi(getTaskIndex(index));
+	}
+
+	/**
+	 * Returns the decoded rotation speed of the event at the given position.
+	 *
+	 * @param index
+	 *            the position in the event sequence
+	 * @return the rotation speed
+	 */
+	public double getOmega(int index) {
+		return omegas()[index];
+	}
+
+	/**
+	 * Returns the execution mode of the event at the given position, or
+	 * {@link C#NO_MODE} if its rotation speed is out of the task's range.
+	 *
+	 * @param index
+	 *            the position in the event sequence
+	 * @return the index of the execution mode
+	 */
+	public int getMode(int index) {
+		omegas();
+		return modes[index];
+	}
+
+	/**
+	 * Sets the rotation speed of the event at the given position (during
+	 * decoding) and records the corresponding execution mode.
+	 *
+	 * @param index
+	 *            the position in the event sequence
+	 * @param omega
+	 *            the rotation speed
+	 */
+	public void setOmega(int index, double omega) {
+		omegas()[index] = omega;
+		modes[index] = table.findMode(getTaskIndex(index), omega);
+	}
+
+	/**
+	 * Copies the rotation speeds and execution modes of the first events of
+	 * another event sequence with the same tasks and first task (during
+	 * incremental decoding).
+	 *
+	 * @param other
+	 *            the other event sequence
+	 * @param count
+	 *            the number of events to copy
+	 */
+	public void copyOmegas(EventSequence other, int count) {
+		assert other.task0 == task0 && other.table == table : "EventSequence: different events";
+
+		System.arraycopy(other.getOmegas(), 0, omegas(), 0, count);
+		System.arraycopy(other.getModes(), 0, modes, 0, count);
+	}
+
+	/**
+	 * Returns the rotation speeds of all events. The array is backing the
+	 * event sequence and must not be modified.
+	 *
+	 * @return the rotation speeds
+	 */
+	public double[] getOmegas() {
+		return omegas();
+	}
+
+	/**
+	 * Returns the execution modes of all events. The array is backing the
+	 * event sequence and must not be modified.
+	 *
+	 * @return the execution modes
+	 */
+	public int[] getModes() {
+		omegas();
+		return modes;
+	}
+
+	/**
+	 * Returns the {@link TaskTable} of the tasks the events are instances of.
+	 * The successor of an event's task in the table is the task of the
+	 * subsequent event.
+	 *
+	 * @return the task table
+	 */
+	public TaskTable getTaskTable() {
+		return table;
+	}
+
 	/**
 	 * Returns whether the sequence of decoded rotation speeds is feasible.
 	 *
@@ -67,9 +300,146 @@ public class EventSequence extends LinkedList<AvrTask> {
 		this.feasible = feasible;
 	}
 
+	/**
+	 * Returns whether the objectives of the event sequence are available
+	 * (accumulated during decoding or stored by a previous evaluation).
+	 *
+	 * @return true if the objectives are available
+	 */
+	public boolean hasObjectives() {
+		return !Double.isNaN(mu);
+	}
+
+	/**
+	 * Sets the objectives of the event sequence accumulated during decoding or
+	 * calculated by the {@link de.uu.es.avr.AvrEvaluator}.
+	 *
+	 * @param mu
+	 *            the time of the event sequence
+	 * @param sumC
+	 *            the overall WCET of the event sequence
+	 */
+	public void setObjectives(double mu, int sumC) {
+		this.sumC = sumC;
+		this.mu = mu;
+	}
+
+	/**
+	 * Returns the time of the event sequence accumulated during decoding.
+	 *
+	 * @return the time of the event sequence (NaN if not available)
+	 */
+	public double getMu() {
+		return mu;
+	}
+
+	/**
+	 * Returns the overall WCET of the event sequence accumulated during
+	 * decoding.
+	 *
+	 * @return the overall WCET
+	 */
+	public int getSumC() {
+		return sumC;
+	}
+
+	/**
+	 * Returns the {@link DecodeCheckpoint} recorded while decoding.
+	 *
+	 * @return the checkpoint or {@code null}
+	 */
+	public DecodeCheckpoint getCheckpoint() {
+		return checkpoint;
+	}
+
+	/**
+	 * Sets the {@link DecodeCheckpoint} recorded while decoding.
+	 *
+	 * @param checkpoint
+	 *            the checkpoint
+	 */
+	public void setCheckpoint(DecodeCheckpoint checkpoint) {
+		this.checkpoint = checkpoint;
+	}
+
+	/**
+	 * Allocates the rotation speeds and execution modes of the events. Lazily
+	 * decoded sequences override this method to decode the rotation speeds
+	 * (using {@link #setOmega(int, double)} after allocating) on first access.
+	 */
+	protected void materialize() {
+		this.modes = new int[length];
+		this.omegas = new double[length];
+	}
+
+	/**
+	 * Returns the rotation speeds of the events, materializing them if
+	 * necessary.
+	 *
+	 * @return the rotation speeds
+	 */
+	private double[] omegas() {
+
+		if (!materialized) {
+			synchronized (this) {
+				// omegas are already allocated while materialize() decodes
+				if (!materialized && omegas == null) {
+					materialize();
+					materialized = true;
+				}
+			}
+		}
+		return omegas;
+	}
+
+	/**
+	 * Checks whether the given position lies within the event sequence.
+	 *
+	 * @param index
+	 *            the position
+	 */
+	private void checkIndex(int index) {
+		if (index < 0 || index >= length) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + length);
+		}
+	}
+
 	/*
 	 * (non-Javadoc)
-	 * 
+	 *
+	 * @see java.util.AbstractList#equals(java.lang.Object)
+	 */
+	@Override
+	public boolean equals(Object o) {
+		if (o == this) {
+			return true;
+		}
+		if (!(o instanceof EventSequence)) {
+			return false;
+		}
+		EventSequence other = (EventSequence) o;
+
+		return table == other.table && task0 == other.task0 && length == other.length && feasible == other.feasible
+				&& Arrays.equals(omegas(), other.omegas());
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.AbstractList#hashCode()
+	 */
+	@Override
+	public int hashCode() {
+		int result = table.hashCode();
+		result = 31 * result + task0;
+		result = 31 * result + length;
+		result = 31 * result + (feasible ? 1 : 0);
+		return 31 * result + Arrays.hashCode(omegas());
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
 	 * @see java.util.AbstractCollection#toString()
 	 */
 	@Override
@@ -83,11 +453,12 @@ public class EventSequence extends LinkedList<AvrTask> {
 			return "empty";
 		}
 
-		String result = "";
+		StringBuilder result = new StringBuilder();
+		double[] omegas = omegas();
 
-		for (AvrTask event : this) {
-			result += event.getId() + ": " + event.getOmega() + " ";
+		for (int i = 0; i < length; i++) {
+			result.append(get(i).getId()).append(": ").append(omegas[i]).append(" ");
 		}
-		return result;
+		return result.toString();
 	}
 }
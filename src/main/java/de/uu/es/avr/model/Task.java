@@ -23,7 +23,8 @@ public abstract class Task {
 	}
 
 	/**
-	 * Creates a task instance (event) of a {@Task}, i.e. a deep copy.
+	 * Creates a task instance (event) of a {@Task}, i.e. a deep copy. Immutable
+	 * tasks may return themselves.
 	 *
 	 * @return the deep copy
 	 */
@@ -0,0 +1,371 @@
+package de.uu.es.avr.model;
+
+import java.util.List;
+
+import de.uu.es.avr.AvrUtils;
+
+/**
+ * The {@link TaskTable} holds the {@link AvrTask}s of a task set together with
+ * dense primitive tables of their properties (release angles, release angles
+ * between consecutive tasks, rotation-speed ranges, and the flattened execution
+ * modes). The tables are built once, so that decoding and evaluation of
+ * {@link EventSequence}s never have to traverse the {@link AvrTask} objects.
+ *
+ * Task {@code i + 1} (modulo the task-set size) is the successor of task
+ * {@code i}, i.e. the task releasing the next event.
+ *
+ * @author vrichthammer
+ *
+ */
+public class TaskTable {
+
+	// the task set
+	protected final AvrTask[] tasks;
+
+	// release angle per task
+	protected final double[] phis;
+
+	// release angle between each task and its successor
+	protected final double[] deltaPhis;
+
+	// minimal and maximal rotation speed per task
+	protected final double[] minOmegas;
+	protected final double[] maxOmegas;
+
+	// the execution modes of task i are modeOffsets[i]..modeOffsets[i+1]-1
+	protected final int[] modeOffsets;
+
+	// the flattened WCETs of all execution modes
+	protected final double[] wcets;
+
+	// the flattened rotation-speed boundaries of all execution modes: task i
+	// has boundaries modeOffsets[i]+i..modeOffsets[i+1]+i
+	protected final double[] boundaries;
+
+	// the execution-mode look-up per task
+	protected final C[] cFunctions;
+
+	// minimal and maximal rotation speed over all tasks
+	protected final double minOmega;
+	protected final double maxOmega;
+
+	// whether all WCETs are integral (the overall WCET is their exact sum)
+	protected final boolean integralWcets;
+
+	/**
+	 * Builds the {@link TaskTable} of a task set.
+	 *
+	 * @param taskset
+	 *            the task set
+	 */
+	public TaskTable(List<AvrTask> taskset) {
+		this(taskset, 0);
+	}
+
+	/**
+	 * Builds the {@link TaskTable} of a task set, looking up execution modes
+	 * with direct-index tables of the given resolution (see
+	 * {@link C#C(double[], double[], int)}).
+	 *
+	 * @param taskset
+	 *            the task set
+	 * @param resolution
+	 *            the number of cells of the direct-index tables (0: binary
+	 *            search only)
+	 */
+	public TaskTable(List<AvrTask> taskset, int resolution) {
+		this(taskset.toArray(new AvrTask[taskset.size()]), resolution);
+	}
+
+	/**
+	 * Builds the {@link TaskTable} of a task set.
+	 *
+	 * @param tasks
+	 *            the task set
+	 */
+	public TaskTable(AvrTask[] tasks) {
+		this(tasks, 0);
+	}
+
+	/**
+	 * Builds the {@link TaskTable} of a task set, looking up execution modes
+	 * with direct-index tables of the given resolution (see
+	 * {@link C#C(double[], double[], int)}).
+	 *
+	 * @param tasks
+	 *            the task set
+	 * @param resolution
+	 *            the number of cells of the direct-index tables (0: binary
+	 *            search only)
+	 */
+	public TaskTable(AvrTask[] tasks, int resolution) {
+
+		int size = tasks.length;
+
+		this.tasks = tasks;
+		this.phis = new double[size];
+		this.deltaPhis = new double[size];
+		this.minOmegas = new double[size];
+		this.maxOmegas = new double[size];
+		this.modeOffsets = new int[size + 1];
+		this.cFunctions = new C[size];
+
+		for (int i = 0; i < size; i++) {
+			C c = tasks[i].getCfunction();
+
+			cFunctions[i] = resolution > 0 ? c.withResolution(resolution) : c;
+
+			phis[i] = tasks[i].getPhi();
+			minOmegas[i] = c.getMinOmega();
+			maxOmegas[i] = c.getMaxOmega();
+			modeOffsets[i + 1] = modeOffsets[i] + c.getCs().length;
+		}
+
+		this.wcets = new double[modeOffsets[size]];
+		this.boundaries = new double[modeOffsets[size] + size];
+
+		double min = Double.MAX_VALUE;
+		double max = Double.MIN_VALUE;
+
+		for (int i = 0; i < size; i++) {
+			C c = tasks[i].getCfunction();
+
+			System.arraycopy(c.getCs(), 0, wcets, modeOffsets[i], c.getCs().length);
+			System.arraycopy(c.getBoundaries(), 0, boundaries, modeOffsets[i] + i, c.getBoundaries().length);
+
+			deltaPhis[i] = AvrUtils.deltaPhi(phis[i], phis[(i + 1) % size]);
+
+			min = Math.min(min, minOmegas[i]);
+			max = Math.max(max, maxOmegas[i]);
+		}
+
+		this.minOmega = min;
+		this.maxOmega = max;
+
+		boolean integral = true;
+		for (double wcet : wcets) {
+			integral &= wcet == Math.rint(wcet);
+		}
+		this.integralWcets = integral;
+	}
+
+	/**
+	 * Returns the number of tasks in the task set.
+	 *
+	 * @return the size of the task set
+	 */
+	public int size() {
+		return tasks.length;
+	}
+
+	/**
+	 * Returns the {@link AvrTask} at the specified index.
+	 *
+	 * @param task
+	 *            the index of the task
+	 * @return the AVR task
+	 */
+	public AvrTask getTask(int task) {
+		return tasks[task];
+	}
+
+	/**
+	 * Returns the index of the successor of a task.
+	 *
+	 * @param task
+	 *            the index of the task
+	 * @return the index of the successor
+	 */
+	public int next(int task) {
+		int next = task + 1;
+		return next == tasks.length ? 0 : next;
+	}
+
+	/**
+	 * Returns the release angle of a task.
+	 *
+	 * @param task
+	 *            the index of the task
+	 * @return the release angle
+	 */
+	public double getPhi(int task) {
+		return phis[task];
+	}
+
+	/**
+	 * Returns the release angle between a task and its successor, corrected
+	 * for cases where the full rotation of 2*PI is crossed.
+	 *
+	 * @param task
+	 *            the index of the task
+	 * @return the release angle to the successor
+	 */
+	public double getDeltaPhi(int task) {
+		return deltaPhis[task];
+	}
+
+	/**
+	 * Returns the minimal rotation speed of a task.
+	 *
+	 * @param task
+	 *            the index of the task
+	 * @return the minimal rotation speed
+	 */
+	public double getMinOmega(int task) {
+		return minOmegas[task];
+	}
+
+	/**
+	 * Returns the maximal rotation speed of a task.
+	 *
+	 * @param task
+	 *            the index of the task
+	 * @return the maximal rotation speed
+	 */
+	public double getMaxOmega(int task) {
+		return maxOmegas[task];
+	}
+
+	/**
+	 * Returns the number of execution modes of a task.
+	 *
+	 * @param task
+	 *            the index of the task
+	 * @return the number of execution modes
+	 */
+	public int getModeCount(int task) {
+		return modeOffsets[task + 1] - modeOffsets[task];
+	}
+
+	/**
+	 * Returns the WCET of an execution mode of a task.
+	 *
+	 * @param task
+	 *            the index of the task
+	 * @param mode
+	 *            the index of the execution mode
+	 * @return the WCET
+	 */
+	public double getWcet(int task, int mode) {
+		return wcets[modeOffsets[task] + mode];
+	}
+
+	/**
+	 * Returns a rotation-speed boundary of the execution modes of a task.
+	 * Execution mode {@code k} covers the rotation speeds in (boundary
+	 * {@code k}, boundary {@code k + 1}].
+	 *
+	 * @param task
+	 *            the index of the task
+	 * @param boundary
+	 *            the index of the boundary
+	 * @return the boundary
+	 */
+	public double getBoundary(int task, int boundary) {
+		return boundaries[modeOffsets[task] + task + boundary];
+	}
+
+	/**
+	 * Returns a possible rotation speed for the first event of a task (see
+	 * {@link AvrTask#getOmega0(int)}).
+	 *
+	 * @param task
+	 *            the index of the task
+	 * @param index
+	 *            the index selecting the rotation speed
+	 * @return the rotation speed
+	 */
+	public double getOmega0(int task, int index) {
+		assert index >= 0 && index < getModeCount(task) : "omega0-index out of bounds";
+		return getBoundary(task, index + 1);
+	}
+
+	/**
+	 * Returns the index of the possible rotation speed for the first event of
+	 * a task (see {@link #getOmega0(int, int)}) encoded by a relative value in
+	 * [0,1]. The value 1.0 refers to the last rotation speed.
+	 *
+	 * @param task
+	 *            the index of the task
+	 * @param relative
+	 *            the relative value
+	 * @return the index selecting the rotation speed
+	 */
+	public int getOmega0Index(int task, double relative) {
+		int count = getModeCount(task);
+		return Math.min((int) (relative * count), count - 1);
+	}
+
+	/**
+	 * Returns the index of the execution mode of a task for a given rotation
+	 * speed.
+	 *
+	 * @param task
+	 *            the index of the task
+	 * @param omega
+	 *            the rotation speed
+	 * @return the index of the execution mode
+	 * @throws IllegalArgumentException
+	 *             if the rotation speed is out of range
+	 */
+	public int getMode(int task, double omega) {
+		return cFunctions[task].getMode(omega);
+	}
+
+	/**
+	 * Returns the index of the execution mode of a task for a given rotation
+	 * speed, or {@link C#NO_MODE} if the rotation speed is out of the task's
+	 * range.
+	 *
+	 * @param task
+	 *            the index of the task
+	 * @param omega
+	 *            the rotation speed
+	 * @return the index of the execution mode or {@link C#NO_MODE}
+	 */
+	public int findMode(int task, double omega) {
+		return cFunctions[task].findMode(omega);
+	}
+
+	/**
+	 * Returns the WCET of a task for a given rotation speed.
+	 *
+	 * @param task
+	 *            the index of the task
+	 * @param omega
+	 *            the rotation speed
+	 * @return the WCET
+	 */
+	public double getC(int task, double omega) {
+		return getWcet(task, getMode(task, omega));
+	}
+
+	/**
+	 * Returns the minimal rotation speed over all tasks.
+	 *
+	 * @return the minimal rotation speed
+	 */
+	public double getMinOmega() {
+		return minOmega;
+	}
+
+	/**
+	 * Returns the maximal rotation speed over all tasks.
+	 *
+	 * @return the maximal rotation speed
+	 */
+	public double getMaxOmega() {
+		return maxOmega;
+	}
+
+	/**
+	 * Returns whether the WCETs of all execution modes are integral. Only then
+	 * the overall WCET of an event sequence (accumulated as an integer) is the
+	 * exact sum of the WCETs of its events, independent of their order.
+	 *
+	 * @return true if all WCETs are integral
+	 */
+	public boolean hasIntegralWcets() {
+		return integralWcets;
+	}
+}
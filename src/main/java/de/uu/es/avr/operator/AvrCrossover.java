@@ -0,0 +1,186 @@
+package de.uu.es.avr.operator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.opt4j.core.Genotype;
+import org.opt4j.core.genotype.CompositeGenotype;
+import org.opt4j.core.genotype.DoubleGenotype;
+import org.opt4j.core.genotype.IntegerGenotype;
+import org.opt4j.operators.Apply;
+import org.opt4j.operators.crossover.Crossover;
+import org.opt4j.operators.crossover.Pair;
+
+import com.google.inject.Inject;
+
+import de.uu.es.avr.AvrLineage;
+import de.uu.es.avr.AvrUtils;
+import de.uu.es.avr.AvrWCRTProblem;
+import de.uu.es.avr.creatorDecoder.AvrDoubleCreator;
+import de.uu.es.avr.model.TaskTable;
+
+/**
+ * The {@link AvrCrossover} recombines two {@link Genotype}s of the
+ * {@link AvrWCRTProblem} by a single-point crossover of the rotation speeds:
+ * each child keeps the first task and the rotation speed of the first event of
+ * one parent, as well as its rotation speeds up to the crossover point, and
+ * continues with the rotation speeds of the other parent.
+ *
+ * With the absolute encoding ({@link AvrDoubleCreator}), only points at which
+ * the parents' rotation speeds are mutually reachable (see
+ * {@link AvrUtils#isValid(TaskTable, int, double, double, AvrWCRTProblem)})
+ * are selected, so that feasible parents produce feasible children. Parents
+ * starting with different tasks, or without any such point, are copied. The
+ * relative encoding is feasible by construction; any point is selected.
+ *
+ * The children are recorded in the {@link AvrLineage}, so that they can be
+ * decoded incrementally from the crossover point on.
+ *
+ * @author vrichthammer
+ *
+ */
+@Apply(CompositeGenotype.class)
+public class AvrCrossover implements Crossover<CompositeGenotype<String, Genotype>> {
+
+	protected final AvrWCRTProblem avrProblem;
+	protected final Random random;
+	protected final AvrLineage lineage;
+
+	/**
+	 * Creates the {@link AvrCrossover}.
+	 *
+	 * @param avrProblem
+	 *            the AVR problem
+	 * @param random
+	 *            the random number generator
+	 * @param lineage
+	 *            the lineage the children are recorded in
+	 */
+	@Inject
+	public AvrCrossover(AvrWCRTProblem avrProblem, Random random, AvrLineage lineage) {
+		this.avrProblem = avrProblem;
+		this.random = random;
+		this.lineage = lineage;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * org.opt4j.operators.crossover.Crossover#crossover(org.opt4j.core.Genotype
+	 * , org.opt4j.core.Genotype)
+	 */
+	@Override
+	public Pair<CompositeGenotype<String, Genotype>> crossover(CompositeGenotype<String, Genotype> parent1,
+			CompositeGenotype<String, Genotype> parent2) {
+
+		boolean absolute = parent1.get(AvrUtils.OMEGAS) != null;
+		String key = absolute ? AvrUtils.OMEGAS : AvrUtils.RELATIVE;
+
+		DoubleGenotype genes1 = parent1.get(key);
+		DoubleGenotype genes2 = parent2.get(key);
+
+		// i) the crossover points: the children take the genes up to
+		// (excluding) the point from one parent, from the point on from the
+		// other
+		List<Integer> points;
+
+		if (absolute) {
+			points = findPoints(parent1, parent2);
+		} else {
+			points = new ArrayList<Integer>();
+
+			for (int point = 1; point < genes1.size(); point++) {
+				points.add(point);
+			}
+		}
+
+		int point = points.isEmpty() ? genes1.size() : points.get(random.nextInt(points.size()));
+
+		// ii) the children
+		CompositeGenotype<String, Genotype> child1 = copy(parent1, genes1, genes2, point);
+		CompositeGenotype<String, Genotype> child2 = copy(parent2, genes2, genes1, point);
+
+		lineage.derive(parent1, child1, point);
+		lineage.derive(parent2, child2, point);
+
+		return new Pair<CompositeGenotype<String, Genotype>>(child1, child2);
+	}
+
+	/**
+	 * Returns the crossover points of two parents with absolute encoding at
+	 * which the rotation speeds of both parents are mutually reachable.
+	 *
+	 * @param parent1
+	 *            the first parent
+	 * @param parent2
+	 *            the second parent
+	 * @return the crossover points
+	 */
+	protected List<Integer> findPoints(CompositeGenotype<String, Genotype> parent1,
+			CompositeGenotype<String, Genotype> parent2) {
+
+		List<Integer> points = new ArrayList<Integer>();
+
+		int task0 = ((IntegerGenotype) parent1.get(AvrUtils.TASK_0)).get(0);
+
+		// the events of the parents belong to different tasks
+		if (task0 != ((IntegerGenotype) parent2.get(AvrUtils.TASK_0)).get(0)) {
+			return points;
+		}
+
+		TaskTable table = avrProblem.getTaskTable();
+		DoubleGenotype omegas1 = parent1.get(AvrUtils.OMEGAS);
+		DoubleGenotype omegas2 = parent2.get(AvrUtils.OMEGAS);
+
+		// the task of the event of the gene before the point
+		int task = table.next(task0);
+
+		for (int point = 1; point < omegas1.size(); point++) {
+			if (AvrUtils.isValid(table, task, omegas1.get(point - 1), omegas2.get(point), avrProblem)
+					&& AvrUtils.isValid(table, task, omegas2.get(point - 1), omegas1.get(point), avrProblem)) {
+				points.add(point);
+			}
+			task = table.next(task);
+		}
+		return points;
+	}
+
+	/**
+	 * Creates a child of a parent, replacing its rotation speeds from a point
+	 * on by the ones of the other parent.
+	 *
+	 * @param parent
+	 *            the parent
+	 * @param genes
+	 *            the genes of the parent
+	 * @param otherGenes
+	 *            the genes of the other parent
+	 * @param point
+	 *            the crossover point
+	 * @return the child
+	 */
+	protected CompositeGenotype<String, Genotype> copy(CompositeGenotype<String, Genotype> parent,
+			DoubleGenotype genes, DoubleGenotype otherGenes, int point) {
+
+		CompositeGenotype<String, Genotype> child = parent.newInstance();
+
+		IntegerGenotype task0 = parent.get(AvrUtils.TASK_0);
+		IntegerGenotype childTask0 = task0.newInstance();
+		childTask0.addAll(task0);
+		child.put(AvrUtils.TASK_0, childTask0);
+
+		DoubleGenotype omega0 = parent.get(AvrUtils.OMEGA_0);
+		DoubleGenotype childOmega0 = omega0.newInstance();
+		childOmega0.addAll(omega0);
+		child.put(AvrUtils.OMEGA_0, childOmega0);
+
+		DoubleGenotype childGenes = genes.newInstance();
+		childGenes.addAll(genes.subList(0, point));
+		childGenes.addAll(otherGenes.subList(point, otherGenes.size()));
+		child.put(parent.get(AvrUtils.OMEGAS) != null ? AvrUtils.OMEGAS : AvrUtils.RELATIVE, childGenes);
+
+		return child;
+	}
+}
@@ -0,0 +1,28 @@
+package de.uu.es.avr.operator;
+
+import org.opt4j.core.config.annotations.Info;
+import org.opt4j.operators.crossover.CrossoverModule;
+
+import de.uu.es.avr.AvrWCRTProblem;
+
+/**
+ * The {@link AvrCrossoverModule} replaces the crossover of the genotypes of
+ * the {@link AvrWCRTProblem} by the feasibility-preserving
+ * {@link AvrCrossover}.
+ *
+ * @author vrichthammer
+ *
+ */
+@Info("Recombines the rotation speeds of the AVR problem at points where both parents are mutually reachable.")
+public class AvrCrossoverModule extends CrossoverModule {
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.opt4j.core.start.Opt4JModule#config()
+	 */
+	@Override
+	protected void config() {
+		addOperator(AvrCrossover.class);
+	}
+}
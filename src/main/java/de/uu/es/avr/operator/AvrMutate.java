@@ -0,0 +1,254 @@
+package de.uu.es.avr.operator;
+
+import java.util.Random;
+
+import org.opt4j.core.Genotype;
+import org.opt4j.core.genotype.CompositeGenotype;
+import org.opt4j.core.genotype.DoubleGenotype;
+import org.opt4j.core.genotype.IntegerGenotype;
+import org.opt4j.operators.Apply;
+import org.opt4j.operators.mutate.Mutate;
+
+import com.google.inject.Inject;
+
+import de.uu.es.avr.AvrLineage;
+import de.uu.es.avr.AvrUtils;
+import de.uu.es.avr.AvrUtils.DoubleRange;
+import de.uu.es.avr.AvrWCRTProblem;
+import de.uu.es.avr.creatorDecoder.AvrDoubleCreator;
+import de.uu.es.avr.model.Envelope;
+import de.uu.es.avr.model.TaskTable;
+
+/**
+ * The {@link AvrMutate} mutates {@link Genotype}s of the {@link AvrWCRTProblem}
+ * without leaving the feasible region. With the absolute encoding (
+ * {@link AvrDoubleCreator}), each mutated rotation speed is sampled uniformly
+ * from the rotation speeds that are reachable from the preceding event (see
+ * {@link AvrUtils#findNextRange}) and from which the subsequent event is
+ * reachable (see {@link AvrUtils#findPreviousRange}), restricted to the
+ * {@link Envelope} of the event sequence. Genes are mutated from the first to
+ * the last event, so that each gene is sampled given its already mutated
+ * predecessor.
+ *
+ * The first task ({@link AvrUtils#TASK_0}) and the rotation speed of the first
+ * event ({@link AvrUtils#OMEGA_0}) are sampled uniformly within their bounds.
+ * If one of them is changed, all rotation speeds of the absolute encoding are
+ * sampled again given the new first event, as the previous ones are generally
+ * not feasible anymore.
+ *
+ * The relative encoding is feasible by construction; each mutated gene is
+ * sampled uniformly from [0,1].
+ *
+ * The first changed gene is recorded in the {@link AvrLineage}, so that the
+ * mutated genotype can be decoded incrementally from it on.
+ *
+ * @author vrichthammer
+ *
+ */
+@Apply(CompositeGenotype.class)
+public class AvrMutate implements Mutate<CompositeGenotype<String, Genotype>> {
+
+	protected final AvrWCRTProblem avrProblem;
+	protected final Random random;
+	protected final AvrLineage lineage;
+
+	/**
+	 * Creates the {@link AvrMutate}.
+	 *
+	 * @param avrProblem
+	 *            the AVR problem
+	 * @param random
+	 *            the random number generator
+	 * @param lineage
+	 *            the lineage the first changed gene is recorded in
+	 */
+	@Inject
+	public AvrMutate(AvrWCRTProblem avrProblem, Random random, AvrLineage lineage) {
+		this.avrProblem = avrProblem;
+		this.random = random;
+		this.lineage = lineage;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.opt4j.operators.mutate.Mutate#mutate(org.opt4j.core.Genotype,
+	 * double)
+	 */
+	@Override
+	public void mutate(CompositeGenotype<String, Genotype> genotype, double p) {
+		boolean first = mutateFirst(genotype, p);
+		DoubleGenotype omegas = genotype.get(AvrUtils.OMEGAS);
+
+		int index;
+		if (omegas == null) {
+			index = mutateRelative((DoubleGenotype) genotype.get(AvrUtils.RELATIVE), p);
+		} else {
+			index = mutateAbsolute(genotype, omegas, p, first);
+		}
+		lineage.changed(genotype, index);
+	}
+
+	/**
+	 * Mutates the first task and the rotation speed of the first event.
+	 *
+	 * @param genotype
+	 *            the genotype
+	 * @param p
+	 *            the mutation rate
+	 * @return true if the first task or the rotation speed of the first event
+	 *         was changed
+	 */
+	protected boolean mutateFirst(CompositeGenotype<String, Genotype> genotype, double p) {
+		boolean changed = false;
+
+		IntegerGenotype task0 = genotype.get(AvrUtils.TASK_0);
+		if (random.nextDouble() < p) {
+			int lower = task0.getLowerBound(0);
+			int value = lower + random.nextInt(task0.getUpperBound(0) - lower + 1);
+
+			changed |= value != task0.get(0);
+			task0.set(0, value);
+		}
+
+		DoubleGenotype omega0 = genotype.get(AvrUtils.OMEGA_0);
+		if (random.nextDouble() < p) {
+			double lower = omega0.getLowerBound(0);
+			double value = lower + (omega0.getUpperBound(0) - lower) * random.nextDouble();
+
+			changed |= value != omega0.get(0);
+			omega0.set(0, value);
+		}
+		return changed;
+	}
+
+	/**
+	 * Mutates the relative encoding of the rotation speeds.
+	 *
+	 * @param relative
+	 *            the relative encoding
+	 * @param p
+	 *            the mutation rate
+	 * @return the index of the first changed gene (the number of genes if
+	 *         none)
+	 */
+	protected int mutateRelative(DoubleGenotype relative, double p) {
+		int index = relative.size();
+
+		for (int i = 0; i < relative.size(); i++) {
+			if (random.nextDouble() < p) {
+				double value = random.nextDouble();
+
+				if (index == relative.size() && value != relative.get(i)) {
+					index = i;
+				}
+				relative.set(i, value);
+			}
+		}
+		return index;
+	}
+
+	/**
+	 * Mutates the absolute encoding of the rotation speeds within the feasible
+	 * ranges given the neighbouring events.
+	 *
+	 * @param genotype
+	 *            the genotype
+	 * @param omegas
+	 *            the absolute encoding
+	 * @param p
+	 *            the mutation rate
+	 * @param resample
+	 *            sample all rotation speeds again, given the preceding event
+	 *            only (if the first event was changed)
+	 * @return the index of the first changed gene (the number of genes if
+	 *         none)
+	 */
+	protected int mutateAbsolute(CompositeGenotype<String, Genotype> genotype, DoubleGenotype omegas, double p,
+			boolean resample) {
+		TaskTable table = avrProblem.getTaskTable();
+
+		// i) the rotation speed of the first event (as decoded)
+		int task0 = ((IntegerGenotype) genotype.get(AvrUtils.TASK_0)).get(0);
+		Envelope envelope = avrProblem.getEnvelope(task0, omegas.size() + 1);
+
+		double omega0_rel = ((DoubleGenotype) genotype.get(AvrUtils.OMEGA_0)).get(0);
+		int omega0_count = table.getModeCount(task0);
+		int omega0_index = envelope.findOmega0(table, Math.min((int) (omega0_rel * omega0_count), omega0_count - 1));
+
+		if (omega0_index == Envelope.NO_OMEGA0) {
+			return omegas.size();
+		}
+
+		// ii) mutates the rotation speeds of event1..n
+		int index = omegas.size();
+		int curr = task0;
+		double currOmega = table.getOmega0(task0, omega0_index);
+
+		for (int i = 0; i < omegas.size(); i++) {
+			int next = table.next(curr);
+
+			if (resample || random.nextDouble() < p) {
+				DoubleRange range = findRange(envelope, i + 1, curr, currOmega,
+						!resample && i + 1 < omegas.size() ? omegas.get(i + 1) : Double.NaN);
+
+				if (range != null) {
+					double value = range.getLower() + (range.getUpper() - range.getLower()) * random.nextDouble();
+
+					if (index == omegas.size() && value != omegas.get(i)) {
+						index = i;
+					}
+					omegas.set(i, value);
+				}
+			}
+			curr = next;
+			currOmega = omegas.get(i);
+		}
+		return index;
+	}
+
+	/**
+	 * Returns the feasible rotation speeds of an event, given the rotation
+	 * speeds of its neighbours, within the envelope. If the subsequent event
+	 * is not reachable from any of the rotation speeds (e.g. as it is
+	 * infeasible itself), it is not considered.
+	 *
+	 * @param envelope
+	 *            the envelope of the event sequence
+	 * @param position
+	 *            the position of the event
+	 * @param prev
+	 *            the index of the task of the preceding event
+	 * @param prevOmega
+	 *            the rotation speed of the preceding event
+	 * @param nextOmega
+	 *            the rotation speed of the subsequent event (NaN if none)
+	 * @return the feasible range, or {@code null} if the event is not
+	 *         reachable
+	 */
+	protected DoubleRange findRange(Envelope envelope, int position, int prev, double prevOmega, double nextOmega) {
+		TaskTable table = avrProblem.getTaskTable();
+
+		// i) reachable from the preceding event (may drop to zero)
+		DoubleRange range = AvrUtils.findNextRange(prevOmega, table.getDeltaPhi(prev), avrProblem);
+
+		if (!envelope.adapt(position, range)) {
+			return null;
+		}
+
+		// ii) reaching the subsequent event
+		if (!Double.isNaN(nextOmega)) {
+			int task = table.next(prev);
+			DoubleRange previous = AvrUtils.findPreviousRange(nextOmega, table.getDeltaPhi(task), avrProblem);
+
+			double lower = Math.max(range.getLower(), previous.getLower());
+			double upper = Math.min(range.getUpper(), previous.getUpper());
+
+			if (lower <= upper) {
+				range.setLower(lower);
+				range.setUpper(upper);
+			}
+		}
+		return range;
+	}
+}
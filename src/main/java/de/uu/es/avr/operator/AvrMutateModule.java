@@ -0,0 +1,27 @@
+package de.uu.es.avr.operator;
+
+import org.opt4j.core.config.annotations.Info;
+import org.opt4j.operators.mutate.MutateModule;
+
+import de.uu.es.avr.AvrWCRTProblem;
+
+/**
+ * The {@link AvrMutateModule} replaces the mutation of the genotypes of the
+ * {@link AvrWCRTProblem} by the feasibility-preserving {@link AvrMutate}.
+ *
+ * @author vrichthammer
+ *
+ */
+@Info("Mutates the rotation speeds of the AVR problem within the feasible ranges given the neighbouring events.")
+public class AvrMutateModule extends MutateModule {
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.opt4j.core.start.Opt4JModule#config()
+	 */
+	@Override
+	protected void config() {
+		addOperator(AvrMutate.class);
+	}
+}
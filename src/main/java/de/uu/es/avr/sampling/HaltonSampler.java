@@ -0,0 +1,154 @@
+package de.uu.es.avr.sampling;
+
+import java.util.Random;
+
+import org.opt4j.core.start.Constant;
+
+import com.google.inject.Inject;
+
+import de.uu.es.avr.AvrWCRTProblem;
+
+/**
+ * The {@link HaltonSampler} generates the scrambled Halton sequence: dimension
+ * {@code d} of point {@code k} is the radical inverse of {@code k} in the base
+ * of the {@code d}-th prime, with the digits permuted by a random permutation
+ * per dimension (keeping digit 0). Scrambling breaks the correlation between
+ * dimensions with large bases that makes the plain Halton sequence unsuitable
+ * in high dimensions.
+ *
+ * @author vrichthammer
+ *
+ */
+public class HaltonSampler implements Sampler {
+
+	protected final int dimension;
+
+	// the base and the digit permutation per dimension
+	protected final int[] bases;
+	protected final int[][] permutations;
+
+	// the index of the next point (starting at 1, as point 0 is the origin)
+	protected long index = 1;
+
+	/**
+	 * Creates the {@link HaltonSampler} for the genotypes of the
+	 * {@link AvrWCRTProblem} (first task, rotation speed of the first event,
+	 * and the relative rotation speeds of event1..n).
+	 *
+	 * @param random
+	 *            the random number generator
+	 * @param n
+	 *            the length of the event sequence
+	 */
+	@Inject
+	public HaltonSampler(Random random, @Constant(namespace = AvrWCRTProblem.class, value = "n") int n) {
+		this(n + 1, random);
+	}
+
+	/**
+	 * Creates the {@link HaltonSampler}.
+	 *
+	 * @param dimension
+	 *            the dimension of the points
+	 * @param random
+	 *            the random number generator scrambling the digits
+	 */
+	public HaltonSampler(int dimension, Random random) {
+		assert dimension > 0 : "HaltonSampler: dimension must be positive";
+
+		this.dimension = dimension;
+		this.bases = primes(dimension);
+		this.permutations = new int[dimension][];
+
+		for (int d = 0; d < dimension; d++) {
+			int base = bases[d];
+			int[] permutation = new int[base];
+
+			// random permutation of the digits 1..base-1
+			for (int k = 1; k < base; k++) {
+				int j = 1 + random.nextInt(k);
+				permutation[k] = permutation[j];
+				permutation[j] = k;
+			}
+			permutations[d] = permutation;
+		}
+	}
+
+	/**
+	 * Returns the first primes.
+	 *
+	 * @param count
+	 *            the number of primes
+	 * @return the primes
+	 */
+	protected static int[] primes(int count) {
+		int[] primes = new int[count];
+		int found = 0;
+
+		for (int candidate = 2; found < count; candidate++) {
+			boolean prime = true;
+
+			for (int k = 0; k < found && primes[k] * primes[k] <= candidate; k++) {
+				if (candidate % primes[k] == 0) {
+					prime = false;
+					break;
+				}
+			}
+			if (prime) {
+				primes[found++] = candidate;
+			}
+		}
+		return primes;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see de.uu.es.avr.sampling.Sampler#getDimension()
+	 */
+	@Override
+	public int getDimension() {
+		return dimension;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see de.uu.es.avr.sampling.Sampler#next()
+	 */
+	@Override
+	public synchronized double[] next() {
+		double[] point = new double[dimension];
+
+		for (int d = 0; d < dimension; d++) {
+			point[d] = radicalInverse(index, d);
+		}
+		index++;
+
+		return point;
+	}
+
+	/**
+	 * Returns the scrambled radical inverse of an index in the base of a
+	 * dimension.
+	 *
+	 * @param index
+	 *            the index
+	 * @param d
+	 *            the dimension
+	 * @return the radical inverse \in [0,1)
+	 */
+	protected double radicalInverse(long index, int d) {
+		int base = bases[d];
+		int[] permutation = permutations[d];
+
+		double result = 0;
+		double factor = 1.0 / base;
+
+		for (long k = index; k > 0; k /= base) {
+			result += permutation[(int) (k % base)] * factor;
+			factor /= base;
+		}
+		return Math.min(result, Math.nextDown(1.0));
+	}
+}
@@ -0,0 +1,112 @@
+package de.uu.es.avr.sampling;
+
+import java.util.Random;
+
+import org.opt4j.core.start.Constant;
+
+import com.google.inject.Inject;
+
+import de.uu.es.avr.AvrWCRTProblem;
+
+/**
+ * The {@link LatinHypercubeSampler} generates points in batches of a given
+ * size, each batch forming a Latin hypercube: every dimension is split into as
+ * many strata as the batch size, and each stratum of each dimension contains
+ * exactly one point of the batch (in random order, at a random position within
+ * the stratum).
+ *
+ * @author vrichthammer
+ *
+ */
+public class LatinHypercubeSampler implements Sampler {
+
+	protected final int dimension;
+	protected final int batch;
+	protected final Random random;
+
+	// the random order of the strata per dimension and the next point of the
+	// batch
+	protected final int[][] orders;
+	protected int next;
+
+	/**
+	 * Creates the {@link LatinHypercubeSampler} for the genotypes of the
+	 * {@link AvrWCRTProblem} (first task, rotation speed of the first event,
+	 * and the relative rotation speeds of event1..n).
+	 *
+	 * @param random
+	 *            the random number generator
+	 * @param n
+	 *            the length of the event sequence
+	 * @param batch
+	 *            the number of points per Latin hypercube
+	 */
+	@Inject
+	public LatinHypercubeSampler(Random random, @Constant(namespace = AvrWCRTProblem.class, value = "n") int n,
+			@Constant(namespace = AvrWCRTProblem.class, value = "samplingBatch") int batch) {
+		this(n + 1, batch, random);
+	}
+
+	/**
+	 * Creates the {@link LatinHypercubeSampler}.
+	 *
+	 * @param dimension
+	 *            the dimension of the points
+	 * @param batch
+	 *            the number of points per Latin hypercube
+	 * @param random
+	 *            the random number generator
+	 */
+	public LatinHypercubeSampler(int dimension, int batch, Random random) {
+		assert dimension > 0 : "LatinHypercubeSampler: dimension must be positive";
+		assert batch > 0 : "LatinHypercubeSampler: batch size must be positive";
+
+		this.dimension = dimension;
+		this.batch = batch;
+		this.random = random;
+
+		this.orders = new int[dimension][batch];
+		this.next = batch;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see de.uu.es.avr.sampling.Sampler#getDimension()
+	 */
+	@Override
+	public int getDimension() {
+		return dimension;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see de.uu.es.avr.sampling.Sampler#next()
+	 */
+	@Override
+	public synchronized double[] next() {
+
+		// i) shuffles the strata of each dimension for a new batch
+		if (next == batch) {
+			for (int[] order : orders) {
+				for (int k = 0; k < batch; k++) {
+					int j = random.nextInt(k + 1);
+					order[k] = order[j];
+					order[j] = k;
+				}
+			}
+			next = 0;
+		}
+
+		// ii) a random position within the next stratum of each dimension
+		double[] point = new double[dimension];
+
+		for (int d = 0; d < dimension; d++) {
+			point[d] = Math.min((orders[d][next] + random.nextDouble()) / batch, Math.nextDown(1.0));
+		}
+		next++;
+
+		return point;
+	}
+}
@@ -0,0 +1,26 @@
+package de.uu.es.avr.sampling;
+
+/**
+ * A {@link Sampler} generates a sequence of points in the unit hypercube
+ * [0,1)^d, e.g. to initialize the genotypes of a population such that the
+ * search space is covered more evenly than by independent random points.
+ *
+ * @author vrichthammer
+ *
+ */
+public interface Sampler {
+
+	/**
+	 * Returns the dimension of the points.
+	 *
+	 * @return the dimension
+	 */
+	public int getDimension();
+
+	/**
+	 * Returns the next point of the sequence.
+	 *
+	 * @return the point \in [0,1)^d
+	 */
+	public double[] next();
+}
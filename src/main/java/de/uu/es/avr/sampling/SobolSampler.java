@@ -0,0 +1,304 @@
+package de.uu.es.avr.sampling;
+
+import java.util.Random;
+
+import org.opt4j.core.start.Constant;
+
+import com.google.inject.Inject;
+
+import de.uu.es.avr.AvrWCRTProblem;
+
+/**
+ * The {@link SobolSampler} generates a scrambled Sobol sequence (in Gray-code
+ * order). Dimension 0 is the van der Corput sequence in base 2; each further
+ * dimension is generated by the next primitive polynomial over GF(2), ordered
+ * by degree, with the initial direction numbers of Joe and Kuo
+ * (new-joe-kuo-6.21201), which optimize the two-dimensional projections. Each
+ * dimension is scrambled by a random digital shift.
+ *
+ * Only the first {@link #MAX_DIMENSION} dimensions of the table (all primitive
+ * polynomials up to degree 7) are included, i.e. event sequences of length
+ * {@code n < MAX_DIMENSION}; larger dimensions are rejected (the
+ * {@link HaltonSampler} and the {@link LatinHypercubeSampler} support any
+ * dimension).
+ *
+ * @author vrichthammer
+ *
+ */
+public class SobolSampler implements Sampler {
+
+	// the number of bits of each coordinate
+	protected static final int BITS = 32;
+
+	// the initial direction numbers of Joe and Kuo (new-joe-kuo-6.21201) for
+	// dimension 1..: degree s, coefficients a (a_1 as the highest bit), and
+	// m_1..m_s
+	protected static final int[][] JOE_KUO_TABLE = {
+			{ 1, 0, 1 },
+			{ 2, 1, 1, 3 },
+			{ 3, 1, 1, 3, 1 },
+			{ 3, 2, 1, 1, 1 },
+			{ 4, 1, 1, 1, 3, 3 },
+			{ 4, 4, 1, 3, 5, 13 },
+			{ 5, 2, 1, 1, 5, 5, 17 },
+			{ 5, 4, 1, 1, 5, 5, 5 },
+			{ 5, 7, 1, 1, 7, 11, 19 },
+			{ 5, 11, 1, 1, 5, 1, 1 },
+			{ 5, 13, 1, 1, 1, 3, 11 },
+			{ 5, 14, 1, 3, 5, 5, 31 },
+			{ 6, 1, 1, 3, 3, 9, 7, 49 },
+			{ 6, 13, 1, 1, 1, 15, 21, 21 },
+			{ 6, 16, 1, 3, 1, 13, 27, 49 },
+			{ 6, 19, 1, 1, 1, 15, 7, 5 },
+			{ 6, 22, 1, 3, 1, 15, 13, 25 },
+			{ 6, 25, 1, 1, 5, 5, 19, 61 },
+			{ 7, 1, 1, 3, 7, 11, 23, 15, 103 },
+			{ 7, 4, 1, 3, 7, 13, 13, 15, 69 },
+			{ 7, 7, 1, 1, 3, 13, 7, 35, 63 },
+			{ 7, 8, 1, 3, 5, 9, 1, 25, 53 },
+			{ 7, 14, 1, 3, 1, 13, 9, 35, 107 },
+			{ 7, 19, 1, 3, 1, 5, 27, 61, 31 },
+			{ 7, 21, 1, 1, 5, 11, 19, 41, 61 },
+			{ 7, 28, 1, 3, 5, 3, 3, 13, 69 },
+			{ 7, 31, 1, 1, 7, 13, 1, 19, 1 },
+			{ 7, 32, 1, 3, 7, 5, 13, 19, 59 },
+			{ 7, 37, 1, 1, 3, 9, 25, 29, 41 },
+			{ 7, 41, 1, 3, 5, 13, 23, 1, 55 },
+			{ 7, 42, 1, 3, 7, 3, 13, 59, 17 },
+			{ 7, 50, 1, 3, 1, 3, 5, 53, 69 },
+			{ 7, 55, 1, 1, 5, 5, 23, 33, 13 },
+			{ 7, 56, 1, 1, 7, 7, 1, 61, 123 },
+			{ 7, 59, 1, 1, 7, 9, 13, 61, 49 },
+			{ 7, 62, 1, 3, 3, 5, 3, 55, 33 }
+	};
+
+	// the number of dimensions supported by the table (including dimension 0)
+	public static final int MAX_DIMENSION = JOE_KUO_TABLE.length + 1;
+
+	protected final int dimension;
+
+	// the direction numbers per dimension and bit
+	protected final long[][] directions;
+
+	// the current point (before scrambling) and the digital shift per
+	// dimension
+	protected final long[] current;
+	protected final long[] shifts;
+
+	// the index of the next point
+	protected long index = 0;
+
+	/**
+	 * Creates the {@link SobolSampler} for the genotypes of the
+	 * {@link AvrWCRTProblem} (first task, rotation speed of the first event,
+	 * and the relative rotation speeds of event1..n).
+	 *
+	 * @param random
+	 *            the random number generator
+	 * @param n
+	 *            the length of the event sequence
+	 */
+	@Inject
+	public SobolSampler(Random random, @Constant(namespace = AvrWCRTProblem.class, value = "n") int n) {
+		this(n + 1, random);
+	}
+
+	/**
+	 * Creates the {@link SobolSampler}.
+	 *
+	 * @param dimension
+	 *            the dimension of the points
+	 * @param random
+	 *            the random number generator choosing the shifts
+	 * @throws IllegalArgumentException
+	 *             if the dimension exceeds {@link #MAX_DIMENSION}
+	 */
+	public SobolSampler(int dimension, Random random) {
+		assert dimension > 0 : "SobolSampler: dimension must be positive";
+
+		if (dimension > MAX_DIMENSION) {
+			throw new IllegalArgumentException("SobolSampler: at most " + MAX_DIMENSION + " dimensions (n < "
+					+ MAX_DIMENSION + ") supported, not " + dimension);
+		}
+
+		this.dimension = dimension;
+		this.directions = new long[dimension][BITS];
+		this.current = new long[dimension];
+		this.shifts = new long[dimension];
+
+		// i) dimension 0: m_k = 1
+		for (int k = 0; k < BITS; k++) {
+			directions[0][k] = 1L << (BITS - 1 - k);
+		}
+
+		// ii) further dimensions: one primitive polynomial each
+		for (int d = 1; d < dimension; d++) {
+			int[] row = JOE_KUO_TABLE[d - 1];
+			int degree = row[0];
+			int polynomial = (1 << degree) | (row[1] << 1) | 1;
+
+			assert isPrimitive(polynomial, degree) : "SobolSampler: polynomial of dimension " + d + " not primitive";
+
+			long[] m = new long[BITS];
+
+			// ii.1) initial direction numbers m_k of Joe and Kuo (odd, < 2^k)
+			for (int k = 0; k < degree; k++) {
+				m[k] = row[k + 2];
+			}
+
+			// ii.2) recurrence m_k = 2 a_1 m_{k-1} ^ ... ^ 2^s m_{k-s} ^ m_{k-s}
+			for (int k = degree; k < BITS; k++) {
+				long value = m[k - degree] ^ (m[k - degree] << degree);
+
+				for (int j = 1; j < degree; j++) {
+					if (((polynomial >>> (degree - j)) & 1) != 0) {
+						value ^= m[k - j] << j;
+					}
+				}
+				m[k] = value;
+			}
+
+			for (int k = 0; k < BITS; k++) {
+				directions[d][k] = m[k] << (BITS - 1 - k);
+			}
+		}
+
+		// iii) the digital shifts
+		for (int d = 0; d < dimension; d++) {
+			shifts[d] = random.nextLong() & ((1L << BITS) - 1);
+		}
+	}
+
+	/**
+	 * Returns whether a polynomial over GF(2) is primitive, i.e. whether x has
+	 * the maximal order 2^degree - 1 modulo the polynomial.
+	 *
+	 * @param polynomial
+	 *            the polynomial
+	 * @param degree
+	 *            the degree of the polynomial
+	 * @return true if the polynomial is primitive
+	 */
+	protected static boolean isPrimitive(int polynomial, int degree) {
+		long order = (1L << degree) - 1;
+
+		if (power(2, order, polynomial, degree) != 1) {
+			return false;
+		}
+
+		// the order of x must not be a proper divisor
+		long rest = order;
+
+		for (long q = 2; rest > 1; q++) {
+			// the remaining factor is prime
+			if (q * q > rest) {
+				q = rest;
+			}
+			if (rest % q == 0) {
+				if (power(2, order / q, polynomial, degree) == 1) {
+					return false;
+				}
+				while (rest % q == 0) {
+					rest /= q;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns a power of a polynomial modulo another polynomial over GF(2).
+	 *
+	 * @param base
+	 *            the polynomial
+	 * @param exponent
+	 *            the exponent
+	 * @param modulus
+	 *            the modulus
+	 * @param degree
+	 *            the degree of the modulus
+	 * @return the power
+	 */
+	protected static long power(long base, long exponent, int modulus, int degree) {
+		long result = 1;
+
+		for (long e = exponent; e > 0; e >>= 1) {
+			if ((e & 1) != 0) {
+				result = multiply(result, base, modulus, degree);
+			}
+			base = multiply(base, base, modulus, degree);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the product of two polynomials modulo another polynomial over
+	 * GF(2).
+	 *
+	 * @param a
+	 *            the first polynomial
+	 * @param b
+	 *            the second polynomial
+	 * @param modulus
+	 *            the modulus
+	 * @param degree
+	 *            the degree of the modulus
+	 * @return the product
+	 */
+	protected static long multiply(long a, long b, int modulus, int degree) {
+		long result = 0;
+
+		// reduces a first (x itself is not reduced modulo x + 1)
+		if ((a >>> degree) != 0) {
+			a ^= modulus;
+		}
+
+		for (; b != 0; b >>>= 1) {
+			if ((b & 1) != 0) {
+				result ^= a;
+			}
+			a <<= 1;
+
+			if ((a >>> degree) != 0) {
+				a ^= modulus;
+			}
+		}
+		return result;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see de.uu.es.avr.sampling.Sampler#getDimension()
+	 */
+	@Override
+	public int getDimension() {
+		return dimension;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see de.uu.es.avr.sampling.Sampler#next()
+	 */
+	@Override
+	public synchronized double[] next() {
+		double[] point = new double[dimension];
+
+		for (int d = 0; d < dimension; d++) {
+			point[d] = (current[d] ^ shifts[d]) / (double) (1L << BITS);
+		}
+
+		// i) the next point differs in the direction number of the lowest zero
+		// bit of the index (Gray code)
+		int bit = Long.numberOfTrailingZeros(~index);
+		index++;
+
+		if (bit < BITS) {
+			for (int d = 0; d < dimension; d++) {
+				current[d] ^= directions[d][bit];
+			}
+		}
+		return point;
+	}
+}
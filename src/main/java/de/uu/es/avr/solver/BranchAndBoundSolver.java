@@ -0,0 +1,394 @@
+package de.uu.es.avr.solver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
+
+import de.uu.es.avr.AvrEvaluator;
+import de.uu.es.avr.AvrUtils;
+import de.uu.es.avr.AvrWCRTProblem;
+import de.uu.es.avr.model.AvrTask;
+import de.uu.es.avr.model.TaskTable;
+
+/**
+ * The {@link BranchAndBoundSolver} determines an event sequence of length
+ * {@code n} with the maximal overall WCET (objective {@code sum_c}) of the
+ * {@link AvrWCRTProblem}.
+ *
+ * As the WCET of an event only depends on the execution mode its rotation
+ * speed falls into, the solver enumerates the execution modes event by event
+ * (depth first, modes with larger WCET first). For each partial mode sequence,
+ * the exact interval of reachable rotation speeds of the last event is
+ * propagated with {@link AvrUtils#findBound}; modes not intersecting it are
+ * infeasible. Partial sequences are pruned if even the largest WCET of each
+ * remaining task (see {@link de.uu.es.avr.model.C#getCs()}) cannot improve the
+ * best sequence found so far (the incumbent).
+ *
+ * The first task and the rotation speed of the first event (see
+ * {@link AvrTask#getOmega0s()}) are searched in parallel, sharing the
+ * incumbent. Rotation speeds of the best mode sequence are determined by a
+ * backward pass, preferring fast rotation speeds.
+ *
+ * @author vrichthammer
+ *
+ */
+public class BranchAndBoundSolver {
+
+	protected final AvrWCRTProblem avrProblem;
+	protected final TaskTable table;
+
+	protected final double accMin;
+	protected final double accMax;
+
+	// the execution modes per task, ordered by decreasing WCET
+	protected final int[][] modeOrders;
+
+	// the largest WCET per task
+	protected final double[] maxWcets;
+
+	// the sum of the largest WCETs of the next k tasks, starting at a task
+	// (k < number of tasks), and of all tasks
+	protected final double[][] maxWcetSums;
+	protected final double cycleWcet;
+
+	/**
+	 * Creates the {@link BranchAndBoundSolver}.
+	 *
+	 * @param avrProblem
+	 *            the AVR problem
+	 */
+	public BranchAndBoundSolver(AvrWCRTProblem avrProblem) {
+		this.avrProblem = avrProblem;
+		this.table = avrProblem.getTaskTable();
+		this.accMin = avrProblem.getAccMin();
+		this.accMax = avrProblem.getAccMax();
+
+		int size = table.size();
+
+		this.modeOrders = new int[size][];
+		this.maxWcets = new double[size];
+
+		for (int task = 0; task < size; task++) {
+			modeOrders[task] = modeOrder(task);
+
+			for (double wcet : table.getTask(task).getCfunction().getCs()) {
+				maxWcets[task] = Math.max(maxWcets[task], wcet);
+			}
+		}
+
+		this.maxWcetSums = new double[size][size];
+		double sum = 0;
+
+		for (int task = 0; task < size; task++) {
+			int curr = task;
+
+			for (int k = 1; k < size; k++) {
+				maxWcetSums[task][k] = maxWcetSums[task][k - 1] + maxWcets[curr];
+				curr = table.next(curr);
+			}
+			sum += maxWcets[task];
+		}
+		this.cycleWcet = sum;
+	}
+
+	/**
+	 * Returns the execution modes of a task, ordered by decreasing WCET.
+	 *
+	 * @param task
+	 *            the index of the task
+	 * @return the indices of the execution modes
+	 */
+	protected int[] modeOrder(final int task) {
+		int modes = table.getModeCount(task);
+		List<Integer> order = new ArrayList<Integer>();
+
+		for (int k = 0; k < modes; k++) {
+			int pos = 0;
+			while (pos < order.size() && table.getWcet(task, order.get(pos)) >= table.getWcet(task, k)) {
+				pos++;
+			}
+			order.add(pos, k);
+		}
+
+		int[] result = new int[modes];
+		for (int k = 0; k < modes; k++) {
+			result[k] = order.get(k);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns an upper bound of the WCET of the events following a partial
+	 * sequence.
+	 *
+	 * @param task
+	 *            the index of the task of the next event
+	 * @param remaining
+	 *            the number of remaining events
+	 * @return the sum of the largest WCETs of the remaining events
+	 */
+	protected double remainingWcet(int task, int remaining) {
+		int size = table.size();
+		return (remaining / size) * cycleWcet + maxWcetSums[task][remaining % size];
+	}
+
+	/**
+	 * Determines an event sequence of length {@code n} with maximal overall
+	 * WCET, using the common fork-join pool.
+	 *
+	 * @param n
+	 *            the length of the event sequence
+	 * @return the solution, or {@code null} if there is no feasible event
+	 *         sequence
+	 */
+	public Solution solve(int n) {
+		return solve(n, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Determines an event sequence of length {@code n} with maximal overall
+	 * WCET.
+	 *
+	 * @param n
+	 *            the length of the event sequence
+	 * @param pool
+	 *            the pool searching the first events in parallel
+	 * @return the solution, or {@code null} if there is no feasible event
+	 *         sequence
+	 */
+	public Solution solve(int n, ForkJoinPool pool) {
+		assert n > 0 : "BranchAndBoundSolver: event sequence must not be empty";
+
+		final AtomicReference<Incumbent> incumbent = new AtomicReference<Incumbent>(new Incumbent(-1, -1, null,
+				null));
+
+		// i) one search per first task and rotation speed of the first event
+		final List<Search> searches = new ArrayList<Search>();
+
+		for (int task0 = 0; task0 < table.size(); task0++) {
+			for (double omega0 : table.getTask(task0).getOmega0s()) {
+				searches.add(new Search(task0, omega0, n, incumbent));
+			}
+		}
+
+		pool.invoke(new RecursiveAction() {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected void compute() {
+				invokeAll(searches);
+			}
+		});
+
+		// ii) rotation speeds of the best mode sequence
+		Incumbent best = incumbent.get();
+		return best.uppers == null ? null : best.toSolution();
+	}
+
+	/**
+	 * The best mode sequence found so far, represented by the reachable
+	 * rotation speeds of its events.
+	 *
+	 * @author vrichthammer
+	 *
+	 */
+	protected class Incumbent {
+
+		protected final int sumC;
+		protected final int task0;
+
+		// the reachable rotation speeds per event (the upper bound is
+		// reachable, the lower bound only if not excluded)
+		protected final double[] lowers;
+		protected final double[] uppers;
+
+		protected Incumbent(int sumC, int task0, double[] lowers, double[] uppers) {
+			this.sumC = sumC;
+			this.task0 = task0;
+			this.lowers = lowers;
+			this.uppers = uppers;
+		}
+
+		/**
+		 * Determines the rotation speeds of the mode sequence backwards: each
+		 * rotation speed is the fastest one within the reachable interval of
+		 * its event that still reaches the rotation speed of the subsequent
+		 * event.
+		 *
+		 * @return the solution
+		 */
+		protected Solution toSolution() {
+			int n = uppers.length;
+			double[] omegas = new double[n];
+
+			// the task of each event
+			int[] tasks = new int[n];
+			tasks[0] = task0;
+			for (int i = 1; i < n; i++) {
+				tasks[i] = table.next(tasks[i - 1]);
+			}
+
+			omegas[n - 1] = uppers[n - 1];
+
+			for (int i = n - 2; i >= 0; i--) {
+				double deltaPhi = table.getDeltaPhi(tasks[i]);
+				double next = omegas[i + 1];
+
+				// the fastest rotation speed decelerating to the subsequent one
+				double omega = Math.min(uppers[i], Math.sqrt(next * next - 2 * accMin * deltaPhi));
+
+				// compensates for rounding errors
+				while (omega > lowers[i] && AvrUtils.findBound(omega, accMin, deltaPhi) > next) {
+					omega = Math.nextDown(omega);
+				}
+				omegas[i] = omega;
+			}
+
+			// calculates the objectives as the AvrEvaluator
+			double mu = 0;
+			int sumC = 0;
+
+			for (int i = 0; i < n; i++) {
+				if (i > 0) {
+					mu += AvrEvaluator.mu(table.getDeltaPhi(tasks[i - 1]), omegas[i - 1], omegas[i], accMin, accMax);
+				}
+				sumC += table.getC(tasks[i], omegas[i]);
+			}
+			return new Solution(task0, omegas, mu, sumC);
+		}
+	}
+
+	/**
+	 * The depth-first search of all mode sequences starting with a given first
+	 * task and rotation speed.
+	 *
+	 * @author vrichthammer
+	 *
+	 */
+	protected class Search extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		protected final int task0;
+		protected final double omega0;
+		protected final int n;
+		protected final AtomicReference<Incumbent> incumbent;
+
+		// the reachable rotation speeds of the current partial sequence
+		protected final double[] lowers;
+		protected final double[] uppers;
+		protected final boolean[] excluded;
+
+		protected Search(int task0, double omega0, int n, AtomicReference<Incumbent> incumbent) {
+			this.task0 = task0;
+			this.omega0 = omega0;
+			this.n = n;
+			this.incumbent = incumbent;
+
+			this.lowers = new double[n];
+			this.uppers = new double[n];
+			this.excluded = new boolean[n];
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see java.util.concurrent.RecursiveAction#compute()
+		 */
+		@Override
+		protected void compute() {
+			lowers[0] = omega0;
+			uppers[0] = omega0;
+			excluded[0] = false;
+
+			// accumulates as AvrEvaluator.sum_c
+			int sumC = 0;
+			sumC += table.getC(task0, omega0);
+
+			search(1, task0, sumC);
+		}
+
+		/**
+		 * Enumerates the execution modes of an event.
+		 *
+		 * @param i
+		 *            the position of the event
+		 * @param prev
+		 *            the index of the task of the previous event
+		 * @param sumC
+		 *            the overall WCET of the previous events
+		 */
+		protected void search(int i, int prev, int sumC) {
+			if (i == n) {
+				update(sumC);
+				return;
+			}
+
+			int task = table.next(prev);
+
+			// prunes if the remaining events cannot improve the incumbent
+			if ((int) (sumC + remainingWcet(task, n - i)) <= incumbent.get().sumC) {
+				return;
+			}
+
+			// i) the reachable rotation speeds of the event
+			double deltaPhi = table.getDeltaPhi(prev);
+			double lower = AvrUtils.findBound(lowers[i - 1], accMin, deltaPhi);
+			double upper = AvrUtils.findBound(uppers[i - 1], accMax, deltaPhi);
+
+			// the rotation speed may drop to zero (reachable)
+			boolean lowerExcluded = excluded[i - 1];
+			if (Double.isNaN(lower)) {
+				lower = 0;
+				lowerExcluded = false;
+			}
+
+			// ii) the feasible execution modes, larger WCET first
+			for (int mode : modeOrders[task]) {
+				double from = table.getBoundary(task, mode);
+				double to = table.getBoundary(task, mode + 1);
+
+				// intersects with the rotation speeds of the mode (from, to]
+				boolean modeExcluded = lower <= from;
+				double low = modeExcluded ? from : lower;
+				double high = Math.min(upper, to);
+
+				if (low > high || (low == high && (modeExcluded || lowerExcluded))) {
+					continue;
+				}
+
+				lowers[i] = low;
+				uppers[i] = high;
+				excluded[i] = modeExcluded || lowerExcluded;
+
+				int next = sumC;
+				next += table.getWcet(task, mode);
+
+				search(i + 1, task, next);
+			}
+		}
+
+		/**
+		 * Replaces the incumbent if the complete mode sequence is better.
+		 *
+		 * @param sumC
+		 *            the overall WCET of the mode sequence
+		 */
+		protected void update(int sumC) {
+			Incumbent best = incumbent.get();
+			Incumbent candidate = null;
+
+			while (sumC > best.sumC) {
+				if (candidate == null) {
+					candidate = new Incumbent(sumC, task0, lowers.clone(), uppers.clone());
+				}
+				if (incumbent.compareAndSet(best, candidate)) {
+					return;
+				}
+				best = incumbent.get();
+			}
+		}
+	}
+}
@@ -0,0 +1,362 @@
+package de.uu.es.avr.solver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import de.uu.es.avr.AvrEvaluator;
+import de.uu.es.avr.AvrUtils;
+import de.uu.es.avr.AvrUtils.DoubleRange;
+import de.uu.es.avr.AvrWCRTProblem;
+import de.uu.es.avr.model.TaskTable;
+
+/**
+ * The {@link DynamicProgrammingSolver} determines the Pareto front of the
+ * objectives {@code mu} (minimized) and {@code sum_c} (maximized) of the
+ * {@link AvrWCRTProblem} for event sequences of length {@code n}, restricted to
+ * a grid of rotation speeds per task: {@code resolution} equidistant rotation
+ * speeds in the task's range plus all execution-mode boundaries (the largest
+ * rotation speed of each mode).
+ *
+ * For each first task, the solver proceeds layer by layer (event position),
+ * keeping the non-dominated partial sequences ending in each grid point. The
+ * feasible successors of a rotation speed are determined as by the decoders
+ * ({@link AvrUtils#findNextRange} and
+ * {@link AvrUtils#checkAndAdaptBoundaries}). The grid points of a layer are
+ * processed in parallel.
+ *
+ * @author vrichthammer
+ *
+ */
+public class DynamicProgrammingSolver {
+
+	// minimal number of grid points processed by one fork-join task
+	private static final int THRESHOLD = 8;
+
+	protected final AvrWCRTProblem avrProblem;
+	protected final TaskTable table;
+
+	protected final double accMin;
+	protected final double accMax;
+
+	// the grid of rotation speeds per task (sorted)
+	protected final double[][] grids;
+
+	/**
+	 * Creates the {@link DynamicProgrammingSolver}.
+	 *
+	 * @param avrProblem
+	 *            the AVR problem
+	 * @param resolution
+	 *            the number of equidistant rotation speeds per task
+	 */
+	public DynamicProgrammingSolver(AvrWCRTProblem avrProblem, int resolution) {
+		assert resolution > 0 : "DynamicProgrammingSolver: resolution must be positive";
+
+		this.avrProblem = avrProblem;
+		this.table = avrProblem.getTaskTable();
+		this.accMin = avrProblem.getAccMin();
+		this.accMax = avrProblem.getAccMax();
+
+		this.grids = new double[table.size()][];
+
+		for (int task = 0; task < table.size(); task++) {
+			grids[task] = grid(task, resolution);
+		}
+	}
+
+	/**
+	 * Returns the grid of rotation speeds of a task: equidistant rotation
+	 * speeds in (minOmega, maxOmega] and the execution-mode boundaries.
+	 *
+	 * @param task
+	 *            the index of the task
+	 * @param resolution
+	 *            the number of equidistant rotation speeds
+	 * @return the sorted grid
+	 */
+	protected double[] grid(int task, int resolution) {
+		int modes = table.getModeCount(task);
+		double min = table.getMinOmega(task);
+		double max = table.getMaxOmega(task);
+
+		double[] grid = new double[resolution + modes];
+
+		for (int k = 1; k <= resolution; k++) {
+			grid[k - 1] = min + (max - min) * k / resolution;
+		}
+		for (int k = 1; k <= modes; k++) {
+			grid[resolution + k - 1] = table.getBoundary(task, k);
+		}
+
+		// sort and remove duplicates
+		Arrays.sort(grid);
+
+		int size = 0;
+		for (int k = 0; k < grid.length; k++) {
+			if (size == 0 || grid[k] != grid[size - 1]) {
+				grid[size++] = grid[k];
+			}
+		}
+		return Arrays.copyOf(grid, size);
+	}
+
+	/**
+	 * Determines the Pareto front for event sequences of length {@code n},
+	 * using the common fork-join pool.
+	 *
+	 * @param n
+	 *            the length of the event sequences
+	 * @return the Pareto front, ordered by decreasing WCET
+	 */
+	public List<Solution> solve(int n) {
+		return solve(n, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Determines the Pareto front for event sequences of length {@code n}.
+	 *
+	 * @param n
+	 *            the length of the event sequences
+	 * @param pool
+	 *            the pool processing the layers in parallel
+	 * @return the Pareto front, ordered by decreasing WCET
+	 */
+	public List<Solution> solve(int n, ForkJoinPool pool) {
+		assert n > 0 : "DynamicProgrammingSolver: event sequence must not be empty";
+
+		List<Solution> solutions = new ArrayList<Solution>();
+
+		for (int task0 = 0; task0 < table.size(); task0++) {
+
+			// i) first event: initial rotation speeds of the first task
+			int modes = table.getModeCount(task0);
+
+			double[] omegas = new double[modes];
+			Entry[][] fronts = new Entry[modes][];
+
+			for (int k = 0; k < modes; k++) {
+				omegas[k] = table.getOmega0(task0, k);
+				fronts[k] = new Entry[] { new Entry(0, (int) table.getC(task0, omegas[k]), omegas[k], null) };
+			}
+
+			// ii) subsequent events: one layer per event
+			int task = task0;
+
+			for (int i = 1; i < n; i++) {
+				Layer next = new Layer(task, omegas, fronts);
+				pool.invoke(next.new Step(0, next.targets.length));
+
+				task = next.next;
+				omegas = next.targets;
+				fronts = next.fronts;
+			}
+
+			// iii) collects the solutions of the last layer
+			for (Entry[] front : fronts) {
+				for (Entry entry : front) {
+					solutions.add(entry.toSolution(task0, n));
+				}
+			}
+		}
+		return Solution.paretoFront(solutions);
+	}
+
+	/**
+	 * A non-dominated partial event sequence, ending at a grid point.
+	 *
+	 * @author vrichthammer
+	 *
+	 */
+	protected static class Entry {
+
+		protected final double mu;
+		protected final int sumC;
+		protected final double omega;
+
+		// the partial sequence without its last event
+		protected final Entry prev;
+
+		protected Entry(double mu, int sumC, double omega, Entry prev) {
+			this.mu = mu;
+			this.sumC = sumC;
+			this.omega = omega;
+			this.prev = prev;
+		}
+
+		/**
+		 * Creates the solution of a complete event sequence.
+		 *
+		 * @param task0
+		 *            the index of the first task
+		 * @param n
+		 *            the length of the event sequence
+		 * @return the solution
+		 */
+		protected Solution toSolution(int task0, int n) {
+			double[] omegas = new double[n];
+
+			Entry entry = this;
+			for (int i = n - 1; i >= 0; i--) {
+				omegas[i] = entry.omega;
+				entry = entry.prev;
+			}
+			return new Solution(task0, omegas, mu, sumC);
+		}
+	}
+
+	/**
+	 * The transition from the grid points of one event to the grid points of
+	 * the subsequent event.
+	 *
+	 * @author vrichthammer
+	 *
+	 */
+	protected class Layer {
+
+		protected final int task;
+		protected final int next;
+
+		// grid points and fronts of the current event
+		protected final double[] sources;
+		protected final Entry[][] sourceFronts;
+
+		// feasible range of subsequent rotation speeds per source (NaN if
+		// none)
+		protected final double[] lowers;
+		protected final double[] uppers;
+
+		// grid points and fronts of the subsequent event
+		protected final double[] targets;
+		protected final Entry[][] fronts;
+
+		protected Layer(int task, double[] sources, Entry[][] sourceFronts) {
+			this.task = task;
+			this.next = table.next(task);
+			this.sources = sources;
+			this.sourceFronts = sourceFronts;
+
+			this.lowers = new double[sources.length];
+			this.uppers = new double[sources.length];
+
+			for (int j = 0; j < sources.length; j++) {
+				DoubleRange range = AvrUtils.findNextRange(sources[j], table.getDeltaPhi(task), avrProblem);
+
+				if (sourceFronts[j].length > 0 && AvrUtils.checkAndAdaptBoundaries(range, table.getMinOmega(next),
+						table.getMaxOmega(next))) {
+					lowers[j] = range.getLower();
+					uppers[j] = range.getUpper();
+				} else {
+					lowers[j] = Double.NaN;
+					uppers[j] = Double.NaN;
+				}
+			}
+
+			this.targets = grids[next];
+			this.fronts = new Entry[targets.length][];
+		}
+
+		/**
+		 * Determines the front of a grid point of the subsequent event from all
+		 * sources reaching it.
+		 *
+		 * @param t
+		 *            the index of the grid point
+		 */
+		protected void computeFront(int t) {
+			double omega = targets[t];
+			double wcet = table.getC(next, omega);
+			double deltaPhi = table.getDeltaPhi(task);
+
+			List<Entry> candidates = new ArrayList<Entry>();
+
+			for (int j = 0; j < sources.length; j++) {
+
+				// as AvrUtils.checkInRange (false for NaN)
+				if (!(omega >= lowers[j] && omega <= uppers[j])) {
+					continue;
+				}
+				double mu = AvrEvaluator.mu(deltaPhi, sources[j], omega, accMin, accMax);
+
+				for (Entry entry : sourceFronts[j]) {
+					// accumulates as AvrEvaluator.sum_c
+					int sumC = entry.sumC;
+					sumC += wcet;
+
+					candidates.add(new Entry(entry.mu + mu, sumC, omega, entry));
+				}
+			}
+			fronts[t] = paretoFront(candidates);
+		}
+
+		/**
+		 * Computes the fronts of a range of grid points of the subsequent
+		 * event, splitting the range across the fork-join pool.
+		 *
+		 * @author vrichthammer
+		 *
+		 */
+		protected class Step extends RecursiveAction {
+
+			private static final long serialVersionUID = 1L;
+
+			protected final int from;
+			protected final int to;
+
+			protected Step(int from, int to) {
+				this.from = from;
+				this.to = to;
+			}
+
+			/*
+			 * (non-Javadoc)
+			 *
+			 * @see java.util.concurrent.RecursiveAction#compute()
+			 */
+			@Override
+			protected void compute() {
+				if (to - from <= THRESHOLD) {
+					for (int t = from; t < to; t++) {
+						computeFront(t);
+					}
+					return;
+				}
+				int mid = (from + to) >>> 1;
+				invokeAll(new Step(from, mid), new Step(mid, to));
+			}
+		}
+	}
+
+	/**
+	 * Returns the non-dominated entries (minimal time, maximal WCET).
+	 *
+	 * @param candidates
+	 *            the entries
+	 * @return the non-dominated entries, ordered by decreasing WCET
+	 */
+	protected static Entry[] paretoFront(List<Entry> candidates) {
+		Entry[] sorted = candidates.toArray(new Entry[candidates.size()]);
+
+		Arrays.sort(sorted, new Comparator<Entry>() {
+			@Override
+			public int compare(Entry e1, Entry e2) {
+				int result = Integer.compare(e2.sumC, e1.sumC);
+				return result != 0 ? result : Double.compare(e1.mu, e2.mu);
+			}
+		});
+
+		int size = 0;
+		double bestMu = Double.POSITIVE_INFINITY;
+
+		for (Entry entry : sorted) {
+			if (entry.mu < bestMu) {
+				sorted[size++] = entry;
+				bestMu = entry.mu;
+			}
+		}
+		return Arrays.copyOf(sorted, size);
+	}
+}
@@ -0,0 +1,157 @@
+package de.uu.es.avr.solver;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import de.uu.es.avr.AvrEvaluator;
+import de.uu.es.avr.model.EventSequence;
+import de.uu.es.avr.model.TaskTable;
+
+/**
+ * A {@link Solution} of an exact solver: an event sequence (first task and
+ * rotation speeds of all events) together with its objectives as calculated by
+ * the {@link AvrEvaluator}.
+ *
+ * @author vrichthammer
+ *
+ */
+public class Solution {
+
+	// orders solutions by decreasing WCET, then by increasing time
+	protected static final Comparator<Solution> ORDER = new Comparator<Solution>() {
+		@Override
+		public int compare(Solution s1, Solution s2) {
+			int result = Integer.compare(s2.sumC, s1.sumC);
+			return result != 0 ? result : Double.compare(s1.mu, s2.mu);
+		}
+	};
+
+	protected final int task0;
+	protected final double[] omegas;
+
+	protected final double mu;
+	protected final int sumC;
+
+	/**
+	 * Creates a {@link Solution}.
+	 *
+	 * @param task0
+	 *            the index of the task of the first event
+	 * @param omegas
+	 *            the rotation speeds of the events
+	 * @param mu
+	 *            the time of the event sequence
+	 * @param sumC
+	 *            the overall WCET of the event sequence
+	 */
+	public Solution(int task0, double[] omegas, double mu, int sumC) {
+		this.task0 = task0;
+		this.omegas = omegas;
+		this.mu = mu;
+		this.sumC = sumC;
+	}
+
+	/**
+	 * Returns the index of the task of the first event.
+	 *
+	 * @return the index of the first task
+	 */
+	public int getTask0() {
+		return task0;
+	}
+
+	/**
+	 * Returns the rotation speeds of the events.
+	 *
+	 * @return the rotation speeds
+	 */
+	public double[] getOmegas() {
+		return omegas;
+	}
+
+	/**
+	 * Returns the time of the event sequence (objective mu, minimized).
+	 *
+	 * @return the time of the event sequence
+	 */
+	public double getMu() {
+		return mu;
+	}
+
+	/**
+	 * Returns the overall WCET of the event sequence (objective sum_c,
+	 * maximized).
+	 *
+	 * @return the overall WCET
+	 */
+	public int getSumC() {
+		return sumC;
+	}
+
+	/**
+	 * Returns whether this solution dominates another one, i.e. is at least as
+	 * good in both objectives and better in one.
+	 *
+	 * @param other
+	 *            the other solution
+	 * @return true if this solution dominates the other one
+	 */
+	public boolean dominates(Solution other) {
+		return mu <= other.mu && sumC >= other.sumC && (mu < other.mu || sumC > other.sumC);
+	}
+
+	/**
+	 * Creates the (feasible) {@link EventSequence} of this solution.
+	 *
+	 * @param table
+	 *            the task table of the problem
+	 * @return the event sequence
+	 */
+	public EventSequence toEventSequence(TaskTable table) {
+		EventSequence eventSequence = new EventSequence(table, task0, omegas.length);
+
+		for (int i = 0; i < omegas.length; i++) {
+			eventSequence.setOmega(i, omegas[i]);
+		}
+		eventSequence.setFeasible(true);
+
+		return eventSequence;
+	}
+
+	/**
+	 * Returns the non-dominated solutions of a collection of solutions, ordered
+	 * by decreasing WCET. Of solutions with equal objectives, only one is kept.
+	 *
+	 * @param solutions
+	 *            the solutions
+	 * @return the Pareto front
+	 */
+	public static List<Solution> paretoFront(List<Solution> solutions) {
+		List<Solution> sorted = new ArrayList<Solution>(solutions);
+		Collections.sort(sorted, ORDER);
+
+		// with decreasing WCET, the time of non-dominated solutions decreases
+		List<Solution> front = new ArrayList<Solution>();
+		double bestMu = Double.POSITIVE_INFINITY;
+
+		for (Solution solution : sorted) {
+			if (solution.mu < bestMu) {
+				front.add(solution);
+				bestMu = solution.mu;
+			}
+		}
+		return front;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return "mu: " + mu + " sum_c: " + sumC;
+	}
+}
@@ -0,0 +1,106 @@
+package de.uu.es.avr;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.Random;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opt4j.core.Genotype;
+import org.opt4j.core.genotype.CompositeGenotype;
+import org.opt4j.core.genotype.DoubleGenotype;
+import org.opt4j.core.genotype.IntegerGenotype;
+
+import de.uu.es.avr.AvrEvaluationCache.Entry;
+import de.uu.es.avr.AvrEvaluationCache.Key;
+import de.uu.es.avr.creatorDecoder.AvrRelativeCreatorDecoder;
+import de.uu.es.avr.model.TaskTable;
+
+public class AvrEvaluationCacheTest {
+
+	private static AvrWCRTProblem problem;
+	private static AvrRelativeCreatorDecoder creator;
+	private static TaskTable table;
+
+	@BeforeClass
+	public static void setup() {
+		problem = new AvrWCRTProblem("specs/testTaskSet.xml", -100.0 * Math.PI, 100.0 * Math.PI);
+		creator = new AvrRelativeCreatorDecoder(problem, new Random(0), 5);
+		table = problem.getTaskTable();
+	}
+
+	@Test
+	public void keyTest() {
+		CompositeGenotype<String, Genotype> genotype = creator.create();
+
+		assertEquals(new Key(genotype, table), new Key(genotype, table));
+		assertEquals(new Key(genotype, table).hashCode(), new Key(genotype, table).hashCode());
+
+		Key key = new Key(genotype, table);
+		DoubleGenotype relative = genotype.get(AvrUtils.RELATIVE);
+		relative.set(0, relative.get(0) * 0.5);
+
+		assertNotEquals(key, new Key(genotype, table));
+	}
+
+	@Test
+	public void keyOmega0Test() {
+		CompositeGenotype<String, Genotype> genotype = creator.create();
+		IntegerGenotype task0 = genotype.get(AvrUtils.TASK_0);
+		DoubleGenotype omega0 = genotype.get(AvrUtils.OMEGA_0);
+
+		// the same first rotation speed, encoded differently
+		int count = table.getModeCount(task0.get(0));
+		omega0.set(0, 0.25 / count);
+		Key key = new Key(genotype, table);
+
+		omega0.set(0, 0.75 / count);
+		assertEquals(key, new Key(genotype, table));
+		assertEquals(key.hashCode(), new Key(genotype, table).hashCode());
+
+		// the encoding 1.0 refers to the last rotation speed
+		omega0.set(0, (count - 0.5) / count);
+		key = new Key(genotype, table);
+
+		omega0.set(0, 1.0);
+		assertEquals(key, new Key(genotype, table));
+	}
+
+	@Test
+	public void hitMissTest() {
+		AvrEvaluationCache cache = new AvrEvaluationCache(10, false);
+
+		Key key = new Key(creator.create(), table);
+		assertNull(cache.get(key));
+
+		Entry entry = new Entry(null, 0, new double[0]);
+		cache.put(key, entry);
+
+		assertSame(entry, cache.get(key));
+		assertEquals(1, cache.getHits());
+		assertEquals(1, cache.getMisses());
+		assertEquals(0.5, cache.getHitRate(), 0.0);
+	}
+
+	@Test
+	public void evictionTest() {
+		AvrEvaluationCache cache = new AvrEvaluationCache(2, false);
+
+		Key key1 = new Key(creator.create(), table);
+		Key key2 = new Key(creator.create(), table);
+		Key key3 = new Key(creator.create(), table);
+
+		cache.put(key1, new Entry(null, 0, new double[0]));
+		cache.put(key2, new Entry(null, 0, new double[0]));
+
+		// key1 is used more recently than key2
+		cache.get(key1);
+		cache.put(key3, new Entry(null, 0, new double[0]));
+
+		assertEquals(2, cache.size());
+		assertNull(cache.get(key2));
+	}
+}
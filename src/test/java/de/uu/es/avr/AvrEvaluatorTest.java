@@ -1,24 +1,34 @@
 package de.uu.es.avr;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map.Entry;
+import java.util.Random;
 
 import org.junit.BeforeClass;
 import org.junit.Test;
-import org.mockito.Mockito;
 import org.opt4j.core.DoubleValue;
+import org.opt4j.core.Genotype;
 import org.opt4j.core.Objective;
 import org.opt4j.core.Objectives;
 import org.opt4j.core.Value;
+import org.opt4j.core.genotype.CompositeGenotype;
 
+import de.uu.es.avr.AvrEvaluator.Delta;
+import de.uu.es.avr.creatorDecoder.AvrCorrMeanDecoder;
+import de.uu.es.avr.creatorDecoder.AvrDoubleCreator;
 import de.uu.es.avr.model.AvrTask;
 import de.uu.es.avr.model.C;
+import de.uu.es.avr.model.DecodeCheckpoint;
 import de.uu.es.avr.model.EventSequence;
+import de.uu.es.avr.model.TaskTable;
 
 public class AvrEvaluatorTest {
 
@@ -31,6 +41,7 @@ public class AvrEvaluatorTest {
 	private static double deltaPhi;
 
 	private static List<AvrTask> taskSet;
+	private static double[] omegas;
 	private static EventSequence events;
 
 	@BeforeClass
@@ -45,15 +56,11 @@ public class AvrEvaluatorTest {
 
 		deltaPhi = Math.PI * (phi2 - phi1);
 
-		C cfunction = mock(C.class);
-		when(cfunction.getBoundaries()).thenReturn(new double[] { 0.0, 1.0 });
-		when(cfunction.getC(Mockito.anyDouble())).thenReturn(1.0);
+		C cfunction = new C(new double[] { 1.0 }, new double[] { 0.0, 2.0 });
 
 		event1 = new AvrTask("id1", phi1, cfunction);
-		event1.setOmega(1.0);
-
 		event2 = new AvrTask("id2", phi2, cfunction);
-		event2.setOmega(2.0);
+		omegas = new double[] { 1.0, 2.0 };
 
 		resultMu = (-30 + 20 * Math.sqrt(100 * Math.PI + 2.5));
 		resultC = 2.0;
@@ -64,7 +71,7 @@ public class AvrEvaluatorTest {
 		taskSet.add(event1);
 		taskSet.add(event2);
 
-		events = new EventSequence(taskSet, true);
+		events = new EventSequence(taskSet, omegas, true);
 	}
 
 	@Test
@@ -74,7 +81,7 @@ public class AvrEvaluatorTest {
 
 	@Test
 	public void muPartTest() {
-		assertEquals(resultMu, evaluator.mu(deltaPhi, event1, event2), 0.0001);
+		assertEquals(resultMu, evaluator.mu(deltaPhi, omegas[0], omegas[1]), 0.0001);
 	}
 
 	@Test
@@ -84,7 +91,7 @@ public class AvrEvaluatorTest {
 
 	@Test
 	public void evaluateTest() {
-		Objectives objectives = evaluator.evaluate(new EventSequence(taskSet, true));
+		Objectives objectives = evaluator.evaluate(new EventSequence(taskSet, omegas, true));
 		assertEquals(2, objectives.size());
 	}
 
@@ -99,4 +106,74 @@ public class AvrEvaluatorTest {
 			assertEquals(new DoubleValue(null), obj.getValue());
 		}
 	}
+
+	@Test
+	public void deltaTest() {
+		EventSequence events = new EventSequence(taskSet, new double[] { 1.0, 2.0 }, true);
+		evaluator.evaluate(events);
+		events.setCheckpoint(new DecodeCheckpoint(2));
+
+		Delta delta = evaluator.delta(events, 1, 1.5);
+
+		assertTrue(delta.isFeasible());
+		assertEquals(evaluator.mu(deltaPhi, 1.0, 1.5), delta.getMu(), 0.0001);
+		assertEquals(2, delta.getSumC());
+
+		// the sequence is changed by applying the delta only
+		assertEquals(2.0, events.getOmega(1), 0.0);
+
+		evaluator.apply(events, 1, 1.5, delta);
+
+		assertEquals(1.5, events.getOmega(1), 0.0);
+		assertEquals(delta.getMu(), events.getMu(), 0.0);
+		assertNull(events.getCheckpoint());
+	}
+
+	@Test
+	public void deltaInfeasibleTest() {
+		EventSequence events = new EventSequence(taskSet, new double[] { 1.0, 2.0 }, true);
+		evaluator.evaluate(events);
+
+		// out of the range of the task
+		assertFalse(evaluator.delta(events, 1, 3.0).isFeasible());
+	}
+
+	@Test
+	public void deltaRandomTest() {
+		AvrWCRTProblem problem = new AvrWCRTProblem("specs/testTaskSet.xml", -100.0 * Math.PI, 100.0 * Math.PI);
+		AvrEvaluator evaluator = new AvrEvaluator(problem);
+		TaskTable table = problem.getTaskTable();
+
+		int searchSpaceSize = 20;
+		AvrDoubleCreator creator = new AvrDoubleCreator(problem, new Random(0), searchSpaceSize);
+		AvrCorrMeanDecoder decoder = new AvrCorrMeanDecoder(problem);
+		Random random = new Random(1);
+
+		for (int i = 0; i < 100; i++) {
+			CompositeGenotype<String, Genotype> genotype = creator.create();
+			EventSequence events = decoder.decode(genotype);
+			evaluator.evaluate(events);
+
+			int index = random.nextInt(events.size());
+			int task = events.getTaskIndex(index);
+			double range = table.getMaxOmega(task) - table.getMinOmega(task);
+			double omega = table.getMinOmega(task) + random.nextDouble() * range;
+
+			Delta delta = evaluator.delta(events, index, omega);
+
+			// recalculates the changed sequence completely
+			EventSequence changed = new EventSequence(table, events.getTaskIndex(0), events.size());
+			for (int j = 0; j < events.size(); j++) {
+				changed.setOmega(j, j == index ? omega : events.getOmega(j));
+			}
+			boolean feasible = AvrUtils.isValid(changed, problem) && table.findMode(task, omega) != C.NO_MODE;
+
+			assertEquals(feasible, delta.isFeasible());
+
+			if (feasible) {
+				assertEquals(evaluator.mu(changed), delta.getMu(), 0.0001);
+				assertEquals(evaluator.sum_c(changed), delta.getSumC(), 0.0);
+			}
+		}
+	}
 }
@@ -0,0 +1,41 @@
+package de.uu.es.avr;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+import org.opt4j.core.Genotype;
+import org.opt4j.core.genotype.CompositeGenotype;
+
+import de.uu.es.avr.model.EventSequence;
+
+public class AvrLineageTest {
+
+	@Test
+	public void deriveTest() {
+		AvrWCRTProblem problem = new AvrWCRTProblem("specs/testTaskSet.xml", -100.0 * Math.PI, 100.0 * Math.PI);
+		EventSequence events = new EventSequence(problem.getTaskTable(), 0, 5);
+
+		AvrLineage lineage = new AvrLineage();
+		Genotype parent = new CompositeGenotype<String, Genotype>();
+		Genotype child = new CompositeGenotype<String, Genotype>();
+
+		// the parent is not decoded
+		lineage.derive(parent, child, 3);
+		assertNull(lineage.remove(child));
+
+		lineage.setDecoded(parent, events);
+		lineage.derive(parent, child, 3);
+
+		// only earlier changes are recorded
+		lineage.changed(child, 4);
+		lineage.changed(child, 1);
+		lineage.changed(child, 2);
+
+		AvrLineage.Parent result = lineage.remove(child);
+		assertSame(events, result.getEventSequence());
+		assertEquals(1, result.getIndex());
+		assertNull(lineage.remove(child));
+	}
+}
@@ -0,0 +1,165 @@
+package de.uu.es.avr;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opt4j.core.Genotype;
+import org.opt4j.core.Individual;
+import org.opt4j.core.IndividualFactory;
+import org.opt4j.core.common.archive.UnboundedArchive;
+import org.opt4j.core.genotype.CompositeGenotype;
+import org.opt4j.core.optimizer.Archive;
+import org.opt4j.core.optimizer.Population;
+import org.opt4j.core.problem.Creator;
+import org.opt4j.core.problem.Decoder;
+
+import de.uu.es.avr.AvrEvaluationCache.Key;
+import de.uu.es.avr.creatorDecoder.AvrCorrMeanDecoder;
+import de.uu.es.avr.creatorDecoder.AvrDoubleCreator;
+import de.uu.es.avr.creatorDecoder.AvrRelativeCreatorDecoder;
+import de.uu.es.avr.model.EventSequence;
+
+public class AvrLocalSearchTest {
+
+	private static AvrWCRTProblem problem;
+	private static AvrEvaluator evaluator;
+	private static Population population;
+	private static Archive archive;
+	private static AvrLocalSearch localSearch;
+
+	@BeforeClass
+	public static void setup() {
+		problem = new AvrWCRTProblem("specs/testTaskSet.xml", -100.0 * Math.PI, 100.0 * Math.PI);
+		evaluator = new AvrEvaluator(problem);
+		population = new Population();
+		archive = new UnboundedArchive();
+
+		// individuals are usually created by the individual factory of Opt4J
+		IndividualFactory individualFactory = new IndividualFactory() {
+			@Override
+			public Individual create() {
+				return new Individual() {
+				};
+			}
+
+			@Override
+			public Individual create(Genotype genotype) {
+				Individual individual = create();
+				individual.setGenotype(genotype);
+				return individual;
+			}
+		};
+
+		localSearch = new AvrLocalSearch(population, archive, individualFactory, problem, evaluator, 2, 1000);
+		localSearch.optimizationStarted(null);
+	}
+
+	@AfterClass
+	public static void tearDown() {
+		localSearch.optimizationStopped(null);
+	}
+
+	@Test
+	public void improveAbsoluteTest() {
+		AvrDoubleCreator creator = new AvrDoubleCreator(problem, new Random(0), 20);
+		improve(creator, new AvrCorrMeanDecoder(problem), 0.0);
+	}
+
+	@Test
+	public void improveRelativeTest() {
+		AvrRelativeCreatorDecoder creatorDecoder = new AvrRelativeCreatorDecoder(problem, new Random(0), 20);
+		improve(creatorDecoder, creatorDecoder, 1e-6);
+	}
+
+	/**
+	 * Improves decoded genotypes and verifies that the improved genotypes
+	 * decode to the improved event sequences.
+	 */
+	private void improve(Creator<CompositeGenotype<String, Genotype>> creator,
+			Decoder<CompositeGenotype<String, Genotype>, EventSequence> decoder, double tolerance) {
+
+		int improvements = 0;
+
+		for (int i = 0; i < 50; i++) {
+			CompositeGenotype<String, Genotype> genotype = creator.create();
+			EventSequence events = decoder.decode(genotype);
+			evaluator.evaluate(events);
+
+			double[] omegas = events.getOmegas().clone();
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+
+			EventSequence improved = localSearch.improve(genotype, events, deadline);
+
+			// the decoded event sequence is not changed
+			assertArrayEquals(omegas, events.getOmegas(), 0.0);
+
+			if (improved == null) {
+				continue;
+			}
+			improvements++;
+
+			assertTrue(AvrUtils.isValid(improved, problem));
+			assertTrue(improved.getSumC() > events.getSumC()
+					|| (improved.getSumC() == events.getSumC() && improved.getMu() < events.getMu()));
+
+			EventSequence decoded = decoder.decode(genotype);
+			evaluator.evaluate(decoded);
+
+			assertArrayEquals(improved.getOmegas(), decoded.getOmegas(), tolerance);
+			assertEquals(improved.getSumC(), decoded.getSumC());
+		}
+		assertTrue(improvements > 0);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void iterationCompleteTest() {
+		AvrRelativeCreatorDecoder creatorDecoder = new AvrRelativeCreatorDecoder(problem, new Random(1), 20);
+
+		// individuals are usually created by the individual factory
+		Individual individual = new Individual() {
+		};
+		individual.setGenotype(creatorDecoder.create());
+
+		EventSequence events = creatorDecoder.decode((CompositeGenotype<String, Genotype>) individual.getGenotype());
+		individual.setPhenotype(events);
+		individual.setObjectives(evaluator.evaluate(events));
+
+		double[] genes = Key.getGenes((CompositeGenotype<String, Genotype>) individual.getGenotype());
+
+		population.add(individual);
+		localSearch.iterationComplete(0);
+
+		// the refined individual replaces the original (which may be archived)
+		assertEquals(1, population.size());
+		Individual refinedIndividual = population.iterator().next();
+		population.clear();
+
+		assertNotSame(individual, refinedIndividual);
+		assertFalse(population.contains(individual));
+		assertTrue(archive.contains(refinedIndividual));
+
+		assertSame(events, individual.getPhenotype());
+		assertArrayEquals(genes, Key.getGenes((CompositeGenotype<String, Genotype>) individual.getGenotype()), 0.0);
+
+		EventSequence refined = (EventSequence) refinedIndividual.getPhenotype();
+
+		assertTrue(refined.getSumC() >= events.getSumC());
+		assertTrue(refinedIndividual.isEvaluated());
+
+		// a local optimum is not changed
+		assertNull(localSearch.improve((CompositeGenotype<String, Genotype>) refinedIndividual.getGenotype(), refined,
+				System.nanoTime() + TimeUnit.SECONDS.toNanos(10)));
+	}
+}
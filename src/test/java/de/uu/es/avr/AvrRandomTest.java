@@ -0,0 +1,63 @@
+package de.uu.es.avr;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class AvrRandomTest {
+
+	@Test
+	public void seedTest() {
+		AvrRandom random = new AvrRandom(42);
+		AvrRandom same = new AvrRandom(0);
+		same.setSeed(42);
+
+		for (int i = 0; i < 100; i++) {
+			assertEquals(random.nextLong(), same.nextLong());
+		}
+		double mean = 0;
+		for (int i = 0; i < 10000; i++) {
+			mean += random.nextDouble() / 10000;
+		}
+		assertEquals(0.5, mean, 0.02);
+	}
+
+	@Test
+	public void statesTest() {
+		AvrRandom random = new AvrRandom(1);
+		Random stream = random.split();
+		// a pair of Gaussians, so that none is cached
+		random.nextGaussian();
+		random.nextGaussian();
+		stream.nextInt();
+
+		long[] states = random.getStates();
+		assertEquals(2, states.length);
+
+		double next = random.nextGaussian();
+		int nextStream = stream.nextInt();
+		random.nextLong();
+		stream.nextLong();
+
+		// restores the generator and the stream already split
+		random.setStates(states);
+		assertEquals(next, random.nextGaussian(), 0.0);
+		assertEquals(nextStream, stream.nextInt());
+
+		// restores into a new generator, the stream split later
+		AvrRandom resumed = new AvrRandom(2);
+		resumed.setStates(states);
+		assertTrue(Arrays.equals(states, resumed.getStates()));
+		assertEquals(next, resumed.nextGaussian(), 0.0);
+		assertEquals(nextStream, resumed.split().nextInt());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void noStatesTest() {
+		new AvrRandom(0).setStates(new long[0]);
+	}
+}
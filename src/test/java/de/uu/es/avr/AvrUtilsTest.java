@@ -11,6 +11,7 @@ import org.junit.Test;
 
 import de.uu.es.avr.AvrUtils.DoubleRange;
 import de.uu.es.avr.model.AvrTask;
+import de.uu.es.avr.model.C;
 import de.uu.es.avr.model.EventSequence;
 
 public class AvrUtilsTest {
@@ -37,19 +38,17 @@ public class AvrUtilsTest {
 
 		AvrTask task0 = mock(AvrTask.class);
 		when(task0.getPhi()).thenReturn(0.0);
-		when(task0.getOmega()).thenReturn(2.0);
+		when(task0.getCfunction()).thenReturn(new C(new double[] { 1.0 }, new double[] { 0.0, 2.0 }));
 
 		AvrTask task1 = mock(AvrTask.class);
 		when(task1.getPhi()).thenReturn(3.0);
-		when(task1.getOmega()).thenReturn(2.0);
-		when(task1.minOmega()).thenReturn(2.0);
-		when(task1.maxOmega()).thenReturn(4.0);
+		when(task1.getCfunction()).thenReturn(new C(new double[] { 1.0 }, new double[] { 2.0, 4.0 }));
 
 		List<AvrTask> taskSet = new LinkedList<AvrTask>();
 		taskSet.add(task0);
 		taskSet.add(task1);
 
-		EventSequence events = new EventSequence(taskSet, true);
+		EventSequence events = new EventSequence(taskSet, new double[] { 2.0, 2.0 }, true);
 
 		assertEquals(true, AvrUtils.isValid(events, problem));
 	}
@@ -60,15 +59,42 @@ public class AvrUtilsTest {
 		when(problem.getAccMin()).thenReturn(0.0);
 		when(problem.getAccMax()).thenReturn(2.0);
 
-		AvrTask curr = mock(AvrTask.class);
-		when(curr.getPhi()).thenReturn(0.0);
-		when(curr.getOmega()).thenReturn(2.0);
+		double omega = 2.0;
+		double deltaPhi = 3.0;
+
+		assertEquals(2.0, AvrUtils.findNextRange(omega, deltaPhi, problem).getLower(), 0.0);
+		assertEquals(4.0, AvrUtils.findNextRange(omega, deltaPhi, problem).getUpper(), 0.0);
+	}
+
+	@Test
+	public void findNextRangeDropTest() {
+		AvrWCRTProblem problem = mock(AvrWCRTProblem.class);
+		when(problem.getAccMin()).thenReturn(-2.0);
+		when(problem.getAccMax()).thenReturn(2.0);
+
+		// may drop to zero: the lower bound is 0 instead of NaN
+		DoubleRange range = AvrUtils.findNextRange(1.0, 3.0, problem);
+		assertEquals(0.0, range.getLower(), 0.0);
+		assertEquals(Math.sqrt(13.0), range.getUpper(), 0.0);
+
+		assertEquals(true, AvrUtils.checkAndAdaptBoundaries(range, 0.5, 2.0));
+		assertEquals(0.5, range.getLower(), 0.0);
+	}
+
+	@Test
+	public void findPreviousRangeTest() {
+		AvrWCRTProblem problem = mock(AvrWCRTProblem.class);
+		when(problem.getAccMin()).thenReturn(-2.0);
+		when(problem.getAccMax()).thenReturn(2.0);
+
+		double omega = 4.0;
+		double deltaPhi = 3.0;
 
-		AvrTask next = mock(AvrTask.class);
-		when(next.getPhi()).thenReturn(3.0);
+		assertEquals(2.0, AvrUtils.findPreviousRange(omega, deltaPhi, problem).getLower(), 0.0);
+		assertEquals(Math.sqrt(28.0), AvrUtils.findPreviousRange(omega, deltaPhi, problem).getUpper(), 0.0);
 
-		assertEquals(2.0, AvrUtils.findNextRange(curr, next, problem).getLower(), 0.0);
-		assertEquals(4.0, AvrUtils.findNextRange(curr, next, problem).getUpper(), 0.0);
+		// reachable by accelerating from any slower rotation speed
+		assertEquals(0.0, AvrUtils.findPreviousRange(1.0, deltaPhi, problem).getLower(), 0.0);
 	}
 
 	@Test
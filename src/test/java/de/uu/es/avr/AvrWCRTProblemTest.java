@@ -1,9 +1,15 @@
 package de.uu.es.avr;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 import org.junit.Test;
 
+import de.uu.es.avr.AvrUtils.DoubleRange;
+import de.uu.es.avr.model.Envelope;
+import de.uu.es.avr.model.TaskTable;
+
 public class AvrWCRTProblemTest {
 
 	@Test
@@ -22,4 +28,70 @@ public class AvrWCRTProblemTest {
 	public void infeasibleInitTest() {
 		new AvrWCRTProblem("specs/testTaskSet.xml", 1.0, 0.0);
 	}
+
+	@Test
+	public void envelopeTest() {
+		AvrWCRTProblem problem = new AvrWCRTProblem("specs/testTaskSet.xml", -100.0 * Math.PI, 100.0 * Math.PI);
+		Envelope envelope = problem.getEnvelope(0, 6);
+
+		assertSame(envelope, problem.getEnvelope(0, 6));
+		assertEquals(6, envelope.size());
+		assertTrue(envelope.isFeasible());
+
+		// within the rotation-speed ranges of the tasks (minimum exclusive)
+		for (int i = 0; i < envelope.size(); i++) {
+			int task = i % 2;
+
+			assertTrue(envelope.getLower(i) > problem.getTaskTable().getMinOmega(task));
+			assertTrue(envelope.getUpper(i) <= problem.getTaskTable().getMaxOmega(task));
+		}
+
+		// task1 must not be too slow to accelerate into the range of task2
+		// (minimal rotation speed 209)
+		assertTrue(envelope.getLower(4) > 104);
+	}
+
+	@Test
+	public void envelopeBoundsTest() {
+		AvrWCRTProblem problem = new AvrWCRTProblem("specs/testTaskSet.xml", -100.0 * Math.PI, 100.0 * Math.PI);
+		TaskTable table = problem.getTaskTable();
+
+		for (int length = 1; length < 20; length++) {
+			for (int task0 = 0; task0 < problem.getTasksetSize(); task0++) {
+				Envelope envelope = problem.getEnvelope(task0, length);
+				assertSame(envelope, problem.getEnvelope(task0, length));
+
+				// the (inclusive) bounds of each position after the first
+				// (not restricted to the initial rotation speeds) lead into
+				// the envelope of the subsequent position
+				for (int i = 1; i + 1 < length && envelope.isFeasible(); i++) {
+					int task = (task0 + i) % problem.getTasksetSize();
+
+					DoubleRange lower = AvrUtils.findNextRange(envelope.getLower(i), table.getDeltaPhi(task), problem);
+					DoubleRange upper = AvrUtils.findNextRange(envelope.getUpper(i), table.getDeltaPhi(task), problem);
+
+					assertTrue(envelope.adapt(i + 1, lower));
+					assertTrue(envelope.adapt(i + 1, upper));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void sharedTaskTableTest() {
+		TaskTable table = AvrWCRTProblem.readTaskTable("specs/testTaskSet.xml", 0, "");
+
+		AvrWCRTProblem slow = new AvrWCRTProblem(table, -10.0 * Math.PI, 10.0 * Math.PI);
+		AvrWCRTProblem fast = new AvrWCRTProblem(table, -100.0 * Math.PI, 100.0 * Math.PI);
+		AvrWCRTProblem read = new AvrWCRTProblem("specs/testTaskSet.xml", -100.0 * Math.PI, 100.0 * Math.PI);
+
+		assertSame(table, slow.getTaskTable());
+		assertSame(table.getTask(0), fast.getTask(0));
+		assertEquals(read.getTasksetSize(), fast.getTasksetSize());
+		assertEquals(read.getTaskset().get(1).getId(), fast.getTaskset().get(1).getId());
+
+		// the envelopes depend on the accelerations
+		assertEquals(read.getEnvelope(0, 6).getLower(4), fast.getEnvelope(0, 6).getLower(4), 0.0);
+		assertTrue(slow.getEnvelope(0, 6) != fast.getEnvelope(0, 6));
+	}
 }
@@ -0,0 +1,65 @@
+package de.uu.es.avr;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class RandomStreamsTest {
+
+	@Test
+	public void ownerThreadTest() {
+		Random random = new Random(0);
+		RandomStreams streams = new RandomStreams(random);
+
+		assertSame(random, streams.get());
+	}
+
+	@Test
+	public void otherThreadTest() throws InterruptedException {
+		final Random random = new Random(0);
+		final RandomStreams streams = new RandomStreams(random);
+		final Random[] result = new Random[2];
+
+		Thread thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				result[0] = streams.get();
+				result[1] = streams.get();
+			}
+		});
+		thread.start();
+		thread.join();
+
+		assertNotNull(result[0]);
+		assertNotSame(random, result[0]);
+		assertSame(result[0], result[1]);
+	}
+
+	@Test
+	public void avrRandomTest() throws InterruptedException {
+		final AvrRandom random = new AvrRandom(0);
+		final RandomStreams streams = new RandomStreams(random);
+
+		Thread thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				streams.get().nextInt();
+			}
+		});
+		thread.start();
+		thread.join();
+
+		// the stream of the other thread is part of the state
+		assertEquals(2, random.getStates().length);
+	}
+
+	@Test(expected = AssertionError.class)
+	public void nullRandomTest() {
+		new RandomStreams(null);
+	}
+}
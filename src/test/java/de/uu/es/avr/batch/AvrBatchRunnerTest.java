@@ -0,0 +1,143 @@
+package de.uu.es.avr.batch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.opt4j.core.Objective;
+import org.opt4j.core.Objective.Sign;
+import org.opt4j.core.Objectives;
+import org.opt4j.optimizers.ea.EvolutionaryAlgorithmModule;
+
+import com.google.inject.Module;
+
+import de.uu.es.avr.AvrModule;
+import de.uu.es.avr.AvrModule.AvrDec;
+import de.uu.es.avr.io.AvrInputModule;
+
+public class AvrBatchRunnerTest {
+
+	@Test
+	public void createModulesTest() {
+		Map<String, String> properties = new LinkedHashMap<String, String>();
+		properties.put("generations", "7");
+		properties.put("n", "12");
+		properties.put("decoder", "corr_mean");
+		properties.put("accMax", "300.5");
+		properties.put("localSearch", "true");
+		properties.put("checkpointFile", "run.ckpt");
+
+		AvrBatchRunner runner = new AvrBatchRunner(Collections.<File> emptyList(),
+				Collections.<Class<? extends Module>> emptyList(), properties, new File("results"), 1);
+		List<Module> modules = runner.createModules(new File("specs/testTaskSet.xml"),
+				new File("results", "testTaskSet.csv"));
+
+		assertEquals(7, ((EvolutionaryAlgorithmModule) modules.get(0)).getGenerations());
+
+		AvrModule avrModule = (AvrModule) modules.get(1);
+		assertEquals(12, avrModule.getN());
+		assertEquals(AvrDec.CORR_MEAN, avrModule.getDecoder());
+		assertEquals(true, avrModule.isLocalSearch());
+
+		// the files per task set
+		assertEquals(new File("results", "testTaskSet-metrics.csv").getPath(), avrModule.getMetricsFile());
+		assertEquals(new File("results", "testTaskSet-run.ckpt").getPath(), avrModule.getCheckpointFile());
+
+		AvrInputModule input = (AvrInputModule) modules.get(2);
+		assertEquals(300.5, input.getAccMax(), 0.0);
+		assertEquals(new File("specs/testTaskSet.xml").getPath(), input.getFilename());
+	}
+
+	@Test
+	public void setPropertyTest() {
+		List<Module> modules = new ArrayList<Module>();
+		modules.add(new AvrModule());
+
+		for (String[] property : new String[][] { { "unknown", "1" }, { "n", "x" }, { "localSearch", "yes" },
+				{ "decoder", "NONE" } }) {
+			try {
+				AvrBatchRunner.setProperty(modules, property[0], property[1]);
+				fail(property[0] + "=" + property[1] + " accepted");
+			} catch (IllegalArgumentException e) {
+				// expected
+			}
+		}
+	}
+
+	@Test
+	public void checkConcurrencyTest() {
+		List<Module> modules = new ArrayList<Module>();
+		AvrModule avrModule = new AvrModule();
+		modules.add(avrModule);
+
+		AvrBatchRunner.checkConcurrency(modules, 4);
+
+		avrModule.setMetrics(true);
+		AvrBatchRunner.checkConcurrency(modules, 1);
+
+		try {
+			AvrBatchRunner.checkConcurrency(modules, 4);
+			fail("process-wide metrics accepted");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void getResultFilesTest() {
+		List<File> taskSets = Arrays.asList(new File("a/set.xml"), new File("b/set.xml"), new File("c/other.avrt"));
+		List<File> results = AvrBatchRunner.getResultFiles(taskSets, new File("results"));
+
+		assertEquals(Arrays.asList(new File("results", "set.csv"), new File("results", "set-2.csv"),
+				new File("results", "other.csv")), results);
+	}
+
+	@Test
+	public void expandTest() throws IOException {
+		File directory = Files.createTempDirectory("avrBatch").toFile();
+		File a = new File(directory, "a.xml");
+		File b = new File(directory, "b.xml");
+		File c = new File(directory, "c.txt");
+		File sub = new File(directory, "sub");
+		File d = new File(sub, "d.xml");
+
+		try {
+			sub.mkdir();
+			for (File file : new File[] { a, b, c, d }) {
+				file.createNewFile();
+			}
+
+			String base = directory.getPath() + File.separator;
+
+			assertEquals(Arrays.asList(a, b), AvrBatchRunner.expand(base + "*.xml"));
+			assertEquals(Arrays.asList(a, b, d), AvrBatchRunner.expand(base + "**.xml"));
+			assertEquals(Arrays.asList(c), AvrBatchRunner.expand(base + "?.txt"));
+			assertEquals(Arrays.asList(new File(base + "none.xml")), AvrBatchRunner.expand(base + "none.xml"));
+			assertEquals(0, AvrBatchRunner.expand(base + "*.avrt").size());
+		} finally {
+			for (File file : new File[] { a, b, c, d, sub, directory }) {
+				file.delete();
+			}
+		}
+	}
+
+	@Test
+	public void getLineTest() {
+		Objectives objectives = new Objectives();
+		objectives.add(new Objective("mu", Sign.MIN), 1.5);
+		objectives.add(new Objective("sum_c", Sign.MAX), 12.0);
+
+		assertEquals("mu,sum_c,eventSequence", AvrBatchRunner.getHeader(objectives));
+		assertEquals("1.5,12.0,\"t0: 1.0 t1: 2.0\"", AvrBatchRunner.getLine(objectives, "t0: 1.0 t1: 2.0 "));
+	}
+}
@@ -0,0 +1,144 @@
+package de.uu.es.avr.batch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.google.inject.Module;
+
+import de.uu.es.avr.AvrModule.AvrDec;
+import de.uu.es.avr.io.AvrInputModule;
+
+public class AvrSweepTest {
+
+	@Test
+	public void runTest() throws IOException {
+		File table = File.createTempFile("sweep", ".csv");
+
+		ParameterGrid grid = new ParameterGrid();
+		grid.add("n", Arrays.asList("2", "3", "4"));
+		grid.add("decoder", Arrays.asList("RELATIVE", "INFEASIBLE"));
+
+		Map<String, String> properties = new LinkedHashMap<String, String>();
+		properties.put("generations", "10");
+
+		final ConcurrentMap<String, AtomicInteger> executed = new ConcurrentHashMap<String, AtomicInteger>();
+		final Set<File> files = Collections.newSetFromMap(new ConcurrentHashMap<File, Boolean>());
+
+		// records the optimizations instead of executing them
+		AvrSweep sweep = new AvrSweep(Arrays.asList(new File("a.xml"), new File("b,c.xml")),
+				Collections.<Class<? extends Module>> emptyList(), properties, grid, table, 4) {
+			@Override
+			protected void execute(Run run) {
+				executed.putIfAbsent(run.taskSet + " " + run.parameters, new AtomicInteger());
+				executed.get(run.taskSet + " " + run.parameters).incrementAndGet();
+				files.add(run.file);
+
+				if (run.parameters.get("decoder").equals("INFEASIBLE")) {
+					run.failure = new IllegalStateException();
+				} else {
+					run.objectives = "mu,sum_c,eventSequence";
+					run.solutions.add("1.0,2.0,\"t0: 1.0\"");
+					run.solutions.add("3.0,4.0,\"t0: 2.0\"");
+				}
+				run.runtime = 5;
+			}
+		};
+
+		try {
+			assertEquals(6, sweep.run());
+
+			// each optimization once
+			assertEquals(12, executed.size());
+			for (AtomicInteger count : executed.values()) {
+				assertEquals(1, count.get());
+			}
+
+			// the files of concurrent optimizations differ
+			assertEquals(12, files.size());
+
+			List<String> lines = Files.readAllLines(table.toPath(), StandardCharsets.UTF_8);
+
+			assertEquals("taskSet,n,decoder,status,runtime,solutions,mu,sum_c,eventSequence", lines.get(0));
+			assertEquals(1 + 2 * 3 * (2 + 1), lines.size());
+			assertEquals("a.xml,2,RELATIVE,ok,5,2,1.0,2.0,\"t0: 1.0\"", lines.get(1));
+			assertEquals("a.xml,2,RELATIVE,ok,5,2,3.0,4.0,\"t0: 2.0\"", lines.get(2));
+			assertEquals("a.xml,2,INFEASIBLE,failed,5,0,,,", lines.get(3));
+			assertEquals("\"b,c.xml\",4,INFEASIBLE,failed,5,0,,,", lines.get(lines.size() - 1));
+		} finally {
+			table.delete();
+		}
+	}
+
+	@Test
+	public void getFileTest() {
+		Map<String, String> point = new LinkedHashMap<String, String>();
+		point.put("n", "4");
+		point.put("decoder", "RELATIVE");
+
+		assertEquals(new File("results", "set-n=4-decoder=RELATIVE.csv"),
+				AvrSweep.getFile(new File("results", "set.csv"), point));
+
+		// no separators in the name
+		point.put("checkpointFile", "a/b.ckpt");
+		assertEquals(new File("results", "set-n=4-decoder=RELATIVE-checkpointFile=a_b.ckpt.csv"),
+				AvrSweep.getFile(new File("results", "set.csv"), point));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void concurrentMetricsTest() throws IOException {
+		ParameterGrid grid = new ParameterGrid();
+		grid.add("n", Arrays.asList("2", "3"));
+
+		// process-wide metrics of concurrent optimizations
+		new AvrSweep(Arrays.asList(new File("a.xml")), Collections.<Class<? extends Module>> emptyList(),
+				Collections.singletonMap("metrics", "true"), grid, new File("sweep.csv"), 2).run();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void unknownParameterTest() throws IOException {
+		ParameterGrid grid = new ParameterGrid();
+		grid.add("unknown", Arrays.asList("1", "2"));
+
+		new AvrSweep(Arrays.asList(new File("a.xml")), Collections.<Class<? extends Module>> emptyList(),
+				Collections.<String, String> emptyMap(), grid, new File("sweep.csv"), 1).run();
+	}
+
+	@Test
+	public void parseValuesTest() {
+		List<Module> modules = AvrBatchRunner.createModules(new AvrInputModule(),
+				Collections.<Class<? extends Module>> emptyList(), Collections.<String, String> emptyMap());
+
+		List<String> decoders = new ArrayList<String>();
+		for (AvrDec decoder : AvrDec.values()) {
+			decoders.add(decoder.name());
+		}
+
+		assertEquals(decoders, AvrSweep.parseValues(modules, "decoder", "*"));
+		assertEquals(Arrays.asList("false", "true"), AvrSweep.parseValues(modules, "localSearch", "*"));
+		assertEquals(Arrays.asList("2", "4"), AvrSweep.parseValues(modules, "n", "2..4:2"));
+
+		try {
+			AvrSweep.parseValues(modules, "n", "*");
+			fail("* accepted for n");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+}
@@ -0,0 +1,61 @@
+package de.uu.es.avr.batch;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class ParameterGridTest {
+
+	@Test
+	public void expandTest() {
+		ParameterGrid grid = new ParameterGrid();
+		grid.add("n", Arrays.asList("2", "4"));
+		grid.add("decoder", Arrays.asList("RELATIVE", "CORR_MEAN", "INFEASIBLE"));
+
+		List<Map<String, String>> points = grid.expand();
+
+		assertEquals(6, grid.size());
+		assertEquals(6, points.size());
+		assertEquals(Arrays.asList("n", "decoder"), grid.getNames());
+
+		// the last parameter varies fastest
+		assertEquals("2", points.get(0).get("n"));
+		assertEquals("RELATIVE", points.get(0).get("decoder"));
+		assertEquals("2", points.get(1).get("n"));
+		assertEquals("CORR_MEAN", points.get(1).get("decoder"));
+		assertEquals("4", points.get(5).get("n"));
+		assertEquals("INFEASIBLE", points.get(5).get("decoder"));
+	}
+
+	@Test
+	public void emptyGridTest() {
+		ParameterGrid grid = new ParameterGrid();
+
+		assertEquals(1, grid.size());
+		assertEquals(1, grid.expand().size());
+		assertEquals(0, grid.expand().get(0).size());
+	}
+
+	@Test
+	public void parseValuesTest() {
+		assertEquals(Arrays.asList("RELATIVE", "CORR_MEAN"), ParameterGrid.parseValues("RELATIVE, CORR_MEAN"));
+		assertEquals(Arrays.asList("2", "3", "4"), ParameterGrid.parseValues("2..4"));
+		assertEquals(Arrays.asList("2", "5", "8"), ParameterGrid.parseValues("2..10:3"));
+		assertEquals(Arrays.asList("0.1", "0.2", "0.3"), ParameterGrid.parseValues("0.1..0.3:0.1"));
+		assertEquals(Arrays.asList("-314", "100", "200", "300"), ParameterGrid.parseValues("-314,100..300:100"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void invalidRangeTest() {
+		ParameterGrid.parseValues("4..2");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void invalidStepTest() {
+		ParameterGrid.parseValues("2..4:0");
+	}
+}
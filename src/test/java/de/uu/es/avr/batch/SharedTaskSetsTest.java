@@ -0,0 +1,64 @@
+package de.uu.es.avr.batch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import de.uu.es.avr.model.TaskTable;
+
+public class SharedTaskSetsTest {
+
+	@Test
+	public void getTest() {
+		SharedTaskSets taskSets = new SharedTaskSets();
+
+		TaskTable table = taskSets.get("specs/testTaskSet.xml", 0, "");
+		assertSame(table, taskSets.get("specs/testTaskSet.xml", 0, ""));
+		assertSame(table, taskSets.get(new File("specs/testTaskSet.xml").getAbsolutePath(), 0, ""));
+
+		// a different resolution is a different table
+		assertTrue(table != taskSets.get("specs/testTaskSet.xml", 64, ""));
+	}
+
+	@Test
+	public void concurrentGetTest() throws Exception {
+		final SharedTaskSets taskSets = new SharedTaskSets();
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+
+		try {
+			List<Future<TaskTable>> tables = new ArrayList<Future<TaskTable>>();
+
+			for (int i = 0; i < 32; i++) {
+				tables.add(executor.submit(new Callable<TaskTable>() {
+					@Override
+					public TaskTable call() {
+						return taskSets.get("specs/testTaskSet.xml", 0, "");
+					}
+				}));
+			}
+
+			// read once, shared by all
+			for (Future<TaskTable> table : tables) {
+				assertSame(tables.get(0).get(), table.get());
+			}
+			assertEquals(1, taskSets.size());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void missingTaskSetTest() {
+		new SharedTaskSets().get("specs/missing.xml", 0, "");
+	}
+}
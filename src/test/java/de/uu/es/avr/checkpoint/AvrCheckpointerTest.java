@@ -0,0 +1,209 @@
+package de.uu.es.avr.checkpoint;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.opt4j.core.Genotype;
+import org.opt4j.core.Individual;
+import org.opt4j.core.IndividualFactory;
+import org.opt4j.core.common.archive.UnboundedArchive;
+import org.opt4j.core.genotype.CompositeGenotype;
+import org.opt4j.core.genotype.DoubleGenotype;
+import org.opt4j.core.genotype.IntegerGenotype;
+import org.opt4j.core.optimizer.Archive;
+import org.opt4j.core.optimizer.Iteration;
+import org.opt4j.core.optimizer.Population;
+
+import de.uu.es.avr.AvrEvaluator;
+import de.uu.es.avr.AvrRandom;
+import de.uu.es.avr.AvrUtils;
+import de.uu.es.avr.AvrWCRTProblem;
+import de.uu.es.avr.creatorDecoder.AvrRelativeCreatorDecoder;
+import de.uu.es.avr.model.EventSequence;
+
+public class AvrCheckpointerTest {
+
+	@Test
+	public void resumeTest() throws IOException {
+		AvrWCRTProblem problem = new AvrWCRTProblem("specs/testTaskSet.xml", -100.0 * Math.PI, 100.0 * Math.PI);
+		AvrEvaluator evaluator = new AvrEvaluator(problem);
+		AvrRelativeCreatorDecoder creatorDecoder = new AvrRelativeCreatorDecoder(problem, new Random(0), 10);
+		Checkpoint.Signature signature = new Checkpoint.Signature(problem, 10, AvrRelativeCreatorDecoder.class);
+
+		File file = File.createTempFile("avrCheckpoint", ".avrc");
+		file.delete();
+
+		try {
+			// i) the population of an optimization, the evaluated individuals
+			// archived
+			Population population = new Population();
+			Set<Individual> evaluated = new HashSet<Individual>();
+
+			for (int i = 0; i < 10; i++) {
+				Individual individual = createIndividual(creatorDecoder);
+
+				if (i < 8) {
+					EventSequence events = creatorDecoder.decode(getGenotype(individual));
+					individual.setPhenotype(events);
+					individual.setObjectives(evaluator.evaluate(events));
+					evaluated.add(individual);
+				}
+				population.add(individual);
+			}
+
+			Archive archived = new UnboundedArchive();
+			archived.update(evaluated);
+
+			AvrRandom random = new AvrRandom(1);
+			Random stream = random.split();
+			Iteration iteration = new Iteration(100);
+			AvrCheckpointer checkpointer = new AvrCheckpointer(population, archived, iteration,
+					createFactory(creatorDecoder), problem, evaluator, random, signature, file.getPath(), 5, false);
+
+			for (int i = 1; i <= 7; i++) {
+				iteration.next();
+				checkpointer.iterationComplete(i);
+			}
+			checkpointer.optimizationStopped(null);
+			assertTrue(file.isFile());
+
+			double next = random.nextDouble();
+			double nextStream = stream.nextDouble();
+
+			// ii) resumes into an empty population
+			Population resumed = new Population();
+			Archive archive = new UnboundedArchive();
+			iteration = new Iteration(100);
+			AvrRandom resumedRandom = new AvrRandom(2);
+
+			AvrCheckpointer resumer = new AvrCheckpointer(resumed, archive, iteration, createFactory(creatorDecoder),
+					problem, evaluator, resumedRandom, signature, file.getPath(), 5, true);
+			resumer.optimizationStarted(null);
+
+			// the random number generator and its streams continue as after
+			// the checkpoint
+			assertEquals(next, resumedRandom.nextDouble(), 0.0);
+			assertEquals(nextStream, resumedRandom.split().nextDouble(), 0.0);
+			resumer.optimizationStopped(null);
+
+			assertEquals(7, iteration.value());
+			assertEquals(archived.size(), archive.size());
+			assertEquals(population.size(), resumed.size());
+
+			Individual[] expected = population.toArray(new Individual[0]);
+			Individual[] actual = resumed.toArray(new Individual[0]);
+
+			for (int i = 0; i < expected.length; i++) {
+				assertGenotypeEquals(getGenotype(expected[i]), getGenotype(actual[i]));
+				assertEquals(expected[i].isEvaluated(), actual[i].isEvaluated());
+
+				if (expected[i].isEvaluated()) {
+					EventSequence events = (EventSequence) actual[i].getPhenotype();
+
+					assertArrayEquals(((EventSequence) expected[i].getPhenotype()).getOmegas(), events.getOmegas(),
+							0.0);
+					assertArrayEquals(expected[i].getObjectives().array(), actual[i].getObjectives().array(), 0.0);
+				} else {
+					assertNull(actual[i].getPhenotype());
+				}
+			}
+		} finally {
+			file.delete();
+		}
+	}
+
+	@Test
+	public void noCheckpointTest() {
+		AvrWCRTProblem problem = new AvrWCRTProblem("specs/testTaskSet.xml", -100.0 * Math.PI, 100.0 * Math.PI);
+		Population population = new Population();
+
+		AvrCheckpointer checkpointer = new AvrCheckpointer(population, new UnboundedArchive(), new Iteration(100),
+				mock(IndividualFactory.class), problem, new AvrEvaluator(problem), new Random(0),
+				new Checkpoint.Signature(problem, 10, AvrRelativeCreatorDecoder.class),
+				new File("noSuchCheckpoint.avrc").getPath(), 0, true);
+
+		checkpointer.optimizationStarted(null);
+		assertTrue(population.isEmpty());
+		assertFalse(new File("noSuchCheckpoint.avrc").exists());
+	}
+
+	@Test
+	public void otherProblemTest() throws IOException {
+		AvrWCRTProblem problem = new AvrWCRTProblem("specs/testTaskSet.xml", -100.0 * Math.PI, 100.0 * Math.PI);
+		AvrWCRTProblem faster = new AvrWCRTProblem("specs/testTaskSet.xml", -100.0 * Math.PI, 200.0 * Math.PI);
+
+		File file = File.createTempFile("avrCheckpoint", ".avrc");
+
+		try {
+			new Checkpoint(new Checkpoint.Signature(problem, 10, AvrRelativeCreatorDecoder.class), 3,
+					new long[0], true, 9).write(file);
+
+			Population population = new Population();
+			AvrCheckpointer resumer = new AvrCheckpointer(population, new UnboundedArchive(), new Iteration(100),
+					mock(IndividualFactory.class), faster, new AvrEvaluator(faster), new Random(0),
+					new Checkpoint.Signature(faster, 10, AvrRelativeCreatorDecoder.class), file.getPath(), 0, true);
+
+			try {
+				resumer.optimizationStarted(null);
+				fail("checkpoint of another problem resumed");
+			} catch (IllegalStateException e) {
+				assertTrue(e.getMessage(), e.getMessage().contains("accelerations"));
+			} finally {
+				resumer.optimizationStopped(null);
+			}
+			assertTrue(population.isEmpty());
+		} finally {
+			file.delete();
+		}
+	}
+
+	private static Individual createIndividual(AvrRelativeCreatorDecoder creatorDecoder) {
+		Individual individual = new Individual() {
+		};
+		individual.setGenotype(creatorDecoder.create());
+		return individual;
+	}
+
+	private static IndividualFactory createFactory(final AvrRelativeCreatorDecoder creatorDecoder) {
+		IndividualFactory factory = mock(IndividualFactory.class);
+
+		when(factory.create()).thenAnswer(new Answer<Individual>() {
+			@Override
+			public Individual answer(InvocationOnMock invocation) {
+				return createIndividual(creatorDecoder);
+			}
+		});
+		return factory;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static CompositeGenotype<String, Genotype> getGenotype(Individual individual) {
+		return (CompositeGenotype<String, Genotype>) individual.getGenotype();
+	}
+
+	private static void assertGenotypeEquals(CompositeGenotype<String, Genotype> expected,
+			CompositeGenotype<String, Genotype> actual) {
+		assertEquals(((IntegerGenotype) expected.get(AvrUtils.TASK_0)).get(0),
+				((IntegerGenotype) actual.get(AvrUtils.TASK_0)).get(0));
+		assertEquals(((DoubleGenotype) expected.get(AvrUtils.OMEGA_0)).get(0),
+				((DoubleGenotype) actual.get(AvrUtils.OMEGA_0)).get(0));
+		assertEquals(Arrays.asList(((DoubleGenotype) expected.get(AvrUtils.RELATIVE)).toArray()),
+				Arrays.asList(((DoubleGenotype) actual.get(AvrUtils.RELATIVE)).toArray()));
+	}
+}
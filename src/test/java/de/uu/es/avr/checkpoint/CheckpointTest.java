@@ -0,0 +1,167 @@
+package de.uu.es.avr.checkpoint;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import de.uu.es.avr.AvrWCRTProblem;
+import de.uu.es.avr.creatorDecoder.AvrCorrMeanDecoder;
+import de.uu.es.avr.creatorDecoder.AvrRelativeCreatorDecoder;
+
+public class CheckpointTest {
+
+	private static final Checkpoint.Signature SIGNATURE = new Checkpoint.Signature(new byte[32], -1.0, 1.0, 4,
+			"decoder");
+
+	@Test
+	public void roundTripTest() throws IOException {
+		Checkpoint checkpoint = new Checkpoint(SIGNATURE, 42, new long[] { 7L, 8L }, true, 3);
+
+		int evaluated = Checkpoint.POPULATION | Checkpoint.ARCHIVE | Checkpoint.EVALUATED | Checkpoint.PHENOTYPE
+				| Checkpoint.FEASIBLE | Checkpoint.OBJECTIVES;
+		checkpoint.add(new Checkpoint.Entry(evaluated, 2, 0.25, new double[] { 0.1, 0.2, 0.3 },
+				new double[] { 10.0, 20.0, 30.0, 40.0 }, 1.5, 12));
+		checkpoint.add(new Checkpoint.Entry(Checkpoint.POPULATION, 0, 0.5, new double[] { 0.4, 0.5, 0.6 }, null, 0, 0));
+
+		File file = File.createTempFile("avrCheckpoint", ".avrc");
+
+		try {
+			checkpoint.write(file);
+			// header (with signature) and individuals
+			int header = 5 * 4 + 4 + 2 * 8 + 1 + 32 + 2 * 8 + 4 + 2 + "decoder".length();
+			assertEquals(header + 2 * (1 + 4 + 8 + 3 * 8) + 4 + 4 * 8 + 8 + 4, file.length());
+
+			Checkpoint read = Checkpoint.read(file);
+
+			assertEquals(42, read.getIteration());
+			assertTrue(Arrays.equals(new long[] { 7L, 8L }, read.getRandom()));
+			assertNull(SIGNATURE.getDifference(read.getSignature()));
+			assertTrue(read.isRelative());
+			assertEquals(3, read.getGenes());
+			assertEquals(2, read.getEntries().size());
+
+			Checkpoint.Entry entry = read.getEntries().get(0);
+			assertEquals(evaluated, entry.getFlags());
+			assertEquals(2, entry.getTask0());
+			assertEquals(0.25, entry.getOmega0(), 0.0);
+			assertArrayEquals(new double[] { 0.1, 0.2, 0.3 }, entry.getGenes(), 0.0);
+			assertArrayEquals(new double[] { 10.0, 20.0, 30.0, 40.0 }, entry.getOmegas(), 0.0);
+			assertEquals(1.5, entry.getMu(), 0.0);
+			assertEquals(12, entry.getSumC());
+
+			entry = read.getEntries().get(1);
+			assertTrue(entry.is(Checkpoint.POPULATION));
+			assertFalse(entry.is(Checkpoint.ARCHIVE));
+			assertFalse(entry.is(Checkpoint.PHENOTYPE));
+			assertNull(entry.getOmegas());
+			assertArrayEquals(new double[] { 0.4, 0.5, 0.6 }, entry.getGenes(), 0.0);
+		} finally {
+			file.delete();
+		}
+	}
+
+	@Test
+	public void overwriteTest() throws IOException {
+		File file = File.createTempFile("avrCheckpoint", ".avrc");
+
+		try {
+			new Checkpoint(SIGNATURE, 1, new long[0], false, 0).write(file);
+			new Checkpoint(SIGNATURE, 2, new long[0], false, 0).write(file);
+
+			assertEquals(2, Checkpoint.read(file).getIteration());
+
+			// no temporary files are left
+			File[] temps = file.getParentFile().listFiles();
+			for (File temp : temps) {
+				assertFalse(temp.getName().startsWith(file.getName()) && temp.getName().endsWith(".tmp"));
+			}
+		} finally {
+			file.delete();
+		}
+	}
+
+	@Test
+	public void signatureTest() {
+		AvrWCRTProblem problem = new AvrWCRTProblem("specs/testTaskSet.xml", -100.0 * Math.PI, 100.0 * Math.PI);
+		Checkpoint.Signature signature = new Checkpoint.Signature(problem, 10, AvrRelativeCreatorDecoder.class);
+
+		// the same task set read again
+		AvrWCRTProblem same = new AvrWCRTProblem("specs/testTaskSet.xml", -100.0 * Math.PI, 100.0 * Math.PI);
+		assertNull(signature.getDifference(new Checkpoint.Signature(same, 10, AvrRelativeCreatorDecoder.class)));
+
+		// different accelerations, length, decoder and task set
+		AvrWCRTProblem faster = new AvrWCRTProblem("specs/testTaskSet.xml", -100.0 * Math.PI, 200.0 * Math.PI);
+		assertNotNull(signature.getDifference(new Checkpoint.Signature(faster, 10, AvrRelativeCreatorDecoder.class)));
+		assertNotNull(signature.getDifference(new Checkpoint.Signature(problem, 11, AvrRelativeCreatorDecoder.class)));
+		assertNotNull(signature.getDifference(new Checkpoint.Signature(problem, 10, AvrCorrMeanDecoder.class)));
+		assertNotNull(signature.getDifference(new Checkpoint.Signature(new byte[32], problem.getAccMin(),
+				problem.getAccMax(), 10, AvrRelativeCreatorDecoder.class.getName())));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void genesTest() {
+		new Checkpoint(SIGNATURE, 0, new long[0], false, 2)
+				.add(new Checkpoint.Entry(0, 0, 0.0, new double[3], null, 0, 0));
+	}
+
+	@Test
+	public void invalidTest() throws IOException {
+		File file = File.createTempFile("avrCheckpoint", ".avrc");
+
+		try {
+			Checkpoint checkpoint = new Checkpoint(SIGNATURE, 1, new long[0], false, 2);
+			checkpoint.add(new Checkpoint.Entry(Checkpoint.POPULATION, 0, 0.0, new double[2], null, 0, 0));
+			checkpoint.write(file);
+
+			// truncated
+			RandomAccessFile out = new RandomAccessFile(file, "rw");
+			try {
+				out.setLength(out.length() - 1);
+			} finally {
+				out.close();
+			}
+			assertInvalid(file, "truncated");
+
+			// not a checkpoint
+			out = new RandomAccessFile(file, "rw");
+			try {
+				out.writeInt(0);
+			} finally {
+				out.close();
+			}
+			assertInvalid(file, "not a checkpoint");
+
+			// unsupported version
+			out = new RandomAccessFile(file, "rw");
+			try {
+				out.writeInt(Checkpoint.MAGIC);
+				out.writeInt(Checkpoint.VERSION + 1);
+			} finally {
+				out.close();
+			}
+			assertInvalid(file, "unsupported version");
+		} finally {
+			file.delete();
+		}
+	}
+
+	private static void assertInvalid(File file, String message) {
+		try {
+			Checkpoint.read(file);
+			fail("invalid checkpoint read");
+		} catch (IOException e) {
+			assertTrue(e.getMessage(), e.getMessage().startsWith(message));
+		}
+	}
+}
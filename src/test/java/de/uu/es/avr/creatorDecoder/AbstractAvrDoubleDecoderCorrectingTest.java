@@ -1,7 +1,11 @@
 package de.uu.es.avr.creatorDecoder;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -11,9 +15,14 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 import org.opt4j.core.Genotype;
 import org.opt4j.core.genotype.CompositeGenotype;
+import org.opt4j.core.genotype.DoubleGenotype;
+import org.opt4j.core.genotype.IntegerGenotype;
 
+import de.uu.es.avr.AvrUtils;
 import de.uu.es.avr.AvrWCRTProblem;
+import de.uu.es.avr.model.DecodeCheckpoint;
 import de.uu.es.avr.model.EventSequence;
+import de.uu.es.avr.model.TaskTable;
 
 public class AbstractAvrDoubleDecoderCorrectingTest {
 
@@ -42,7 +51,7 @@ public class AbstractAvrDoubleDecoderCorrectingTest {
 		assertEquals("task1", decoded.get(0).getId());
 		assertEquals("task2", decoded.get(1).getId());
 
-		assertEquals(523, decoded.get(0).getOmega(), 0.0);
+		assertEquals(523, decoded.getOmega(0), 0.0);
 	}
 
 	@Test
@@ -55,7 +64,6 @@ public class AbstractAvrDoubleDecoderCorrectingTest {
 		AvrCorrMeanDecoder decoder = new AvrCorrMeanDecoder(problem);
 
 		CompositeGenotype<String, Genotype> genotype = creator.create();
-		problem.getTask(1).setOmega(523);
 
 		EventSequence decoded = decoder.decode(genotype);
 
@@ -64,4 +72,138 @@ public class AbstractAvrDoubleDecoderCorrectingTest {
 		assertEquals("task1", decoded.get(0).getId());
 		assertEquals("task2", decoded.get(1).getId());
 	}
+
+	@Test
+	public void decodeSinglePassTest() {
+		AvrWCRTProblem problem = new AvrWCRTProblem("specs/testTaskSet.xml", -100.0 * Math.PI, 100.0 * Math.PI);
+
+		int searchSpaceSize = 20;
+		AvrDoubleCreator creator = new AvrDoubleCreator(problem, new Random(0), searchSpaceSize);
+		AvrCorrMeanDecoder decoder = new AvrCorrMeanDecoder(problem);
+
+		for (int i = 0; i < 100; i++) {
+			EventSequence decoded = decoder.decode(creator.create());
+
+			// feasibility of the single pass agrees with a full validity check
+			assertEquals(AvrUtils.isValid(decoded, problem), decoded.isFeasible());
+		}
+	}
+
+	@Test
+	public void decodeEnvelopeTest() {
+		AvrWCRTProblem problem = new AvrWCRTProblem("specs/testTaskSet.xml", -100.0 * Math.PI, 100.0 * Math.PI);
+
+		int searchSpaceSize = 50;
+		AvrDoubleCreator creator = new AvrDoubleCreator(problem, new Random(1), searchSpaceSize);
+		AvrCorrBoundDecoder decoder = new AvrCorrBoundDecoder(problem);
+
+		for (int i = 0; i < 500; i++) {
+			EventSequence decoded = decoder.decode(creator.create());
+
+			// repairs restricted to the envelope never run into a dead end
+			assertTrue(decoded.isFeasible());
+			assertTrue(AvrUtils.isValid(decoded, problem));
+		}
+	}
+
+	@Test
+	public void decodeOmega0RepairTest() {
+		// always accelerating: the fastest initial rotation speeds of task1
+		// do not reach the range of task2
+		AvrWCRTProblem problem = new AvrWCRTProblem("specs/testTaskSet.xml", 1000.0, 2000.0);
+		TaskTable table = problem.getTaskTable();
+
+		int searchSpaceSize = 3;
+		AvrDoubleCreator creator = new AvrDoubleCreator(problem, new Random(0), searchSpaceSize);
+		AvrCorrMeanDecoder decoder = new AvrCorrMeanDecoder(problem);
+
+		int moved = 0;
+
+		for (int i = 0; i < 100; i++) {
+			CompositeGenotype<String, Genotype> genotype = creator.create();
+			int task0 = ((IntegerGenotype) genotype.get(AvrUtils.TASK_0)).get(0);
+			DoubleGenotype omega0 = genotype.get(AvrUtils.OMEGA_0);
+
+			double encoded = omega0.get(0);
+			EventSequence decoded = decoder.decode(genotype);
+
+			if (decoded.isFeasible()) {
+				// the genotype encodes the decoded (moved) rotation speed
+				int index = table.getOmega0Index(task0, omega0.get(0));
+				assertEquals(table.getOmega0(task0, index), decoded.getOmega(0), 0.0);
+
+				if (index != table.getOmega0Index(task0, encoded)) {
+					moved++;
+				}
+			}
+		}
+		assertTrue(moved > 0);
+	}
+
+	@Test
+	public void decodeIncrementalTest() {
+		AvrWCRTProblem problem = new AvrWCRTProblem("specs/testTaskSet.xml", -100.0 * Math.PI, 100.0 * Math.PI);
+
+		int searchSpaceSize = 50;
+		AvrDoubleCreator creator = new AvrDoubleCreator(problem, new Random(0), searchSpaceSize);
+		AvrCorrMeanDecoder decoder = new AvrCorrMeanDecoder(problem);
+		decoder.setCheckpointInterval(DecodeCheckpoint.DEFAULT_INTERVAL);
+		Random random = new Random(1);
+
+		for (int i = 0; i < 100; i++) {
+			CompositeGenotype<String, Genotype> genotype = creator.create();
+			EventSequence parent = decoder.decode(genotype);
+			assertNotNull(parent.getCheckpoint());
+
+			// mutates a single (repaired) gene
+			int index = random.nextInt(searchSpaceSize - 1);
+			DoubleGenotype omegas = genotype.get(AvrUtils.OMEGAS);
+			double range = problem.getMaxOmega() - problem.getMinOmega();
+			omegas.set(index, problem.getMinOmega() + random.nextDouble() * range);
+
+			EventSequence decoded = decoder.decode(genotype, parent, index);
+			EventSequence expected = decoder.decode(genotype);
+
+			assertTrue(decoded.isFeasible());
+			assertArrayEquals(expected.getOmegas(), decoded.getOmegas(), 0.0);
+			assertEquals(expected.getMu(), decoded.getMu(), 0.0);
+			assertEquals(expected.getSumC(), decoded.getSumC());
+		}
+	}
+
+	@Test
+	public void decodeMismatchTest() {
+		AvrWCRTProblem problem = new AvrWCRTProblem("specs/testTaskSet.xml", -100.0 * Math.PI, 100.0 * Math.PI);
+
+		int searchSpaceSize = 50;
+		AvrDoubleCreator creator = new AvrDoubleCreator(problem, new Random(0), searchSpaceSize);
+		AvrCorrMeanDecoder decoder = new AvrCorrMeanDecoder(problem);
+
+		// no checkpoints by default
+		assertNull(decoder.decode(creator.create()).getCheckpoint());
+
+		decoder.setCheckpointInterval(DecodeCheckpoint.DEFAULT_INTERVAL);
+		Random random = new Random(1);
+
+		for (int i = 0; i < 100; i++) {
+			CompositeGenotype<String, Genotype> genotype = creator.create();
+			EventSequence parent = decoder.decode(genotype);
+
+			// changes the first event, but claims a late change only
+			IntegerGenotype task0 = genotype.get(AvrUtils.TASK_0);
+			DoubleGenotype omega0 = genotype.get(AvrUtils.OMEGA_0);
+			if (random.nextBoolean()) {
+				task0.set(0, (task0.get(0) + 1) % problem.getTasksetSize());
+			} else {
+				omega0.set(0, 1.0 - omega0.get(0));
+			}
+
+			EventSequence decoded = decoder.decode(genotype, parent, searchSpaceSize - 2);
+			EventSequence expected = decoder.decode(genotype);
+
+			// decoded (and repaired) from the first event
+			assertEquals(expected.isFeasible(), decoded.isFeasible());
+			assertArrayEquals(expected.getOmegas(), decoded.getOmegas(), 0.0);
+		}
+	}
 }
@@ -0,0 +1,65 @@
+package de.uu.es.avr.creatorDecoder;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.Random;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opt4j.core.Genotype;
+import org.opt4j.core.genotype.CompositeGenotype;
+import org.opt4j.core.genotype.DoubleGenotype;
+
+import de.uu.es.avr.AvrEvaluationCache;
+import de.uu.es.avr.AvrEvaluationCache.Key;
+import de.uu.es.avr.AvrUtils;
+import de.uu.es.avr.AvrWCRTProblem;
+import de.uu.es.avr.model.EventSequence;
+
+public class AvrCachingDecoderTest {
+
+	private static AvrWCRTProblem problem;
+
+	@BeforeClass
+	public static void setup() {
+		problem = new AvrWCRTProblem("specs/testTaskSet.xml", -100.0 * Math.PI, 100.0 * Math.PI);
+	}
+
+	@Test
+	public void decodeCachedTest() {
+		AvrRelativeCreatorDecoder creator = new AvrRelativeCreatorDecoder(problem, new Random(0), 5);
+		AvrCachingDecoder decoder = new AvrCachingDecoder(creator, new AvrEvaluationCache(10, false), problem);
+
+		CompositeGenotype<String, Genotype> genotype = creator.create();
+
+		EventSequence decoded = decoder.decode(genotype);
+		assertSame(decoded, decoder.decode(genotype));
+	}
+
+	@Test
+	public void decodeRepairedTest() {
+		AvrDoubleCreator creator = new AvrDoubleCreator(problem, new Random(0), 5);
+		AvrEvaluationCache cache = new AvrEvaluationCache(10, false);
+		AvrCachingDecoder decoder = new AvrCachingDecoder(new AvrCorrMeanDecoder(problem), cache, problem);
+
+		CompositeGenotype<String, Genotype> genotype = creator.create();
+
+		// identical copy of the genotype before repair
+		CompositeGenotype<String, Genotype> copy = new CompositeGenotype<String, Genotype>();
+		for (String key : genotype.keySet()) {
+			copy.put(key, genotype.get(key));
+		}
+		DoubleGenotype omegas = new DoubleGenotype(0, 1);
+		omegas.addAll((DoubleGenotype) genotype.get(AvrUtils.OMEGAS));
+		copy.put(AvrUtils.OMEGAS, omegas);
+
+		decoder.decode(genotype);
+		decoder.decode(copy);
+
+		// repairs are applied to the copy on a cache hit
+		assertEquals(1, cache.getHits());
+		assertArrayEquals(Key.getGenes(genotype), Key.getGenes(copy), 0.0);
+	}
+}
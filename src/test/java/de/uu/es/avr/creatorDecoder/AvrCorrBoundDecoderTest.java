@@ -14,7 +14,6 @@ import org.opt4j.core.genotype.DoubleGenotype;
 
 import de.uu.es.avr.AvrUtils.DoubleRange;
 import de.uu.es.avr.AvrWCRTProblem;
-import de.uu.es.avr.model.AvrTask;
 
 public class AvrCorrBoundDecoderTest {
 
@@ -37,16 +36,14 @@ public class AvrCorrBoundDecoderTest {
 
 		int testIndex = 0;
 		CompositeGenotype<String, Genotype> genotype = creator.create();
-		problem.getTask(1).setOmega(523);
 
 		// correct to lower boundary
 		double upperBound = 1.0;
 
-		AvrTask decoded = decoder.correctingStrategy(genotype, problem.getTask(1), testIndex,
-				new DoubleRange(0, upperBound));
+		double decoded = decoder.correctingStrategy(genotype, testIndex, new DoubleRange(0, upperBound));
 
 		// check that phenotype is corrected
-		assertEquals(upperBound, decoded.getOmega(), 0);
+		assertEquals(upperBound, decoded, 0);
 
 		// check that genotype is corrected
 		DoubleGenotype decodedGenotype = (DoubleGenotype) genotype.get("OMEGAS");
@@ -67,16 +64,14 @@ public class AvrCorrBoundDecoderTest {
 
 		int testIndex = 0;
 		CompositeGenotype<String, Genotype> genotype = creator.create();
-		problem.getTask(1).setOmega(104);
 
 		// correct to lower boundary
 		double lowerBound = 105.0;
 
-		AvrTask decoded = decoder.correctingStrategy(genotype, problem.getTask(1), testIndex,
-				new DoubleRange(lowerBound, 110));
+		double decoded = decoder.correctingStrategy(genotype, testIndex, new DoubleRange(lowerBound, 110));
 
 		// check that phenotype is corrected
-		assertEquals(lowerBound, decoded.getOmega(), 0);
+		assertEquals(lowerBound, decoded, 0);
 
 		// check that genotype is corrected
 		DoubleGenotype decodedGenotype = (DoubleGenotype) genotype.get("OMEGAS");
@@ -94,11 +89,8 @@ public class AvrCorrBoundDecoderTest {
 		AvrDoubleCreator creator = new AvrDoubleCreator(problem, random, searchSpaceSize);
 		AvrCorrBoundDecoder decoder = new AvrCorrBoundDecoder(problem);
 
-		// set omega, so that no correction required
-		problem.getTask(1).setOmega(523);
+		double decoded = decoder.correctingStrategy(creator.create(), 0, new DoubleRange(0, 523));
 
-		AvrTask decoded = decoder.correctingStrategy(creator.create(), problem.getTask(1), 0, new DoubleRange(0, 523));
-
-		assertEquals(523.0, decoded.getOmega(), 0.0);
+		assertEquals(523.0, decoded, 0.0);
 	}
 }
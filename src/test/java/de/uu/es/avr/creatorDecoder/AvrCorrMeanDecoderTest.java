@@ -14,7 +14,6 @@ import org.opt4j.core.genotype.DoubleGenotype;
 
 import de.uu.es.avr.AvrUtils.DoubleRange;
 import de.uu.es.avr.AvrWCRTProblem;
-import de.uu.es.avr.model.AvrTask;
 
 public class AvrCorrMeanDecoderTest {
 
@@ -37,18 +36,16 @@ public class AvrCorrMeanDecoderTest {
 
 		int testIndex = 0;
 		CompositeGenotype<String, Genotype> genotype = creator.create();
-		problem.getTask(1).setOmega(523);
 
 		double lower = 0.0;
 		double upper = 1.0;
 
-		AvrTask decoded = decoder.correctingStrategy(genotype, problem.getTask(1), testIndex,
-				new DoubleRange(lower, upper));
+		double decoded = decoder.correctingStrategy(genotype, testIndex, new DoubleRange(lower, upper));
 
 		double corrected = lower + (lower + upper) * 0.5;
 
 		// check that phenotype is corrected
-		assertEquals(corrected, decoded.getOmega(), 0);
+		assertEquals(corrected, decoded, 0);
 
 		// check that genotype is corrected
 		DoubleGenotype decodedGenotype = (DoubleGenotype) genotype.get("OMEGAS");
@@ -66,11 +63,8 @@ public class AvrCorrMeanDecoderTest {
 		AvrDoubleCreator creator = new AvrDoubleCreator(problem, random, searchSpaceSize);
 		AvrCorrMeanDecoder decoder = new AvrCorrMeanDecoder(problem);
 
-		// set omega, so that no correction required
-		problem.getTask(1).setOmega(523);
+		double decoded = decoder.correctingStrategy(creator.create(), 0, new DoubleRange(0, 523));
 
-		AvrTask decoded = decoder.correctingStrategy(creator.create(), problem.getTask(1), 0, new DoubleRange(0, 523));
-
-		assertEquals(523.0, decoded.getOmega(), 0.0);
+		assertEquals(523.0, decoded, 0.0);
 	}
 }
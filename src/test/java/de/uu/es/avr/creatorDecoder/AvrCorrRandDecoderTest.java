@@ -14,7 +14,6 @@ import org.opt4j.core.genotype.DoubleGenotype;
 
 import de.uu.es.avr.AvrUtils.DoubleRange;
 import de.uu.es.avr.AvrWCRTProblem;
-import de.uu.es.avr.model.AvrTask;
 
 public class AvrCorrRandDecoderTest {
 
@@ -37,12 +36,11 @@ public class AvrCorrRandDecoderTest {
 
 		int testIndex = 0;
 		CompositeGenotype<String, Genotype> genotype = creator.create();
-		problem.getTask(1).setOmega(523);
 
-		AvrTask decoded = decoder.correctingStrategy(genotype, problem.getTask(1), testIndex, new DoubleRange(0, 1));
+		double decoded = decoder.correctingStrategy(genotype, testIndex, new DoubleRange(0, 1));
 
 		// check that phenotype is corrected
-		assertEquals(1.0, decoded.getOmega(), 0);
+		assertEquals(1.0, decoded, 0);
 
 		// check that genotype is corrected
 		DoubleGenotype decodedGenotype = (DoubleGenotype) genotype.get("OMEGAS");
@@ -63,12 +61,11 @@ public class AvrCorrRandDecoderTest {
 
 		int testIndex = 0;
 		CompositeGenotype<String, Genotype> genotype = creator.create();
-		problem.getTask(1).setOmega(104);
 
-		AvrTask decoded = decoder.correctingStrategy(genotype, problem.getTask(1), testIndex, new DoubleRange(0, 1));
+		double decoded = decoder.correctingStrategy(genotype, testIndex, new DoubleRange(0, 1));
 
 		// check that phenotype is corrected
-		assertEquals(0.0 + Double.MIN_VALUE, decoded.getOmega(), 0);
+		assertEquals(0.0 + Double.MIN_VALUE, decoded, 0);
 
 		// check that genotype is corrected
 		DoubleGenotype decodedGenotype = (DoubleGenotype) genotype.get("OMEGAS");
@@ -86,11 +83,8 @@ public class AvrCorrRandDecoderTest {
 		AvrDoubleCreator creator = new AvrDoubleCreator(problem, random, searchSpaceSize);
 		AvrCorrRandDecoder decoder = new AvrCorrRandDecoder(problem, random);
 
-		// set omega, so that no correction required
-		problem.getTask(1).setOmega(523);
+		double decoded = decoder.correctingStrategy(creator.create(), 0, new DoubleRange(0, 523));
 
-		AvrTask decoded = decoder.correctingStrategy(creator.create(), problem.getTask(1), 0, new DoubleRange(0, 523));
-
-		assertEquals(523.0, decoded.getOmega(), 0.0);
+		assertEquals(523.0, decoded, 0.0);
 	}
 }
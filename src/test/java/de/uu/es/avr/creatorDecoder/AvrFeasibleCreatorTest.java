@@ -0,0 +1,43 @@
+package de.uu.es.avr.creatorDecoder;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opt4j.core.Genotype;
+import org.opt4j.core.genotype.CompositeGenotype;
+
+import de.uu.es.avr.AvrEvaluationCache.Key;
+import de.uu.es.avr.AvrWCRTProblem;
+
+public class AvrFeasibleCreatorTest {
+
+	private static AvrWCRTProblem problem;
+
+	@BeforeClass
+	public static void setup() {
+		problem = new AvrWCRTProblem("specs/testTaskSet.xml", -100.0 * Math.PI, 100.0 * Math.PI);
+	}
+
+	@Test
+	public void createTest() {
+		int searchSpaceSize = 50;
+		AvrFeasibleCreator creator = new AvrFeasibleCreator(problem, new Random(0), searchSpaceSize);
+		AvrCorrMeanDecoder decoder = new AvrCorrMeanDecoder(problem);
+
+		for (int i = 0; i < 100; i++) {
+			CompositeGenotype<String, Genotype> genotype = creator.create();
+			double[] genes = Key.getGenes(genotype);
+
+			assertEquals(searchSpaceSize - 1, genes.length);
+
+			// needs no repair
+			assertTrue(decoder.decode(genotype).isFeasible());
+			assertArrayEquals(genes, Key.getGenes(genotype), 0.0);
+		}
+	}
+}
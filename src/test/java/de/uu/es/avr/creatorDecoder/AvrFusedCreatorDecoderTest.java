@@ -0,0 +1,56 @@
+package de.uu.es.avr.creatorDecoder;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opt4j.core.Genotype;
+import org.opt4j.core.Objectives;
+import org.opt4j.core.genotype.CompositeGenotype;
+
+import de.uu.es.avr.AvrEvaluator;
+import de.uu.es.avr.AvrWCRTProblem;
+import de.uu.es.avr.model.EventSequence;
+
+public class AvrFusedCreatorDecoderTest {
+
+	private static AvrWCRTProblem problem;
+
+	@BeforeClass
+	public static void setup() {
+		problem = new AvrWCRTProblem("specs/testTaskSet.xml", -100.0 * Math.PI, 100.0 * Math.PI);
+	}
+
+	@Test
+	public void decodeTest() {
+		int searchSpaceSize = 10;
+
+		AvrRelativeCreatorDecoder relative = new AvrRelativeCreatorDecoder(problem, new Random(0), searchSpaceSize);
+		AvrFusedCreatorDecoder fused = new AvrFusedCreatorDecoder(problem, new Random(0), searchSpaceSize);
+		AvrEvaluator evaluator = new AvrEvaluator(problem);
+
+		for (int i = 0; i < 100; i++) {
+			CompositeGenotype<String, Genotype> genotype = relative.create();
+
+			EventSequence expected = relative.decode(genotype);
+			EventSequence decoded = fused.decode(genotype);
+
+			assertTrue(decoded.hasObjectives());
+			assertTrue(decoded.isFeasible());
+
+			Objectives expectedObjectives = evaluator.evaluate(expected);
+			Objectives objectives = evaluator.evaluate(decoded);
+
+			assertArrayEquals(expectedObjectives.array(), objectives.array(), 0.0);
+
+			// rotation speeds are decoded on demand
+			assertEquals(expected.size(), decoded.size());
+			assertArrayEquals(expected.getOmegas(), decoded.getOmegas(), 0.0);
+			assertArrayEquals(expected.getModes(), decoded.getModes());
+		}
+	}
+}
@@ -40,7 +40,7 @@ public class AvrInfDecoderTest {
 		assertEquals("task1", decoded.get(0).getId());
 		assertEquals("task2", decoded.get(1).getId());
 
-		assertEquals(523, decoded.get(0).getOmega(), 0.0);
+		assertEquals(523, decoded.getOmega(0), 0.0);
 	}
 
 	@Test
@@ -56,6 +56,6 @@ public class AvrInfDecoderTest {
 		assertEquals("task1", decoded.get(0).getId());
 		assertEquals("task2", decoded.get(1).getId());
 
-		assertEquals(209, decoded.get(0).getOmega(), 0.0);
+		assertEquals(209, decoded.getOmega(0), 0.0);
 	}
 }
@@ -0,0 +1,102 @@
+package de.uu.es.avr.creatorDecoder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+import org.opt4j.core.Genotype;
+import org.opt4j.core.genotype.CompositeGenotype;
+import org.opt4j.operators.crossover.Pair;
+
+import de.uu.es.avr.AvrLineage;
+import de.uu.es.avr.AvrWCRTProblem;
+import de.uu.es.avr.model.DecodeCheckpoint;
+import de.uu.es.avr.model.EventSequence;
+import de.uu.es.avr.operator.AvrCrossover;
+import de.uu.es.avr.operator.AvrMutate;
+
+public class AvrLineageDecoderTest {
+
+	@Test
+	public void decodeOffspringTest() {
+		AvrWCRTProblem problem = new AvrWCRTProblem("specs/testTaskSet.xml", -100.0 * Math.PI, 100.0 * Math.PI);
+
+		int searchSpaceSize = 50;
+		final int[] resumed = new int[1];
+
+		AvrRelativeCreatorDecoder creatorDecoder = new AvrRelativeCreatorDecoder(problem, new Random(0),
+				searchSpaceSize) {
+			@Override
+			public EventSequence decode(CompositeGenotype<String, Genotype> genotype, EventSequence parent,
+					int index) {
+				if (parent != null) {
+					resumed[0]++;
+				}
+				return super.decode(genotype, parent, index);
+			}
+		};
+		AvrRelativeCreatorDecoder expectedDecoder = new AvrRelativeCreatorDecoder(problem, new Random(0),
+				searchSpaceSize);
+
+		AvrLineage lineage = new AvrLineage();
+		AvrLineageDecoder decoder = new AvrLineageDecoder(creatorDecoder, lineage, DecodeCheckpoint.DEFAULT_INTERVAL);
+		AvrCrossover crossover = new AvrCrossover(problem, new Random(1), lineage);
+		AvrMutate mutate = new AvrMutate(problem, new Random(2), lineage);
+
+		for (int i = 0; i < 50; i++) {
+			CompositeGenotype<String, Genotype> parent1 = creatorDecoder.create();
+			CompositeGenotype<String, Genotype> parent2 = creatorDecoder.create();
+			assertNotNull(decoder.decode(parent1).getCheckpoint());
+			decoder.decode(parent2);
+
+			Pair<CompositeGenotype<String, Genotype>> children = crossover.crossover(parent1, parent2);
+			mutate.mutate(children.getFirst(), 0.02);
+			mutate.mutate(children.getSecond(), 0.02);
+
+			// the offspring are decoded as from the first event
+			for (CompositeGenotype<String, Genotype> child : Arrays.asList(children.getFirst(), children.getSecond())) {
+				EventSequence decoded = decoder.decode(child);
+				EventSequence expected = expectedDecoder.decode(child);
+
+				assertEquals(expected, decoded);
+				assertEquals(expected.getMu(), decoded.getMu(), 1e-9);
+				assertEquals(expected.getSumC(), decoded.getSumC());
+			}
+		}
+		assertEquals(100, resumed[0]);
+	}
+
+	@Test
+	public void decodeCorrectingTest() {
+		AvrWCRTProblem problem = new AvrWCRTProblem("specs/testTaskSet.xml", -100.0 * Math.PI, 100.0 * Math.PI);
+
+		int searchSpaceSize = 50;
+		AvrDoubleCreator creator = new AvrDoubleCreator(problem, new Random(0), searchSpaceSize);
+		AvrCorrMeanDecoder expectedDecoder = new AvrCorrMeanDecoder(problem);
+
+		AvrLineage lineage = new AvrLineage();
+		AvrLineageDecoder decoder = new AvrLineageDecoder(new AvrCorrMeanDecoder(problem), lineage,
+				DecodeCheckpoint.DEFAULT_INTERVAL);
+		AvrMutate mutate = new AvrMutate(problem, new Random(2), lineage);
+
+		for (int i = 0; i < 50; i++) {
+			CompositeGenotype<String, Genotype> parent = creator.create();
+			decoder.decode(parent);
+
+			// a copy of the parent, mutated
+			CompositeGenotype<String, Genotype> child = new AvrCrossover(problem, new Random(1), lineage)
+					.crossover(parent, parent).getFirst();
+			mutate.mutate(child, 0.02);
+
+			EventSequence decoded = decoder.decode(child);
+			EventSequence expected = expectedDecoder.decode(child);
+
+			assertEquals(expected, decoded);
+			assertEquals(expected.getMu(), decoded.getMu(), 1e-9);
+			assertEquals(expected.getSumC(), decoded.getSumC());
+		}
+	}
+}
@@ -1,7 +1,10 @@
 package de.uu.es.avr.creatorDecoder;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -11,9 +14,15 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 import org.opt4j.core.Genotype;
 import org.opt4j.core.genotype.CompositeGenotype;
+import org.opt4j.core.genotype.DoubleGenotype;
+import org.opt4j.core.genotype.IntegerGenotype;
 
+import de.uu.es.avr.AvrEvaluator;
+import de.uu.es.avr.AvrUtils;
 import de.uu.es.avr.AvrWCRTProblem;
+import de.uu.es.avr.model.DecodeCheckpoint;
 import de.uu.es.avr.model.EventSequence;
+import de.uu.es.avr.sampling.SobolSampler;
 
 public class AvrRelativeCreatorDecoderTest {
 
@@ -50,7 +59,7 @@ public class AvrRelativeCreatorDecoderTest {
 		assertEquals("task1", decoded.get(0).getId());
 		assertEquals("task2", decoded.get(1).getId());
 
-		assertEquals(523, decoded.get(0).getOmega(), 0.0);
+		assertEquals(523, decoded.getOmega(0), 0.0);
 	}
 
 	@Test
@@ -66,6 +75,104 @@ public class AvrRelativeCreatorDecoderTest {
 		assertEquals("task1", decoded.get(0).getId());
 		assertEquals("task2", decoded.get(1).getId());
 
-		assertEquals(209, decoded.get(0).getOmega(), 0.0);
+		assertEquals(209, decoded.getOmega(0), 0.0);
+	}
+
+	@Test
+	public void decodeIncrementalTest() {
+		AvrWCRTProblem problem = new AvrWCRTProblem("specs/testTaskSet.xml", -100.0 * Math.PI, 100.0 * Math.PI);
+		AvrEvaluator evaluator = new AvrEvaluator(problem);
+
+		int searchSpaceSize = 50;
+		AvrRelativeCreatorDecoder decoder = new AvrRelativeCreatorDecoder(problem, new Random(0), searchSpaceSize);
+		decoder.setCheckpointInterval(DecodeCheckpoint.DEFAULT_INTERVAL);
+		Random random = new Random(1);
+
+		for (int i = 0; i < 100; i++) {
+			CompositeGenotype<String, Genotype> genotype = decoder.create();
+			EventSequence parent = decoder.decode(genotype);
+			assertNotNull(parent.getCheckpoint());
+
+			// mutates a single gene
+			int index = random.nextInt(searchSpaceSize - 1);
+			DoubleGenotype omegas = genotype.get(AvrUtils.RELATIVE);
+			omegas.set(index, random.nextDouble());
+
+			EventSequence decoded = decoder.decode(genotype, parent, index);
+			EventSequence expected = decoder.decode(genotype);
+
+			assertArrayEquals(expected.getOmegas(), decoded.getOmegas(), 0.0);
+			assertEquals(expected.getMu(), decoded.getMu(), 0.0);
+			assertEquals(expected.getSumC(), decoded.getSumC());
+
+			// accumulated objectives agree with the evaluator
+			EventSequence copy = new EventSequence(decoded, decoded.getOmegas(), true);
+			assertArrayEquals(evaluator.evaluate(copy).array(), evaluator.evaluate(decoded).array(), 1e-9);
+		}
+	}
+
+	@Test
+	public void decodeMismatchTest() {
+		AvrWCRTProblem problem = new AvrWCRTProblem("specs/testTaskSet.xml", -100.0 * Math.PI, 100.0 * Math.PI);
+
+		int searchSpaceSize = 50;
+		AvrRelativeCreatorDecoder decoder = new AvrRelativeCreatorDecoder(problem, new Random(0), searchSpaceSize);
+
+		// no checkpoints by default
+		assertNull(decoder.decode(decoder.create()).getCheckpoint());
+
+		decoder.setCheckpointInterval(DecodeCheckpoint.DEFAULT_INTERVAL);
+		Random random = new Random(1);
+
+		for (int i = 0; i < 100; i++) {
+			CompositeGenotype<String, Genotype> genotype = decoder.create();
+			EventSequence parent = decoder.decode(genotype);
+
+			// changes the first event, but claims a late change only
+			IntegerGenotype task0 = genotype.get(AvrUtils.TASK_0);
+			DoubleGenotype omega0 = genotype.get(AvrUtils.OMEGA_0);
+			if (random.nextBoolean()) {
+				task0.set(0, (task0.get(0) + 1) % problem.getTasksetSize());
+			} else {
+				omega0.set(0, 1.0 - omega0.get(0));
+			}
+
+			EventSequence decoded = decoder.decode(genotype, parent, searchSpaceSize - 2);
+			EventSequence expected = decoder.decode(genotype);
+
+			// decoded from the first event
+			assertEquals(expected.isFeasible(), decoded.isFeasible());
+			assertArrayEquals(expected.getOmegas(), decoded.getOmegas(), 0.0);
+			assertEquals(expected.getTaskIndex(0), decoded.getTaskIndex(0));
+		}
+	}
+
+	@Test
+	public void createSampledTest() {
+		AvrWCRTProblem problem = new AvrWCRTProblem("specs/testTaskSet.xml", -100.0 * Math.PI, 100.0 * Math.PI);
+
+		int searchSpaceSize = 10;
+		AvrRelativeCreatorDecoder decoder = new AvrRelativeCreatorDecoder(problem, new Random(0), searchSpaceSize);
+		decoder.setSampler(new SobolSampler(searchSpaceSize + 1, new Random(1)));
+
+		SobolSampler sampler = new SobolSampler(searchSpaceSize + 1, new Random(1));
+
+		for (int i = 0; i < 10; i++) {
+			CompositeGenotype<String, Genotype> genotype = decoder.create();
+			double[] point = sampler.next();
+
+			int size = problem.getTasksetSize();
+			assertEquals(Math.min((int) (point[0] * size), size - 1),
+					((IntegerGenotype) genotype.get(AvrUtils.TASK_0)).get(0).intValue());
+			assertEquals(point[1], ((DoubleGenotype) genotype.get(AvrUtils.OMEGA_0)).get(0), 0.0);
+
+			DoubleGenotype omegas = genotype.get(AvrUtils.RELATIVE);
+			assertEquals(searchSpaceSize - 1, omegas.size());
+
+			for (int j = 0; j < omegas.size(); j++) {
+				assertEquals(point[j + 2], omegas.get(j), 0.0);
+			}
+			assertEquals(true, decoder.decode(genotype).isFeasible());
+		}
 	}
 }
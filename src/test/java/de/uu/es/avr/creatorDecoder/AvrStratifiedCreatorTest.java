@@ -0,0 +1,68 @@
+package de.uu.es.avr.creatorDecoder;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opt4j.core.Genotype;
+import org.opt4j.core.genotype.CompositeGenotype;
+
+import de.uu.es.avr.AvrEvaluationCache.Key;
+import de.uu.es.avr.AvrWCRTProblem;
+import de.uu.es.avr.model.EventSequence;
+
+public class AvrStratifiedCreatorTest {
+
+	private static AvrWCRTProblem problem;
+
+	@BeforeClass
+	public static void setup() {
+		problem = new AvrWCRTProblem("specs/testTaskSet.xml", -100.0 * Math.PI, 100.0 * Math.PI);
+	}
+
+	@Test
+	public void createTest() {
+		int searchSpaceSize = 50;
+		AvrStratifiedCreator creator = new AvrStratifiedCreator(problem, new Random(0), searchSpaceSize);
+		AvrCorrMeanDecoder decoder = new AvrCorrMeanDecoder(problem);
+
+		Set<Integer> modes = new HashSet<Integer>();
+
+		for (int i = 0; i < 100; i++) {
+			CompositeGenotype<String, Genotype> genotype = creator.create();
+			double[] genes = Key.getGenes(genotype);
+
+			// needs no repair
+			EventSequence decoded = decoder.decode(genotype);
+			assertTrue(decoded.isFeasible());
+			assertArrayEquals(genes, Key.getGenes(genotype), 0.0);
+
+			modes.add(decoded.getMode(searchSpaceSize / 2));
+		}
+		assertTrue(modes.size() > 1);
+	}
+
+	@Test
+	public void nextStratumTest() {
+		AvrStratifiedCreator creator = new AvrStratifiedCreator(problem, new Random(0), 2);
+		Random random = new Random(1);
+
+		// each stratum once per round
+		for (int round = 0; round < 3; round++) {
+			boolean[] selected = new boolean[creator.strata];
+
+			for (int k = 0; k < creator.strata; k++) {
+				double u = creator.nextStratum(1, random);
+				int stratum = (int) (u * creator.strata);
+
+				assertTrue(!selected[stratum]);
+				selected[stratum] = true;
+			}
+		}
+	}
+}
@@ -0,0 +1,81 @@
+package de.uu.es.avr.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+import de.uu.es.avr.model.AvrTask;
+
+public class BinaryTaskSetReaderTest {
+
+	BinaryTaskSetReader reader = new BinaryTaskSetReader();
+
+	@Test
+	public void readTest() throws IOException {
+		ByteBuffer buffer = convert();
+		AvrTask[] tasks = reader.readTasks(buffer);
+
+		assertEquals(2, tasks.length);
+		assertEquals("task1", tasks[0].getId());
+		assertEquals("task2", tasks[1].getId());
+		assertEquals(Math.PI, tasks[1].getPhi(), 0.0);
+		assertEquals(4, tasks[0].getCfunction().getCs().length);
+		assertEquals(523, tasks[1].getCfunction().getMaxOmega(), 0.0);
+		assertEquals(0, buffer.remaining());
+	}
+
+	@Test
+	public void readInvalidTest() throws IOException {
+		// not a binary task set
+		assertInvalid(ByteBuffer.wrap(new byte[] { 1, 2, 3 }));
+
+		// unsupported version
+		ByteBuffer buffer = convert();
+		buffer.putInt(4, BinaryTaskSetReader.VERSION + 1);
+		assertInvalid(buffer);
+
+		// truncated
+		buffer = convert();
+		buffer.limit(buffer.limit() - 1);
+		assertInvalid(buffer);
+
+		// invalid mode offsets
+		buffer = convert();
+		buffer.putInt(16 + 2 * 8 + 4, 0);
+		assertInvalid(buffer);
+	}
+
+	private ByteBuffer convert() throws IOException {
+		File binary = File.createTempFile("testTaskSet", BinaryTaskSetReader.EXTENSION);
+
+		try {
+			new TaskSetConverter().convert(new File("specs/testTaskSet.xml"), binary);
+
+			RandomAccessFile in = new RandomAccessFile(binary, "r");
+			try {
+				byte[] bytes = new byte[(int) in.length()];
+				in.readFully(bytes);
+				return ByteBuffer.wrap(bytes);
+			} finally {
+				in.close();
+			}
+		} finally {
+			binary.delete();
+		}
+	}
+
+	private void assertInvalid(ByteBuffer buffer) {
+		try {
+			reader.readTasks(buffer);
+			fail("no error reported");
+		} catch (TaskSetFormatException e) {
+			assertEquals(-1, e.getLine());
+		}
+	}
+}
@@ -0,0 +1,54 @@
+package de.uu.es.avr.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import org.junit.Test;
+
+import de.uu.es.avr.model.AvrTask;
+
+public class TaskSetCacheTest {
+
+	@Test
+	public void readTasksTest() throws IOException {
+		File directory = File.createTempFile("taskSetCache", "");
+		directory.delete();
+
+		File xml = new File("specs/testTaskSet.xml");
+		TaskSetCache cache = new TaskSetCache(directory);
+
+		try {
+			File binary = cache.getFile(xml);
+			assertFalse(binary.exists());
+
+			// converted on first use
+			AvrTask[] converted = cache.readTasks(xml);
+			assertTrue(binary.isFile());
+			assertEquals(1, directory.listFiles().length);
+
+			// loaded afterwards
+			AvrTask[] loaded = cache.readTasks(xml);
+			assertEquals(converted.length, loaded.length);
+			assertEquals(converted[1].getPhi(), loaded[1].getPhi(), 0.0);
+
+			// converted again if invalid
+			FileOutputStream out = new FileOutputStream(binary);
+			out.write(new byte[] { 1, 2, 3 });
+			out.close();
+
+			assertEquals(converted.length, cache.readTasks(xml).length);
+			assertEquals(1, directory.listFiles().length);
+			assertEquals(converted.length, new BinaryTaskSetReader().readTasks(binary).length);
+		} finally {
+			for (File file : directory.listFiles()) {
+				file.delete();
+			}
+			directory.delete();
+		}
+	}
+}
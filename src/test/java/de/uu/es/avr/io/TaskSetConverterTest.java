@@ -0,0 +1,38 @@
+package de.uu.es.avr.io;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Test;
+
+import de.uu.es.avr.model.AvrTask;
+
+public class TaskSetConverterTest {
+
+	@Test
+	public void convertTest() throws IOException {
+		File binary = File.createTempFile("testTaskSet", BinaryTaskSetReader.EXTENSION);
+
+		try {
+			AvrTask[] converted = new TaskSetConverter().convert(new File("specs/testTaskSet.xml"), binary);
+			AvrTask[] expected = new TaskSetReader().readTasks("specs/testTaskSet.xml");
+			AvrTask[] loaded = new BinaryTaskSetReader().readTasks(binary);
+
+			assertEquals(expected.length, converted.length);
+			assertEquals(expected.length, loaded.length);
+
+			for (int i = 0; i < expected.length; i++) {
+				assertEquals(expected[i].getId(), loaded[i].getId());
+				assertEquals(expected[i].getPhi(), loaded[i].getPhi(), 0.0);
+				assertArrayEquals(expected[i].getCfunction().getCs(), loaded[i].getCfunction().getCs(), 0.0);
+				assertArrayEquals(expected[i].getCfunction().getBoundaries(),
+						loaded[i].getCfunction().getBoundaries(), 0.0);
+			}
+		} finally {
+			binary.delete();
+		}
+	}
+}
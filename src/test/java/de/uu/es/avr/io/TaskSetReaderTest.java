@@ -1,7 +1,11 @@
 package de.uu.es.avr.io;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
 
+import java.io.ByteArrayInputStream;
+import java.io.UnsupportedEncodingException;
 import java.util.List;
 
 import org.junit.Test;
@@ -49,12 +53,63 @@ public class TaskSetReaderTest {
 		assertEquals(task.getOmega0(0), 209, 0.0);
 		assertEquals(task.getId(), "task1");
 
-		task.setOmega(0.5);
-		assertEquals(task.getOmega(), 0.5, 0.0);
-
 		AvrTask copy = task.getEvent();
 		assertEquals(task.getId(), copy.getId());
 		assertEquals(task.getPhi(), copy.getPhi(), 0.0);
 		assertEquals(task.getCfunction(), copy.getCfunction());
 	}
+
+	@Test
+	public void testReadTasks() throws UnsupportedEncodingException {
+		AvrTask[] tasks = read("<taskset>\n" //
+				+ "<!-- comment -->\n" //
+				+ "<task id=\"t0\"><phi value=\"0\"/><c value=\"2|1\"/><boundaries value=\"1|2|3\"/></task>\n" //
+				+ "<other><task id=\"ignored\"/></other>\n" //
+				+ "<task id=\"t1\"><boundaries value=\"1 | 4\"/><c value=\"3\"/><phi value=\"0.5\"/></task>\n" //
+				+ "</taskset>");
+
+		assertEquals(2, tasks.length);
+		assertEquals("t0", tasks[0].getId());
+		assertEquals("t1", tasks[1].getId());
+		assertEquals(0.5 * Math.PI, tasks[1].getPhi(), 0.0);
+		assertArrayEquals(new double[] { 2.0, 1.0 }, tasks[0].getCfunction().getCs(), 0.0);
+		assertArrayEquals(new double[] { 1.0, 4.0 }, tasks[1].getCfunction().getBoundaries(), 0.0);
+	}
+
+	@Test
+	public void testFormatErrors() throws UnsupportedEncodingException {
+		String t0 = "<task id=\"t0\"><phi value=\"1\"/><c value=\"1\"/><boundaries value=\"1|2\"/></task>\n";
+
+		// tasks not ordered by offset
+		assertError(3, "<taskset>\n" + t0 + t0 + "</taskset>");
+		// multiple values for phi
+		assertError(1, "<taskset><task id=\"t\"><phi value=\"1\"/><phi value=\"2\"/></task></taskset>");
+		// missing boundaries
+		assertError(1, "<taskset><task id=\"t\"><phi value=\"1\"/><c value=\"1\"/></task></taskset>");
+		// invalid number
+		assertError(1,
+				"<taskset><task id=\"t\"><phi value=\"x\"/><c value=\"1\"/><boundaries value=\"1|2\"/></task></taskset>");
+		// WCETs do not match the execution modes
+		assertError(1,
+				"<taskset><task id=\"t\"><phi value=\"1\"/><c value=\"1|2\"/><boundaries value=\"1|2\"/></task></taskset>");
+		// missing id
+		assertError(1, "<taskset><task><phi value=\"1\"/></task></taskset>");
+		// no tasks
+		assertError(1, "<taskset></taskset>");
+		// malformed XML
+		assertError(3, "<taskset>\n" + t0 + "<task></taskset>");
+	}
+
+	private AvrTask[] read(String specification) throws UnsupportedEncodingException {
+		return reader.readTasks(new ByteArrayInputStream(specification.getBytes("UTF-8")));
+	}
+
+	private void assertError(int line, String specification) throws UnsupportedEncodingException {
+		try {
+			read(specification);
+			fail("no error reported: " + specification);
+		} catch (TaskSetFormatException e) {
+			assertEquals(line, e.getLine());
+		}
+	}
 }
@@ -0,0 +1,111 @@
+package de.uu.es.avr.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import de.uu.es.avr.model.AvrTask;
+import de.uu.es.avr.model.C;
+import de.uu.es.avr.model.EventSequence;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+public class AvrEventRecorderTest {
+
+	@Test
+	public void recordTest() throws IOException {
+		AvrTask task = new AvrTask("t0", 0, new C(new double[] { 1 }, new double[] { 0, 10 }));
+		EventSequence eventSequence = new EventSequence(Arrays.asList(task, task, task), new double[] { 1, 2, 3 },
+				false);
+
+		AvrEventRecorder recorder = new AvrEventRecorder();
+		List<RecordedEvent> events;
+
+		Recording recording = new Recording();
+
+		try {
+			recording.start();
+			recorder.optimizationStarted(null);
+
+			// initial population
+			DecodeEvent decode = new DecodeEvent();
+			decode.begin();
+			decode.commit(this, eventSequence);
+
+			recorder.iterationComplete(1);
+
+			CorrectionEvent correction = new CorrectionEvent();
+			correction.begin();
+			correction.commit(this, 2, 3);
+
+			EvaluationEvent evaluation = new EvaluationEvent();
+			evaluation.begin();
+			evaluation.commit(eventSequence);
+
+			recorder.iterationComplete(2);
+			recorder.optimizationStopped(null);
+			recording.stop();
+
+			events = read(recording);
+		} finally {
+			recording.close();
+		}
+
+		// decode (iteration 0), iteration 0, correction and evaluation
+		// (iteration 1), iteration 1
+		List<String> names = new ArrayList<String>();
+		for (RecordedEvent event : events) {
+			names.add(event.getEventType().getName());
+		}
+		assertEquals(Arrays.asList("de.uu.es.avr.Decode", "de.uu.es.avr.Iteration", "de.uu.es.avr.Correction",
+				"de.uu.es.avr.Evaluation", "de.uu.es.avr.Iteration"), names);
+
+		RecordedEvent decode = events.get(0);
+		assertEquals(getClass().getName(), decode.getClass("decoder").getName());
+		assertEquals(3, decode.getInt("length"));
+		assertFalse(decode.getBoolean("feasible"));
+		assertEquals(0, decode.getInt("iteration"));
+
+		RecordedEvent iteration = events.get(1);
+		assertEquals(0, iteration.getInt("iteration"));
+		assertEquals(1, iteration.getLong("decodes"));
+		assertEquals(1, iteration.getLong("infeasible"));
+		assertEquals(0, iteration.getLong("corrections"));
+
+		RecordedEvent correction = events.get(2);
+		assertEquals(2, correction.getInt("position"));
+		assertEquals(1, correction.getInt("iteration"));
+
+		iteration = events.get(4);
+		assertEquals(1, iteration.getInt("iteration"));
+		assertEquals(0, iteration.getLong("decodes"));
+		assertEquals(1, iteration.getLong("corrections"));
+		assertEquals(1, iteration.getLong("evaluations"));
+	}
+
+	private static List<RecordedEvent> read(Recording recording) throws IOException {
+		File file = File.createTempFile("recording", ".jfr");
+
+		try {
+			recording.dump(file.toPath());
+
+			List<RecordedEvent> events = new ArrayList<RecordedEvent>();
+			for (RecordedEvent event : RecordingFile.readAllEvents(file.toPath())) {
+				if (event.getEventType().getName().startsWith("de.uu.es.avr.")) {
+					events.add(event);
+				}
+			}
+			return events;
+		} finally {
+			file.delete();
+		}
+	}
+}
@@ -0,0 +1,76 @@
+package de.uu.es.avr.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import javax.management.ObjectName;
+
+import org.junit.Test;
+
+public class AvrMetricsReporterTest {
+
+	@Test
+	public void reportTest() throws Exception {
+		File file = File.createTempFile("metrics", ".csv");
+		File positions = AvrMetricsReporter.getPositionsFile(file);
+
+		AvrMetrics metrics = new AvrMetrics();
+		AvrMetricsReporter reporter = new AvrMetricsReporter(metrics, file, 0);
+
+		try {
+			reporter.optimizationStarted(null);
+
+			// exposed via JMX
+			ObjectName name = new ObjectName(AvrMetricsReporter.NAME);
+			assertTrue(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+
+			metrics.decoded(false, 10);
+			metrics.corrected(4, 1);
+			assertEquals(1L, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "Decodes"));
+
+			reporter.optimizationStopped(null);
+			assertTrue(!ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+
+			// header and final snapshot
+			List<String> lines = read(file);
+			assertEquals(2, lines.size());
+			assertEquals(AvrMetricsReporter.HEADER.split(",").length, lines.get(1).split(",").length);
+			assertEquals("1", lines.get(1).split(",")[1]);
+
+			lines = read(positions);
+			assertEquals("4,1", lines.get(1));
+		} finally {
+			file.delete();
+			positions.delete();
+		}
+	}
+
+	@Test
+	public void sharedTest() throws Exception {
+		ObjectName name = new ObjectName(AvrMetricsReporter.NAME);
+
+		AvrMetricsReporter first = new AvrMetricsReporter(AvrMetrics.get(), null, 0);
+		AvrMetricsReporter second = new AvrMetricsReporter(AvrMetrics.get(), null, 0);
+
+		first.optimizationStarted(null);
+		second.optimizationStarted(null);
+
+		// registered until the last reporter stops
+		first.optimizationStopped(null);
+		assertTrue(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+
+		second.optimizationStopped(null);
+		assertTrue(!ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+	}
+
+	private static List<String> read(File file) throws IOException {
+		return Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,65 @@
+package de.uu.es.avr.metrics;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Map;
+
+import org.junit.Test;
+
+public class AvrMetricsTest {
+
+	@Test
+	public void recordTest() {
+		AvrMetrics metrics = new AvrMetrics();
+
+		metrics.decoded(true, 10);
+		metrics.decoded(false, 30);
+		metrics.decoded(true, 20);
+		metrics.decoded(true, 20);
+
+		metrics.corrected(3, 5);
+		metrics.corrected(3, 5);
+		metrics.corrected(7, 5);
+		metrics.repaired(2);
+		metrics.repaired(1);
+
+		metrics.validated(true, 1);
+		metrics.validated(false, 3);
+
+		metrics.evaluated(8);
+
+		metrics.cached(true);
+		metrics.cached(true);
+		metrics.cached(true);
+		metrics.cached(false);
+
+		assertEquals(4, metrics.getDecodes());
+		assertEquals(0.25, metrics.getInfeasibleRate(), 0.0);
+		assertEquals(20.0, metrics.getDecodeMean(), 0.0);
+
+		assertEquals(3, metrics.getCorrections());
+		assertEquals(1.5, metrics.getCorrectionsPerIndividual(), 0.0);
+		assertEquals(5.0, metrics.getCorrectionMean(), 0.0);
+
+		Map<Integer, Long> repairs = metrics.getRepairFrequencies();
+		assertEquals(2, repairs.size());
+		assertEquals(2L, repairs.get(3).longValue());
+		assertEquals(1L, repairs.get(7).longValue());
+
+		assertEquals(2, metrics.getValidations());
+		assertEquals(0.5, metrics.getInvalidRate(), 0.0);
+		assertEquals(2.0, metrics.getValidationMean(), 0.0);
+
+		assertEquals(1, metrics.getEvaluations());
+		assertEquals(8.0, metrics.getEvaluationMean(), 0.0);
+
+		assertEquals(3, metrics.getCacheHits());
+		assertEquals(1, metrics.getCacheMisses());
+		assertEquals(0.75, metrics.getCacheHitRate(), 0.0);
+
+		metrics.reset();
+		assertEquals(0, metrics.getDecodes());
+		assertEquals(0, metrics.getRepairFrequencies().size());
+		assertEquals(0, metrics.getCacheHits());
+	}
+}
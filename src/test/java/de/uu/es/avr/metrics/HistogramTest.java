@@ -0,0 +1,43 @@
+package de.uu.es.avr.metrics;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class HistogramTest {
+
+	@Test
+	public void recordTest() {
+		Histogram histogram = new Histogram();
+
+		for (int i = 1; i <= 100; i++) {
+			histogram.record(i);
+		}
+
+		assertEquals(100, histogram.getCount());
+		assertEquals(5050, histogram.getSum());
+		assertEquals(50.5, histogram.getMean(), 0.0);
+
+		// upper bounds of the buckets [32,64) and [64,128)
+		assertEquals(63, histogram.getPercentile(0.5));
+		assertEquals(127, histogram.getPercentile(0.99));
+		assertEquals(1, histogram.getPercentile(0.0));
+	}
+
+	@Test
+	public void extremaTest() {
+		Histogram histogram = new Histogram();
+
+		assertEquals(0, histogram.getPercentile(0.5));
+		assertEquals(0.0, histogram.getMean(), 0.0);
+
+		histogram.record(-1);
+		histogram.record(Long.MAX_VALUE);
+
+		assertEquals(0, histogram.getPercentile(0.5));
+		assertEquals(Long.MAX_VALUE, histogram.getPercentile(1.0));
+
+		histogram.reset();
+		assertEquals(0, histogram.getCount());
+	}
+}
@@ -1,6 +1,7 @@
 package de.uu.es.avr.model;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -26,12 +27,6 @@ public class AvrTaskTest {
 		assertEquals(task.getOmega0(0), 1.0, 0.0);
 	}
 
-	@Test
-	public void decodeTest() {
-		task.setOmega(0.5);
-		assertEquals(task.getOmega(), 0.5, 0.0);
-	}
-
 	@Test
 	public void taskCopyTest() {
 		AvrTask copy = task.getEvent();
@@ -39,6 +34,7 @@ public class AvrTaskTest {
 		assertEquals(copy.getId(), task.getId());
 		assertEquals(copy.getPhi(), task.getPhi(), 0.0);
 		assertEquals(copy.getCfunction(), task.getCfunction());
+		assertSame(task, copy);
 	}
 
 	@Test(expected = AssertionError.class)
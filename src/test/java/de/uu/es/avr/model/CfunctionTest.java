@@ -1,6 +1,8 @@
 package de.uu.es.avr.model;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -21,6 +23,41 @@ public class CfunctionTest {
 		assertEquals(cfunction.getC(0.6), 13.0, 0.0);
 	}
 
+	@Test
+	public void binarySearchTest() {
+		C c = new C(new double[] { 5.0, 4.0, 3.0, 2.0, 1.0 }, new double[] { 0.0, 1.0, 2.0, 3.0, 4.0, 5.0 });
+
+		assertEquals(0, c.getMode(0.5));
+		assertEquals(0, c.getMode(1.0));
+		assertEquals(1, c.getMode(1.5));
+		assertEquals(3, c.getMode(4.0));
+		assertEquals(4, c.getMode(5.0));
+
+		assertEquals(C.NO_MODE, c.findMode(0.0));
+		assertEquals(C.NO_MODE, c.findMode(5.5));
+		assertEquals(C.NO_MODE, c.findMode(Double.NaN));
+	}
+
+	@Test
+	public void lookupTableTest() {
+		double[] bounds = { 104.0, 150.0, 151.0, 209.0, 314.0, 418.0, 523.0 };
+		C c = new C(new double[] { 15.0, 14.0, 13.0, 12.0, 6.0, 5.0 }, bounds);
+
+		for (int resolution : new int[] { 1, 7, 64, 1000 }) {
+			C lookup = c.withResolution(resolution);
+			assertTrue(lookup.hasLookupTable());
+
+			for (double omega = 104.0; omega <= 524.0; omega += 0.25) {
+				assertEquals(c.findMode(omega), lookup.findMode(omega));
+			}
+			for (double omega : bounds) {
+				assertEquals(c.findMode(omega), lookup.findMode(omega));
+				assertEquals(c.findMode(Math.nextUp(omega)), lookup.findMode(Math.nextUp(omega)));
+			}
+		}
+		assertFalse(c.hasLookupTable());
+	}
+
 	@Test(expected = IllegalArgumentException.class)
 	public void determineIndexInfTest() {
 		cfunction.getC(-1.0);
@@ -0,0 +1,43 @@
+package de.uu.es.avr.model;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class DecodeCheckpointTest {
+
+	@Test
+	public void recordTest() {
+		DecodeCheckpoint checkpoint = new DecodeCheckpoint(10, 4);
+
+		for (int i = 0; i < 10; i++) {
+			checkpoint.record(i, 100 + i, 0.5 * i, 2 * i);
+		}
+
+		// checkpoints at events 0, 4, 8
+		assertEquals(0, checkpoint.getPosition(3));
+		assertEquals(4, checkpoint.getPosition(4));
+		assertEquals(8, checkpoint.getPosition(9));
+		assertEquals(8, checkpoint.getPosition(20));
+
+		assertEquals(104, checkpoint.getOmega(4), 0.0);
+		assertEquals(4.0, checkpoint.getMu(8), 0.0);
+		assertEquals(16, checkpoint.getSumC(8));
+	}
+
+	@Test
+	public void copyTest() {
+		DecodeCheckpoint checkpoint = new DecodeCheckpoint(10, 4);
+
+		for (int i = 0; i < 10; i++) {
+			checkpoint.record(i, 100 + i, 0.5 * i, 2 * i);
+		}
+
+		DecodeCheckpoint copy = new DecodeCheckpoint(10, 4);
+		copy.copy(checkpoint, 4);
+
+		assertEquals(100, copy.getOmega(0), 0.0);
+		assertEquals(104, copy.getOmega(4), 0.0);
+		assertEquals(0, copy.getSumC(8));
+	}
+}
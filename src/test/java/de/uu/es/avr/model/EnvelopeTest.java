@@ -0,0 +1,60 @@
+package de.uu.es.avr.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import de.uu.es.avr.AvrUtils.DoubleRange;
+import de.uu.es.avr.AvrWCRTProblem;
+
+public class EnvelopeTest {
+
+	private static TaskTable table;
+
+	@BeforeClass
+	public static void setup() {
+		table = new AvrWCRTProblem("specs/testTaskSet.xml", -100.0 * Math.PI, 100.0 * Math.PI).getTaskTable();
+	}
+
+	@Test
+	public void adaptTest() {
+		Envelope envelope = new Envelope(0, new double[] { 209, 300 }, new double[] { 523, 400 });
+
+		DoubleRange range = new DoubleRange(250, 450);
+		assertTrue(envelope.adapt(1, range));
+		assertEquals(300, range.getLower(), 0.0);
+		assertEquals(400, range.getUpper(), 0.0);
+
+		assertFalse(envelope.adapt(1, new DoubleRange(401, 450)));
+
+		// the bounds are inclusive
+		range = new DoubleRange(250, 300);
+		assertTrue(envelope.adapt(1, range));
+		assertEquals(300, range.getLower(), 0.0);
+		assertEquals(300, range.getUpper(), 0.0);
+	}
+
+	@Test
+	public void infeasibleTest() {
+		Envelope envelope = new Envelope(0, new double[] { 209, Double.NaN }, new double[] { 523, Double.NaN });
+
+		assertFalse(envelope.isFeasible());
+		assertFalse(envelope.adapt(1, new DoubleRange(250, 450)));
+	}
+
+	@Test
+	public void findOmega0Test() {
+		// initial rotation speeds of task1: 209, 314, 418, 523
+		Envelope envelope = new Envelope(0, new double[] { 300, 300 }, new double[] { 420, 400 });
+
+		assertEquals(1, envelope.findOmega0(table, 0));
+		assertEquals(1, envelope.findOmega0(table, 1));
+		assertEquals(2, envelope.findOmega0(table, 3));
+
+		Envelope empty = new Envelope(0, new double[] { 210, 300 }, new double[] { 300, 400 });
+		assertEquals(Envelope.NO_OMEGA0, empty.findOmega0(table, 2));
+	}
+}
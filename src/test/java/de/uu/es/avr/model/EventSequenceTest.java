@@ -1,6 +1,8 @@
 package de.uu.es.avr.model;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -18,7 +20,7 @@ public class EventSequenceTest {
 	public static void setup() {
 		AvrTask task = mock(AvrTask.class);
 		when(task.getId()).thenReturn("id1");
-		when(task.getOmega()).thenReturn(1.0);
+		when(task.getCfunction()).thenReturn(new C(new double[] { 1.0 }, new double[] { 0.0, 2.0 }));
 
 		List<AvrTask> tasks = new LinkedList<AvrTask>();
 		tasks.add(task);
@@ -28,21 +30,91 @@ public class EventSequenceTest {
 
 	@Test
 	public void eventSequenceFeasibleTest() {
-		EventSequence eventSequence = new EventSequence(taskSet, true);
+		EventSequence eventSequence = new EventSequence(taskSet, new double[] { 1.0 }, true);
 		assertEquals(eventSequence.isFeasible(), true);
 
 		assertEquals(eventSequence.toString(), "id1: 1.0 ");
 
-		eventSequence.remove();
+		eventSequence = new EventSequence(new LinkedList<AvrTask>(), new double[0], true);
 		assertEquals(eventSequence.toString(), "empty");
 	}
 
 	@Test
 	public void eventSequenceInfeasibleTest() {
-		EventSequence eventSequence = new EventSequence(taskSet);
+		EventSequence eventSequence = new EventSequence(taskSet, new double[] { 1.0 });
 		eventSequence.setFeasible(false);
 
 		assertEquals(eventSequence.isFeasible(), false);
 		assertEquals(eventSequence.toString(), "infeasible");
 	}
-}
\ No newline at end of file
+
+	@Test
+	public void eventSequenceIndexedTest() {
+		C c = new C(new double[] { 1.0 }, new double[] { 0.0, 2.0 });
+		AvrTask task0 = new AvrTask("id0", 0.0, c);
+		AvrTask task1 = new AvrTask("id1", 0.5, c);
+
+		TaskTable table = new TaskTable(new AvrTask[] { task0, task1 });
+
+		// sequence of three events starting with task1 (wraps around)
+		EventSequence eventSequence = new EventSequence(table, 1, 3);
+		eventSequence.setOmega(1, 2.0);
+
+		assertEquals(3, eventSequence.size());
+		assertEquals(1, eventSequence.getTaskIndex(0));
+		assertEquals(0, eventSequence.getTaskIndex(1));
+		assertEquals(1, eventSequence.getTaskIndex(2));
+
+		assertSame(task1, eventSequence.get(2));
+		assertEquals(0.5 * Math.PI, eventSequence.getPhi(0), 0.0);
+		assertEquals(2.0, eventSequence.getOmega(1), 0.0);
+	}
+
+	@Test
+	public void eventSequenceModesTest() {
+		C c = new C(new double[] { 3.0, 2.0 }, new double[] { 0.0, 1.0, 2.0 });
+		TaskTable table = new TaskTable(new AvrTask[] { new AvrTask("id0", 0.0, c) });
+
+		EventSequence eventSequence = new EventSequence(table, 0, 3);
+		eventSequence.setOmega(0, 0.5);
+		eventSequence.setOmega(1, 1.5);
+		eventSequence.setOmega(2, 3.0);
+
+		assertEquals(0, eventSequence.getMode(0));
+		assertEquals(1, eventSequence.getMode(1));
+		assertEquals(C.NO_MODE, eventSequence.getMode(2));
+	}
+
+	@Test
+	public void eventSequenceEqualsTest() {
+		C c = new C(new double[] { 3.0, 2.0 }, new double[] { 0.0, 1.0, 2.0 });
+		TaskTable table = new TaskTable(new AvrTask[] { new AvrTask("id0", 0.0, c) });
+
+		EventSequence first = new EventSequence(table, 0, 2);
+		EventSequence second = new EventSequence(table, 0, 2);
+		first.setOmega(0, 0.5);
+		second.setOmega(0, 0.5);
+		first.setFeasible(true);
+		second.setFeasible(true);
+
+		assertEquals(first, second);
+		assertEquals(first.hashCode(), second.hashCode());
+
+		// the same tasks, but different rotation speeds
+		second.setOmega(1, 1.5);
+		assertFalse(first.equals(second));
+		assertFalse(first.hashCode() == second.hashCode());
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void eventSequenceOutOfBoundsTest() {
+		EventSequence eventSequence = new EventSequence(taskSet, new double[] { 1.0 }, true);
+		eventSequence.get(1);
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void eventSequenceUnmodifiableTest() {
+		EventSequence eventSequence = new EventSequence(taskSet, new double[] { 1.0 }, true);
+		eventSequence.remove(0);
+	}
+}
@@ -0,0 +1,96 @@
+package de.uu.es.avr.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.List;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import de.uu.es.avr.AvrUtils;
+import de.uu.es.avr.io.TaskSetReader;
+
+public class TaskTableTest {
+
+	private static List<AvrTask> taskset;
+	private static TaskTable table;
+
+	@BeforeClass
+	public static void setup() {
+		taskset = new TaskSetReader().read("specs/testTaskSet.xml");
+		table = new TaskTable(taskset);
+	}
+
+	@Test
+	public void tasksTest() {
+		assertEquals(2, table.size());
+		assertSame(taskset.get(1), table.getTask(1));
+
+		assertEquals(1, table.next(0));
+		assertEquals(0, table.next(1));
+	}
+
+	@Test
+	public void deltaPhiTest() {
+		assertEquals(Math.PI, table.getPhi(1), 0.0);
+
+		AvrTask task0 = taskset.get(0);
+		AvrTask task1 = taskset.get(1);
+
+		assertEquals(AvrUtils.deltaPhi(task0, task1), table.getDeltaPhi(0), 0.0);
+		assertEquals(AvrUtils.deltaPhi(task1, task0), table.getDeltaPhi(1), 0.0);
+	}
+
+	@Test
+	public void omegaRangeTest() {
+		assertEquals(104.0, table.getMinOmega(0), 0.0);
+		assertEquals(209.0, table.getMinOmega(1), 0.0);
+		assertEquals(523.0, table.getMaxOmega(1), 0.0);
+
+		assertEquals(104.0, table.getMinOmega(), 0.0);
+		assertEquals(523.0, table.getMaxOmega(), 0.0);
+	}
+
+	@Test
+	public void modesTest() {
+		assertEquals(4, table.getModeCount(0));
+		assertEquals(3, table.getModeCount(1));
+
+		assertEquals(6.0, table.getWcet(0, 3), 0.0);
+		assertEquals(10.0, table.getWcet(1, 0), 0.0);
+		assertEquals(314.0, table.getBoundary(1, 1), 0.0);
+
+		for (int k = 0; k < table.getModeCount(0); k++) {
+			assertEquals(taskset.get(0).getOmega0(k), table.getOmega0(0, k), 0.0);
+		}
+	}
+
+	@Test
+	public void getCTest() {
+		C c = taskset.get(0).getCfunction();
+		double[] omegas = { 105, 209, 210, 314, 315, 419, 523 };
+
+		for (double omega : omegas) {
+			assertEquals(c.getC(omega), table.getC(0, omega), 0.0);
+		}
+		assertEquals(0, table.getMode(1, 314));
+		assertEquals(1, table.getMode(1, 315));
+	}
+
+	@Test
+	public void lookupTableTest() {
+		TaskTable lookup = new TaskTable(taskset, 16);
+
+		for (int task = 0; task < table.size(); task++) {
+			for (double omega = 100; omega <= 530; omega += 0.5) {
+				assertEquals(table.findMode(task, omega), lookup.findMode(task, omega));
+			}
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void getCOutOfRangeTest() {
+		table.getC(1, 209);
+	}
+}
@@ -0,0 +1,93 @@
+package de.uu.es.avr.operator;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opt4j.core.Genotype;
+import org.opt4j.core.genotype.CompositeGenotype;
+import org.opt4j.core.genotype.IntegerGenotype;
+import org.opt4j.operators.crossover.Pair;
+
+import de.uu.es.avr.AvrEvaluationCache.Key;
+import de.uu.es.avr.AvrLineage;
+import de.uu.es.avr.AvrUtils;
+import de.uu.es.avr.AvrWCRTProblem;
+import de.uu.es.avr.creatorDecoder.AvrCorrMeanDecoder;
+import de.uu.es.avr.creatorDecoder.AvrDoubleCreator;
+import de.uu.es.avr.creatorDecoder.AvrRelativeCreatorDecoder;
+
+public class AvrCrossoverTest {
+
+	private static AvrWCRTProblem problem;
+	private static AvrCrossover crossover;
+
+	@BeforeClass
+	public static void setup() {
+		problem = new AvrWCRTProblem("specs/testTaskSet.xml", -100.0 * Math.PI, 100.0 * Math.PI);
+		crossover = new AvrCrossover(problem, new Random(1), new AvrLineage());
+	}
+
+	@Test
+	public void crossoverAbsoluteTest() {
+		AvrDoubleCreator creator = new AvrDoubleCreator(problem, new Random(0), 20);
+		AvrCorrMeanDecoder decoder = new AvrCorrMeanDecoder(problem);
+
+		int recombined = 0;
+
+		for (int i = 0; i < 100; i++) {
+			CompositeGenotype<String, Genotype> parent1 = creator.create();
+			CompositeGenotype<String, Genotype> parent2 = creator.create();
+
+			// same first task, repaired
+			IntegerGenotype task0 = parent2.get(AvrUtils.TASK_0);
+			task0.set(0, ((IntegerGenotype) parent1.get(AvrUtils.TASK_0)).get(0));
+
+			decoder.decode(parent1);
+			decoder.decode(parent2);
+
+			Pair<CompositeGenotype<String, Genotype>> children = crossover.crossover(parent1, parent2);
+
+			double[] genes1 = Key.getGenes(parent1);
+			double[] genes2 = Key.getGenes(parent2);
+			double[] child1 = Key.getGenes(children.getFirst());
+			double[] child2 = Key.getGenes(children.getSecond());
+
+			assertEquals(genes1.length, child1.length);
+			assertEquals(genes1[0], child1[0], 0.0);
+
+			// the parents' genes are swapped from the point on (or copied)
+			if (!Arrays.equals(genes1, child1)) {
+				assertEquals(genes2[genes2.length - 1], child1[child1.length - 1], 0.0);
+				assertEquals(genes1[genes1.length - 1], child2[child2.length - 1], 0.0);
+				recombined++;
+			}
+
+			// the children need no repair
+			assertTrue(decoder.decode(children.getFirst()).isFeasible());
+			assertTrue(decoder.decode(children.getSecond()).isFeasible());
+			assertArrayEquals(child1, Key.getGenes(children.getFirst()), 0.0);
+			assertArrayEquals(child2, Key.getGenes(children.getSecond()), 0.0);
+		}
+		assertTrue(recombined > 0);
+	}
+
+	@Test
+	public void crossoverRelativeTest() {
+		AvrRelativeCreatorDecoder creatorDecoder = new AvrRelativeCreatorDecoder(problem, new Random(0), 20);
+
+		CompositeGenotype<String, Genotype> parent1 = creatorDecoder.create();
+		CompositeGenotype<String, Genotype> parent2 = creatorDecoder.create();
+
+		Pair<CompositeGenotype<String, Genotype>> children = crossover.crossover(parent1, parent2);
+
+		assertEquals(parent1.get(AvrUtils.TASK_0), children.getFirst().get(AvrUtils.TASK_0));
+		assertEquals(parent2.get(AvrUtils.OMEGA_0), children.getSecond().get(AvrUtils.OMEGA_0));
+		assertTrue(creatorDecoder.decode(children.getFirst()).isFeasible());
+	}
+}
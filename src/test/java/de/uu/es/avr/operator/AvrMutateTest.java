@@ -0,0 +1,107 @@
+package de.uu.es.avr.operator;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opt4j.core.Genotype;
+import org.opt4j.core.genotype.CompositeGenotype;
+import org.opt4j.core.genotype.DoubleGenotype;
+import org.opt4j.core.genotype.IntegerGenotype;
+
+import de.uu.es.avr.AvrEvaluationCache.Key;
+import de.uu.es.avr.AvrLineage;
+import de.uu.es.avr.AvrUtils;
+import de.uu.es.avr.AvrWCRTProblem;
+import de.uu.es.avr.creatorDecoder.AvrCorrMeanDecoder;
+import de.uu.es.avr.creatorDecoder.AvrDoubleCreator;
+import de.uu.es.avr.creatorDecoder.AvrRelativeCreatorDecoder;
+
+public class AvrMutateTest {
+
+	private static AvrWCRTProblem problem;
+	private static AvrMutate mutate;
+
+	@BeforeClass
+	public static void setup() {
+		problem = new AvrWCRTProblem("specs/testTaskSet.xml", -100.0 * Math.PI, 100.0 * Math.PI);
+		mutate = new AvrMutate(problem, new Random(1), new AvrLineage());
+	}
+
+	@Test
+	public void mutateAbsoluteTest() {
+		AvrDoubleCreator creator = new AvrDoubleCreator(problem, new Random(0), 20);
+		AvrCorrMeanDecoder decoder = new AvrCorrMeanDecoder(problem);
+
+		int changed = 0;
+
+		for (int i = 0; i < 100; i++) {
+			CompositeGenotype<String, Genotype> genotype = creator.create();
+
+			// repairs the genotype
+			assertTrue(decoder.decode(genotype).isFeasible());
+			double[] genes = Key.getGenes(genotype);
+
+			mutate.mutate(genotype, 0.5);
+			double[] mutated = Key.getGenes(genotype);
+
+			if (!Arrays.equals(genes, mutated)) {
+				changed++;
+			}
+
+			// the mutated genotype needs no repair
+			assertTrue(decoder.decode(genotype).isFeasible());
+			assertArrayEquals(mutated, Key.getGenes(genotype), 0.0);
+		}
+		assertTrue(changed > 0);
+	}
+
+	@Test
+	public void mutateFirstTest() {
+		AvrDoubleCreator creator = new AvrDoubleCreator(problem, new Random(0), 20);
+		AvrCorrMeanDecoder decoder = new AvrCorrMeanDecoder(problem);
+
+		Set<Integer> tasks = new HashSet<Integer>();
+		Set<Double> omegas = new HashSet<Double>();
+
+		for (int i = 0; i < 100; i++) {
+			CompositeGenotype<String, Genotype> genotype = creator.create();
+			assertTrue(decoder.decode(genotype).isFeasible());
+
+			mutate.mutate(genotype, 1.0);
+
+			IntegerGenotype task0 = genotype.get(AvrUtils.TASK_0);
+			DoubleGenotype omega0 = genotype.get(AvrUtils.OMEGA_0);
+			tasks.add(task0.get(0));
+			omegas.add(omega0.get(0));
+
+			// the rotation speeds are sampled again for the new first event
+			double[] mutated = Key.getGenes(genotype);
+			assertTrue(decoder.decode(genotype).isFeasible());
+			assertArrayEquals(mutated, Key.getGenes(genotype), 0.0);
+		}
+		assertEquals(problem.getTasksetSize(), tasks.size());
+		assertTrue(omegas.size() > 1);
+	}
+
+	@Test
+	public void mutateRelativeTest() {
+		AvrRelativeCreatorDecoder creatorDecoder = new AvrRelativeCreatorDecoder(problem, new Random(0), 20);
+		CompositeGenotype<String, Genotype> genotype = creatorDecoder.create();
+
+		mutate.mutate(genotype, 1.0);
+
+		DoubleGenotype relative = genotype.get(AvrUtils.RELATIVE);
+		for (double gene : relative) {
+			assertTrue(gene >= 0 && gene <= 1);
+		}
+		assertTrue(creatorDecoder.decode(genotype).isFeasible());
+	}
+}
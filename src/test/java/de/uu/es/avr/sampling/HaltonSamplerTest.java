@@ -0,0 +1,66 @@
+package de.uu.es.avr.sampling;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class HaltonSamplerTest {
+
+	@Test
+	public void nextTest() {
+		int dimension = 20;
+		HaltonSampler sampler = new HaltonSampler(dimension, new Random(0));
+
+		assertEquals(dimension, sampler.getDimension());
+
+		Set<Double> values = new HashSet<Double>();
+
+		for (int i = 0; i < 1000; i++) {
+			double[] point = sampler.next();
+			assertEquals(dimension, point.length);
+
+			for (int d = 0; d < dimension; d++) {
+				assertTrue(point[d] >= 0 && point[d] < 1);
+			}
+			values.add(point[0]);
+		}
+		assertEquals(1000, values.size());
+	}
+
+	@Test
+	public void stratifiedTest() {
+		HaltonSampler sampler = new HaltonSampler(2, new Random(0));
+
+		// the first 2^k points hit each interval of length 2^-k once in the
+		// first dimension, the first 3^k points each interval of length 3^-k
+		// in the second dimension (the point at index 0 is skipped; the
+		// radical inverse is subject to rounding errors)
+		boolean[] selected0 = new boolean[16];
+		boolean[] selected1 = new boolean[9];
+
+		for (int i = 1; i < 16; i++) {
+			double[] point = sampler.next();
+
+			selected0[(int) (point[0] * 16 + 1e-9)] = true;
+			if (i < 9) {
+				selected1[(int) (point[1] * 9 + 1e-9)] = true;
+			}
+		}
+
+		int count0 = 0;
+		for (boolean selected : selected0) {
+			count0 += selected ? 1 : 0;
+		}
+		int count1 = 0;
+		for (boolean selected : selected1) {
+			count1 += selected ? 1 : 0;
+		}
+		assertEquals(15, count0);
+		assertEquals(8, count1);
+	}
+}
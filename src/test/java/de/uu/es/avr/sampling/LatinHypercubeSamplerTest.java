@@ -0,0 +1,38 @@
+package de.uu.es.avr.sampling;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class LatinHypercubeSamplerTest {
+
+	@Test
+	public void nextTest() {
+		int dimension = 4;
+		int batch = 10;
+		LatinHypercubeSampler sampler = new LatinHypercubeSampler(dimension, batch, new Random(0));
+
+		assertEquals(dimension, sampler.getDimension());
+
+		// each stratum of each dimension once per batch
+		for (int round = 0; round < 3; round++) {
+			boolean[][] selected = new boolean[dimension][batch];
+
+			for (int k = 0; k < batch; k++) {
+				double[] point = sampler.next();
+				assertEquals(dimension, point.length);
+
+				for (int d = 0; d < dimension; d++) {
+					assertTrue(point[d] >= 0 && point[d] < 1);
+
+					int stratum = (int) (point[d] * batch);
+					assertTrue(!selected[d][stratum]);
+					selected[d][stratum] = true;
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,97 @@
+package de.uu.es.avr.sampling;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class SobolSamplerTest {
+
+	@Test
+	public void isPrimitiveTest() {
+		// x + 1, x^2 + x + 1, x^3 + x + 1, x^5 + x^2 + 1
+		assertTrue(SobolSampler.isPrimitive(3, 1));
+		assertTrue(SobolSampler.isPrimitive(7, 2));
+		assertTrue(SobolSampler.isPrimitive(11, 3));
+		assertTrue(SobolSampler.isPrimitive(37, 5));
+
+		// x^4 + x^3 + x^2 + x + 1 is irreducible, but not primitive
+		assertFalse(SobolSampler.isPrimitive(31, 4));
+	}
+
+	@Test
+	public void joeKuoTest() {
+		// the table holds all primitive polynomials up to degree 7, ordered
+		// by degree and coefficients
+		List<Integer> polynomials = new ArrayList<Integer>();
+		for (int degree = 1; degree <= 7; degree++) {
+			for (int middle = 0; middle < (1 << (degree - 1)); middle++) {
+				int polynomial = (1 << degree) | (middle << 1) | 1;
+
+				if (SobolSampler.isPrimitive(polynomial, degree)) {
+					polynomials.add(polynomial);
+				}
+			}
+		}
+		assertEquals(polynomials.size(), SobolSampler.MAX_DIMENSION - 1);
+
+		for (int d = 1; d < SobolSampler.MAX_DIMENSION; d++) {
+			int[] row = SobolSampler.JOE_KUO_TABLE[d - 1];
+			assertEquals((int) polynomials.get(d - 1), (1 << row[0]) | (row[1] << 1) | 1);
+		}
+
+		// the initial direction numbers do not depend on the random number
+		// generator
+		SobolSampler first = new SobolSampler(SobolSampler.MAX_DIMENSION, new Random(0));
+		SobolSampler second = new SobolSampler(SobolSampler.MAX_DIMENSION, new Random(1));
+
+		for (int d = 1; d < SobolSampler.MAX_DIMENSION; d++) {
+			int[] row = SobolSampler.JOE_KUO_TABLE[d - 1];
+
+			for (int k = 0; k < row[0]; k++) {
+				assertEquals(row[k + 2], first.directions[d][k] >>> (SobolSampler.BITS - 1 - k));
+			}
+			assertTrue(Arrays.equals(first.directions[d], second.directions[d]));
+		}
+
+		// x^2 + x + 1 with m = 1, 3: m_3 = 2 m_2 ^ 4 m_1 ^ m_1 = 3
+		assertEquals(3L, first.directions[2][2] >>> (SobolSampler.BITS - 3));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void maxDimensionTest() {
+		new SobolSampler(SobolSampler.MAX_DIMENSION + 1, new Random(0));
+	}
+
+	@Test
+	public void nextTest() {
+		int dimension = SobolSampler.MAX_DIMENSION;
+		SobolSampler sampler = new SobolSampler(dimension, new Random(0));
+
+		assertEquals(dimension, sampler.getDimension());
+
+		// each dimension: the first 2^k points hit each interval of length
+		// 2^-k once
+		int count = 64;
+		boolean[][] selected = new boolean[dimension][count];
+
+		for (int i = 0; i < count; i++) {
+			double[] point = sampler.next();
+			assertEquals(dimension, point.length);
+
+			for (int d = 0; d < dimension; d++) {
+				assertTrue(point[d] >= 0 && point[d] < 1);
+
+				int interval = (int) (point[d] * count);
+				assertFalse(selected[d][interval]);
+				selected[d][interval] = true;
+			}
+		}
+	}
+}
@@ -0,0 +1,57 @@
+package de.uu.es.avr.solver;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opt4j.core.Objectives;
+
+import de.uu.es.avr.AvrEvaluator;
+import de.uu.es.avr.AvrUtils;
+import de.uu.es.avr.AvrWCRTProblem;
+import de.uu.es.avr.model.EventSequence;
+
+public class BranchAndBoundSolverTest {
+
+	private static AvrWCRTProblem problem;
+
+	@BeforeClass
+	public static void setup() {
+		problem = new AvrWCRTProblem("specs/testTaskSet.xml", -100.0 * Math.PI, 100.0 * Math.PI);
+	}
+
+	@Test
+	public void singleEventTest() {
+		Solution solution = new BranchAndBoundSolver(problem).solve(1);
+
+		// the largest WCET of any first event
+		assertEquals(15, solution.getSumC());
+		assertEquals(1, solution.getOmegas().length);
+	}
+
+	@Test
+	public void solveTest() {
+		BranchAndBoundSolver solver = new BranchAndBoundSolver(problem);
+		AvrEvaluator evaluator = new AvrEvaluator(problem);
+
+		for (int n = 2; n <= 8; n++) {
+			Solution solution = solver.solve(n, new ForkJoinPool(2));
+
+			// the witness is feasible and evaluated consistently
+			EventSequence eventSequence = solution.toEventSequence(problem.getTaskTable());
+			assertTrue(AvrUtils.isValid(eventSequence, problem));
+
+			Objectives objectives = evaluator.evaluate(eventSequence);
+			assertArrayEquals(new double[] { solution.getMu(), solution.getSumC() }, objectives.array(), 1e-9);
+
+			// at least the maximal WCET of the grid-based solver
+			List<Solution> front = new DynamicProgrammingSolver(problem, 20).solve(n);
+			assertTrue(solution.getSumC() >= front.get(0).getSumC());
+		}
+	}
+}
@@ -0,0 +1,73 @@
+package de.uu.es.avr.solver;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opt4j.core.Objectives;
+
+import de.uu.es.avr.AvrEvaluator;
+import de.uu.es.avr.AvrUtils;
+import de.uu.es.avr.AvrWCRTProblem;
+import de.uu.es.avr.model.EventSequence;
+
+public class DynamicProgrammingSolverTest {
+
+	private static AvrWCRTProblem problem;
+
+	@BeforeClass
+	public static void setup() {
+		problem = new AvrWCRTProblem("specs/testTaskSet.xml", -100.0 * Math.PI, 100.0 * Math.PI);
+	}
+
+	@Test
+	public void singleEventTest() {
+		List<Solution> front = new DynamicProgrammingSolver(problem, 10).solve(1);
+
+		// the largest WCET of any first event, no time
+		assertEquals(1, front.size());
+		assertEquals(15, front.get(0).getSumC());
+		assertEquals(0.0, front.get(0).getMu(), 0.0);
+	}
+
+	@Test
+	public void solveTest() {
+		DynamicProgrammingSolver solver = new DynamicProgrammingSolver(problem, 20);
+		AvrEvaluator evaluator = new AvrEvaluator(problem);
+
+		List<Solution> front = solver.solve(6, new ForkJoinPool(2));
+		assertFalse(front.isEmpty());
+
+		for (int i = 0; i < front.size(); i++) {
+			Solution solution = front.get(i);
+
+			// solutions are feasible and evaluated consistently
+			EventSequence eventSequence = solution.toEventSequence(problem.getTaskTable());
+			assertTrue(AvrUtils.isValid(eventSequence, problem));
+
+			Objectives objectives = evaluator.evaluate(eventSequence);
+			assertArrayEquals(new double[] { solution.getMu(), solution.getSumC() }, objectives.array(), 1e-9);
+
+			// solutions are non-dominated
+			for (Solution other : front) {
+				assertFalse(other.dominates(solution));
+			}
+		}
+	}
+
+	@Test
+	public void resolutionTest() {
+		List<Solution> coarse = new DynamicProgrammingSolver(problem, 5).solve(4);
+		List<Solution> fine = new DynamicProgrammingSolver(problem, 50).solve(4);
+
+		// a finer grid contains the coarse one only if its points coincide, but
+		// the maximal WCET is reached at mode boundaries in both
+		assertEquals(coarse.get(0).getSumC(), fine.get(0).getSumC());
+	}
+}